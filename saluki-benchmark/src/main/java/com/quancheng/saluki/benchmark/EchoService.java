@@ -0,0 +1,28 @@
+/*
+ * Copyright (c) 2016, Quancheng-ec.com All right reserved. This software is the confidential and
+ * proprietary information of Quancheng-ec.com ("Confidential Information"). You shall not disclose
+ * such Confidential Information and shall use it only in accordance with the terms of the license
+ * agreement you entered into with Quancheng-ec.com.
+ */
+package com.quancheng.saluki.benchmark;
+
+import java.util.concurrent.CompletableFuture;
+
+import com.quancheng.saluki.core.grpc.annotation.GrpcMethodType;
+import com.quancheng.saluki.serializer.proto.message.Person;
+
+/**
+ * 基准测试用的服务契约，请求响应复用saluki-serializer测试中的POJO
+ *
+ * @author liushiming
+ * @version EchoService.java, v 0.0.1 2026年10月18日 下午9:51:20 liushiming
+ */
+public interface EchoService {
+
+  @GrpcMethodType(requestType = Person.class, responseType = Person.class)
+  Person echo(Person person);
+
+  @GrpcMethodType(requestType = Person.class, responseType = Person.class)
+  CompletableFuture<Person> echoAsync(Person person);
+
+}
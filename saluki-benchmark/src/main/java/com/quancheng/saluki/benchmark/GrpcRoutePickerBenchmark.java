@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2016, Quancheng-ec.com All right reserved. This software is the confidential and
+ * proprietary information of Quancheng-ec.com ("Confidential Information"). You shall not disclose
+ * such Confidential Information and shall use it only in accordance with the terms of the license
+ * agreement you entered into with Quancheng-ec.com.
+ */
+package com.quancheng.saluki.benchmark;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.quancheng.saluki.core.common.Constants;
+import com.quancheng.saluki.core.common.GrpcURL;
+import com.quancheng.saluki.core.grpc.GrpcNameResolverProvider;
+import com.quancheng.saluki.core.grpc.GrpcRouteP2cLbFactory;
+import com.quancheng.saluki.core.grpc.GrpcRouteRoundRobinLbFactory;
+import com.quancheng.saluki.core.grpc.client.internal.GrpcCallOptions;
+import com.quancheng.saluki.core.grpc.router.GrpcRouterFactory;
+
+import io.grpc.Attributes;
+import io.grpc.CallOptions;
+import io.grpc.ConnectivityState;
+import io.grpc.ConnectivityStateInfo;
+import io.grpc.EquivalentAddressGroup;
+import io.grpc.LoadBalancer;
+import io.grpc.LoadBalancer.Helper;
+import io.grpc.LoadBalancer.PickResult;
+import io.grpc.LoadBalancer.PickSubchannelArgs;
+import io.grpc.LoadBalancer.Subchannel;
+import io.grpc.LoadBalancer.SubchannelPicker;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.NameResolver;
+
+/**
+ * 多线程并发选择subchannel，分别在没有路由规则和一半节点被路由规则过滤两种情况下对比各负载均衡策略
+ *
+ * @author liushiming
+ * @version GrpcRoutePickerBenchmark.java, v 0.0.1 2026年10月18日 下午9:44:27 liushiming
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(1)
+public class GrpcRoutePickerBenchmark {
+
+  private static final int PROVIDERS = 8;
+
+  @Param({Constants.LOADBALANCE_ROUNDROBIN, Constants.LOADBALANCE_P2C})
+  public String loadBalance;
+
+  @Param({"false", "true"})
+  public boolean routed;
+
+  private GrpcURL refUrl;
+
+  private SubchannelPicker picker;
+
+  private PickSubchannelArgs args;
+
+  @Setup
+  public void setup() {
+    refUrl = GrpcURL.valueOf(
+        "Grpc://10.0.0.1:0/com.quancheng.examples.service.HelloService?group=default&version=1.0.0");
+    List<EquivalentAddressGroup> servers = new ArrayList<EquivalentAddressGroup>();
+    Map<List<SocketAddress>, GrpcURL> addressMapping = new HashMap<List<SocketAddress>, GrpcURL>();
+    for (int i = 0; i < PROVIDERS; i++) {
+      // 一半节点在10.0.1.x，一半在10.0.2.x，路由规则只放行10.0.1.x
+      String host = "10.0." + (i % 2 + 1) + "." + (i + 1);
+      SocketAddress address = new InetSocketAddress(host, 12201);
+      servers.add(new EquivalentAddressGroup(address));
+      addressMapping.put(Collections.singletonList(address), GrpcURL
+          .valueOf("Grpc://" + host + ":12201/" + refUrl.getServiceInterface() + "?group=default"));
+    }
+    Attributes attributes = Attributes.newBuilder()
+        .set(GrpcNameResolverProvider.GRPC_ADDRESS_GRPCURL_MAPPING, addressMapping).build();
+
+    PickerCapturingHelper helper = new PickerCapturingHelper();
+    LoadBalancer loadBalancer = newLoadBalancerFactory().newLoadBalancer(helper);
+    loadBalancer.handleResolvedAddressGroups(servers, attributes);
+    for (Subchannel subchannel : helper.subchannels) {
+      loadBalancer.handleSubchannelState(subchannel,
+          ConnectivityStateInfo.forNonError(ConnectivityState.READY));
+    }
+    picker = helper.picker;
+
+    if (routed) {
+      GrpcRouterFactory.getInstance().cacheRoute(refUrl.getServiceKey(),
+          GrpcRouterBenchmark.CONDITION_RULE);
+    }
+    final CallOptions callOptions = GrpcCallOptions.createCallOptions(refUrl);
+    args = new PickSubchannelArgs() {
+
+      @Override
+      public CallOptions getCallOptions() {
+        return callOptions;
+      }
+
+      @Override
+      public Metadata getHeaders() {
+        return new Metadata();
+      }
+
+      @Override
+      public MethodDescriptor<?, ?> getMethodDescriptor() {
+        return null;
+      }
+    };
+  }
+
+  @TearDown
+  public void tearDown() {
+    GrpcRouterFactory.getInstance().cacheRoute(refUrl.getServiceKey(), null);
+  }
+
+  @Benchmark
+  public PickResult pickSubchannel() {
+    return picker.pickSubchannel(args);
+  }
+
+  private LoadBalancer.Factory newLoadBalancerFactory() {
+    if (Constants.LOADBALANCE_P2C.equals(loadBalance)) {
+      return GrpcRouteP2cLbFactory.getInstance();
+    }
+    return GrpcRouteRoundRobinLbFactory.getInstance();
+  }
+
+  private static final class PickerCapturingHelper extends Helper {
+
+    private final List<Subchannel> subchannels = new ArrayList<Subchannel>();
+
+    private volatile SubchannelPicker picker;
+
+    @Override
+    public Subchannel createSubchannel(final EquivalentAddressGroup addrs,
+        final Attributes attrs) {
+      Subchannel subchannel = new Subchannel() {
+
+        @Override
+        public void shutdown() {}
+
+        @Override
+        public void requestConnection() {}
+
+        @Override
+        public EquivalentAddressGroup getAddresses() {
+          return addrs;
+        }
+
+        @Override
+        public Attributes getAttributes() {
+          return attrs;
+        }
+      };
+      subchannels.add(subchannel);
+      return subchannel;
+    }
+
+    @Override
+    public ManagedChannel createOobChannel(EquivalentAddressGroup eag, String authority) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void updateBalancingState(ConnectivityState newState, SubchannelPicker newPicker) {
+      this.picker = newPicker;
+    }
+
+    @Override
+    public void runSerialized(Runnable task) {
+      task.run();
+    }
+
+    @Override
+    public NameResolver.Factory getNameResolverFactory() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public String getAuthority() {
+      return "benchmark";
+    }
+  }
+
+}
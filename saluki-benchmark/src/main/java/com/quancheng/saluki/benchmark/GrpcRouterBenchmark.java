@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2016, Quancheng-ec.com All right reserved. This software is the confidential and
+ * proprietary information of Quancheng-ec.com ("Confidential Information"). You shall not disclose
+ * such Confidential Information and shall use it only in accordance with the terms of the license
+ * agreement you entered into with Quancheng-ec.com.
+ */
+package com.quancheng.saluki.benchmark;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.quancheng.saluki.core.common.GrpcURL;
+import com.quancheng.saluki.core.grpc.router.GrpcRouter;
+import com.quancheng.saluki.core.grpc.router.internal.ConditionRouter;
+import com.quancheng.saluki.core.grpc.router.internal.ScriptRouter;
+
+/**
+ * 路由规则匹配，路由规则生效时每次选择subchannel都会对候选节点做一次匹配；create*对比每次都新建路由的开销，GrpcRouterFactory按规则缓存路由后只剩match*的开销
+ *
+ * @author liushiming
+ * @version GrpcRouterBenchmark.java, v 0.0.1 2026年10月18日 下午9:39:02 liushiming
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GrpcRouterBenchmark {
+
+  static final String CONDITION_RULE = "host = 10.0.0.* => host = 10.0.1.*";
+
+  static final String SCRIPT_RULE = "function route(refUrl, providerUrls) {"
+      + " for (var i = 0; i < providerUrls.size(); i++) {"
+      + " if (providerUrls.get(i).getHost().indexOf('10.0.1.') != 0) { return false; } }"
+      + " return true; }";
+
+  private GrpcURL refUrl;
+
+  private List<GrpcURL> providerUrls;
+
+  private GrpcRouter conditionRouter;
+
+  private GrpcRouter scriptRouter;
+
+  @Setup
+  public void setup() {
+    refUrl = GrpcURL.valueOf(
+        "Grpc://10.0.0.1:0/com.quancheng.examples.service.HelloService?group=default&version=1.0.0");
+    providerUrls = Collections.singletonList(GrpcURL.valueOf(
+        "Grpc://10.0.1.1:12201/com.quancheng.examples.service.HelloService?group=default&version=1.0.0"));
+    conditionRouter = newConditionRouter();
+    scriptRouter = newScriptRouter();
+  }
+
+  @Benchmark
+  public boolean matchCondition() {
+    return conditionRouter.match(refUrl, providerUrls);
+  }
+
+  @Benchmark
+  public boolean createAndMatchCondition() {
+    return newConditionRouter().match(refUrl, providerUrls);
+  }
+
+  @Benchmark
+  public boolean matchScript() {
+    return scriptRouter.match(refUrl, providerUrls);
+  }
+
+  @Benchmark
+  public boolean createAndMatchScript() {
+    return newScriptRouter().match(refUrl, providerUrls);
+  }
+
+  private GrpcRouter newConditionRouter() {
+    return new ConditionRouter(CONDITION_RULE);
+  }
+
+  private GrpcRouter newScriptRouter() {
+    return new ScriptRouter("javascript", SCRIPT_RULE);
+  }
+
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2016, Quancheng-ec.com All right reserved. This software is the confidential and
+ * proprietary information of Quancheng-ec.com ("Confidential Information"). You shall not disclose
+ * such Confidential Information and shall use it only in accordance with the terms of the license
+ * agreement you entered into with Quancheng-ec.com.
+ */
+package com.quancheng.saluki.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.quancheng.saluki.core.common.Constants;
+import com.quancheng.saluki.core.common.GrpcURL;
+
+/**
+ * GrpcURL的解析与参数读写，注册中心推送、路由匹配和调用参数读取都会用到
+ *
+ * @author liushiming
+ * @version GrpcURLBenchmark.java, v 0.0.1 2026年10月18日 下午9:35:46 liushiming
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GrpcURLBenchmark {
+
+  private static final String URL_STRING =
+      "Grpc://10.0.0.1:12201/com.quancheng.examples.service.HelloService?application=example"
+          + "&group=default&version=1.0.0&timeout=5000&retries=2&interface="
+          + "com.quancheng.examples.service.HelloService&methods=sayHello,sayHelloServerStream";
+
+  private GrpcURL url;
+
+  @Setup
+  public void setup() {
+    url = GrpcURL.valueOf(URL_STRING);
+  }
+
+  @Benchmark
+  public GrpcURL valueOf() {
+    return GrpcURL.valueOf(URL_STRING);
+  }
+
+  @Benchmark
+  public GrpcURL addParameter() {
+    return url.addParameter(Constants.ASYNC_KEY, "true");
+  }
+
+  @Benchmark
+  public String getParameter() {
+    return url.getParameter(Constants.GROUP_KEY);
+  }
+
+  @Benchmark
+  public int getIntParameter() {
+    return url.getParameter(Constants.TIMEOUT, 1000);
+  }
+
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2016, Quancheng-ec.com All right reserved. This software is the confidential and
+ * proprietary information of Quancheng-ec.com ("Confidential Information"). You shall not disclose
+ * such Confidential Information and shall use it only in accordance with the terms of the license
+ * agreement you entered into with Quancheng-ec.com.
+ */
+package com.quancheng.saluki.benchmark;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.protobuf.Message;
+import com.quancheng.saluki.serializer.ProtobufSerializer;
+import com.quancheng.saluki.serializer.exception.ProtobufException;
+import com.quancheng.saluki.serializer.proto.message.Address;
+import com.quancheng.saluki.serializer.proto.message.Person;
+import com.quancheng.saluki.serializer.proto.message.PhoneType;
+
+/**
+ * POJO与protobuf之间的转换，每次rpc调用请求和响应各走一次
+ *
+ * @author liushiming
+ * @version ProtobufSerializerBenchmark.java, v 0.0.1 2026年10月18日 下午9:32:10 liushiming
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProtobufSerializerBenchmark {
+
+  private ProtobufSerializer serializer;
+
+  private Person flatPerson;
+
+  private Person nestedPerson;
+
+  private Message flatProtobuf;
+
+  private Message nestedProtobuf;
+
+  @Setup
+  public void setup() throws ProtobufException {
+    serializer = new ProtobufSerializer();
+    flatPerson = new Person();
+    flatPerson.setName("Erick");
+    flatPerson.setAge(22);
+
+    Address address = new Address();
+    address.setStreet("1 Main St");
+    address.setCity("Foo Ville");
+    address.setStateOrProvince("Bar");
+    address.setPostalCode("J0J 1J1");
+    address.setCountry("Canada");
+    address.setIsCanada(true);
+    address.setPhoneType(PhoneType.HOME);
+    Map<String, String> mapTest = new HashMap<String, String>();
+    for (int i = 0; i < 8; i++) {
+      mapTest.put("key" + i, "value" + i);
+    }
+    address.setMapTest(mapTest);
+    nestedPerson = new Person();
+    nestedPerson.setName("Erick");
+    nestedPerson.setAge(22);
+    nestedPerson.setAddress(address);
+
+    flatProtobuf = serializer.toProtobuf(flatPerson);
+    nestedProtobuf = serializer.toProtobuf(nestedPerson);
+  }
+
+  @Benchmark
+  public Message toProtobufFlat() throws ProtobufException {
+    return serializer.toProtobuf(flatPerson);
+  }
+
+  @Benchmark
+  public Message toProtobufNested() throws ProtobufException {
+    return serializer.toProtobuf(nestedPerson);
+  }
+
+  @Benchmark
+  public Object fromProtobufFlat() throws ProtobufException {
+    return serializer.fromProtobuf(flatProtobuf, Person.class);
+  }
+
+  @Benchmark
+  public Object fromProtobufNested() throws ProtobufException {
+    return serializer.fromProtobuf(nestedProtobuf, Person.class);
+  }
+
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2016, Quancheng-ec.com All right reserved. This software is the confidential and
+ * proprietary information of Quancheng-ec.com ("Confidential Information"). You shall not disclose
+ * such Confidential Information and shall use it only in accordance with the terms of the license
+ * agreement you entered into with Quancheng-ec.com.
+ */
+package com.quancheng.saluki.benchmark;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.quancheng.saluki.core.grpc.server.internal.MethodDispatchers;
+import com.quancheng.saluki.serializer.proto.message.Person;
+
+/**
+ * 服务端调用业务方法：reflect为原先的Method.invoke，dispatcher为导出时生成的调用器，direct为直接调用接口方法作为下限
+ *
+ * @author liushiming
+ * @version ServerDispatchBenchmark.java, v 0.0.1 2026年10月18日 下午11:36:20 liushiming
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ServerDispatchBenchmark {
+
+  private EchoService service;
+
+  private Method method;
+
+  private MethodDispatchers.Dispatcher dispatcher;
+
+  private Person person;
+
+  @Setup
+  public void setup() throws Exception {
+    service = new EchoService() {
+
+      @Override
+      public Person echo(Person person) {
+        return person;
+      }
+
+      @Override
+      public CompletableFuture<Person> echoAsync(Person person) {
+        return CompletableFuture.completedFuture(person);
+      }
+    };
+    method = EchoService.class.getMethod("echo", Person.class);
+    dispatcher = MethodDispatchers.newDispatcher(service, method);
+    person = new Person();
+    person.setName("Erick");
+    person.setAge(22);
+  }
+
+  @Benchmark
+  public Object reflect() throws Exception {
+    return method.invoke(service, new Object[] {person});
+  }
+
+  @Benchmark
+  public Object dispatcher() throws Throwable {
+    return dispatcher.invoke(person);
+  }
+
+  @Benchmark
+  public Object direct() {
+    return service.echo(person);
+  }
+
+}
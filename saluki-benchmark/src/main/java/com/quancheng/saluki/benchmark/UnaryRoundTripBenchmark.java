@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2016, Quancheng-ec.com All right reserved. This software is the confidential and
+ * proprietary information of Quancheng-ec.com ("Confidential Information"). You shall not disclose
+ * such Confidential Information and shall use it only in accordance with the terms of the license
+ * agreement you entered into with Quancheng-ec.com.
+ */
+package com.quancheng.saluki.benchmark;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.quancheng.saluki.core.common.Constants;
+import com.quancheng.saluki.core.common.GrpcURL;
+import com.quancheng.saluki.core.grpc.client.GrpcProtocolClient;
+import com.quancheng.saluki.core.grpc.client.internal.DefaultProxyClient;
+import com.quancheng.saluki.core.grpc.server.internal.DefaultProxyExporter;
+import com.quancheng.saluki.serializer.proto.message.Person;
+
+import io.grpc.Channel;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.ServerServiceDefinition;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+
+/**
+ * 基于grpc in-process传输的完整unary调用，客户端经过AbstractClientInvocation，服务端经过ServerInvocation，不含网络开销
+ *
+ * @author liushiming
+ * @version UnaryRoundTripBenchmark.java, v 0.0.1 2026年10月18日 下午9:55:03 liushiming
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UnaryRoundTripBenchmark {
+
+  private static final String SERVER_NAME = "saluki-benchmark";
+
+  @Param({Constants.ISOLATION_SEMAPHORE, Constants.ISOLATION_HYSTRIX})
+  public String isolation;
+
+  private Server server;
+
+  private ManagedChannel channel;
+
+  private EchoService blockingClient;
+
+  private EchoService futureClient;
+
+  private Person person;
+
+  @Setup
+  public void setup() throws Exception {
+    GrpcURL url = GrpcURL.valueOf("Grpc://127.0.0.1:12201/" + EchoService.class.getName() + "?"
+        + Constants.ISOLATION_KEY + "=" + isolation);
+    ServerServiceDefinition definition =
+        new DefaultProxyExporter(url).export(EchoService.class, new EchoService() {
+
+          @Override
+          public Person echo(Person person) {
+            return person;
+          }
+
+          @Override
+          public CompletableFuture<Person> echoAsync(Person person) {
+            return CompletableFuture.completedFuture(person);
+          }
+        });
+    server = InProcessServerBuilder.forName(SERVER_NAME).addService(definition).directExecutor()
+        .build().start();
+    channel = InProcessChannelBuilder.forName(SERVER_NAME).directExecutor().build();
+    GrpcProtocolClient.ChannelCall channelCall = new GrpcProtocolClient.ChannelCall() {
+
+      @Override
+      public Channel getChannel(GrpcURL refUrl) {
+        return channel;
+      }
+    };
+    blockingClient = new DefaultProxyClient<EchoService>(url).getGrpcClient(channelCall,
+        Constants.RPCTYPE_BLOCKING, 5000);
+    futureClient = new DefaultProxyClient<EchoService>(url).getGrpcClient(channelCall,
+        Constants.RPCTYPE_ASYNC, 5000);
+    person = new Person();
+    person.setName("Erick");
+    person.setAge(22);
+  }
+
+  @TearDown
+  public void tearDown() throws InterruptedException {
+    channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+  }
+
+  @Benchmark
+  public Person blockingUnary() {
+    return blockingClient.echo(person);
+  }
+
+  @Benchmark
+  public Person futureUnary() {
+    return futureClient.echo(person);
+  }
+
+  @Benchmark
+  public Person completableFutureUnary() {
+    return futureClient.echoAsync(person).join();
+  }
+
+}
@@ -51,4 +51,54 @@ public class Constants {
 
   public static final String VALIDATOR_GROUPS = "validator.groups";
 
+  public static final String ISOLATION_KEY = "isolation";
+  public static final String ISOLATION_SEMAPHORE = "semaphore";
+  public static final String ISOLATION_HYSTRIX = "hystrix";
+  public static final String MAX_CONCURRENT_KEY = "maxconcurrent";
+
+  public static final String LOADBALANCE_KEY = "loadbalance";
+  public static final String LOADBALANCE_ROUNDROBIN = "roundrobin";
+  public static final String LOADBALANCE_P2C = "p2c";
+  public static final String LOADBALANCE_CONSISTENTHASH = "consistenthash";
+  public static final String HASH_KEY = "hashkey";
+  public static final String DEFAULT_HASH_KEY = "hashKey";
+
+  public static final String WEIGHT_KEY = "weight";
+  public static final int DEFAULT_WEIGHT = 100;
+  public static final String WARMUP_KEY = "warmup";
+  public static final int DEFAULT_WARMUP = 60 * 1000;
+  public static final String TIMESTAMP_KEY = "timestamp";
+
+  public static final String ZONE_KEY = "zone";
+  public static final String ZONE_THRESHOLD_KEY = "zone.threshold";
+  public static final double DEFAULT_ZONE_THRESHOLD = 0.5;
+
+  public static final String HEDGING_METHODS_KEY = "hedgingmethods";
+  public static final String HEDGING_DELAY_KEY = "hedgingdelay";
+
+  public static final String CONNECTIONS_KEY = "connections";
+  public static final int DEFAULT_CONNECTIONS = 1;
+
+  public static final String EXECUTOR_KEY = "executor";
+  public static final String EXECUTOR_SHARED = "shared";
+  public static final String EXECUTOR_DEDICATED = "dedicated";
+  public static final String EXECUTOR_VIRTUAL = "virtual";
+  public static final String EXECUTOR_DIRECT = "direct";
+  public static final String EXECUTOR_THREADS_KEY = "threads";
+  public static final String EXECUTOR_QUEUES_KEY = "queues";
+  public static final String EXECUTOR_METHODS_KEY = "executormethods";
+  public static final int DEFAULT_EXECUTOR_THREADS = 200;
+  public static final int DEFAULT_EXECUTOR_QUEUES = 1024;
+
+  public static final String LIMITER_KEY = "limiter";
+  public static final String LIMITER_VEGAS = "vegas";
+  public static final String LIMITER_MAX_KEY = "limiter.max";
+  public static final int DEFAULT_LIMITER_MAX = 1000;
+
+  public static final String PRIORITY_KEY = "priority";
+  public static final String PRIORITY_CRITICAL = "critical";
+  public static final String PRIORITY_NORMAL = "normal";
+  public static final String PRIORITY_LOW = "low";
+  public static final String TENANT_KEY = "tenant";
+
 }
@@ -6,6 +6,8 @@ import java.util.Set;
 
 import com.google.common.collect.Sets;
 
+import io.grpc.Deadline;
+
 @SuppressWarnings("rawtypes")
 public class RpcContext {
 
@@ -20,6 +22,7 @@ public class RpcContext {
   private final Map<String, String> attachments = new HashMap<String, String>();
   private final Map<String, Object> values = new HashMap<String, Object>();
   private final Set<Class> validatorGroup = Sets.newHashSet();
+  private Deadline deadline;
 
 
   public static RpcContext getContext() {
@@ -77,9 +80,22 @@ public class RpcContext {
     return this;
   }
 
+  /**
+   * provider处理请求时为上游调用剩余的deadline，在其中发起的调用不会超过这个deadline；也可以在发起调用前设置
+   */
+  public Deadline getDeadline() {
+    return deadline;
+  }
+
+  public RpcContext setDeadline(Deadline deadline) {
+    this.deadline = deadline;
+    return this;
+  }
+
   public void clear() {
     this.attachments.clear();
     this.values.clear();
+    this.deadline = null;
   }
 
   public Map<String, Object> get() {
@@ -44,6 +44,8 @@ public class RpcBaseConfig implements Serializable {
 
     private Integer           httpPort;
 
+    private String            zone;
+
     public String getApplication() {
         return application;
     }
@@ -110,6 +112,21 @@ public class RpcBaseConfig implements Serializable {
         this.httpPort = httpPort;
     }
 
+    public String getZone() {
+        return zone;
+    }
+
+    public void setZone(String zone) {
+        this.zone = zone;
+    }
+
+    protected void addZone(Map<String, String> params) {
+        String zone = getZone();
+        if (StringUtils.isNotBlank(zone)) {
+            params.put(Constants.ZONE_KEY, zone);
+        }
+    }
+
     protected void addHttpPort(Map<String, String> params) {
         Integer httpport = getHttpPort();
         if (httpport != null && httpport != 0) {
@@ -136,6 +153,7 @@ public class RpcBaseConfig implements Serializable {
         result = prime * result + ((registryAddress == null) ? 0 : registryAddress.hashCode());
         result = prime * result + ((registryPort == null) ? 0 : registryPort.hashCode());
         result = prime * result + ((registryRpcPort == null) ? 0 : registryRpcPort.hashCode());
+        result = prime * result + ((zone == null) ? 0 : zone.hashCode());
         return result;
     }
 
@@ -169,6 +187,9 @@ public class RpcBaseConfig implements Serializable {
         if (registryRpcPort == null) {
             if (other.registryRpcPort != null) return false;
         } else if (!registryRpcPort.equals(other.registryRpcPort)) return false;
+        if (zone == null) {
+            if (other.zone != null) return false;
+        } else if (!zone.equals(other.zone)) return false;
         return true;
     }
 
@@ -176,7 +197,8 @@ public class RpcBaseConfig implements Serializable {
     public String toString() {
         return "RpcBaseConfig [application=" + application + ", registryAddress=" + registryAddress + ", registryPort="
                + registryPort + ", monitorinterval=" + monitorinterval + ", host=" + host + ", realityRpcPort="
-               + realityRpcPort + ", registryRpcPort=" + registryRpcPort + ", httpPort=" + httpPort + "]";
+               + realityRpcPort + ", registryRpcPort=" + registryRpcPort + ", httpPort=" + httpPort + ", zone=" + zone
+               + "]";
     }
 
     public GrpcEngine getGrpcEngine() {
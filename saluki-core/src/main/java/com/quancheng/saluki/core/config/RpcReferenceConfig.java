@@ -52,8 +52,25 @@ public class RpcReferenceConfig extends RpcBaseConfig {
 
   private Integer reties;
 
+  private Set<String> hedgingMethods;
+
+  private Integer hedgingDelay;
+
   private Set<Class> validatorGroups;
 
+  private String isolation;
+
+  private Integer maxConcurrent;
+
+  private String loadBalance;
+
+  private String hashKey;
+
+  private Double zoneThreshold;
+
+  private Integer connections;
+
+  private String priority;
 
   private transient Object ref;
 
@@ -165,6 +182,78 @@ public class RpcReferenceConfig extends RpcBaseConfig {
     this.validatorGroups = validatorGroups;
   }
 
+  public String getIsolation() {
+    return isolation;
+  }
+
+  public void setIsolation(String isolation) {
+    this.isolation = isolation;
+  }
+
+  public Integer getMaxConcurrent() {
+    return maxConcurrent;
+  }
+
+  public void setMaxConcurrent(int maxConcurrent) {
+    this.maxConcurrent = maxConcurrent;
+  }
+
+  public String getLoadBalance() {
+    return loadBalance;
+  }
+
+  public void setLoadBalance(String loadBalance) {
+    this.loadBalance = loadBalance;
+  }
+
+  public String getHashKey() {
+    return hashKey;
+  }
+
+  public void setHashKey(String hashKey) {
+    this.hashKey = hashKey;
+  }
+
+  public Set<String> getHedgingMethods() {
+    return hedgingMethods;
+  }
+
+  public void setHedgingMethods(Set<String> hedgingMethods) {
+    this.hedgingMethods = hedgingMethods;
+  }
+
+  public Integer getHedgingDelay() {
+    return hedgingDelay;
+  }
+
+  public void setHedgingDelay(Integer hedgingDelay) {
+    this.hedgingDelay = hedgingDelay;
+  }
+
+  public Double getZoneThreshold() {
+    return zoneThreshold;
+  }
+
+  public void setZoneThreshold(Double zoneThreshold) {
+    this.zoneThreshold = zoneThreshold;
+  }
+
+  public Integer getConnections() {
+    return connections;
+  }
+
+  public void setConnections(Integer connections) {
+    this.connections = connections;
+  }
+
+  public String getPriority() {
+    return priority;
+  }
+
+  public void setPriority(String priority) {
+    this.priority = priority;
+  }
+
   public synchronized Object getProxyObj() {
     if (ref == null) {
       try {
@@ -186,12 +275,18 @@ public class RpcReferenceConfig extends RpcBaseConfig {
         this.addRetryMethods(params);
         this.addFallBackMethods(params);
         this.addReties(params);
+        this.addHedging(params);
         this.addInterval(params);
         this.addServiceClass(params);
         this.addAsync(params);
         this.addMonitorInterval(params);
         this.addHttpPort(params);
         this.addValidatorGroups(params);
+        this.addIsolation(params);
+        this.addLoadBalance(params);
+        this.addZone(params);
+        this.addConnections(params);
+        this.addPriority(params);
         GrpcURL refUrl = new GrpcURL(Constants.REMOTE_PROTOCOL, super.getHost(),
             super.getHttpPort(), serviceName, params);
         ref = super.getGrpcEngine().getClient(refUrl);
@@ -216,6 +311,51 @@ public class RpcReferenceConfig extends RpcBaseConfig {
     }
   }
 
+  private void addIsolation(Map<String, String> params) {
+    String isolation = getIsolation();
+    if (StringUtils.isNotBlank(isolation)) {
+      params.put(Constants.ISOLATION_KEY, isolation);
+    }
+    Integer maxConcurrent = getMaxConcurrent();
+    if (maxConcurrent != null && maxConcurrent != 0) {
+      params.put(Constants.MAX_CONCURRENT_KEY, maxConcurrent.toString());
+    }
+  }
+
+  private void addLoadBalance(Map<String, String> params) {
+    String loadBalance = getLoadBalance();
+    if (StringUtils.isNotBlank(loadBalance)) {
+      params.put(Constants.LOADBALANCE_KEY, loadBalance);
+    }
+    String hashKey = getHashKey();
+    if (StringUtils.isNotBlank(hashKey)) {
+      params.put(Constants.HASH_KEY, hashKey);
+    }
+  }
+
+  private void addPriority(Map<String, String> params) {
+    String priority = getPriority();
+    if (StringUtils.isNotBlank(priority)) {
+      params.put(Constants.PRIORITY_KEY, priority);
+    }
+  }
+
+  @Override
+  protected void addZone(Map<String, String> params) {
+    super.addZone(params);
+    Double zoneThreshold = getZoneThreshold();
+    if (zoneThreshold != null) {
+      params.put(Constants.ZONE_THRESHOLD_KEY, zoneThreshold.toString());
+    }
+  }
+
+  private void addConnections(Map<String, String> params) {
+    Integer connections = getConnections();
+    if (connections != null && connections > 1) {
+      params.put(Constants.CONNECTIONS_KEY, connections.toString());
+    }
+  }
+
   private void addAsync(Map<String, String> params) {
     if (this.isAsync()) {
       params.put(Constants.ASYNC_KEY, String.valueOf(Constants.RPCTYPE_ASYNC));
@@ -263,6 +403,19 @@ public class RpcReferenceConfig extends RpcBaseConfig {
     params.put(Constants.RETRY_METHODS_KEY, StringUtils.join(retryMethods, ","));
   }
 
+  private void addHedging(Map<String, String> params) {
+    Set<String> hedgingMethods = getHedgingMethods();
+    if (CollectionUtils.isEmpty(hedgingMethods)) {
+      return;
+    }
+    validateMethods(hedgingMethods);
+    params.put(Constants.HEDGING_METHODS_KEY, StringUtils.join(hedgingMethods, ","));
+    Integer hedgingDelay = getHedgingDelay();
+    if (hedgingDelay != null && hedgingDelay > 0) {
+      params.put(Constants.HEDGING_DELAY_KEY, hedgingDelay.toString());
+    }
+  }
+
   private void addFallBackMethods(Map<String, String> params) {
     Set<String> fallbackMethods = getFallbackMethods();
     validateMethods(fallbackMethods);
@@ -27,6 +27,14 @@ public class RpcServiceConfig extends RpcBaseConfig {
 
   private final Set<RpcServiceSingleConfig<Object>> singleServiceConfigs = Sets.newHashSet();
 
+  private Integer weight;
+
+  private Integer warmup;
+
+  private String limiter;
+
+  private Integer limiterMax;
+
   private transient io.grpc.Server internalServer;
 
   public void destroy() {
@@ -41,16 +49,67 @@ public class RpcServiceConfig extends RpcBaseConfig {
 
   public void addServiceDefinition(String serviceName, String group, String version,
       Object instance) {
+    addServiceDefinition(serviceName, group, version, instance, null, null, null, null);
+  }
+
+  /**
+   * @param executor 业务线程池模型：shared、dedicated、virtual、direct，为空时使用共享线程池
+   * @param executorMethods 各自独占一个线程池的方法
+   */
+  public void addServiceDefinition(String serviceName, String group, String version,
+      Object instance, String executor, Integer threads, Integer queues,
+      Set<String> executorMethods) {
     RpcServiceSingleConfig<Object> singleServiceConfig = new RpcServiceSingleConfig<Object>();
     singleServiceConfig.setGroup(group);
     singleServiceConfig.setVersion(version);
     singleServiceConfig.setServiceName(serviceName);
     singleServiceConfig.setRef(instance);
+    singleServiceConfig.setExecutor(executor);
+    singleServiceConfig.setThreads(threads);
+    singleServiceConfig.setQueues(queues);
+    singleServiceConfig.setExecutorMethods(executorMethods);
     singleServiceConfigs.add(singleServiceConfig);
   }
 
+  public Integer getWeight() {
+    return weight;
+  }
+
+  public void setWeight(Integer weight) {
+    this.weight = weight;
+  }
+
+  public Integer getWarmup() {
+    return warmup;
+  }
+
+  public void setWarmup(Integer warmup) {
+    this.warmup = warmup;
+  }
+
+  public String getLimiter() {
+    return limiter;
+  }
+
+  /**
+   * @param limiter 服务端自适应并发限制算法，目前只有vegas，为空时不限制
+   */
+  public void setLimiter(String limiter) {
+    this.limiter = limiter;
+  }
+
+  public Integer getLimiterMax() {
+    return limiterMax;
+  }
+
+  public void setLimiterMax(Integer limiterMax) {
+    this.limiterMax = limiterMax;
+  }
+
   public synchronized void export() {
     Map<GrpcURL, Object> providerUrls = Maps.newHashMap();
+    // 同一个进程的所有服务使用同一个启动时间，客户端按启动时间逐步放大流量
+    String timestamp = String.valueOf(System.currentTimeMillis());
     for (RpcServiceSingleConfig<Object> singleServiceConfig : singleServiceConfigs) {
       String serviceName = singleServiceConfig.getServiceName();
       Object serviceRef = singleServiceConfig.getRef();
@@ -61,6 +120,11 @@ public class RpcServiceConfig extends RpcBaseConfig {
       this.addInterval(params);
       this.addRegistryRpcPort(params);
       this.addHttpPort(params);
+      this.addWeight(params);
+      this.addZone(params);
+      this.addExecutor(singleServiceConfig, params);
+      this.addLimiter(params);
+      params.put(Constants.TIMESTAMP_KEY, timestamp);
       GrpcURL providerUrl = new GrpcURL(Constants.REMOTE_PROTOCOL, super.getHost(),
           super.getRealityRpcPort(), serviceName, params);
       providerUrls.put(providerUrl, serviceRef);
@@ -123,6 +187,48 @@ public class RpcServiceConfig extends RpcBaseConfig {
     }
   }
 
+  private void addWeight(Map<String, String> params) {
+    Integer weight = getWeight();
+    if (weight != null && weight > 0) {
+      params.put(Constants.WEIGHT_KEY, weight.toString());
+    }
+    Integer warmup = getWarmup();
+    if (warmup != null && warmup >= 0) {
+      params.put(Constants.WARMUP_KEY, warmup.toString());
+    }
+  }
+
+  private void addExecutor(RpcServiceSingleConfig<Object> singleConfig,
+      Map<String, String> params) {
+    String executor = singleConfig.getExecutor();
+    if (StringUtils.isNotBlank(executor)) {
+      params.put(Constants.EXECUTOR_KEY, executor);
+    }
+    Integer threads = singleConfig.getThreads();
+    if (threads != null && threads > 0) {
+      params.put(Constants.EXECUTOR_THREADS_KEY, threads.toString());
+    }
+    Integer queues = singleConfig.getQueues();
+    if (queues != null && queues >= 0) {
+      params.put(Constants.EXECUTOR_QUEUES_KEY, queues.toString());
+    }
+    Set<String> executorMethods = singleConfig.getExecutorMethods();
+    if (executorMethods != null && !executorMethods.isEmpty()) {
+      params.put(Constants.EXECUTOR_METHODS_KEY, StringUtils.join(executorMethods, ","));
+    }
+  }
+
+  private void addLimiter(Map<String, String> params) {
+    String limiter = getLimiter();
+    if (StringUtils.isNotBlank(limiter)) {
+      params.put(Constants.LIMITER_KEY, limiter);
+    }
+    Integer limiterMax = getLimiterMax();
+    if (limiterMax != null && limiterMax > 0) {
+      params.put(Constants.LIMITER_MAX_KEY, limiterMax.toString());
+    }
+  }
+
   private void addRegistryRpcPort(Map<String, String> params) {
     Integer registryRpcPort = super.getRegistryRpcPort();
     if (registryRpcPort != 0) {
@@ -8,6 +8,7 @@
 package com.quancheng.saluki.core.config;
 
 import java.io.Serializable;
+import java.util.Set;
 
 /**
  * @author shimingliu 2016年12月14日 下午2:05:00
@@ -25,6 +26,14 @@ public class RpcServiceSingleConfig<T> implements Serializable {
 
     private T                 ref;
 
+    private String            executor;
+
+    private Integer           threads;
+
+    private Integer           queues;
+
+    private Set<String>       executorMethods;
+
     public String getServiceName() {
         return serviceName;
     }
@@ -57,4 +66,36 @@ public class RpcServiceSingleConfig<T> implements Serializable {
         this.version = version;
     }
 
+    public String getExecutor() {
+        return executor;
+    }
+
+    public void setExecutor(String executor) {
+        this.executor = executor;
+    }
+
+    public Integer getThreads() {
+        return threads;
+    }
+
+    public void setThreads(Integer threads) {
+        this.threads = threads;
+    }
+
+    public Integer getQueues() {
+        return queues;
+    }
+
+    public void setQueues(Integer queues) {
+        this.queues = queues;
+    }
+
+    public Set<String> getExecutorMethods() {
+        return executorMethods;
+    }
+
+    public void setExecutorMethods(Set<String> executorMethods) {
+        this.executorMethods = executorMethods;
+    }
+
 }
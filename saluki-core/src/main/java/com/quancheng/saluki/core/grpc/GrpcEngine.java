@@ -6,31 +6,24 @@
  */
 package com.quancheng.saluki.core.grpc;
 
-import java.io.InputStream;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.WeakHashMap;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 
-import javax.net.ssl.SSLException;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.quancheng.saluki.core.common.Constants;
 import com.quancheng.saluki.core.common.GrpcURL;
-import com.quancheng.saluki.core.common.NamedThreadFactory;
 import com.quancheng.saluki.core.grpc.client.GrpcClientStrategy;
 import com.quancheng.saluki.core.grpc.client.GrpcProtocolClient;
-import com.quancheng.saluki.core.grpc.exception.RpcFrameworkException;
 import com.quancheng.saluki.core.grpc.interceptor.HeaderClientInterceptor;
 import com.quancheng.saluki.core.grpc.interceptor.HeaderServerInterceptor;
+import com.quancheng.saluki.core.grpc.server.GrpcServerExecutors;
 import com.quancheng.saluki.core.grpc.server.GrpcServerStrategy;
-import com.quancheng.saluki.core.grpc.util.SslUtil;
 import com.quancheng.saluki.core.registry.Registry;
 import com.quancheng.saluki.core.registry.RegistryProvider;
 
@@ -43,14 +36,10 @@ import io.grpc.ServerInterceptor;
 import io.grpc.ServerInterceptors;
 import io.grpc.ServerServiceDefinition;
 import io.grpc.ServerTransportFilter;
-import io.grpc.netty.GrpcSslContexts;
 import io.grpc.netty.NegotiationType;
 import io.grpc.netty.NettyChannelBuilder;
 import io.grpc.netty.NettyServerBuilder;
 import io.grpc.util.TransmitStatusRuntimeExceptionInterceptor;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.handler.ssl.SslContext;
-import io.netty.handler.ssl.SslContextBuilder;
 
 /**
  * @author shimingliu 2016年12月14日 下午10:43:19
@@ -68,6 +57,7 @@ public final class GrpcEngine {
 
   private final Registry registry;
 
+  private GrpcSharedTransportFactory sharedTransportFactory;
 
   public GrpcEngine(GrpcURL registryUrl) {
     this.registryUrl = registryUrl;
@@ -94,15 +84,12 @@ public final class GrpcEngine {
       }
 
       private Channel create(GrpcURL subscribeUrl) {
-        Channel channel = NettyChannelBuilder.forTarget(registryUrl.toJavaURI().toString())//
+        Channel channel = GrpcSharedChannelBuilder
+            .forTarget(registryUrl.toJavaURI().toString(),
+                getSharedTransportFactory().withConnections(subscribeUrl
+                    .getParameter(Constants.CONNECTIONS_KEY, Constants.DEFAULT_CONNECTIONS)))//
             .nameResolverFactory(new GrpcNameResolverProvider(subscribeUrl))//
-            .loadBalancerFactory(buildLoadBalanceFactory())//
-            .sslContext(buildClientSslContext())//
-            .usePlaintext(false)//
-            .negotiationType(NegotiationType.TLS)//
-            .eventLoopGroup(createWorkEventLoopGroup())//
-            .keepAliveTime(1, TimeUnit.DAYS)//
-            .maxHeaderListSize(4 * 1024 * 1024)//
+            .loadBalancerFactory(buildLoadBalanceFactory(subscribeUrl))//
             .directExecutor()//
             .build();//
         return ClientInterceptors.intercept(channel,
@@ -117,12 +104,13 @@ public final class GrpcEngine {
 
 
   public io.grpc.Server getServer(Map<GrpcURL, Object> providerUrls, int rpcPort) throws Exception {
-
+    GrpcTransportResources transport = GrpcTransportResources.getInstance();
     final NettyServerBuilder remoteServer = NettyServerBuilder.forPort(rpcPort)//
-        .sslContext(buildServerSslContext())//
+        .sslContext(GrpcTlsResources.getInstance().getServerSslContext())//
         .keepAliveTime(1, TimeUnit.DAYS)//
-        .bossEventLoopGroup(createBossEventLoopGroup())//
-        .workerEventLoopGroup(createWorkEventLoopGroup())//
+        .bossEventLoopGroup(transport.getBossGroup())//
+        .workerEventLoopGroup(transport.getWorkerGroup())//
+        .channelType(transport.getServerChannelType())//
         .maxHeaderListSize(4 * 1024 * 1024)//
         // This is a performance optimization that avoids the synchronization and queuing overhead
         // that comes with SerializingExecutor.
@@ -149,6 +137,11 @@ public final class GrpcEngine {
       GrpcServerStrategy strategy = new GrpcServerStrategy(providerUrl, protocolImpl);
       ServerServiceDefinition serviceDefinition =
           ServerInterceptors.intercept(strategy.getServerDefintion(), interceptors);
+      // 业务线程池放在最外层，内层拦截器与业务方法都在业务线程上执行
+      ServerInterceptor executorInterceptor = GrpcServerExecutors.newInterceptor(providerUrl);
+      if (executorInterceptor != null) {
+        serviceDefinition = ServerInterceptors.intercept(serviceDefinition, executorInterceptor);
+      }
       remoteServer.addService(serviceDefinition);
       int registryRpcPort = providerUrl.getParameter(Constants.REGISTRY_RPC_PORT_KEY, rpcPort);
       providerUrl = providerUrl.setPort(registryRpcPort);
@@ -159,40 +152,43 @@ public final class GrpcEngine {
 
   }
 
-  private SslContext buildClientSslContext() {
-    try {
-      InputStream certs = SslUtil.loadInputStreamCert("server.pem");
-      return GrpcSslContexts
-          .configure(SslContextBuilder.forClient()//
-              .trustManager(certs))//
-          .build();
-    } catch (SSLException e) {
-      throw new RpcFrameworkException(e);
-    }
-  }
-
-  private LoadBalancer.Factory buildLoadBalanceFactory() {
-    return GrpcRouteRoundRobinLbFactory.getInstance();
+  /**
+   * 进程内客户端到所有provider的物理连接数
+   */
+  public static int getClientConnectionCount() {
+    return GrpcSharedTransportFactory.getConnectionCount();
   }
 
-  private SslContext buildServerSslContext() {
-    try {
-      InputStream certs = SslUtil.loadInputStreamCert("server.pem");
-      InputStream keys = SslUtil.loadInputStreamCert("server_pkcs8.key");
-      return GrpcSslContexts.configure(SslContextBuilder.forServer(certs, keys)).build();
-    } catch (SSLException e) {
-      throw new RpcFrameworkException(e);
+  /**
+   * 所有服务引用共用同一个transport工厂，同一个provider地址的连接按需建立、所有服务引用共用
+   */
+  private synchronized GrpcSharedTransportFactory getSharedTransportFactory() {
+    if (sharedTransportFactory == null) {
+      GrpcTransportResources transport = GrpcTransportResources.getInstance();
+      NettyChannelBuilder transportBuilder =
+          NettyChannelBuilder.forTarget(registryUrl.toJavaURI().toString())//
+              .sslContext(GrpcTlsResources.getInstance().getClientSslContext())//
+              .usePlaintext(false)//
+              .negotiationType(NegotiationType.TLS)//
+              .eventLoopGroup(transport.getWorkerGroup())//
+              .channelType(transport.getChannelType())//
+              .keepAliveTime(1, TimeUnit.DAYS)//
+              .maxHeaderListSize(4 * 1024 * 1024);
+      sharedTransportFactory = new GrpcSharedTransportFactory(transportBuilder);
     }
+    return sharedTransportFactory;
   }
 
-  private NioEventLoopGroup createBossEventLoopGroup() {
-    ThreadFactory threadFactory = new NamedThreadFactory("grpc-default-boss-ELG", true);
-    return new NioEventLoopGroup(1, Executors.newCachedThreadPool(threadFactory));
-  }
-
-  private NioEventLoopGroup createWorkEventLoopGroup() {
-    ThreadFactory threadFactory = new NamedThreadFactory("grpc-default-worker-ELG", true);
-    return new NioEventLoopGroup(0, Executors.newCachedThreadPool(threadFactory));
+  private LoadBalancer.Factory buildLoadBalanceFactory(GrpcURL subscribeUrl) {
+    String loadBalance =
+        subscribeUrl.getParameter(Constants.LOADBALANCE_KEY, Constants.LOADBALANCE_ROUNDROBIN);
+    if (Constants.LOADBALANCE_P2C.equalsIgnoreCase(loadBalance)) {
+      return GrpcRouteP2cLbFactory.getInstance();
+    }
+    if (Constants.LOADBALANCE_CONSISTENTHASH.equalsIgnoreCase(loadBalance)) {
+      return GrpcRouteConsistentHashLbFactory.getInstance();
+    }
+    return GrpcRouteRoundRobinLbFactory.getInstance();
   }
 
 }
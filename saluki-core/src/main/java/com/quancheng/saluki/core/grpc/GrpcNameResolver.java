@@ -21,14 +21,18 @@ import java.net.UnknownHostException;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
+import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import com.google.common.net.InetAddresses;
+import com.quancheng.saluki.core.common.Constants;
 import com.quancheng.saluki.core.common.GrpcURL;
 import com.quancheng.saluki.core.grpc.router.GrpcRouterFactory;
 import com.quancheng.saluki.core.registry.NotifyListener;
@@ -129,6 +133,8 @@ public class GrpcNameResolver extends NameResolver {
       List<EquivalentAddressGroup> servers = Lists.newArrayList();
       List<SocketAddress> addresses = Lists.newArrayList();
       Map<List<SocketAddress>, GrpcURL> addressUrlMapping = Maps.newHashMap();
+      String zone = subscribeUrl.getParameter(Constants.ZONE_KEY);
+      Set<SocketAddress> localZoneAddresses = StringUtils.isBlank(zone) ? null : Sets.newHashSet();
       for (GrpcURL url : urls) {
         String host = url.getHost();
         int port = url.getPort();
@@ -139,9 +145,13 @@ public class GrpcNameResolver extends NameResolver {
           hostAddressMapping = DnsResolved(servers, addresses, host, port);
         }
         addressUrlMapping.put(hostAddressMapping, url);
+        if (localZoneAddresses != null && zone.equals(url.getParameter(Constants.ZONE_KEY))) {
+          localZoneAddresses.addAll(hostAddressMapping);
+        }
       }
       this.addresses.put(subscribeUrl, addresses);
-      Attributes config = this.buildAttributes(subscribeUrl, addressUrlMapping);
+      Attributes config =
+          this.buildAttributes(subscribeUrl, addressUrlMapping, localZoneAddresses);
       GrpcNameResolver.this.listener.onAddresses(servers, config);
     } else {
       GrpcNameResolver.this.listener
@@ -184,7 +194,7 @@ public class GrpcNameResolver extends NameResolver {
   }
 
   private Attributes buildAttributes(GrpcURL subscribeUrl,
-      Map<List<SocketAddress>, GrpcURL> addressUrlMapping) {
+      Map<List<SocketAddress>, GrpcURL> addressUrlMapping, Set<SocketAddress> localZoneAddresses) {
     Attributes.Builder builder = Attributes.newBuilder();
     if (listener != null) {
       builder.set(GrpcNameResolverProvider.NAMERESOVER_LISTENER, listener);
@@ -195,6 +205,9 @@ public class GrpcNameResolver extends NameResolver {
     if (!addressUrlMapping.isEmpty()) {
       builder.set(GrpcNameResolverProvider.GRPC_ADDRESS_GRPCURL_MAPPING, addressUrlMapping);
     }
+    if (localZoneAddresses != null) {
+      builder.set(GrpcNameResolverProvider.GRPC_LOCAL_ZONE_ADDRESSES, localZoneAddresses);
+    }
     return builder.build();
   }
 
@@ -10,6 +10,7 @@ import java.net.SocketAddress;
 import java.net.URI;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import com.quancheng.saluki.core.common.GrpcURL;
 
@@ -32,6 +33,12 @@ public class GrpcNameResolverProvider extends NameResolverProvider {
   public static final Attributes.Key<List<SocketAddress>> REMOTE_ADDR_KEYS =
       Attributes.Key.of("remote-addresss");
 
+  /**
+   * 与consumer在同一可用区的provider地址，consumer或provider都没有配置可用区时不设置
+   */
+  public static final Attributes.Key<Set<SocketAddress>> GRPC_LOCAL_ZONE_ADDRESSES =
+      Attributes.Key.of("local-zone-addresses");
+
   public static final Attributes.Key<NameResolver.Listener> NAMERESOVER_LISTENER =
       Attributes.Key.of("nameResolver-Listener");
 
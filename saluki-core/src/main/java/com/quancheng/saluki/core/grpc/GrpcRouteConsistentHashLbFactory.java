@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2016, Quancheng-ec.com All right reserved. This software is the confidential and
+ * proprietary information of Quancheng-ec.com ("Confidential Information"). You shall not disclose
+ * such Confidential Information and shall use it only in accordance with the terms of the license
+ * agreement you entered into with Quancheng-ec.com.
+ */
+package com.quancheng.saluki.core.grpc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import com.quancheng.saluki.core.common.Constants;
+import com.quancheng.saluki.core.grpc.client.internal.GrpcCallOptions;
+
+import io.grpc.Attributes;
+import io.grpc.Internal;
+import io.grpc.LoadBalancer;
+import io.grpc.LoadBalancer.Helper;
+import io.grpc.LoadBalancer.PickResult;
+import io.grpc.LoadBalancer.PickSubchannelArgs;
+import io.grpc.LoadBalancer.Subchannel;
+import io.grpc.Status;
+
+/**
+ * 一致性hash负载均衡：同一个hash key总是落到同一个provider，provider上下线时只有相邻区间的key会迁移，适合provider有本地缓存的场景；
+ * 调用没有hash key时退化为轮询
+ *
+ * @author liushiming
+ * @version GrpcRouteConsistentHashLbFactory.java, v 0.0.1 2026年10月18日 下午11:05:42 liushiming
+ */
+@Internal
+public class GrpcRouteConsistentHashLbFactory extends LoadBalancer.Factory {
+
+  private static final GrpcRouteConsistentHashLbFactory instance =
+      new GrpcRouteConsistentHashLbFactory();
+
+  private GrpcRouteConsistentHashLbFactory() {}
+
+  public static GrpcRouteConsistentHashLbFactory getInstance() {
+    return instance;
+  }
+
+  @Override
+  public LoadBalancer newLoadBalancer(Helper helper) {
+    return new GrpcConsistentHashLoadBalancer(helper);
+  }
+
+  private static class GrpcConsistentHashLoadBalancer extends GrpcRouteLoadBalancer {
+
+    GrpcConsistentHashLoadBalancer(Helper helper) {
+      super(helper);
+    }
+
+    @Override
+    protected SubchannelPicker newPicker(List<Subchannel> activeList, Status error,
+        Attributes attributes) {
+      return new GrpcConsistentHashPicker(activeList, error, attributes);
+    }
+  }
+
+  private static class GrpcConsistentHashPicker extends GrpcRoutePicker {
+
+    GrpcConsistentHashPicker(List<Subchannel> list, Status status, Attributes nameResovleCache) {
+      super(list, status, nameResovleCache);
+    }
+
+    @Override
+    protected PickResult select(CandidateSet candidates, PickSubchannelArgs args) {
+      String hashKey = args.getCallOptions().getOption(GrpcCallOptions.CALLOPTIONS_HASH_KEY);
+      if (hashKey == null) {
+        return super.select(candidates, args);
+      }
+      // hash环缓存在候选上，每个方法的候选各有一个；路由规则变化时候选整体换成新的，hash环跟着重建
+      HashRing ring = (HashRing) candidates.getAttachment();
+      if (ring == null) {
+        PickResult[] results = candidates.getResults();
+        int[] weights = new int[results.length];
+        for (int i = 0; i < results.length; i++) {
+          weights[i] = getWeight(results[i].getSubchannel());
+        }
+        ring = new HashRing(results, weights);
+        candidates.setAttachment(ring);
+      }
+      return ring.get(hashKey);
+    }
+  }
+
+  /**
+   * 每个provider按地址在环上放置与权重成正比的虚拟节点，节点位置只与地址有关，与provider的顺序和数量无关；
+   * 不做预热，否则预热期间key会持续迁移
+   */
+  private static final class HashRing {
+
+    private static final int VIRTUAL_NODES = 160;
+
+    private static final HashFunction HASH = Hashing.murmur3_32();
+
+    private final int[] hashes;
+
+    private final PickResult[] nodes;
+
+    HashRing(PickResult[] candidates, int[] weights) {
+      int[] virtualNodes = new int[candidates.length];
+      int size = 0;
+      for (int i = 0; i < candidates.length; i++) {
+        virtualNodes[i] =
+            Math.max((int) ((long) VIRTUAL_NODES * weights[i] / Constants.DEFAULT_WEIGHT), 1);
+        size += virtualNodes[i];
+      }
+      // 高32位是hash，低32位是候选下标，排序后即得到环
+      long[] points = new long[size];
+      int n = 0;
+      for (int i = 0; i < candidates.length; i++) {
+        String address = candidates[i].getSubchannel().getAddresses().getAddresses().toString();
+        for (int j = 0; j < virtualNodes[i]; j++) {
+          points[n++] = ((long) hash(address + "#" + j) << 32) | i;
+        }
+      }
+      Arrays.sort(points);
+      this.hashes = new int[size];
+      this.nodes = new PickResult[size];
+      for (int i = 0; i < size; i++) {
+        hashes[i] = (int) (points[i] >> 32);
+        nodes[i] = candidates[(int) points[i]];
+      }
+    }
+
+    PickResult get(String hashKey) {
+      int index = Arrays.binarySearch(hashes, hash(hashKey));
+      if (index < 0) {
+        index = -index - 1;
+      }
+      return nodes[index == hashes.length ? 0 : index];
+    }
+
+    private static int hash(String key) {
+      return HASH.hashString(key, StandardCharsets.UTF_8).asInt();
+    }
+  }
+
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2016, Quancheng-ec.com All right reserved. This software is the confidential and
+ * proprietary information of Quancheng-ec.com ("Confidential Information"). You shall not disclose
+ * such Confidential Information and shall use it only in accordance with the terms of the license
+ * agreement you entered into with Quancheng-ec.com.
+ */
+package com.quancheng.saluki.core.grpc;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.grpc.Attributes;
+import io.grpc.CallOptions;
+import io.grpc.ClientStreamTracer;
+import io.grpc.Internal;
+import io.grpc.LoadBalancer;
+import io.grpc.LoadBalancer.Helper;
+import io.grpc.LoadBalancer.PickResult;
+import io.grpc.LoadBalancer.PickSubchannelArgs;
+import io.grpc.LoadBalancer.Subchannel;
+import io.grpc.Metadata;
+import io.grpc.Status;
+
+/**
+ * Power of two choices负载均衡：每次随机取两个READY的subchannel，选择在途请求数与延迟EWMA的乘积(按权重折算)更小的一个，慢节点(GC、宿主机抖动)会自动少分流量
+ *
+ * @author liushiming
+ * @version GrpcRouteP2cLbFactory.java, v 0.0.1 2026年10月18日 下午8:40:27 liushiming
+ */
+@Internal
+public class GrpcRouteP2cLbFactory extends LoadBalancer.Factory {
+
+  private static final GrpcRouteP2cLbFactory instance = new GrpcRouteP2cLbFactory();
+
+  static final Attributes.Key<SubchannelStats> STATS = Attributes.Key.of("p2c-stats");
+
+  private GrpcRouteP2cLbFactory() {}
+
+  public static GrpcRouteP2cLbFactory getInstance() {
+    return instance;
+  }
+
+  @Override
+  public LoadBalancer newLoadBalancer(Helper helper) {
+    return new GrpcP2cLoadBalancer(helper);
+  }
+
+  private static class GrpcP2cLoadBalancer extends GrpcRouteLoadBalancer {
+
+    GrpcP2cLoadBalancer(Helper helper) {
+      super(helper);
+    }
+
+    @Override
+    protected void addSubchannelAttributes(Attributes.Builder builder) {
+      builder.set(STATS, new SubchannelStats());
+    }
+
+    @Override
+    protected SubchannelPicker newPicker(List<Subchannel> activeList, Status error,
+        Attributes attributes) {
+      return new GrpcP2cPicker(activeList, error, attributes);
+    }
+  }
+
+  private static class GrpcP2cPicker extends GrpcRoutePicker {
+
+    GrpcP2cPicker(List<Subchannel> list, Status status, Attributes nameResovleCache) {
+      super(list, status, nameResovleCache);
+    }
+
+    @Override
+    protected PickResult select(CandidateSet candidates, PickSubchannelArgs args) {
+      PickResult[] results = candidates.getResults();
+      int size = results.length;
+      if (size == 1) {
+        return results[0];
+      }
+      ThreadLocalRandom random = ThreadLocalRandom.current();
+      int first = random.nextInt(size);
+      int second = random.nextInt(size - 1);
+      if (second >= first) {
+        second++;
+      }
+      PickResult a = results[first];
+      PickResult b = results[second];
+      WeightTable table = weightTable(candidates);
+      if (table.isUniform()) {
+        return cost(a) <= cost(b) ? a : b;
+      }
+      // 按权重折算成本：cost(a)/weight(a) <= cost(b)/weight(b)
+      return cost(a) * table.getWeight(second) <= cost(b) * table.getWeight(first) ? a : b;
+    }
+
+    @Override
+    protected PickResult newPickResult(Subchannel subchannel) {
+      return PickResult.withSubchannel(subchannel, stats(subchannel));
+    }
+
+    private static double cost(PickResult result) {
+      return ((SubchannelStats) result.getStreamTracerFactory()).cost();
+    }
+
+    private static SubchannelStats stats(Subchannel subchannel) {
+      return subchannel.getAttributes().get(STATS);
+    }
+  }
+
+  /**
+   * 每个subchannel的在途请求数与peak EWMA延迟，延迟变大时立即生效，之后按时间衰减，长时间没有流量的节点也会重新获得机会
+   */
+  static final class SubchannelStats extends ClientStreamTracer.Factory {
+
+    private static final double DECAY_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final AtomicInteger outstanding = new AtomicInteger();
+
+    private volatile double ewmaNanos;
+
+    private volatile long lastObserved = System.nanoTime();
+
+    double cost() {
+      double elapsed = Math.max(System.nanoTime() - lastObserved, 0);
+      double latency = ewmaNanos * Math.exp(-elapsed / DECAY_NANOS);
+      return (latency + 1) * (outstanding.get() + 1);
+    }
+
+    synchronized void observe(long rttNanos) {
+      long now = System.nanoTime();
+      double weight = Math.exp(-Math.max(now - lastObserved, 0) / DECAY_NANOS);
+      if (rttNanos > ewmaNanos) {
+        ewmaNanos = rttNanos;
+      } else {
+        ewmaNanos = ewmaNanos * weight + rttNanos * (1 - weight);
+      }
+      lastObserved = now;
+    }
+
+    @Override
+    public ClientStreamTracer newClientStreamTracer(CallOptions callOptions, Metadata headers) {
+      outstanding.incrementAndGet();
+      final long start = System.nanoTime();
+      return new ClientStreamTracer() {
+
+        @Override
+        public void streamClosed(Status status) {
+          outstanding.decrementAndGet();
+          observe(System.nanoTime() - start);
+        }
+      };
+    }
+  }
+
+}
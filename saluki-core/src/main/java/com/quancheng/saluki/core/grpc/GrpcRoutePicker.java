@@ -14,18 +14,26 @@
 package com.quancheng.saluki.core.grpc;
 
 import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import com.google.common.collect.Lists;
+import com.quancheng.saluki.core.common.Constants;
 import com.quancheng.saluki.core.common.GrpcURL;
+import com.quancheng.saluki.core.grpc.client.internal.GrpcCallContext;
 import com.quancheng.saluki.core.grpc.client.internal.GrpcCallOptions;
 import com.quancheng.saluki.core.grpc.router.GrpcRouter;
 import com.quancheng.saluki.core.grpc.router.GrpcRouterFactory;
 
 import io.grpc.Attributes;
-import io.grpc.EquivalentAddressGroup;
 import io.grpc.LoadBalancer.PickResult;
 import io.grpc.LoadBalancer.PickSubchannelArgs;
 import io.grpc.LoadBalancer.Subchannel;
@@ -33,33 +41,61 @@ import io.grpc.LoadBalancer.SubchannelPicker;
 import io.grpc.Status;
 
 /**
+ * 构造时建好地址到provider的索引，每个方法在路由规则不变时复用上一次过滤出的候选及其权重表；选择路径上不加锁、不分配对象；
+ * 优先调用同可用区的provider；按provider注册的权重分配流量，新启动的provider在预热期内逐步放大权重；
+ * 重试时避开本次调用已经失败过的provider
+ *
  * @author liushiming 2017年4月27日 下午4:20:35
  * @version $Id: GrpcPicker.java, v 0.0.1 2017年4月27日 下午4:20:35 liushiming Exp $
  */
 public class GrpcRoutePicker extends SubchannelPicker {
 
+  private static final long WEIGHT_REFRESH_MILLIS = 1000;
+
+  private static final PickResult NO_ROUTE_PROVIDER = PickResult
+      .withError(Status.UNAVAILABLE.withDescription("No provider matches the route rule"));
+
   private final Status status;
   private final Attributes nameResovleCache;
   private final List<Subchannel> list;
   private final int size;
-  private int index = 0;
+  private final Map<SocketAddress, List<GrpcURL>> addressIndex;
+  private final Map<Subchannel, ProviderWeight> providerWeights;
+  private final Set<SocketAddress> localZoneAddresses;
+  private final AtomicInteger index = new AtomicInteger();
+  private volatile CandidateSet allCandidates;
+  private final ConcurrentMap<String, RouteSnapshot> routeSnapshots =
+      new ConcurrentHashMap<String, RouteSnapshot>();
+  private volatile ZoneSnapshot zoneSnapshot;
 
   GrpcRoutePicker(List<Subchannel> list, Status status, Attributes nameResovleCache) {
     this.list = list;
     this.size = list.size();
     this.status = status;
     this.nameResovleCache = nameResovleCache;
+    this.addressIndex = buildAddressIndex(nameResovleCache);
+    this.providerWeights = buildProviderWeights();
+    this.localZoneAddresses = nameResovleCache == null ? null
+        : nameResovleCache.get(GrpcNameResolverProvider.GRPC_LOCAL_ZONE_ADDRESSES);
   }
 
   @Override
   public PickResult pickSubchannel(PickSubchannelArgs args) {
-    Map<String, Object> affinity =
-        args.getCallOptions().getOption(GrpcCallOptions.CALLOPTIONS_CUSTOME_KEY);
-    GrpcURL refUrl = (GrpcURL) affinity.get(GrpcCallOptions.GRPC_REF_URL);
+    GrpcCallContext callContext =
+        args.getCallOptions().getOption(GrpcCallOptions.CALLOPTIONS_CALL_CONTEXT);
+    GrpcURL refUrl = callContext != null ? callContext.getRefUrl() : null;
     if (size > 0) {
-      Subchannel subchannel = nextSubchannel(refUrl);
-      affinity.put(GrpcCallOptions.GRPC_NAMERESOVER_ATTRIBUTES, nameResovleCache);
-      return PickResult.withSubchannel(subchannel);
+      CandidateSet candidates = candidates(refUrl);
+      if (candidates.results.length == 0) {
+        return NO_ROUTE_PROVIDER;
+      }
+      if (callContext == null) {
+        return select(candidates, args);
+      }
+      PickResult result = callContext.hasTried() ? selectUntried(candidates, callContext, args)
+          : select(candidates, args);
+      callContext.setPickedSubchannel(result.getSubchannel());
+      return result;
     }
     if (status != null) {
       return PickResult.withError(status);
@@ -67,63 +103,387 @@ public class GrpcRoutePicker extends SubchannelPicker {
     return PickResult.withNoResult();
   }
 
-  private Subchannel nextSubchannel(GrpcURL refUrl) {
-    if (size == 0) {
-      throw new NoSuchElementException();
+  /**
+   * 子类可以在PickResult上挂载ClientStreamTracer，统计每个subchannel的调用情况；每个subchannel只调用一次，结果会被复用
+   */
+  protected PickResult newPickResult(Subchannel subchannel) {
+    return PickResult.withSubchannel(subchannel);
+  }
+
+  /**
+   * 从满足路由规则的候选中选择一个，默认轮询，provider权重不同或在预热期时按权重随机；candidates不为空，路由规则不变时是同一个对象
+   */
+  protected PickResult select(CandidateSet candidates, PickSubchannelArgs args) {
+    WeightTable table = weightTable(candidates);
+    if (!table.uniform) {
+      return table.pick(ThreadLocalRandom.current().nextInt(table.total));
     }
-    synchronized (this) {
-      Subchannel val = list.get(index);
-      boolean discard = discard(refUrl, val);
-      index++;
-      if (index >= size) {
-        index = 0;
+    int next = index.getAndIncrement() & Integer.MAX_VALUE;
+    return candidates.results[next % candidates.results.length];
+  }
+
+  /**
+   * 重试时在本次调用还没有失败过的候选中随机选择，不遍历出新数组，也不影响其他调用；候选都失败过时按正常流程选择
+   */
+  private PickResult selectUntried(CandidateSet candidates, GrpcCallContext callContext,
+      PickSubchannelArgs args) {
+    int untried = 0;
+    for (PickResult candidate : candidates.results) {
+      if (!callContext.isTried(candidate.getSubchannel())) {
+        untried++;
       }
-      if (discard) {
-        return nextSubchannel(refUrl);
-      } else {
-        return val;
+    }
+    if (untried == 0) {
+      return select(candidates, args);
+    }
+    int n = ThreadLocalRandom.current().nextInt(untried);
+    PickResult result = null;
+    for (PickResult candidate : candidates.results) {
+      if (!callContext.isTried(candidate.getSubchannel())) {
+        result = candidate;
+        if (n-- == 0) {
+          break;
+        }
       }
     }
+    return result;
   }
 
+  /**
+   * provider注册的权重，不含预热
+   */
+  int getWeight(Subchannel subchannel) {
+    return providerWeight(subchannel).weight;
+  }
 
-  private boolean discard(GrpcURL refUrl, Subchannel subchannel) {
-    boolean discard = false;
+  /**
+   * candidates当前的有效权重，缓存在候选上；有provider在预热时每秒重算一次，否则只在候选变化时随候选一起重建
+   */
+  WeightTable weightTable(CandidateSet candidates) {
+    WeightTable table = candidates.weightTable;
+    if (table == null || (table.refreshAt != 0 && System.currentTimeMillis() >= table.refreshAt)) {
+      PickResult[] results = candidates.results;
+      long now = System.currentTimeMillis();
+      int[] weights = new int[results.length];
+      boolean warming = false;
+      for (int i = 0; i < results.length; i++) {
+        ProviderWeight providerWeight = providerWeight(results[i].getSubchannel());
+        weights[i] = providerWeight.getWeight(now);
+        warming |= weights[i] < providerWeight.weight;
+      }
+      table = new WeightTable(results, weights, warming ? now + WEIGHT_REFRESH_MILLIS : 0);
+      candidates.weightTable = table;
+    }
+    return table;
+  }
+
+  private ProviderWeight providerWeight(Subchannel subchannel) {
+    ProviderWeight providerWeight = providerWeights.get(subchannel);
+    return providerWeight != null ? providerWeight : ProviderWeight.DEFAULT;
+  }
+
+  private Map<Subchannel, ProviderWeight> buildProviderWeights() {
+    Map<Subchannel, ProviderWeight> weights = new HashMap<Subchannel, ProviderWeight>();
+    for (Subchannel subchannel : list) {
+      for (SocketAddress address : subchannel.getAddresses().getAddresses()) {
+        List<GrpcURL> providerUrls = addressIndex.get(address);
+        if (providerUrls != null && !providerUrls.isEmpty()) {
+          weights.put(subchannel, ProviderWeight.of(providerUrls.get(0)));
+          break;
+        }
+      }
+    }
+    return weights;
+  }
+
+  private CandidateSet candidates(GrpcURL refUrl) {
+    CandidateSet candidates = allCandidates;
+    if (candidates == null) {
+      PickResult[] results = new PickResult[size];
+      for (int i = 0; i < size; i++) {
+        results[i] = newPickResult(list.get(i));
+      }
+      candidates = new CandidateSet(results);
+      allCandidates = candidates;
+    }
+    RouteSnapshot routed = null;
     if (refUrl != null) {
-      GrpcRouter grpcRouter = GrpcRouterFactory.getInstance().getGrpcRouter(refUrl.getServiceKey());
-      if (grpcRouter != null) {
-        grpcRouter.setRefUrl(refUrl);
-        EquivalentAddressGroup addressGroup = subchannel.getAddresses();
-        List<SocketAddress> currentAddress = addressGroup.getAddresses();
-        List<SocketAddress> deletAddress = Lists.newArrayList();
-        for (SocketAddress server : currentAddress) {
-          List<GrpcURL> providerUrls = findGrpcURLByAddress(server);
-          if (!grpcRouter.match(providerUrls)) {
-            deletAddress.add(server);
-          }
+      RouteSnapshot snapshot = routeSnapshot(refUrl);
+      String rule = GrpcRouterFactory.getInstance().getRouterRule(snapshot.serviceKey);
+      if (rule != null) {
+        if (!snapshot.matchesRule(rule)) {
+          snapshot = new RouteSnapshot(snapshot.method, refUrl, snapshot.serviceKey, rule,
+              new CandidateSet(route(rule, refUrl, candidates.results)));
+          routeSnapshots.put(snapshot.method, snapshot);
         }
-        if (!deletAddress.isEmpty()) {
-          discard = true;
+        routed = snapshot;
+        candidates = snapshot.candidates;
+      }
+    }
+    if (localZoneAddresses == null) {
+      return candidates;
+    }
+    ZoneSnapshot snapshot = routed != null ? routed.zoneSnapshot : zoneSnapshot;
+    if (snapshot == null || snapshot.source != candidates) {
+      snapshot = new ZoneSnapshot(candidates, preferLocalZone(candidates, refUrl));
+      if (routed != null) {
+        routed.zoneSnapshot = snapshot;
+      } else {
+        zoneSnapshot = snapshot;
+      }
+    }
+    return snapshot.candidates;
+  }
+
+  /**
+   * 路由规则可以按method等任意引用参数匹配，每个方法各缓存一份；refUrl不变时直接复用，服务key也不再重新拼接
+   */
+  private RouteSnapshot routeSnapshot(GrpcURL refUrl) {
+    String method = refUrl.getParameter(Constants.METHOD_KEY, "");
+    RouteSnapshot snapshot = routeSnapshots.get(method);
+    if (snapshot == null || !snapshot.matches(refUrl)) {
+      snapshot = new RouteSnapshot(method, refUrl, refUrl.getServiceKey(), null, null);
+      routeSnapshots.put(method, snapshot);
+    }
+    return snapshot;
+  }
+
+  /**
+   * 同可用区可用的provider占同区全部provider的比例不低于阈值时只调用同区provider，否则所有可用provider一起分担
+   */
+  private CandidateSet preferLocalZone(CandidateSet candidates, GrpcURL refUrl) {
+    PickResult[] results = candidates.results;
+    List<PickResult> local = new ArrayList<PickResult>(results.length);
+    for (PickResult result : results) {
+      for (SocketAddress address : result.getSubchannel().getAddresses().getAddresses()) {
+        if (localZoneAddresses.contains(address)) {
+          local.add(result);
+          break;
         }
       }
     }
-    return discard;
+    double threshold = refUrl == null ? Constants.DEFAULT_ZONE_THRESHOLD
+        : refUrl.getParameter(Constants.ZONE_THRESHOLD_KEY, Constants.DEFAULT_ZONE_THRESHOLD);
+    if (local.isEmpty() || local.size() < threshold * localZoneAddresses.size()) {
+      return candidates;
+    }
+    return new CandidateSet(local.toArray(new PickResult[local.size()]));
+  }
 
+  private PickResult[] route(String rule, GrpcURL refUrl, PickResult[] results) {
+    GrpcRouter grpcRouter = GrpcRouterFactory.getInstance().getRouter(rule);
+    List<PickResult> matched = new ArrayList<PickResult>(results.length);
+    for (PickResult result : results) {
+      boolean discard = false;
+      for (SocketAddress server : result.getSubchannel().getAddresses().getAddresses()) {
+        if (!grpcRouter.match(refUrl, findGrpcURLByAddress(server))) {
+          discard = true;
+          break;
+        }
+      }
+      if (!discard) {
+        matched.add(result);
+      }
+    }
+    return matched.toArray(new PickResult[matched.size()]);
   }
 
   private List<GrpcURL> findGrpcURLByAddress(SocketAddress address) {
-    Map<List<SocketAddress>, GrpcURL> addressMapping =
-        nameResovleCache.get(GrpcNameResolverProvider.GRPC_ADDRESS_GRPCURL_MAPPING);
-    List<GrpcURL> providerUrls = Lists.newArrayList();
-    if (!addressMapping.isEmpty()) {
+    List<GrpcURL> providerUrls = addressIndex.get(address);
+    return providerUrls != null ? providerUrls : Collections.<GrpcURL>emptyList();
+  }
+
+  private static Map<SocketAddress, List<GrpcURL>> buildAddressIndex(Attributes nameResovleCache) {
+    Map<SocketAddress, List<GrpcURL>> index = new HashMap<SocketAddress, List<GrpcURL>>();
+    Map<List<SocketAddress>, GrpcURL> addressMapping = nameResovleCache == null ? null
+        : nameResovleCache.get(GrpcNameResolverProvider.GRPC_ADDRESS_GRPCURL_MAPPING);
+    if (addressMapping != null) {
       for (Map.Entry<List<SocketAddress>, GrpcURL> entry : addressMapping.entrySet()) {
-        List<SocketAddress> allAddress = entry.getKey();
-        if (allAddress.contains(address)) {
+        for (SocketAddress address : entry.getKey()) {
+          List<GrpcURL> providerUrls = index.get(address);
+          if (providerUrls == null) {
+            providerUrls = new ArrayList<GrpcURL>(1);
+            index.put(address, providerUrls);
+          }
           providerUrls.add(entry.getValue());
         }
       }
     }
-    return providerUrls;
+    return index;
+  }
+
+  /**
+   * provider注册时带上的权重、启动时间与预热时间，预热期内权重随启动时长线性增长
+   */
+  private static final class ProviderWeight {
+
+    private static final ProviderWeight DEFAULT = new ProviderWeight(Constants.DEFAULT_WEIGHT, 0, 0);
+
+    private final int weight;
+
+    private final long timestamp;
+
+    private final long warmup;
+
+    ProviderWeight(int weight, long timestamp, long warmup) {
+      this.weight = weight;
+      this.timestamp = timestamp;
+      this.warmup = warmup;
+    }
+
+    static ProviderWeight of(GrpcURL providerUrl) {
+      int weight = providerUrl.getParameter(Constants.WEIGHT_KEY, Constants.DEFAULT_WEIGHT);
+      long timestamp = providerUrl.getParameter(Constants.TIMESTAMP_KEY, 0L);
+      long warmup = providerUrl.getParameter(Constants.WARMUP_KEY, (long) Constants.DEFAULT_WARMUP);
+      return new ProviderWeight(weight > 0 ? weight : Constants.DEFAULT_WEIGHT, timestamp, warmup);
+    }
+
+    int getWeight(long now) {
+      if (timestamp <= 0 || warmup <= 0) {
+        return weight;
+      }
+      // provider时钟比本机快时按刚启动处理
+      long uptime = Math.max(now - timestamp, 0);
+      if (uptime >= warmup) {
+        return weight;
+      }
+      return Math.max((int) (weight * uptime / warmup), 1);
+    }
+  }
+
+  /**
+   * 一组候选的有效权重与前缀和，按权重选择时二分查找
+   */
+  static final class WeightTable {
+
+    private final PickResult[] candidates;
+
+    private final int[] weights;
+
+    private final int[] cumulative;
+
+    private final int total;
+
+    private final boolean uniform;
+
+    private final long refreshAt;
+
+    WeightTable(PickResult[] candidates, int[] weights, long refreshAt) {
+      this.candidates = candidates;
+      this.weights = weights;
+      this.cumulative = new int[weights.length];
+      this.refreshAt = refreshAt;
+      int sum = 0;
+      boolean same = true;
+      for (int i = 0; i < weights.length; i++) {
+        sum += weights[i];
+        cumulative[i] = sum;
+        same &= weights[i] == weights[0];
+      }
+      this.total = sum;
+      this.uniform = same;
+    }
+
+    boolean isUniform() {
+      return uniform;
+    }
+
+    int getWeight(int candidate) {
+      return weights[candidate];
+    }
+
+    PickResult pick(int random) {
+      int i = Arrays.binarySearch(cumulative, random);
+      return candidates[i < 0 ? -i - 1 : i + 1];
+    }
+  }
+
+  /**
+   * 一组不可修改的候选，以及按这组候选算出的权重表等派生数据；候选变化时随所属的快照整体替换，派生数据也就跟着失效
+   */
+  protected static final class CandidateSet {
+
+    private final PickResult[] results;
+
+    private volatile WeightTable weightTable;
+
+    private volatile Object attachment;
+
+    CandidateSet(PickResult[] results) {
+      this.results = results;
+    }
+
+    /**
+     * 候选数组，不能被修改
+     */
+    public PickResult[] getResults() {
+      return results;
+    }
+
+    /**
+     * 子类按这组候选缓存的派生数据，例如一致性hash环
+     */
+    public Object getAttachment() {
+      return attachment;
+    }
+
+    public void setAttachment(Object attachment) {
+      this.attachment = attachment;
+    }
+  }
+
+  /**
+   * 某组候选中优先使用的同可用区subchannel，候选变化时整体替换
+   */
+  private static final class ZoneSnapshot {
+
+    private final CandidateSet source;
+
+    private final CandidateSet candidates;
+
+    ZoneSnapshot(CandidateSet source, CandidateSet candidates) {
+      this.source = source;
+      this.candidates = candidates;
+    }
+  }
+
+  /**
+   * 某个方法的refUrl在某个版本路由规则下的候选subchannel，规则或refUrl的参数变化时整体替换
+   */
+  private static final class RouteSnapshot {
+
+    private final String method;
+
+    private final GrpcURL refUrl;
+
+    private final String serviceKey;
+
+    private final String rule;
+
+    private final CandidateSet candidates;
+
+    private volatile ZoneSnapshot zoneSnapshot;
+
+    RouteSnapshot(String method, GrpcURL refUrl, String serviceKey, String rule,
+        CandidateSet candidates) {
+      this.method = method;
+      this.refUrl = refUrl;
+      this.serviceKey = serviceKey;
+      this.rule = rule;
+      this.candidates = candidates;
+    }
+
+    /**
+     * GrpcURL.equals只比较group与version两个参数，还要比较完整的参数
+     */
+    boolean matches(GrpcURL currentRefUrl) {
+      return refUrl == currentRefUrl || (refUrl.equals(currentRefUrl)
+          && refUrl.getParameters().equals(currentRefUrl.getParameters()));
+    }
+
+    boolean matchesRule(String currentRule) {
+      return rule != null && (rule == currentRule || rule.equals(currentRule));
+    }
   }
 
 }
@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2016, Quancheng-ec.com All right reserved. This software is the confidential and
+ * proprietary information of Quancheng-ec.com ("Confidential Information"). You shall not disclose
+ * such Confidential Information and shall use it only in accordance with the terms of the license
+ * agreement you entered into with Quancheng-ec.com.
+ */
+package com.quancheng.saluki.core.grpc;
+
+import io.grpc.internal.AbstractManagedChannelImplBuilder;
+import io.grpc.internal.ClientTransportFactory;
+
+/**
+ * 每个服务仍然是独立的Channel(名字解析、路由、负载均衡都按服务走)，只是底层连接从共享的transport工厂获取
+ *
+ * @author liushiming
+ * @version GrpcSharedChannelBuilder.java, v 0.0.1 2026年10月18日 下午10:20:05 liushiming
+ */
+final class GrpcSharedChannelBuilder
+    extends AbstractManagedChannelImplBuilder<GrpcSharedChannelBuilder> {
+
+  private final ClientTransportFactory transportFactory;
+
+  static GrpcSharedChannelBuilder forTarget(String target,
+      ClientTransportFactory transportFactory) {
+    return new GrpcSharedChannelBuilder(target, transportFactory);
+  }
+
+  private GrpcSharedChannelBuilder(String target, ClientTransportFactory transportFactory) {
+    super(target);
+    this.transportFactory = transportFactory;
+  }
+
+  @Override
+  protected ClientTransportFactory buildTransportFactory() {
+    return transportFactory;
+  }
+
+  /**
+   * grpc 1.8中是抽象方法必须实现；是否明文由共享transport工厂的NettyChannelBuilder决定，这里的设置不生效
+   */
+  @Override
+  public GrpcSharedChannelBuilder usePlaintext(boolean skipNegotiation) {
+    return this;
+  }
+
+}
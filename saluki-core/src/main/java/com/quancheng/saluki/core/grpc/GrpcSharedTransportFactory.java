@@ -0,0 +1,572 @@
+/*
+ * Copyright (c) 2016, Quancheng-ec.com All right reserved. This software is the confidential and
+ * proprietary information of Quancheng-ec.com ("Confidential Information"). You shall not disclose
+ * such Confidential Information and shall use it only in accordance with the terms of the license
+ * agreement you entered into with Quancheng-ec.com.
+ */
+package com.quancheng.saluki.core.grpc;
+
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nullable;
+
+import com.google.common.base.Objects;
+
+import io.grpc.Attributes;
+import io.grpc.CallOptions;
+import io.grpc.ClientStreamTracer;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import io.grpc.internal.ClientStream;
+import io.grpc.internal.ClientTransportFactory;
+import io.grpc.internal.ConnectionClientTransport;
+import io.grpc.internal.LogId;
+import io.grpc.internal.ManagedClientTransport;
+import io.grpc.internal.ProxyParameters;
+import io.grpc.internal.TransportTracer;
+import io.grpc.netty.NettyChannelBuilder;
+import io.grpc.netty.SalukiNettyChannelBuilders;
+
+/**
+ * 同一个provider地址的HTTP/2连接由所有服务引用的subchannel共用；每个subchannel拿到的是连接的一个句柄，
+ * 句柄关闭只影响自己，最后一个句柄关闭时才真正断开连接，连接断开时通知所有句柄各自重连；
+ * 服务引用配置了connections时，并发升高后同一地址最多建立connections条连接，新的流分散到在途流最少的连接上
+ *
+ * @author liushiming
+ * @version GrpcSharedTransportFactory.java, v 0.0.1 2026年10月18日 下午10:12:36 liushiming
+ */
+final class GrpcSharedTransportFactory implements ClientTransportFactory {
+
+  /**
+   * 每条连接都有这么多在途流时才建立新连接
+   */
+  private static final int STREAMS_PER_CONNECTION = 100;
+
+  private static final long GROW_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  /**
+   * 进程内所有客户端物理连接数
+   */
+  private static final AtomicInteger CONNECTIONS = new AtomicInteger();
+
+  private final ClientTransportFactory delegate;
+
+  private final Map<TransportKey, SharedTransport> transports =
+      new HashMap<TransportKey, SharedTransport>();
+
+  GrpcSharedTransportFactory(NettyChannelBuilder nettyChannelBuilder) {
+    // NettyChannelBuilder是final的，只能通过它构建好的transport工厂拿到tls、keepalive、event loop等配置
+    this.delegate = SalukiNettyChannelBuilders.buildTransportFactory(nettyChannelBuilder);
+  }
+
+  @Override
+  public ConnectionClientTransport newClientTransport(SocketAddress serverAddress, String authority,
+      @Nullable String userAgent, @Nullable ProxyParameters proxy) {
+    return newClientTransport(serverAddress, authority, userAgent, proxy, 1);
+  }
+
+  private ConnectionClientTransport newClientTransport(SocketAddress serverAddress,
+      String authority, @Nullable String userAgent, @Nullable ProxyParameters proxy,
+      int connections) {
+    TransportKey key = new TransportKey(serverAddress, authority, userAgent, proxy);
+    SharedTransport transport;
+    synchronized (transports) {
+      transport = transports.get(key);
+      if (transport == null || transport.isShutdown()) {
+        transport = new SharedTransport(key,
+            delegate.newClientTransport(serverAddress, authority, userAgent, proxy));
+        transports.put(key, transport);
+      }
+    }
+    return transport.newHandle(connections);
+  }
+
+  /**
+   * 给一个服务引用使用的工厂视图，该引用的subchannel要求每个地址最多connections条连接
+   */
+  ClientTransportFactory withConnections(final int connections) {
+    if (connections <= 1) {
+      return this;
+    }
+    return new ClientTransportFactory() {
+
+      @Override
+      public ConnectionClientTransport newClientTransport(SocketAddress serverAddress,
+          String authority, @Nullable String userAgent, @Nullable ProxyParameters proxy) {
+        return GrpcSharedTransportFactory.this.newClientTransport(serverAddress, authority,
+            userAgent, proxy, connections);
+      }
+
+      @Override
+      public ScheduledExecutorService getScheduledExecutorService() {
+        return GrpcSharedTransportFactory.this.getScheduledExecutorService();
+      }
+
+      @Override
+      public void close() {}
+    };
+  }
+
+  @Override
+  public ScheduledExecutorService getScheduledExecutorService() {
+    return delegate.getScheduledExecutorService();
+  }
+
+  /**
+   * 工厂被所有Channel共享，单个Channel关闭时不能关闭工厂
+   */
+  @Override
+  public void close() {}
+
+  int getTransportCount() {
+    synchronized (transports) {
+      return transports.size();
+    }
+  }
+
+  static int getConnectionCount() {
+    return CONNECTIONS.get();
+  }
+
+  private void remove(TransportKey key, SharedTransport transport) {
+    synchronized (transports) {
+      if (transports.get(key) == transport) {
+        transports.remove(key);
+      }
+    }
+  }
+
+  private static final class TransportKey {
+
+    private final SocketAddress address;
+
+    private final String authority;
+
+    private final String userAgent;
+
+    private final ProxyParameters proxy;
+
+    TransportKey(SocketAddress address, String authority, String userAgent,
+        ProxyParameters proxy) {
+      this.address = address;
+      this.authority = authority;
+      this.userAgent = userAgent;
+      this.proxy = proxy;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof TransportKey)) {
+        return false;
+      }
+      TransportKey that = (TransportKey) obj;
+      return Objects.equal(address, that.address) && Objects.equal(authority, that.authority)
+          && Objects.equal(userAgent, that.userAgent) && Objects.equal(proxy, that.proxy);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hashCode(address, authority, userAgent, proxy);
+    }
+  }
+
+  /**
+   * 一个provider地址上的连接池：主连接的状态变化广播给所有句柄，主连接断开时整个池子随之断开、句柄各自重连；
+   * 附加连接在主连接每条连接的在途流都达到阈值时按需建立，上限是所有句柄要求的连接数中的最大值，附加连接断开只是从池中移除
+   */
+  private final class SharedTransport implements ManagedClientTransport.Listener {
+
+    private final TransportKey key;
+
+    private final Connection primary;
+
+    /**
+     * 已就绪、可以承载新流的连接，主连接始终在第一个
+     */
+    private final List<Connection> readyConnections = new CopyOnWriteArrayList<Connection>();
+
+    private final Set<Handle> handles = new LinkedHashSet<Handle>();
+
+    private int maxConnections = 1;
+
+    private int connectionCount = 1;
+
+    private long nextGrowAt;
+
+    private boolean started;
+
+    private boolean ready;
+
+    private boolean inUse;
+
+    private Status shutdownStatus;
+
+    private boolean terminated;
+
+    SharedTransport(TransportKey key, ConnectionClientTransport transport) {
+      this.key = key;
+      this.primary = new Connection(transport);
+      this.readyConnections.add(primary);
+      this.nextGrowAt = System.nanoTime();
+    }
+
+    synchronized boolean isShutdown() {
+      return shutdownStatus != null;
+    }
+
+    Handle newHandle(int connections) {
+      synchronized (this) {
+        maxConnections = Math.max(maxConnections, connections);
+      }
+      return new Handle(this);
+    }
+
+    Runnable start(final Handle handle) {
+      final Status status;
+      final boolean alreadyTerminated;
+      synchronized (this) {
+        if (shutdownStatus == null) {
+          handles.add(handle);
+          if (!started) {
+            started = true;
+            CONNECTIONS.incrementAndGet();
+            return primary.transport.start(this);
+          }
+          if (!ready) {
+            return null;
+          }
+          final boolean currentInUse = inUse;
+          return new Runnable() {
+
+            @Override
+            public void run() {
+              handle.listener.transportReady();
+              if (currentInUse) {
+                handle.listener.transportInUse(true);
+              }
+            }
+          };
+        }
+        status = shutdownStatus;
+        alreadyTerminated = terminated;
+      }
+      // 句柄创建后连接恰好断开，直接通知句柄重连
+      return new Runnable() {
+
+        @Override
+        public void run() {
+          handle.listener.transportShutdown(status);
+          if (alreadyTerminated) {
+            handle.listener.transportTerminated();
+          }
+        }
+      };
+    }
+
+    /**
+     * 新的流放在在途流最少的连接上，所有连接都繁忙时再建一条
+     */
+    ClientStream newStream(MethodDescriptor<?, ?> method, Metadata headers,
+        CallOptions callOptions) {
+      Connection target = primary;
+      int minStreams = Integer.MAX_VALUE;
+      for (Connection connection : readyConnections) {
+        int streams = connection.activeStreams.get();
+        if (streams < minStreams) {
+          target = connection;
+          minStreams = streams;
+        }
+      }
+      if (minStreams >= STREAMS_PER_CONNECTION) {
+        grow();
+      }
+      return target.transport.newStream(method, headers,
+          callOptions.withStreamTracerFactory(target));
+    }
+
+    private void grow() {
+      ConnectionClientTransport transport;
+      synchronized (this) {
+        long now = System.nanoTime();
+        if (shutdownStatus != null || connectionCount >= maxConnections || now - nextGrowAt < 0) {
+          return;
+        }
+        connectionCount++;
+        transport = delegate.newClientTransport(key.address, key.authority, key.userAgent,
+            key.proxy);
+      }
+      CONNECTIONS.incrementAndGet();
+      Runnable runnable = transport.start(new ExtraListener(new Connection(transport)));
+      if (runnable != null) {
+        runnable.run();
+      }
+    }
+
+    private void extraReady(Connection connection) {
+      boolean shutdown;
+      synchronized (this) {
+        shutdown = shutdownStatus != null;
+        if (!shutdown) {
+          readyConnections.add(connection);
+        }
+      }
+      if (shutdown) {
+        connection.transport.shutdown(Status.UNAVAILABLE.withDescription("Transport released"));
+      }
+    }
+
+    private void extraShutdown(Connection connection, boolean wasReady) {
+      synchronized (this) {
+        readyConnections.remove(connection);
+        connectionCount--;
+        // 没有建立成功的附加连接，一段时间内不再尝试，避免provider拒绝连接时每个流都去重连
+        if (!wasReady) {
+          nextGrowAt = System.nanoTime() + GROW_BACKOFF_NANOS;
+        }
+      }
+      updateInUse();
+    }
+
+    private void shutdownExtras(Status status) {
+      for (Connection connection : readyConnections) {
+        if (connection != primary) {
+          connection.transport.shutdown(status);
+        }
+      }
+    }
+
+    void release(final Handle handle, final Status status) {
+      boolean last;
+      synchronized (this) {
+        // 连接已经在断开，句柄会随连接一起收到shutdown和terminated通知
+        if (shutdownStatus != null || !handles.remove(handle)) {
+          return;
+        }
+        last = handles.isEmpty();
+        if (last) {
+          shutdownStatus = status;
+        }
+      }
+      if (last) {
+        remove(key, this);
+        shutdownExtras(status);
+        primary.transport.shutdown(status);
+      }
+      getScheduledExecutorService().execute(new Runnable() {
+
+        @Override
+        public void run() {
+          handle.listener.transportShutdown(status);
+          handle.listener.transportTerminated();
+        }
+      });
+    }
+
+    private synchronized List<Handle> snapshot() {
+      return new ArrayList<Handle>(handles);
+    }
+
+    /**
+     * 任意一条连接上有流就视为在用
+     */
+    private void updateInUse() {
+      boolean current = false;
+      for (Connection connection : readyConnections) {
+        current |= connection.inUse;
+      }
+      synchronized (this) {
+        if (current == inUse) {
+          return;
+        }
+        inUse = current;
+      }
+      // 不区分流属于哪个句柄，连接上有流时所有句柄都视为在用，只会让Channel晚一些进入idle
+      for (Handle handle : snapshot()) {
+        handle.listener.transportInUse(current);
+      }
+    }
+
+    @Override
+    public void transportReady() {
+      synchronized (this) {
+        ready = true;
+      }
+      for (Handle handle : snapshot()) {
+        handle.listener.transportReady();
+      }
+    }
+
+    @Override
+    public void transportInUse(boolean inUse) {
+      primary.inUse = inUse;
+      updateInUse();
+    }
+
+    @Override
+    public void transportShutdown(Status status) {
+      synchronized (this) {
+        if (shutdownStatus == null) {
+          shutdownStatus = status;
+        }
+      }
+      remove(key, this);
+      shutdownExtras(status);
+      for (Handle handle : snapshot()) {
+        handle.listener.transportShutdown(status);
+      }
+    }
+
+    @Override
+    public void transportTerminated() {
+      CONNECTIONS.decrementAndGet();
+      List<Handle> current;
+      synchronized (this) {
+        terminated = true;
+        current = new ArrayList<Handle>(handles);
+        handles.clear();
+      }
+      for (Handle handle : current) {
+        handle.listener.transportTerminated();
+      }
+    }
+
+    /**
+     * 附加连接的状态只影响连接池，不通知句柄
+     */
+    private final class ExtraListener implements ManagedClientTransport.Listener {
+
+      private final Connection connection;
+
+      private boolean ready;
+
+      ExtraListener(Connection connection) {
+        this.connection = connection;
+      }
+
+      @Override
+      public void transportReady() {
+        ready = true;
+        extraReady(connection);
+      }
+
+      @Override
+      public void transportInUse(boolean inUse) {
+        connection.inUse = inUse;
+        updateInUse();
+      }
+
+      @Override
+      public void transportShutdown(Status status) {
+        extraShutdown(connection, ready);
+      }
+
+      @Override
+      public void transportTerminated() {
+        CONNECTIONS.decrementAndGet();
+      }
+    }
+  }
+
+  /**
+   * 一条物理连接及其在途流数，流创建时通过ClientStreamTracer计数，流关闭时减一
+   */
+  private static final class Connection extends ClientStreamTracer.Factory {
+
+    private final ConnectionClientTransport transport;
+
+    private final AtomicInteger activeStreams = new AtomicInteger();
+
+    private volatile boolean inUse;
+
+    Connection(ConnectionClientTransport transport) {
+      this.transport = transport;
+    }
+
+    @Override
+    public ClientStreamTracer newClientStreamTracer(CallOptions callOptions, Metadata headers) {
+      activeStreams.incrementAndGet();
+      return new ClientStreamTracer() {
+
+        @Override
+        public void streamClosed(Status status) {
+          activeStreams.decrementAndGet();
+        }
+      };
+    }
+  }
+
+  /**
+   * 交给InternalSubchannel的连接句柄
+   */
+  private static final class Handle implements ConnectionClientTransport {
+
+    private final SharedTransport shared;
+
+    private final LogId logId = LogId.allocate(getClass().getName());
+
+    private ManagedClientTransport.Listener listener;
+
+    Handle(SharedTransport shared) {
+      this.shared = shared;
+    }
+
+    @Override
+    public Runnable start(Listener listener) {
+      this.listener = listener;
+      return shared.start(this);
+    }
+
+    @Override
+    public ClientStream newStream(MethodDescriptor<?, ?> method, Metadata headers,
+        CallOptions callOptions) {
+      return shared.newStream(method, headers, callOptions);
+    }
+
+    @Override
+    public void ping(PingCallback callback, Executor executor) {
+      shared.primary.transport.ping(callback, executor);
+    }
+
+    @Override
+    public Future<TransportTracer.Stats> getTransportStats() {
+      return shared.primary.transport.getTransportStats();
+    }
+
+    @Override
+    public void shutdown(Status reason) {
+      shared.release(this, reason);
+    }
+
+    /**
+     * 连接上还有其他服务的流，不能全部取消，与shutdown一样只释放当前句柄
+     */
+    @Override
+    public void shutdownNow(Status reason) {
+      shared.release(this, reason);
+    }
+
+    @Override
+    public Attributes getAttributes() {
+      return shared.primary.transport.getAttributes();
+    }
+
+    @Override
+    public LogId getLogId() {
+      return logId;
+    }
+  }
+
+}
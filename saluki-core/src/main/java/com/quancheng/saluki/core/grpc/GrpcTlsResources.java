@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2016, Quancheng-ec.com All right reserved. This software is the confidential and
+ * proprietary information of Quancheng-ec.com ("Confidential Information"). You shall not disclose
+ * such Confidential Information and shall use it only in accordance with the terms of the license
+ * agreement you entered into with Quancheng-ec.com.
+ */
+package com.quancheng.saluki.core.grpc;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.SSLException;
+import javax.net.ssl.SSLSessionContext;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.io.ByteStreams;
+import com.quancheng.saluki.core.grpc.exception.RpcFrameworkException;
+import com.quancheng.saluki.core.grpc.util.SslUtil;
+
+import io.grpc.Internal;
+import io.grpc.netty.GrpcSslContexts;
+import io.netty.handler.ssl.OpenSsl;
+import io.netty.handler.ssl.OpenSslSessionContext;
+import io.netty.handler.ssl.OpenSslSessionTicketKey;
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslContextBuilder;
+import io.netty.handler.ssl.SslProvider;
+
+/**
+ * 进程内共享的TLS上下文，证书只读取一次，所有客户端连接共用一个client SslContext、服务端共用一个server SslContext，
+ * 会话缓存因此在重连时可以复用，避免完整握手；sslProvider为openssl且classpath中有netty-tcnative时使用OpenSSL，
+ * 服务端同时开启session ticket，为jdk时使用JDK实现，不配置时由grpc按classpath自动选择
+ *
+ * @author liushiming
+ * @version GrpcTlsResources.java, v 0.0.1 2026年10月18日 下午9:26:41 liushiming
+ */
+@Internal
+public final class GrpcTlsResources {
+
+  private static final Logger log = LoggerFactory.getLogger(GrpcTlsResources.class);
+
+  public static final String SSL_PROVIDER_PROPERTY = "saluki.grpc.sslProvider";
+
+  public static final String SSL_PROVIDER_OPENSSL = "openssl";
+
+  public static final String SSL_PROVIDER_JDK = "jdk";
+
+  private static final String SERVER_CERT = "server.pem";
+
+  private static final String SERVER_KEY = "server_pkcs8.key";
+
+  private static final long SESSION_CACHE_SIZE = 20480;
+
+  private static final long SESSION_TIMEOUT_SECONDS = TimeUnit.HOURS.toSeconds(24);
+
+  private static volatile String sslProvider = System.getProperty(SSL_PROVIDER_PROPERTY);
+
+  private static volatile GrpcTlsResources instance;
+
+  private final SslProvider provider;
+
+  private SslContext clientSslContext;
+
+  private SslContext serverSslContext;
+
+  /**
+   * 必须在第一个Channel或Server创建之前调用，之后的配置不再生效
+   *
+   * @param provider openssl或jdk，为空时由grpc自动选择
+   */
+  public static void configure(String provider) {
+    synchronized (GrpcTlsResources.class) {
+      if (instance != null) {
+        log.warn("grpc tls resources already created, ignore sslProvider:" + provider);
+        return;
+      }
+      sslProvider = provider;
+    }
+  }
+
+  static GrpcTlsResources getInstance() {
+    GrpcTlsResources resources = instance;
+    if (resources == null) {
+      synchronized (GrpcTlsResources.class) {
+        resources = instance;
+        if (resources == null) {
+          resources = new GrpcTlsResources(sslProvider);
+          instance = resources;
+        }
+      }
+    }
+    return resources;
+  }
+
+  private GrpcTlsResources(String providerName) {
+    this.provider = resolveProvider(providerName);
+  }
+
+  private static SslProvider resolveProvider(String providerName) {
+    if (SSL_PROVIDER_OPENSSL.equalsIgnoreCase(providerName)) {
+      if (OpenSsl.isAvailable()) {
+        log.info("grpc tls use openssl " + OpenSsl.versionString());
+        return SslProvider.OPENSSL;
+      }
+      log.warn("sslProvider is openssl but netty-tcnative is not available, fall back to default",
+          OpenSsl.unavailabilityCause());
+      return null;
+    }
+    if (SSL_PROVIDER_JDK.equalsIgnoreCase(providerName)) {
+      return SslProvider.JDK;
+    }
+    return null;
+  }
+
+  synchronized SslContext getClientSslContext() {
+    if (clientSslContext == null) {
+      try {
+        SslContextBuilder builder = SslContextBuilder.forClient()//
+            .trustManager(loadCert(SERVER_CERT))//
+            .sessionCacheSize(SESSION_CACHE_SIZE)//
+            .sessionTimeout(SESSION_TIMEOUT_SECONDS);
+        clientSslContext = configure(builder).build();
+      } catch (SSLException e) {
+        throw new RpcFrameworkException(e);
+      }
+    }
+    return clientSslContext;
+  }
+
+  synchronized SslContext getServerSslContext() {
+    if (serverSslContext == null) {
+      try {
+        SslContextBuilder builder =
+            SslContextBuilder.forServer(loadCert(SERVER_CERT), loadCert(SERVER_KEY))//
+                .sessionCacheSize(SESSION_CACHE_SIZE)//
+                .sessionTimeout(SESSION_TIMEOUT_SECONDS);
+        serverSslContext = configure(builder).build();
+        enableSessionTickets(serverSslContext.sessionContext());
+      } catch (SSLException e) {
+        throw new RpcFrameworkException(e);
+      }
+    }
+    return serverSslContext;
+  }
+
+  private SslContextBuilder configure(SslContextBuilder builder) {
+    return provider == null ? GrpcSslContexts.configure(builder)
+        : GrpcSslContexts.configure(builder, provider);
+  }
+
+  /**
+   * netty默认关闭OpenSSL的session ticket，设置了ticket密钥后才开启；密钥随进程生成，重启后旧ticket失效
+   */
+  private static void enableSessionTickets(SSLSessionContext sessionContext) {
+    if (!(sessionContext instanceof OpenSslSessionContext)) {
+      return;
+    }
+    SecureRandom random = new SecureRandom();
+    byte[] name = new byte[OpenSslSessionTicketKey.NAME_SIZE];
+    byte[] hmacKey = new byte[OpenSslSessionTicketKey.HMAC_KEY_SIZE];
+    byte[] aesKey = new byte[OpenSslSessionTicketKey.AES_KEY_SIZE];
+    random.nextBytes(name);
+    random.nextBytes(hmacKey);
+    random.nextBytes(aesKey);
+    ((OpenSslSessionContext) sessionContext)
+        .setTicketKeys(new OpenSslSessionTicketKey(name, hmacKey, aesKey));
+  }
+
+  private static InputStream loadCert(String name) {
+    InputStream in = SslUtil.loadInputStreamCert(name);
+    if (in == null) {
+      throw new RpcFrameworkException("cert " + name + " not found in classpath");
+    }
+    try {
+      return new ByteArrayInputStream(ByteStreams.toByteArray(in));
+    } catch (IOException e) {
+      throw new RpcFrameworkException(e);
+    } finally {
+      try {
+        in.close();
+      } catch (IOException e) {
+        // ignore
+      }
+    }
+  }
+
+}
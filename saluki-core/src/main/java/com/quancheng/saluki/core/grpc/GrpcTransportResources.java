@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2016, Quancheng-ec.com All right reserved. This software is the confidential and
+ * proprietary information of Quancheng-ec.com ("Confidential Information"). You shall not disclose
+ * such Confidential Information and shall use it only in accordance with the terms of the license
+ * agreement you entered into with Quancheng-ec.com.
+ */
+package com.quancheng.saluki.core.grpc;
+
+import java.util.concurrent.ThreadFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.quancheng.saluki.core.common.NamedThreadFactory;
+
+import io.grpc.Internal;
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+
+/**
+ * 进程内共享的Netty传输资源，所有客户端Channel与服务端共用一组boss/worker线程，worker线程数即整个进程的IO线程预算；
+ * 开启nativeTransport且classpath中有netty-transport-native-epoll时使用epoll，否则退回NIO
+ *
+ * @author liushiming
+ * @version GrpcTransportResources.java, v 0.0.1 2026年10月18日 下午9:05:44 liushiming
+ */
+@Internal
+public final class GrpcTransportResources {
+
+  private static final Logger log = LoggerFactory.getLogger(GrpcTransportResources.class);
+
+  public static final String WORKER_THREADS_PROPERTY = "saluki.grpc.workerThreads";
+
+  public static final String NATIVE_TRANSPORT_PROPERTY = "saluki.grpc.nativeTransport";
+
+  private static final String EPOLL = "io.netty.channel.epoll.Epoll";
+
+  private static final String EPOLL_EVENT_LOOP_GROUP = "io.netty.channel.epoll.EpollEventLoopGroup";
+
+  private static final String EPOLL_SOCKET_CHANNEL = "io.netty.channel.epoll.EpollSocketChannel";
+
+  private static final String EPOLL_SERVER_SOCKET_CHANNEL =
+      "io.netty.channel.epoll.EpollServerSocketChannel";
+
+  private static volatile int workerThreads = Integer.getInteger(WORKER_THREADS_PROPERTY, 0);
+
+  private static volatile boolean nativeTransport = Boolean.getBoolean(NATIVE_TRANSPORT_PROPERTY);
+
+  private static volatile GrpcTransportResources instance;
+
+  private final EventLoopGroup bossGroup;
+
+  private final EventLoopGroup workerGroup;
+
+  private final Class<? extends Channel> channelType;
+
+  private final Class<? extends ServerChannel> serverChannelType;
+
+  /**
+   * 必须在第一个Channel或Server创建之前调用，之后的配置不再生效
+   *
+   * @param threads worker线程数，0表示使用Netty默认值(2倍CPU核数)
+   * @param useNative 是否尝试使用epoll
+   */
+  public static void configure(int threads, boolean useNative) {
+    synchronized (GrpcTransportResources.class) {
+      if (instance != null) {
+        log.warn("grpc transport resources already created, ignore workerThreads:" + threads
+            + " nativeTransport:" + useNative);
+        return;
+      }
+      workerThreads = threads;
+      nativeTransport = useNative;
+    }
+  }
+
+  static GrpcTransportResources getInstance() {
+    GrpcTransportResources resources = instance;
+    if (resources == null) {
+      synchronized (GrpcTransportResources.class) {
+        resources = instance;
+        if (resources == null) {
+          resources = new GrpcTransportResources(workerThreads, nativeTransport);
+          instance = resources;
+        }
+      }
+    }
+    return resources;
+  }
+
+  @SuppressWarnings("unchecked")
+  private GrpcTransportResources(int threads, boolean useNative) {
+    ThreadFactory bossFactory = new NamedThreadFactory("grpc-default-boss-ELG", true);
+    ThreadFactory workerFactory = new NamedThreadFactory("grpc-default-worker-ELG", true);
+    EventLoopGroup boss = null;
+    EventLoopGroup worker = null;
+    Class<? extends Channel> clientType = NioSocketChannel.class;
+    Class<? extends ServerChannel> serverType = NioServerSocketChannel.class;
+    if (useNative && isEpollAvailable()) {
+      try {
+        boss = newEpollEventLoopGroup(1, bossFactory);
+        worker = newEpollEventLoopGroup(threads, workerFactory);
+        clientType = (Class<? extends Channel>) Class.forName(EPOLL_SOCKET_CHANNEL);
+        serverType = (Class<? extends ServerChannel>) Class.forName(EPOLL_SERVER_SOCKET_CHANNEL);
+      } catch (Exception e) {
+        log.warn("create epoll transport failed, fall back to nio", e);
+        if (boss != null) {
+          boss.shutdownGracefully();
+        }
+        if (worker != null) {
+          worker.shutdownGracefully();
+        }
+        boss = null;
+        worker = null;
+        clientType = NioSocketChannel.class;
+        serverType = NioServerSocketChannel.class;
+      }
+    }
+    if (boss == null) {
+      boss = new NioEventLoopGroup(1, bossFactory);
+      worker = new NioEventLoopGroup(threads, workerFactory);
+    }
+    this.bossGroup = boss;
+    this.workerGroup = worker;
+    this.channelType = clientType;
+    this.serverChannelType = serverType;
+    log.info("grpc transport use " + clientType.getSimpleName() + " with workerThreads:"
+        + (threads == 0 ? "default" : String.valueOf(threads)));
+  }
+
+  private static boolean isEpollAvailable() {
+    try {
+      Class<?> epoll = Class.forName(EPOLL);
+      boolean available = (Boolean) epoll.getMethod("isAvailable").invoke(null);
+      if (!available) {
+        log.warn("nativeTransport is enabled but epoll is not available on this platform");
+      }
+      return available;
+    } catch (ClassNotFoundException e) {
+      log.warn("nativeTransport is enabled but netty-transport-native-epoll is not in classpath");
+      return false;
+    } catch (Throwable e) {
+      log.warn("check epoll available failed", e);
+      return false;
+    }
+  }
+
+  private static EventLoopGroup newEpollEventLoopGroup(int threads, ThreadFactory threadFactory)
+      throws Exception {
+    return (EventLoopGroup) Class.forName(EPOLL_EVENT_LOOP_GROUP)
+        .getConstructor(int.class, ThreadFactory.class).newInstance(threads, threadFactory);
+  }
+
+  public EventLoopGroup getBossGroup() {
+    return bossGroup;
+  }
+
+  public EventLoopGroup getWorkerGroup() {
+    return workerGroup;
+  }
+
+  public Class<? extends Channel> getChannelType() {
+    return channelType;
+  }
+
+  public Class<? extends ServerChannel> getServerChannelType() {
+    return serverChannelType;
+  }
+
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2016, Quancheng-ec.com All right reserved. This software is the confidential and
+ * proprietary information of Quancheng-ec.com ("Confidential Information"). You shall not disclose
+ * such Confidential Information and shall use it only in accordance with the terms of the license
+ * agreement you entered into with Quancheng-ec.com.
+ */
+package com.quancheng.saluki.core.grpc.client;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.google.protobuf.Message;
+import com.quancheng.saluki.core.common.Constants;
+import com.quancheng.saluki.core.common.GrpcURL;
+import com.quancheng.saluki.core.grpc.annotation.GrpcMethodType;
+import com.quancheng.saluki.core.grpc.exception.RpcFrameworkException;
+import com.quancheng.saluki.core.grpc.util.GrpcUtil;
+import com.quancheng.saluki.core.utils.ReflectUtils;
+
+import io.grpc.MethodDescriptor;
+
+/**
+ * 每个引用方法只解析一次的调用计划：请求/响应类型、MethodDescriptor、默认实例、重试/降级/隔离配置以及校验分组，调用时只需要查找
+ *
+ * @author liushiming
+ * @version GrpcInvocationPlan.java, v 0.0.1 2026年10月18日 下午5:20:41 liushiming
+ */
+public final class GrpcInvocationPlan {
+
+  private final GrpcURL refUrl;
+
+  private final String serviceName;
+
+  private final String methodName;
+
+  private final GrpcMethodType grpcMethodType;
+
+  private final MethodDescriptor<Object, Object> methodDescriptor;
+
+  private final Message requestDefaultInstance;
+
+  private final Message responseDefaultInstance;
+
+  private final int retries;
+
+  private final int hedgingDelay;
+
+  private final boolean fallbackEnabled;
+
+  private final List<Class<?>> validatorGroups;
+
+  private final boolean hystrixIsolation;
+
+  private final int maxConcurrent;
+
+  private final boolean futureReturn;
+
+  private GrpcInvocationPlan(GrpcURL refUrl, Method method) throws ClassNotFoundException {
+    this.methodName = method.getName();
+    this.refUrl = refUrl.addParameter(Constants.METHOD_KEY, methodName);
+    this.serviceName = refUrl.getServiceInterface();
+    this.grpcMethodType = method.getAnnotation(GrpcMethodType.class);
+    if (grpcMethodType == null) {
+      throw new IllegalArgumentException(
+          "remote call method " + methodName + " of " + serviceName + " have no GrpcMethodType");
+    }
+    this.methodDescriptor =
+        GrpcUtil.createMethodDescriptor(serviceName, methodName, grpcMethodType);
+    this.requestDefaultInstance = GrpcUtil.createDefaultInstance(grpcMethodType.requestType());
+    this.responseDefaultInstance = GrpcUtil.createDefaultInstance(grpcMethodType.responseType());
+    this.retries = parseRetries(refUrl, methodName);
+    this.hedgingDelay = parseHedgingDelay(refUrl, methodName);
+    this.fallbackEnabled = parseFallback(refUrl, methodName);
+    this.validatorGroups = parseValidatorGroups(refUrl);
+    String isolation =
+        refUrl.getParameter(Constants.ISOLATION_KEY, Constants.ISOLATION_SEMAPHORE);
+    this.hystrixIsolation = Constants.ISOLATION_HYSTRIX.equalsIgnoreCase(isolation);
+    int concurrent = refUrl.getParameter(Constants.MAX_CONCURRENT_KEY, 0);
+    this.maxConcurrent = concurrent > 0 ? concurrent : Integer.MAX_VALUE;
+    Class<?> returnType = method.getReturnType();
+    this.futureReturn =
+        returnType == CompletableFuture.class || returnType == CompletionStage.class;
+  }
+
+  public static GrpcInvocationPlan create(GrpcURL refUrl, Method method) {
+    try {
+      return new GrpcInvocationPlan(refUrl, method);
+    } catch (ClassNotFoundException e) {
+      RpcFrameworkException framworkException = new RpcFrameworkException(e);
+      throw framworkException;
+    }
+  }
+
+  public static GrpcInvocationPlan create(GrpcURL refUrl, String methodName) {
+    try {
+      Class<?> service = ReflectUtils.forName(refUrl.getServiceInterface());
+      Method method = ReflectUtils.findMethodByMethodName(service, methodName);
+      return new GrpcInvocationPlan(refUrl, method);
+    } catch (Exception e) {
+      RpcFrameworkException framworkException = new RpcFrameworkException(e);
+      throw framworkException;
+    }
+  }
+
+  public GrpcURL getRefUrl() {
+    return refUrl;
+  }
+
+  public String getServiceName() {
+    return serviceName;
+  }
+
+  public String getMethodName() {
+    return methodName;
+  }
+
+  public io.grpc.MethodDescriptor.MethodType getMethodType() {
+    return grpcMethodType.methodType();
+  }
+
+  public Class<?> getRequestType() {
+    return grpcMethodType.requestType();
+  }
+
+  public Class<?> getResponseType() {
+    return grpcMethodType.responseType();
+  }
+
+  public MethodDescriptor<Object, Object> getMethodDescriptor() {
+    return methodDescriptor;
+  }
+
+  public Message getRequestDefaultInstance() {
+    return requestDefaultInstance;
+  }
+
+  public Message getResponseDefaultInstance() {
+    return responseDefaultInstance;
+  }
+
+  public int getRetries() {
+    return retries;
+  }
+
+  /**
+   * 对冲请求的延迟(毫秒)：-1表示不对冲，0表示按该方法观测到的p95延迟
+   */
+  public int getHedgingDelay() {
+    return hedgingDelay;
+  }
+
+  public boolean isFallbackEnabled() {
+    return fallbackEnabled;
+  }
+
+  /**
+   * 解析时构建好的只读列表，调用时直接使用，不再复制
+   */
+  public List<Class<?>> getValidatorGroups() {
+    return validatorGroups;
+  }
+
+  /**
+   * isolation=hystrix时仍然走HystrixCommand的线程池隔离，默认走调用线程上的信号量隔离与内置熔断
+   */
+  public boolean isHystrixIsolation() {
+    return hystrixIsolation;
+  }
+
+  public int getMaxConcurrent() {
+    return maxConcurrent;
+  }
+
+  /**
+   * 方法声明返回CompletableFuture时，由ClientCall.Listener的回调直接完成，不再占用线程等待结果
+   */
+  public boolean isFutureReturn() {
+    return futureReturn;
+  }
+
+  private static boolean parseFallback(GrpcURL refUrl, String methodName) {
+    Boolean isEnableFallback = refUrl.getParameter(Constants.GRPC_FALLBACK_KEY, Boolean.FALSE);
+    String[] methodNames =
+        StringUtils.split(refUrl.getParameter(Constants.FALLBACK_METHODS_KEY), ",");
+    if (methodNames != null && methodNames.length > 0) {
+      return isEnableFallback && Arrays.asList(methodNames).contains(methodName);
+    } else {
+      return isEnableFallback;
+    }
+  }
+
+  private static int parseRetries(GrpcURL refUrl, String methodName) {
+    Integer retries = refUrl.getParameter((Constants.METHOD_RETRY_KEY), 0);
+    String[] methodNames = StringUtils.split(refUrl.getParameter(Constants.RETRY_METHODS_KEY), ",");
+    if (methodNames != null && methodNames.length > 0) {
+      List<String> retryMethods = Arrays.asList(methodNames);
+      return retryMethods.contains(methodName) ? retries : 0;
+    } else {
+      return retries;
+    }
+  }
+
+  /**
+   * 只有显式配置在hedgingmethods中的方法才对冲，方法需要是幂等的
+   */
+  private static int parseHedgingDelay(GrpcURL refUrl, String methodName) {
+    String[] methodNames =
+        StringUtils.split(refUrl.getParameter(Constants.HEDGING_METHODS_KEY), ",");
+    if (methodNames != null && Arrays.asList(methodNames).contains(methodName)) {
+      return Math.max(refUrl.getParameter(Constants.HEDGING_DELAY_KEY, 0), 0);
+    } else {
+      return -1;
+    }
+  }
+
+  private static List<Class<?>> parseValidatorGroups(GrpcURL refUrl)
+      throws ClassNotFoundException {
+    String validatorGroupStr = refUrl.getParameter(Constants.VALIDATOR_GROUPS);
+    if (StringUtils.isEmpty(validatorGroupStr)) {
+      return Collections.emptyList();
+    }
+    String[] splitGroups = validatorGroupStr.split(";");
+    Class<?>[] groups = new Class<?>[splitGroups.length];
+    for (int i = 0; i < splitGroups.length; i++) {
+      groups[i] = Class.forName(splitGroups[i]);
+    }
+    return Collections.unmodifiableList(Arrays.asList(groups));
+  }
+
+}
@@ -7,15 +7,9 @@
 package com.quancheng.saluki.core.grpc.client;
 
 import java.io.Serializable;
-import java.lang.reflect.Method;
 
-import com.google.protobuf.Message;
-import com.quancheng.saluki.core.common.Constants;
 import com.quancheng.saluki.core.common.GrpcURL;
-import com.quancheng.saluki.core.grpc.annotation.GrpcMethodType;
-import com.quancheng.saluki.core.grpc.exception.RpcFrameworkException;
-import com.quancheng.saluki.core.grpc.util.GrpcUtil;
-import com.quancheng.saluki.core.utils.ReflectUtils;
+import com.quancheng.saluki.core.grpc.client.internal.GrpcCallContext;
 
 import io.grpc.Channel;
 import io.grpc.MethodDescriptor;
@@ -28,7 +22,7 @@ public interface GrpcRequest {
 
   public Class<?> getResponseType();
 
-  public MethodDescriptor<Message, Message> getMethodDescriptor();
+  public MethodDescriptor<Object, Object> getMethodDescriptor();
 
   public Channel getChannel();
 
@@ -48,31 +42,35 @@ public interface GrpcRequest {
 
   public io.grpc.MethodDescriptor.MethodType getMethodType();
 
+  public GrpcInvocationPlan getInvocationPlan();
+
+  /**
+   * 本次调用的上下文，每个请求一个
+   */
+  public GrpcCallContext getCallContext();
+
 
   public static class Default implements GrpcRequest, Serializable {
 
     private static final long serialVersionUID = 1L;
 
-    private final GrpcURL refUrl;
+    private final GrpcInvocationPlan plan;
 
     private final Channel channel;
 
-    private final String methodName;
-
     private final Object[] args;
 
     private final int callType;
 
     private final int callTimeout;
 
-    private final GrpcMethodType grpcMethodType;
+    private final transient GrpcCallContext callContext;
 
-    public Default(GrpcURL refUrl, GrpcProtocolClient.ChannelCall chanelPool, String methodName,
+    public Default(GrpcInvocationPlan plan, GrpcProtocolClient.ChannelCall chanelPool,
         Object[] args, int callType, int callTimeout) {
       super();
-      this.refUrl = refUrl.addParameter(Constants.METHOD_KEY, methodName);
-      this.channel = chanelPool.getChannel(refUrl);
-      this.methodName = methodName;
+      this.plan = plan;
+      this.channel = chanelPool.getChannel(plan.getRefUrl());
       if (args.length > 2) {
         throw new IllegalArgumentException(
             "grpc not support multiple args,args is " + args + " length is " + args.length);
@@ -81,14 +79,7 @@ public interface GrpcRequest {
       }
       this.callType = callType;
       this.callTimeout = callTimeout;
-      try {
-        Class<?> service = ReflectUtils.forName(this.getServiceName());
-        Method method = ReflectUtils.findMethodByMethodName(service, this.getMethodName());
-        grpcMethodType = method.getAnnotation(GrpcMethodType.class);
-      } catch (Exception e) {
-        RpcFrameworkException framworkException = new RpcFrameworkException(e);
-        throw framworkException;
-      }
+      this.callContext = new GrpcCallContext(plan.getRefUrl());
     }
 
     @Override
@@ -97,13 +88,13 @@ public interface GrpcRequest {
     }
 
     @Override
-    public MethodDescriptor<Message, Message> getMethodDescriptor() {
-      return GrpcUtil.createMethodDescriptor(this.getServiceName(), methodName, grpcMethodType);
+    public MethodDescriptor<Object, Object> getMethodDescriptor() {
+      return plan.getMethodDescriptor();
     }
 
     @Override
     public Class<?> getResponseType() {
-      return grpcMethodType.responseType();
+      return plan.getResponseType();
     }
 
     @Override
@@ -113,18 +104,18 @@ public interface GrpcRequest {
 
     @Override
     public String getServiceName() {
-      return refUrl.getServiceInterface();
+      return plan.getServiceName();
     }
 
     @Override
     public GrpcURL getRefUrl() {
-      return this.refUrl;
+      return plan.getRefUrl();
     }
 
 
     @Override
     public String getMethodName() {
-      return this.methodName;
+      return plan.getMethodName();
     }
 
     @Override
@@ -139,15 +130,24 @@ public interface GrpcRequest {
 
     @Override
     public io.grpc.MethodDescriptor.MethodType getMethodType() {
-      return this.grpcMethodType.methodType();
+      return plan.getMethodType();
     }
 
+    @Override
+    public GrpcInvocationPlan getInvocationPlan() {
+      return plan;
+    }
 
     @Override
     public Object getResponseOberver() {
       return args[1];
     }
 
+    @Override
+    public GrpcCallContext getCallContext() {
+      return callContext;
+    }
+
   }
 
 }
@@ -25,22 +25,25 @@ public interface GrpcResponse {
 
         @Override
         public Object getResponseArg() throws ProtobufException {
-            return SerializerUtil.protobuf2Pojo(this.getMessage(), this.getReturnType());
+            if (message instanceof Message) {
+                return SerializerUtil.protobuf2Pojo((Message) message, this.getReturnType());
+            }
+            return message;
         }
 
         private static final long serialVersionUID = 1L;
 
-        private final Message     message;
+        private final Object      message;
 
         private final Class<?>    returnType;
 
-        public Default(Message message, Class<?> returnType){
+        public Default(Object message, Class<?> returnType){
             super();
             this.message = message;
             this.returnType = returnType;
         }
 
-        public Message getMessage() {
+        public Object getMessage() {
             return message;
         }
 
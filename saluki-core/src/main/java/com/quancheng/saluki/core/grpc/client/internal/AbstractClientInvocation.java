@@ -8,31 +8,27 @@ package com.quancheng.saluki.core.grpc.client.internal;
 
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
-import java.util.Arrays;
+import java.util.concurrent.ConcurrentMap;
 
-import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.protobuf.Message;
+import com.google.common.collect.Maps;
 import com.quancheng.saluki.core.common.Constants;
 import com.quancheng.saluki.core.common.GrpcURL;
+import com.quancheng.saluki.core.grpc.client.GrpcInvocationPlan;
 import com.quancheng.saluki.core.grpc.client.GrpcRequest;
 import com.quancheng.saluki.core.grpc.client.internal.stream.GrpcStreamClientCall;
 import com.quancheng.saluki.core.grpc.client.internal.unary.GrpcBlockingUnaryCommand;
 import com.quancheng.saluki.core.grpc.client.internal.unary.GrpcFutureUnaryCommand;
 import com.quancheng.saluki.core.grpc.client.internal.unary.GrpcHystrixCommand;
 import com.quancheng.saluki.core.grpc.client.internal.unary.GrpcUnaryClientCall;
+import com.quancheng.saluki.core.grpc.client.internal.unary.GrpcUnaryInvoker;
 import com.quancheng.saluki.core.grpc.client.internal.validate.RequestValidator;
 import com.quancheng.saluki.core.grpc.exception.RpcErrorMsgConstant;
-import com.quancheng.saluki.core.grpc.exception.RpcFrameworkException;
 import com.quancheng.saluki.core.grpc.exception.RpcServiceException;
 import com.quancheng.saluki.core.grpc.service.ClientServerMonitor;
-import com.quancheng.saluki.core.grpc.stream.PoJo2ProtoStreamObserver;
-import com.quancheng.saluki.core.grpc.stream.Proto2PoJoStreamObserver;
-import com.quancheng.saluki.core.grpc.util.SerializerUtil;
 import com.quancheng.saluki.core.utils.ReflectUtils;
-import com.quancheng.saluki.serializer.exception.ProtobufException;
 
 import io.grpc.Channel;
 import io.grpc.MethodDescriptor;
@@ -51,6 +47,9 @@ public abstract class AbstractClientInvocation implements InvocationHandler {
 
   private final RequestValidator requstValidator;
 
+  private final ConcurrentMap<GrpcInvocationPlan, GrpcUnaryInvoker> unaryInvokers =
+      Maps.newConcurrentMap();
+
   protected abstract GrpcRequest buildGrpcRequest(Method method, Object[] args);
 
 
@@ -85,43 +84,32 @@ public abstract class AbstractClientInvocation implements InvocationHandler {
             throw rpcFramwork;
         }
       } finally {
-        Object remote = GrpcCallOptions.getAffinity(request.getRefUrl())
-            .get(GrpcCallOptions.GRPC_CURRENT_ADDR_KEY);
-        log.debug(String.format("Service: %s  Method: %s  RemoteAddress: %s",
-            request.getServiceName(), request.getMethodName(), String.valueOf(remote)));
+        if (log.isDebugEnabled()) {
+          Object remote = request.getCallContext().getCurrentServer();
+          log.debug(String.format("Service: %s  Method: %s  RemoteAddress: %s",
+              request.getServiceName(), request.getMethodName(), String.valueOf(remote)));
+        }
       }
     }
   }
 
   @SuppressWarnings("unchecked")
   private Object streamCall(GrpcRequest request, Channel channel) {
-    GrpcURL refUrl = request.getRefUrl();
-    GrpcStreamClientCall clientCall = GrpcStreamClientCall.create(channel, refUrl);
+    GrpcStreamClientCall clientCall =
+        GrpcStreamClientCall.create(channel, request.getCallContext());
     MethodType methodType = request.getMethodType();
-    Class<?> returnType = request.getResponseType();
-    MethodDescriptor<Message, Message> methodDesc = request.getMethodDescriptor();
+    MethodDescriptor<Object, Object> methodDesc = request.getMethodDescriptor();
     Object requestParam = request.getRequestParam();
-    StreamObserver<Message> requestObserver;
     switch (methodType) {
       case CLIENT_STREAMING:
-        requestObserver = clientCall.asyncClientStream(methodDesc, Proto2PoJoStreamObserver
-            .newObserverWrap((StreamObserver<Object>) requestParam, returnType));
-        return PoJo2ProtoStreamObserver.newObserverWrap(requestObserver);
+        return clientCall.asyncClientStream(methodDesc, (StreamObserver<Object>) requestParam);
       case SERVER_STREAMING:
         Object responseObserver = request.getResponseOberver();
-        try {
-          Message messageParam = SerializerUtil.pojo2Protobuf(requestParam);
-          clientCall.asyncServerStream(methodDesc, Proto2PoJoStreamObserver.newObserverWrap(
-              (StreamObserver<Object>) responseObserver, returnType), messageParam);
-        } catch (ProtobufException e) {
-          RpcFrameworkException rpcFramwork = new RpcFrameworkException(e);
-          throw rpcFramwork;
-        }
+        clientCall.asyncServerStream(methodDesc, (StreamObserver<Object>) responseObserver,
+            requestParam);
         return null;
       case BIDI_STREAMING:
-        requestObserver = clientCall.asyncBidiStream(methodDesc, Proto2PoJoStreamObserver
-            .newObserverWrap((StreamObserver<Object>) requestParam, returnType));
-        return PoJo2ProtoStreamObserver.newObserverWrap(requestObserver);
+        return clientCall.asyncBidiStream(methodDesc, (StreamObserver<Object>) requestParam);
       default:
         RpcServiceException rpcFramwork =
             new RpcServiceException(RpcErrorMsgConstant.SERVICE_UNFOUND);
@@ -133,13 +121,28 @@ public abstract class AbstractClientInvocation implements InvocationHandler {
 
 
   private Object unaryCall(GrpcRequest request, Channel channel) {
-    String serviceName = request.getServiceName();
-    String methodName = request.getMethodName();
-    GrpcURL refUrl = request.getRefUrl();
-    Integer retryOption = this.buildRetryOption(methodName, refUrl);
-    GrpcUnaryClientCall clientCall = GrpcUnaryClientCall.create(channel, retryOption, refUrl);
+    GrpcInvocationPlan plan = request.getInvocationPlan();
+    GrpcUnaryClientCall clientCall =
+        GrpcUnaryClientCall.create(channel, plan.getRetries(),
+        plan.getHedgingDelay(), request.getCallContext());
+    if (!plan.isHystrixIsolation()) {
+      GrpcUnaryInvoker invoker = getUnaryInvoker(plan);
+      if (plan.isFutureReturn()) {
+        return invoker.invokeAsync(request, clientCall);
+      }
+      return invoker.invoke(request, clientCall);
+    }
+    String serviceName = plan.getServiceName();
+    String methodName = plan.getMethodName();
     GrpcHystrixCommand hystrixCommand = null;
-    Boolean isEnableFallback = this.buildFallbackOption(methodName, refUrl);
+    Boolean isEnableFallback = plan.isFallbackEnabled();
+    if (plan.isFutureReturn()) {
+      hystrixCommand = new GrpcFutureUnaryCommand(serviceName, methodName, isEnableFallback);
+      hystrixCommand.setClientCall(clientCall);
+      hystrixCommand.setRequest(request);
+      hystrixCommand.setClientServerMonitor(monitor);
+      return hystrixCommand.executeAsync();
+    }
     switch (request.getCallType()) {
       case Constants.RPCTYPE_ASYNC:
         hystrixCommand = new GrpcFutureUnaryCommand(serviceName, methodName, isEnableFallback);
@@ -158,31 +161,13 @@ public abstract class AbstractClientInvocation implements InvocationHandler {
 
   }
 
-
-
-  private Boolean buildFallbackOption(String methodName, GrpcURL refUrl) {
-    Boolean isEnableFallback = refUrl.getParameter(Constants.GRPC_FALLBACK_KEY, Boolean.FALSE);
-    String[] methodNames =
-        StringUtils.split(refUrl.getParameter(Constants.FALLBACK_METHODS_KEY), ",");
-    if (methodNames != null && methodNames.length > 0) {
-      return isEnableFallback && Arrays.asList(methodNames).contains(methodName);
-    } else {
-      return isEnableFallback;
-    }
-  }
-
-  private Integer buildRetryOption(String methodName, GrpcURL refUrl) {
-    Integer retries = refUrl.getParameter((Constants.METHOD_RETRY_KEY), 0);
-    String[] methodNames = StringUtils.split(refUrl.getParameter(Constants.RETRY_METHODS_KEY), ",");
-    if (methodNames != null && methodNames.length > 0) {
-      if (Arrays.asList(methodNames).contains(methodName)) {
-        return retries;
-      } else {
-        return Integer.valueOf(0);
-      }
-    } else {
-      return retries;
+  private GrpcUnaryInvoker getUnaryInvoker(GrpcInvocationPlan plan) {
+    GrpcUnaryInvoker invoker = unaryInvokers.get(plan);
+    if (invoker == null) {
+      unaryInvokers.putIfAbsent(plan, new GrpcUnaryInvoker(plan, monitor));
+      invoker = unaryInvokers.get(plan);
     }
+    return invoker;
   }
 
 }
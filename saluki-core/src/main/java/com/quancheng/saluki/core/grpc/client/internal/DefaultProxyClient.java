@@ -8,8 +8,12 @@ package com.quancheng.saluki.core.grpc.client.internal;
 
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
+import java.util.concurrent.ConcurrentMap;
+
+import com.google.common.collect.Maps;
 
 import com.quancheng.saluki.core.common.GrpcURL;
+import com.quancheng.saluki.core.grpc.client.GrpcInvocationPlan;
 import com.quancheng.saluki.core.grpc.client.GrpcProtocolClient;
 import com.quancheng.saluki.core.grpc.client.GrpcRequest;
 import com.quancheng.saluki.core.utils.ClassHelper;
@@ -48,6 +52,8 @@ public class DefaultProxyClient<T> implements GrpcProtocolClient<T> {
     private final GrpcProtocolClient.ChannelCall channelPool;
     private final int callType;
     private final int callTimeout;
+    private final ConcurrentMap<Method, GrpcInvocationPlan> invocationPlans =
+        Maps.newConcurrentMap();
 
     public DefaultProxyClientInvocation(GrpcProtocolClient.ChannelCall call, int callType,
         int callTimeout) {
@@ -59,16 +65,28 @@ public class DefaultProxyClient<T> implements GrpcProtocolClient<T> {
 
     @Override
     protected GrpcRequest buildGrpcRequest(Method method, Object[] args) {
-      boolean isLegalMethod = ReflectUtils.isLegal(method);
-      if (isLegalMethod) {
-        throw new IllegalArgumentException(
-            "remote call type do not support this method " + method.getName());
-      }
-      GrpcRequest request = new GrpcRequest.Default(DefaultProxyClient.this.refUrl, channelPool,
-          method.getName(), args, callType, callTimeout);
+      GrpcRequest request = new GrpcRequest.Default(getInvocationPlan(method), channelPool, args,
+          callType, callTimeout);
       return request;
     }
 
+    private GrpcInvocationPlan getInvocationPlan(Method method) {
+      GrpcInvocationPlan plan = invocationPlans.get(method);
+      if (plan == null) {
+        boolean isLegalMethod = ReflectUtils.isLegal(method);
+        if (isLegalMethod) {
+          throw new IllegalArgumentException(
+              "remote call type do not support this method " + method.getName());
+        }
+        plan = GrpcInvocationPlan.create(DefaultProxyClient.this.refUrl, method);
+        GrpcInvocationPlan old = invocationPlans.putIfAbsent(method, plan);
+        if (old != null) {
+          plan = old;
+        }
+      }
+      return plan;
+    }
+
   }
 
 }
@@ -8,9 +8,13 @@ package com.quancheng.saluki.core.grpc.client.internal;
 
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
+import java.util.concurrent.ConcurrentMap;
+
+import com.google.common.collect.Maps;
 
 import com.quancheng.saluki.core.common.Constants;
 import com.quancheng.saluki.core.common.GrpcURL;
+import com.quancheng.saluki.core.grpc.client.GrpcInvocationPlan;
 import com.quancheng.saluki.core.grpc.client.GrpcProtocolClient;
 import com.quancheng.saluki.core.grpc.client.GrpcRequest;
 import com.quancheng.saluki.core.grpc.service.GenericService;
@@ -44,6 +48,8 @@ public class GenericProxyClient<T> implements GrpcProtocolClient<T> {
     private final GrpcProtocolClient.ChannelCall channelPool;
     private final int callType;
     private final int callTimeout;
+    private final ConcurrentMap<String, GrpcInvocationPlan> invocationPlans =
+        Maps.newConcurrentMap();
 
     public GenericProxyClientInvocation(GrpcProtocolClient.ChannelCall channelPool, int callType,
         int callTimeout) {
@@ -55,15 +61,29 @@ public class GenericProxyClient<T> implements GrpcProtocolClient<T> {
 
     @Override
     protected GrpcRequest buildGrpcRequest(Method method, Object[] args) {
-      GrpcURL resetRefUrl = GenericProxyClient.this.refUrl;
-      resetRefUrl = resetRefUrl.setPath(getServiceName(args));
-      resetRefUrl = resetRefUrl.addParameter(Constants.GROUP_KEY, getGroup(args));
-      resetRefUrl = resetRefUrl.addParameter(Constants.VERSION_KEY, getVersion(args));
-      GrpcRequest request = new GrpcRequest.Default(resetRefUrl, channelPool, this.getMethod(args),
+      GrpcRequest request = new GrpcRequest.Default(getInvocationPlan(args), channelPool,
           this.getArg(args), callType, callTimeout);
       return request;
     }
 
+    private GrpcInvocationPlan getInvocationPlan(Object[] args) {
+      String key = getServiceName(args) + ":" + getGroup(args) + ":" + getVersion(args) + ":"
+          + getMethod(args);
+      GrpcInvocationPlan plan = invocationPlans.get(key);
+      if (plan == null) {
+        GrpcURL resetRefUrl = GenericProxyClient.this.refUrl;
+        resetRefUrl = resetRefUrl.setPath(getServiceName(args));
+        resetRefUrl = resetRefUrl.addParameter(Constants.GROUP_KEY, getGroup(args));
+        resetRefUrl = resetRefUrl.addParameter(Constants.VERSION_KEY, getVersion(args));
+        plan = GrpcInvocationPlan.create(resetRefUrl, getMethod(args));
+        GrpcInvocationPlan old = invocationPlans.putIfAbsent(key, plan);
+        if (old != null) {
+          plan = old;
+        }
+      }
+      return plan;
+    }
+
     private String getServiceName(Object[] args) {
       return (String) args[0];
     }
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2016, Quancheng-ec.com All right reserved. This software is the confidential and
+ * proprietary information of Quancheng-ec.com ("Confidential Information"). You shall not disclose
+ * such Confidential Information and shall use it only in accordance with the terms of the license
+ * agreement you entered into with Quancheng-ec.com.
+ */
+package com.quancheng.saluki.core.grpc.client.internal;
+
+import java.net.SocketAddress;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.quancheng.saluki.core.common.GrpcURL;
+
+import io.grpc.LoadBalancer.Subchannel;
+
+/**
+ * 一次调用(含重试)的上下文，通过CallOptions传给负载均衡，记录本次调用实际访问的provider、已经失败过的provider和重试次数；
+ * 每次调用一个实例，并发调用之间互不影响
+ *
+ * @author liushiming
+ * @version GrpcCallContext.java, v 0.0.1 2026年10月18日 下午11:48:16 liushiming
+ */
+public final class GrpcCallContext {
+
+  private static final Subchannel[] NO_SUBCHANNELS = new Subchannel[0];
+
+  private final GrpcURL refUrl;
+
+  private final AtomicInteger retries = new AtomicInteger();
+
+  private volatile SocketAddress currentServer;
+
+  private volatile Subchannel pickedSubchannel;
+
+  private volatile Subchannel[] triedSubchannels = NO_SUBCHANNELS;
+
+  public GrpcCallContext(GrpcURL refUrl) {
+    this.refUrl = refUrl;
+  }
+
+  public GrpcURL getRefUrl() {
+    return refUrl;
+  }
+
+  /**
+   * 最近一次尝试访问的provider，调用还没有结束或传输没有远端地址时为null
+   */
+  public SocketAddress getCurrentServer() {
+    return currentServer;
+  }
+
+  public void setCurrentServer(SocketAddress currentServer) {
+    this.currentServer = currentServer;
+  }
+
+  /**
+   * 由负载均衡在pick时写入
+   */
+  public void setPickedSubchannel(Subchannel pickedSubchannel) {
+    this.pickedSubchannel = pickedSubchannel;
+  }
+
+  /**
+   * 把最近一次选中的provider记为失败，重试时负载均衡优先选择其他provider；只影响本次调用
+   */
+  public void markPickedTried() {
+    Subchannel picked = pickedSubchannel;
+    if (picked == null || isTried(picked)) {
+      return;
+    }
+    Subchannel[] tried = triedSubchannels;
+    Subchannel[] newTried = Arrays.copyOf(tried, tried.length + 1);
+    newTried[tried.length] = picked;
+    triedSubchannels = newTried;
+  }
+
+  public boolean hasTried() {
+    return triedSubchannels.length > 0;
+  }
+
+  public boolean isTried(Subchannel subchannel) {
+    for (Subchannel tried : triedSubchannels) {
+      if (tried == subchannel) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  public int getRetries() {
+    return retries.get();
+  }
+
+  public int incrementRetries() {
+    return retries.incrementAndGet();
+  }
+
+  @Override
+  public String toString() {
+    return "GrpcCallContext [refUrl=" + refUrl + ", currentServer=" + currentServer + ", retries="
+        + retries + "]";
+  }
+
+}
@@ -13,13 +13,27 @@
  */
 package com.quancheng.saluki.core.grpc.client.internal;
 
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 
-import com.google.common.collect.Maps;
+import org.apache.commons.lang3.StringUtils;
+
+import com.google.protobuf.Descriptors.FieldDescriptor;
+import com.google.protobuf.Message;
 import com.quancheng.saluki.core.common.GrpcURL;
+import com.quancheng.saluki.core.common.RpcContext;
+import com.quancheng.saluki.serializer.ProtobufAttribute;
 
 import io.grpc.CallOptions;
+import io.grpc.Context;
+import io.grpc.Deadline;
 
 /**
  * @author liushiming
@@ -27,35 +41,124 @@ import io.grpc.CallOptions;
  * @since JDK 1.8
  */
 public abstract class GrpcCallOptions {
-  public static final CallOptions.Key<ConcurrentHashMap<String, Object>> CALLOPTIONS_CUSTOME_KEY =
-      CallOptions.Key.of("custom_options", new ConcurrentHashMap<String, Object>());
-
-  public static final String GRPC_REF_URL = "grpc-refurl";
+  public static final CallOptions.Key<GrpcCallContext> CALLOPTIONS_CALL_CONTEXT =
+      CallOptions.Key.of("call_context", null);
 
-  public static final String GRPC_CURRENT_ADDR_KEY = "current-address";
+  public static final CallOptions.Key<String> CALLOPTIONS_HASH_KEY =
+      CallOptions.Key.of("hash_key", null);
 
-  public static final String GRPC_NAMERESOVER_ATTRIBUTES = "nameresolver-attributes";
+  private static final ConcurrentMap<Class<?>, Map<String, Method>> HASH_KEY_GETTERS =
+      new ConcurrentHashMap<Class<?>, Map<String, Method>>();
 
-  private static final Map<String, CallOptions> CACHEOPTIONS_CACHE = Maps.newConcurrentMap();
+  /**
+   * 每次调用使用新的上下文，不能跨调用复用
+   */
+  public static CallOptions createCallOptions(final GrpcCallContext callContext) {
+    return CallOptions.DEFAULT.withOption(CALLOPTIONS_CALL_CONTEXT, callContext);
+  }
 
   public static CallOptions createCallOptions(final GrpcURL refUrl) {
-    String serviceName = refUrl.getServiceInterface();
-    CallOptions options = CACHEOPTIONS_CACHE.get(serviceName);
-    if (options == null) {
-      ConcurrentHashMap<String, Object> customOptions = new ConcurrentHashMap<String, Object>();
-      customOptions.put(GRPC_REF_URL, refUrl);
-      options = CallOptions.DEFAULT.withOption(CALLOPTIONS_CUSTOME_KEY, customOptions);
-      CACHEOPTIONS_CACHE.put(serviceName, options);
-      return options;
-    } else {
-      return options;
+    return createCallOptions(new GrpcCallContext(refUrl));
+  }
+
+  /**
+   * 在provider中发起的调用继承上游剩余的时间：优先取RpcContext中的deadline，业务线程上被清理后取当前grpc Context的deadline；
+   * 必须在发起调用的线程上取，hystrix线程上两者都没有
+   */
+  public static Deadline inheritedDeadline() {
+    Deadline deadline = RpcContext.getContext().getDeadline();
+    return deadline != null ? deadline : Context.current().getDeadline();
+  }
+
+  /**
+   * timeout与继承的deadline取较早的一个，都没有时不设置
+   */
+  public static CallOptions withDeadline(CallOptions options, int timeout,
+      Deadline inheritedDeadline) {
+    Deadline deadline = timeout > 0 ? Deadline.after(timeout, TimeUnit.MILLISECONDS) : null;
+    if (inheritedDeadline != null && (deadline == null || inheritedDeadline.isBefore(deadline))) {
+      deadline = inheritedDeadline;
     }
+    return deadline != null ? options.withDeadline(deadline) : options;
   }
 
-  public static Map<String, Object> getAffinity(final GrpcURL refUrl) {
-    String serviceName = refUrl.getServiceInterface();
-    return CACHEOPTIONS_CACHE.get(serviceName).getOption(CALLOPTIONS_CUSTOME_KEY);
+  /**
+   * 一致性hash负载均衡使用的key：优先取RpcContext中名为hashKeyName的attachment，其次取请求POJO中同名的@ProtobufAttribute字段，
+   * 请求本身是Protobuf消息时取同名的字段；都没有时不设置
+   */
+  public static CallOptions withHashKey(CallOptions options, String hashKeyName, Object request) {
+    String hashKey = RpcContext.getContext().getAttachment(hashKeyName);
+    if (hashKey == null && request != null) {
+      Method getter = hashKeyGetters(request.getClass()).get(hashKeyName);
+      if (getter != null) {
+        Object value = invokeGetter(getter, request);
+        hashKey = value != null ? String.valueOf(value) : null;
+      }
+    }
+    if (hashKey == null && request instanceof Message) {
+      Message message = (Message) request;
+      FieldDescriptor field = message.getDescriptorForType().findFieldByName(hashKeyName);
+      if (field != null && !field.isRepeated() && message.hasField(field)) {
+        hashKey = String.valueOf(message.getField(field));
+      }
+    }
+    return hashKey != null ? options.withOption(CALLOPTIONS_HASH_KEY, hashKey) : options;
   }
 
+  /**
+   * 请求类上@ProtobufAttribute字段名到getter的映射，含父类的字段，每个类只解析一次；配置了pojoGetter时使用配置的方法
+   */
+  private static Map<String, Method> hashKeyGetters(Class<?> requestClass) {
+    Map<String, Method> getters = HASH_KEY_GETTERS.get(requestClass);
+    if (getters == null) {
+      Map<String, Method> resolved = new HashMap<String, Method>();
+      for (Class<?> clazz = requestClass; clazz != null
+          && clazz != Object.class; clazz = clazz.getSuperclass()) {
+        for (Field field : clazz.getDeclaredFields()) {
+          ProtobufAttribute attribute = field.getAnnotation(ProtobufAttribute.class);
+          if (attribute != null && !resolved.containsKey(field.getName())) {
+            Method getter = findGetter(requestClass, field, attribute);
+            if (getter != null) {
+              resolved.put(field.getName(), getter);
+            }
+          }
+        }
+      }
+      getters = resolved.isEmpty() ? Collections.<String, Method>emptyMap() : resolved;
+      Map<String, Method> existing = HASH_KEY_GETTERS.putIfAbsent(requestClass, getters);
+      if (existing != null) {
+        getters = existing;
+      }
+    }
+    return getters;
+  }
+
+  private static Method findGetter(Class<?> requestClass, Field field,
+      ProtobufAttribute attribute) {
+    String[] names = StringUtils.isNotEmpty(attribute.pojoGetter())
+        ? new String[] {attribute.pojoGetter()}
+        : new String[] {"get" + StringUtils.capitalize(field.getName()),
+            "is" + StringUtils.capitalize(field.getName())};
+    for (String name : names) {
+      try {
+        Method getter = requestClass.getMethod(name);
+        getter.setAccessible(true);
+        return getter;
+      } catch (NoSuchMethodException e) {
+        // 继续按照下一个名字查找
+      }
+    }
+    return null;
+  }
+
+  private static Object invokeGetter(Method getter, Object request) {
+    try {
+      return getter.invoke(request);
+    } catch (IllegalAccessException e) {
+      throw new IllegalStateException("Can not read hash key by " + getter, e);
+    } catch (InvocationTargetException e) {
+      throw new IllegalStateException("Can not read hash key by " + getter, e.getCause());
+    }
+  }
 
 }
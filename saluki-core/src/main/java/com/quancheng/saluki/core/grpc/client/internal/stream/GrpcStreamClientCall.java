@@ -13,8 +13,7 @@
  */
 package com.quancheng.saluki.core.grpc.client.internal.stream;
 
-import com.google.protobuf.Message;
-import com.quancheng.saluki.core.common.GrpcURL;
+import com.quancheng.saluki.core.grpc.client.internal.GrpcCallContext;
 import com.quancheng.saluki.core.grpc.client.internal.GrpcCallOptions;
 
 import io.grpc.CallOptions;
@@ -31,43 +30,44 @@ import io.grpc.stub.StreamObserver;
  */
 public interface GrpcStreamClientCall {
 
-  public StreamObserver<Message> asyncClientStream(MethodDescriptor<Message, Message> method,
-      StreamObserver<Message> responseObserver);
+  public StreamObserver<Object> asyncClientStream(MethodDescriptor<Object, Object> method,
+      StreamObserver<Object> responseObserver);
 
-  public void asyncServerStream(MethodDescriptor<Message, Message> method,
-      StreamObserver<Message> responseObserver, Message requestParam);
+  public void asyncServerStream(MethodDescriptor<Object, Object> method,
+      StreamObserver<Object> responseObserver, Object requestParam);
 
-  public StreamObserver<Message> asyncBidiStream(MethodDescriptor<Message, Message> method,
-      StreamObserver<Message> responseObserver);
+  public StreamObserver<Object> asyncBidiStream(MethodDescriptor<Object, Object> method,
+      StreamObserver<Object> responseObserver);
 
 
-  public static GrpcStreamClientCall create(final Channel channel, final GrpcURL refUrl) {
-    CallOptions callOptions = GrpcCallOptions.createCallOptions(refUrl);
+  public static GrpcStreamClientCall create(final Channel channel,
+      final GrpcCallContext callContext) {
+    CallOptions callOptions = GrpcCallOptions.createCallOptions(callContext);
     return new GrpcStreamClientCall() {
 
       @Override
-      public StreamObserver<Message> asyncClientStream(MethodDescriptor<Message, Message> method,
-          StreamObserver<Message> responseObserver) {
+      public StreamObserver<Object> asyncClientStream(MethodDescriptor<Object, Object> method,
+          StreamObserver<Object> responseObserver) {
         boolean streamingResponse = false;
-        ClientCall<Message, Message> call = channel.newCall(method, callOptions);
-        CallToStreamObserverAdapter<Message, Message> adapter =
-            new CallToStreamObserverAdapter<Message, Message>(call);
-        ClientCall.Listener<Message> responseListener =
-            new StreamObserverToCallListenerAdapter<Message, Message>(responseObserver, adapter,
+        ClientCall<Object, Object> call = channel.newCall(method, callOptions);
+        CallToStreamObserverAdapter<Object, Object> adapter =
+            new CallToStreamObserverAdapter<Object, Object>(call);
+        ClientCall.Listener<Object> responseListener =
+            new StreamObserverToCallListenerAdapter<Object, Object>(responseObserver, adapter,
                 streamingResponse);
         startCall(call, responseListener, streamingResponse);
         return adapter;
       }
 
       @Override
-      public void asyncServerStream(MethodDescriptor<Message, Message> method,
-          StreamObserver<Message> responseObserver, Message requestParam) {
+      public void asyncServerStream(MethodDescriptor<Object, Object> method,
+          StreamObserver<Object> responseObserver, Object requestParam) {
         boolean streamingResponse = true;
-        ClientCall<Message, Message> call = channel.newCall(method, callOptions);
-        CallToStreamObserverAdapter<Message, Message> adapter =
-            new CallToStreamObserverAdapter<Message, Message>(call);
-        ClientCall.Listener<Message> responseListener =
-            new StreamObserverToCallListenerAdapter<Message, Message>(responseObserver, adapter,
+        ClientCall<Object, Object> call = channel.newCall(method, callOptions);
+        CallToStreamObserverAdapter<Object, Object> adapter =
+            new CallToStreamObserverAdapter<Object, Object>(call);
+        ClientCall.Listener<Object> responseListener =
+            new StreamObserverToCallListenerAdapter<Object, Object>(responseObserver, adapter,
                 streamingResponse);
         startCall(call, responseListener, streamingResponse);
         try {
@@ -80,14 +80,14 @@ public interface GrpcStreamClientCall {
       }
 
       @Override
-      public StreamObserver<Message> asyncBidiStream(MethodDescriptor<Message, Message> method,
-          StreamObserver<Message> responseObserver) {
+      public StreamObserver<Object> asyncBidiStream(MethodDescriptor<Object, Object> method,
+          StreamObserver<Object> responseObserver) {
         boolean streamingResponse = true;
-        ClientCall<Message, Message> call = channel.newCall(method, callOptions);
-        CallToStreamObserverAdapter<Message, Message> adapter =
-            new CallToStreamObserverAdapter<Message, Message>(call);
-        ClientCall.Listener<Message> responseListener =
-            new StreamObserverToCallListenerAdapter<Message, Message>(responseObserver, adapter,
+        ClientCall<Object, Object> call = channel.newCall(method, callOptions);
+        CallToStreamObserverAdapter<Object, Object> adapter =
+            new CallToStreamObserverAdapter<Object, Object>(call);
+        ClientCall.Listener<Object> responseListener =
+            new StreamObserverToCallListenerAdapter<Object, Object>(responseObserver, adapter,
                 streamingResponse);
         startCall(call, responseListener, streamingResponse);
         return adapter;
@@ -96,8 +96,8 @@ public interface GrpcStreamClientCall {
 
   }
 
-  static void startCall(ClientCall<Message, Message> call,
-      ClientCall.Listener<Message> responseListener, boolean streamingResponse) {
+  static void startCall(ClientCall<Object, Object> call,
+      ClientCall.Listener<Object> responseListener, boolean streamingResponse) {
     call.start(responseListener, new Metadata());
     if (streamingResponse) {
       call.request(1);
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2016, Quancheng-ec.com All right reserved. This software is the confidential and
+ * proprietary information of Quancheng-ec.com ("Confidential Information"). You shall not disclose
+ * such Confidential Information and shall use it only in accordance with the terms of the license
+ * agreement you entered into with Quancheng-ec.com.
+ */
+package com.quancheng.saluki.core.grpc.client.internal.unary;
+
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.google.common.collect.Maps;
+
+/**
+ * 无锁的滑动窗口熔断器，阈值与原先Hystrix的配置保持一致：10秒窗口内至少20次请求且错误率达到50%时打开，30秒后半打开放一个请求试探
+ *
+ * @author liushiming
+ * @version CircuitBreaker.java, v 0.0.1 2026年10月18日 下午6:10:35 liushiming
+ */
+public final class CircuitBreaker {
+
+  private static final int BUCKETS = 10;
+
+  private static final long BUCKET_MILLIS = 1000L;
+
+  private static final int REQUEST_VOLUME_THRESHOLD = 20;
+
+  private static final int ERROR_THRESHOLD_PERCENTAGE = 50;
+
+  private static final long SLEEP_WINDOW_MILLIS = 30000L;
+
+  private static final int CLOSED = 0;
+
+  private static final int OPEN = 1;
+
+  private static final int HALF_OPEN = 2;
+
+  private static final ConcurrentMap<String, CircuitBreaker> breakers = Maps.newConcurrentMap();
+
+  private final AtomicLongArray bucketStarts = new AtomicLongArray(BUCKETS);
+
+  private final AtomicLongArray successes = new AtomicLongArray(BUCKETS);
+
+  private final AtomicLongArray failures = new AtomicLongArray(BUCKETS);
+
+  private final AtomicInteger state = new AtomicInteger(CLOSED);
+
+  private volatile long openedAt;
+
+  private CircuitBreaker() {}
+
+  public static CircuitBreaker getCircuitBreaker(String serviceName, String methodName) {
+    String key = serviceName + ":" + methodName;
+    CircuitBreaker breaker = breakers.get(key);
+    if (breaker == null) {
+      breakers.putIfAbsent(key, new CircuitBreaker());
+      breaker = breakers.get(key);
+    }
+    return breaker;
+  }
+
+  /**
+   * 打开状态下睡眠窗口过后只有一个请求能把状态切到半打开，其余请求继续被拒绝直到试探请求结束
+   */
+  public boolean allowRequest() {
+    int current = state.get();
+    if (current == CLOSED) {
+      return true;
+    }
+    if (current == OPEN && System.currentTimeMillis() - openedAt >= SLEEP_WINDOW_MILLIS) {
+      return state.compareAndSet(OPEN, HALF_OPEN);
+    }
+    return false;
+  }
+
+  public boolean isOpen() {
+    return state.get() != CLOSED;
+  }
+
+  public void markSuccess() {
+    long now = System.currentTimeMillis();
+    successes.incrementAndGet(currentBucket(now));
+    if (state.get() == HALF_OPEN && state.compareAndSet(HALF_OPEN, CLOSED)) {
+      for (int i = 0; i < BUCKETS; i++) {
+        bucketStarts.set(i, 0L);
+      }
+    }
+  }
+
+  public void markFailure() {
+    long now = System.currentTimeMillis();
+    failures.incrementAndGet(currentBucket(now));
+    int current = state.get();
+    if (current == HALF_OPEN) {
+      trip(HALF_OPEN, now);
+    } else if (current == CLOSED) {
+      long total = 0;
+      long failed = 0;
+      for (int i = 0; i < BUCKETS; i++) {
+        if (now - bucketStarts.get(i) < BUCKETS * BUCKET_MILLIS) {
+          total += successes.get(i) + failures.get(i);
+          failed += failures.get(i);
+        }
+      }
+      if (total >= REQUEST_VOLUME_THRESHOLD
+          && failed * 100 >= total * ERROR_THRESHOLD_PERCENTAGE) {
+        trip(CLOSED, now);
+      }
+    }
+  }
+
+  private void trip(int expect, long now) {
+    if (state.compareAndSet(expect, OPEN)) {
+      openedAt = now;
+    }
+  }
+
+  /**
+   * 桶过期时由抢到CAS的线程清零，并发下可能少计几次，对错误率统计没有影响
+   */
+  private int currentBucket(long now) {
+    long bucketStart = now - now % BUCKET_MILLIS;
+    int index = (int) ((now / BUCKET_MILLIS) % BUCKETS);
+    long previous = bucketStarts.get(index);
+    if (previous != bucketStart && bucketStarts.compareAndSet(index, previous, bucketStart)) {
+      successes.set(index, 0L);
+      failures.set(index, 0L);
+    }
+    return index;
+  }
+
+}
@@ -24,15 +24,28 @@ import io.grpc.ClientCall;
  */
 public class CompletionFuture<T> extends AbstractFuture<T> {
 
-  private final ClientCall<?, T> call;
+  private volatile ClientCall<?, T> call;
 
-  CompletionFuture(ClientCall<?, T> call) {
+  CompletionFuture() {}
+
+  /**
+   * 重试时换成新的ClientCall，取消future时取消的是正在进行的那次调用
+   */
+  void setCall(ClientCall<?, T> call) {
     this.call = call;
   }
 
+  /**
+   * interruptTask只在cancel(true)时回调，cancel(false)也要取消正在进行的调用
+   */
   @Override
-  protected void interruptTask() {
-    call.cancel("CompletionFuture was cancelled", null);
+  protected void afterDone() {
+    if (isCancelled()) {
+      ClientCall<?, T> current = call;
+      if (current != null) {
+        current.cancel("CompletionFuture was cancelled", null);
+      }
+    }
   }
 
   @Override
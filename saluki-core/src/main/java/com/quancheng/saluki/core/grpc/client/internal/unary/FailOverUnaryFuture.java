@@ -7,26 +7,31 @@
 package com.quancheng.saluki.core.grpc.client.internal.unary;
 
 import java.net.SocketAddress;
-import java.util.Map;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.util.concurrent.ListenableFuture;
-import com.quancheng.saluki.core.grpc.client.internal.GrpcCallOptions;
+import com.quancheng.saluki.core.grpc.client.internal.GrpcCallContext;
 
 import io.grpc.CallOptions;
 import io.grpc.Channel;
 import io.grpc.ClientCall;
+import io.grpc.Deadline;
 import io.grpc.Grpc;
 import io.grpc.Metadata;
 import io.grpc.MethodDescriptor;
 import io.grpc.Status;
 import io.grpc.internal.GrpcUtil;
+import io.grpc.internal.SharedResourceHolder;
 
 /**
+ * 失败后按指数退避加随机抖动重试，重试次数受服务引用的重试令牌桶限制，不会超过调用的deadline；
+ * 重试时只在本次调用内避开已经失败过的provider，不改动负载均衡的地址列表
+ *
  * @author liushiming 2017年5月2日 下午5:42:42
  * @version FailOverListener.java, v 0.0.1 2017年5月2日 下午5:42:42 liushiming
  */
@@ -35,27 +40,38 @@ public class FailOverUnaryFuture<Request, Response> extends ClientCall.Listener<
 
   private final static Logger logger = LoggerFactory.getLogger(FailOverUnaryFuture.class);
 
-  private final ScheduledExecutorService scheduleRetryService = GrpcUtil.TIMER_SERVICE.create();
+  private static final ScheduledExecutorService RETRY_SCHEDULER =
+      SharedResourceHolder.get(GrpcUtil.TIMER_SERVICE);
 
-  private final AtomicInteger currentRetries = new AtomicInteger(0);
+  private static final long INITIAL_BACKOFF_MILLIS = 50;
+
+  private static final long MAX_BACKOFF_MILLIS = 1000;
 
   private final MethodDescriptor<Request, Response> method;
 
-  private CompletionFuture<Response> completionFuture;
+  private final GrpcCallContext callContext;
+
+  private final CompletionFuture<Response> completionFuture = new CompletionFuture<Response>();
 
-  private ClientCall<Request, Response> clientCall;
+  private volatile ClientCall<Request, Response> clientCall;
 
   private Request request;
   private Response response;
   private Integer maxRetries;
   private boolean enabledRetry;
+  private RetryBudget retryBudget;
   private CallOptions callOptions;
   private Channel channel;
 
-  public FailOverUnaryFuture(final MethodDescriptor<Request, Response> method) {
+  public FailOverUnaryFuture(final MethodDescriptor<Request, Response> method,
+      final GrpcCallContext callContext) {
     this.method = method;
+    this.callContext = callContext;
   }
 
+  /**
+   * callOptions需要携带构造时传入的调用上下文
+   */
   public void setCallOptions(CallOptions callOptions) {
     this.callOptions = callOptions;
   }
@@ -69,13 +85,17 @@ public class FailOverUnaryFuture<Request, Response> extends ClientCall.Listener<
     this.enabledRetry = maxRetries > 0 ? true : false;
   }
 
+  public void setRetryBudget(RetryBudget retryBudget) {
+    this.retryBudget = retryBudget;
+  }
+
   public void setRequest(Request request) {
     this.request = request;
   }
 
   @Override
   public void onMessage(Response message) {
-    if (this.response != null && !enabledRetry) {
+    if (this.response != null) {
       throw Status.INTERNAL.withDescription("More than one value received for unary call")
           .asRuntimeException();
     }
@@ -87,8 +107,10 @@ public class FailOverUnaryFuture<Request, Response> extends ClientCall.Listener<
   public void onClose(Status status, Metadata trailers) {
     try {
       SocketAddress remoteServer = clientCall.getAttributes().get(Grpc.TRANSPORT_ATTR_REMOTE_ADDR);
-      callOptions.getOption(GrpcCallOptions.CALLOPTIONS_CUSTOME_KEY)
-          .put(GrpcCallOptions.GRPC_CURRENT_ADDR_KEY, remoteServer);
+      // in-process等传输没有远端地址
+      if (remoteServer != null) {
+        callContext.setCurrentServer(remoteServer);
+      }
     } finally {
       if (status.isOk()) {
         statusOk(trailers);
@@ -99,58 +121,63 @@ public class FailOverUnaryFuture<Request, Response> extends ClientCall.Listener<
   }
 
   private void statusOk(Metadata trailers) {
-    try {
-      if (enabledRetry) {
-        final NameResolverNotify nameResolverNotify = this.createNameResolverNotify();
-        nameResolverNotify.resetChannel();
-      }
-    } finally {
-      if (response == null) {
-        completionFuture.setException(Status.INTERNAL
-            .withDescription("No value received for unary call").asRuntimeException(trailers));
-      }
-      completionFuture.set(response);
+    if (enabledRetry) {
+      retryBudget.deposit();
     }
+    if (response == null) {
+      completionFuture.setException(Status.INTERNAL
+          .withDescription("No value received for unary call").asRuntimeException(trailers));
+    }
+    completionFuture.set(response);
   }
 
 
   private void statusError(Status status, Metadata trailers) {
-    if (enabledRetry) {
-      final NameResolverNotify nameResolverNotify = this.createNameResolverNotify();
-      boolean retryHaveDone = this.retryHaveDone();
-      if (retryHaveDone) {
-        completionFuture.setException(status.asRuntimeException(trailers));
-      } else {
-        nameResolverNotify.refreshChannel();
-        scheduleRetryService.execute(this);
-        SocketAddress remoteAddress =
-            (SocketAddress) callOptions.getOption(GrpcCallOptions.CALLOPTIONS_CUSTOME_KEY)
-                .get(GrpcCallOptions.GRPC_CURRENT_ADDR_KEY);
+    if (isRetryable(status)) {
+      long backoff = nextBackoff();
+      if (!exceedsDeadline(backoff) && retryBudget.tryWithdraw()) {
+        callContext.markPickedTried();
         logger.error(String.format("Retrying failed call. Failure #%d，Failure Server: %s",
-            currentRetries.get(), String.valueOf(remoteAddress)));
-        currentRetries.getAndIncrement();
+            callContext.getRetries(), String.valueOf(callContext.getCurrentServer())));
+        callContext.incrementRetries();
+        RETRY_SCHEDULER.schedule(this, backoff, TimeUnit.MILLISECONDS);
+        return;
       }
-    } else {
-      completionFuture.setException(status.asRuntimeException(trailers));
     }
+    completionFuture.setException(status.asRuntimeException(trailers));
+  }
 
+  private boolean isRetryable(Status status) {
+    Status.Code code = status.getCode();
+    return enabledRetry && code != Status.Code.DEADLINE_EXCEEDED
+        && code != Status.Code.CANCELLED && callContext.getRetries() < maxRetries
+        && !completionFuture.isDone();
   }
 
-  private NameResolverNotify createNameResolverNotify() {
-    Map<String, Object> affinity = callOptions.getOption(GrpcCallOptions.CALLOPTIONS_CUSTOME_KEY);
-    NameResolverNotify nameResolverNotify = NameResolverNotify.newNameResolverNotify();
-    nameResolverNotify.refreshAffinity(affinity);
-    return nameResolverNotify;
+  /**
+   * 第n次重试在[0, min(50ms * 2^n, 1s))内随机等待，避免同时失败的调用一起重试
+   */
+  private long nextBackoff() {
+    long ceiling =
+        Math.min(INITIAL_BACKOFF_MILLIS << Math.min(callContext.getRetries(), 10),
+            MAX_BACKOFF_MILLIS);
+    return ThreadLocalRandom.current().nextLong(ceiling);
   }
 
-  private boolean retryHaveDone() {
-    return currentRetries.get() >= maxRetries;
+  private boolean exceedsDeadline(long backoff) {
+    Deadline deadline = callOptions.getDeadline();
+    return deadline != null && deadline.timeRemaining(TimeUnit.MILLISECONDS) <= backoff;
   }
 
   @Override
   public void run() {
+    // 退避期间future已经被取消
+    if (completionFuture.isDone()) {
+      return;
+    }
+    this.response = null;
     this.clientCall = channel.newCall(method, callOptions);
-    this.completionFuture = new CompletionFuture<Response>(this.clientCall);
+    this.completionFuture.setCall(this.clientCall);
     this.clientCall.start(this, new Metadata());
     this.clientCall.sendMessage(request);
     this.clientCall.halfClose();
@@ -163,9 +190,7 @@ public class FailOverUnaryFuture<Request, Response> extends ClientCall.Listener<
   }
 
   public void cancel() {
-    if (clientCall != null) {
-      clientCall.cancel("User requested cancelation.", null);
-    }
+    completionFuture.cancel(true);
   }
 
 }
@@ -16,7 +16,6 @@ package com.quancheng.saluki.core.grpc.client.internal.unary;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.protobuf.Message;
 import com.quancheng.saluki.core.grpc.exception.RpcErrorMsgConstant;
 import com.quancheng.saluki.core.grpc.exception.RpcServiceException;
 
@@ -36,15 +35,15 @@ public class GrpcBlockingUnaryCommand extends GrpcHystrixCommand {
   }
 
   /**
-   * @see com.quancheng.saluki.core.grpc.client.internal.unary.GrpcHystrixCommand#run0(com.google.protobuf.Message,
+   * @see com.quancheng.saluki.core.grpc.client.internal.unary.GrpcHystrixCommand#run0(java.lang.Object,
    *      io.grpc.MethodDescriptor, java.lang.Integer,
    *      com.quancheng.saluki.core.grpc.client.internal.unary.GrpcUnaryClientCall)
    */
   @Override
-  protected Message run0(Message req, MethodDescriptor<Message, Message> methodDesc,
+  protected Object run0(Object req, MethodDescriptor<Object, Object> methodDesc,
       Integer timeOut, GrpcUnaryClientCall clientCall) {
     try {
-      return clientCall.blockingUnaryResult(req, methodDesc);
+      return clientCall.blockingUnaryResult(req, methodDesc, timeOut);
     } catch (Throwable e) {
       logger.error(e.getMessage(), e);
       super.cacheCurrentServer();
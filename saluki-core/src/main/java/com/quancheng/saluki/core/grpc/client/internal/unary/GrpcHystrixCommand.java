@@ -13,41 +13,30 @@
  */
 package com.quancheng.saluki.core.grpc.client.internal.unary;
 
-import java.net.InetSocketAddress;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
 
 import org.apache.commons.lang3.tuple.ImmutableTriple;
 import org.apache.commons.lang3.tuple.Triple;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
-import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.google.protobuf.Message;
 import com.netflix.hystrix.HystrixCommand;
 import com.netflix.hystrix.HystrixCommandGroupKey;
 import com.netflix.hystrix.HystrixCommandKey;
 import com.netflix.hystrix.HystrixCommandProperties;
 import com.netflix.hystrix.HystrixThreadPoolProperties;
-import com.quancheng.saluki.core.common.Constants;
-import com.quancheng.saluki.core.common.GrpcURL;
-import com.quancheng.saluki.core.common.NamedThreadFactory;
 import com.quancheng.saluki.core.common.RpcContext;
 import com.quancheng.saluki.core.grpc.client.GrpcRequest;
-import com.quancheng.saluki.core.grpc.client.GrpcResponse;
-import com.quancheng.saluki.core.grpc.client.internal.GrpcCallOptions;
-import com.quancheng.saluki.core.grpc.exception.RpcFrameworkException;
 import com.quancheng.saluki.core.grpc.service.ClientServerMonitor;
-import com.quancheng.saluki.core.grpc.service.MonitorService;
-import com.quancheng.saluki.core.grpc.util.GrpcUtil;
-import com.quancheng.saluki.core.grpc.util.SerializerUtil;
-import com.quancheng.saluki.serializer.exception.ProtobufException;
 
 import io.grpc.MethodDescriptor;
+import rx.Subscriber;
+import rx.Subscription;
 
 /**
  * @author liushiming 2017年4月26日 下午6:16:32
@@ -56,10 +45,6 @@ import io.grpc.MethodDescriptor;
 @SuppressWarnings("rawtypes")
 public abstract class GrpcHystrixCommand extends HystrixCommand<Object> {
 
-  private static final Logger logger = LoggerFactory.getLogger(GrpcHystrixCommand.class);
-
-  private static final ConcurrentMap<String, AtomicInteger> concurrents = Maps.newConcurrentMap();
-
   private final String serviceName;
 
   private final String methodName;
@@ -74,8 +59,9 @@ public abstract class GrpcHystrixCommand extends HystrixCommand<Object> {
 
   private ClientServerMonitor clientServerMonitor;
 
-  private static final ExecutorService collectLogExecutor =
-      Executors.newSingleThreadExecutor(new NamedThreadFactory("salukiCollectTask", true));
+  private volatile ListenableFuture<Object> callFuture;
+
+  private volatile boolean cancelled;
 
 
   public GrpcHystrixCommand(String serviceName, String methodName, Boolean isEnabledFallBack) {
@@ -112,125 +98,117 @@ public abstract class GrpcHystrixCommand extends HystrixCommand<Object> {
 
   @Override
   public Object execute() {
+    AtomicInteger concurrent = GrpcUnaryMonitor.currentConcurrent(serviceName, methodName);
     try {
-      currentConcurrent(this.serviceName, this.methodName).incrementAndGet();
+      concurrent.incrementAndGet();
       return super.execute();
     } finally {
-      currentConcurrent(this.serviceName, this.methodName).decrementAndGet();
+      concurrent.decrementAndGet();
     }
   }
 
-  @Override
-  protected Object run() throws Exception {
-    try {
-      RpcContext.getContext().setAttachments(rpcContext.getLeft());
-      RpcContext.getContext().set(rpcContext.getMiddle());
-      RpcContext.getContext().setHoldenGroups(rpcContext.getRight());
-      MethodDescriptor<Message, Message> methodDesc = this.request.getMethodDescriptor();
-      Integer timeOut = this.request.getCallTimeout();
-      Message request = getRequestMessage();
-      Message response = this.run0(request, methodDesc, timeOut, clientCall);
-      Object obj = this.transformMessage(response);
-      collectLogExecutor.execute(new Runnable() {
-
-        @Override
-        public void run() {
-          collect(serviceName, methodName, request, response, false);
-        }
-      });
-      return obj;
-    } finally {
-      RpcContext.removeContext();
-    }
-  }
+  /**
+   * 订阅Hystrix的Observable完成CompletableFuture，调用线程不再阻塞；实际调用仍在Hystrix线程池中执行；
+   * CompletableFuture被取消时退订并取消正在进行的调用
+   */
+  public CompletableFuture<Object> executeAsync() {
+    final AtomicInteger concurrent = GrpcUnaryMonitor.currentConcurrent(serviceName, methodName);
+    final AtomicBoolean released = new AtomicBoolean();
+    final CompletableFuture<Object> result = new CompletableFuture<Object>();
+    concurrent.incrementAndGet();
+    final Subscription subscription = super.toObservable().subscribe(new Subscriber<Object>() {
 
-  @Override
-  protected Object getFallback() {
-    Class<?> responseType = this.request.getResponseType();
-    Message response = GrpcUtil.createDefaultInstance(responseType);
-    Object obj = this.transformMessage(response);
-    collectLogExecutor.execute(new Runnable() {
+      @Override
+      public void onCompleted() {
+        release(concurrent, released);
+      }
+
+      @Override
+      public void onError(Throwable e) {
+        release(concurrent, released);
+        result.completeExceptionally(e);
+      }
 
       @Override
-      public void run() {
-        collect(serviceName, methodName, getRequestMessage(), response, true);
+      public void onNext(Object response) {
+        result.complete(response);
       }
     });
-    return obj;
+    result.whenComplete(new BiConsumer<Object, Throwable>() {
+
+      @Override
+      public void accept(Object response, Throwable e) {
+        if (result.isCancelled()) {
+          subscription.unsubscribe();
+          cancelCall();
+          // 退订后不会再收到onCompleted/onError
+          release(concurrent, released);
+        }
+      }
+    });
+    return result;
   }
 
-  protected AtomicInteger currentConcurrent(String serviceName, String methodName) {
-    String key = serviceName + ":" + methodName;
-    AtomicInteger concurrent = concurrents.get(key);
-    if (concurrent == null) {
-      concurrents.putIfAbsent(key, new AtomicInteger());
-      concurrent = concurrents.get(key);
+  private static void release(AtomicInteger concurrent, AtomicBoolean released) {
+    if (released.compareAndSet(false, true)) {
+      concurrent.decrementAndGet();
     }
-    return concurrent;
   }
 
-  private Message getRequestMessage() {
-    try {
-      Object param = this.request.getRequestParam();
-      return SerializerUtil.pojo2Protobuf(param);
-    } catch (ProtobufException e) {
-      RpcFrameworkException rpcFramwork = new RpcFrameworkException(e);
-      throw rpcFramwork;
+  /**
+   * 发起异步调用并记下返回的future，命令已被取消时立即取消这次调用
+   */
+  protected ListenableFuture<Object> startCall(Object req,
+      MethodDescriptor<Object, Object> methodDesc, Integer timeOut,
+      GrpcUnaryClientCall clientCall) {
+    ListenableFuture<Object> future = clientCall.unaryFuture(req, methodDesc, timeOut);
+    callFuture = future;
+    if (cancelled) {
+      future.cancel(false);
     }
+    return future;
   }
 
-  private Object transformMessage(Message message) {
-    Class<?> respPojoType = request.getResponseType();
-    GrpcResponse response = new GrpcResponse.Default(message, respPojoType);
-    try {
-      return response.getResponseArg();
-    } catch (ProtobufException e) {
-      RpcFrameworkException rpcFramwork = new RpcFrameworkException(e);
-      throw rpcFramwork;
+  private void cancelCall() {
+    cancelled = true;
+    ListenableFuture<Object> future = callFuture;
+    if (future != null) {
+      future.cancel(false);
     }
   }
 
-  private void collect(String serviceName, String methodName, Message request, Message response,
-      boolean error) {
+  @Override
+  protected Object run() throws Exception {
     try {
-      InetSocketAddress provider = (InetSocketAddress) GrpcCallOptions
-          .getAffinity(this.request.getRefUrl()).get(GrpcCallOptions.GRPC_CURRENT_ADDR_KEY);
-      if (request == null || response == null || provider == null) {
-        return;
-      }
-      long elapsed = System.currentTimeMillis() - this.start; // 计算调用耗时
-      int concurrent = this.currentConcurrent(serviceName, methodName).get(); // 当前并发数
-      String service = serviceName; // 获取服务名称
-      String method = methodName; // 获取方法名
-      GrpcURL refUrl = this.request.getRefUrl();
-      String host = refUrl.getHost();
-      Integer port = refUrl.getPort();
-      clientServerMonitor.collect(new GrpcURL(Constants.MONITOR_PROTOCOL, host, port, //
-          service + "/" + method, //
-          MonitorService.TIMESTAMP, String.valueOf(start), //
-          MonitorService.APPLICATION, refUrl.getParameter(Constants.APPLICATION_NAME), //
-          MonitorService.INTERFACE, service, //
-          MonitorService.METHOD, method, //
-          MonitorService.PROVIDER, provider.getHostName(), //
-          error ? MonitorService.FAILURE : MonitorService.SUCCESS, "1", //
-          MonitorService.ELAPSED, String.valueOf(elapsed), //
-          MonitorService.CONCURRENT, String.valueOf(concurrent), //
-          MonitorService.INPUT, String.valueOf(request.getSerializedSize()), //
-          MonitorService.OUTPUT, String.valueOf(response.getSerializedSize())));
-    } catch (Throwable t) {
-      logger.warn("Failed to monitor count service " + serviceName + ", cause: " + t.getMessage());
+      RpcContext.getContext().setAttachments(rpcContext.getLeft());
+      RpcContext.getContext().set(rpcContext.getMiddle());
+      RpcContext.getContext().setHoldenGroups(rpcContext.getRight());
+      MethodDescriptor<Object, Object> methodDesc = this.request.getMethodDescriptor();
+      Integer timeOut = this.request.getCallTimeout();
+      Object request = this.request.getRequestParam();
+      Object response = this.run0(request, methodDesc, timeOut, clientCall);
+      Object obj = GrpcUnaryMonitor.transformMessage(this.request, response);
+      GrpcUnaryMonitor.asyncCollect(clientServerMonitor, this.request, start, request, response,
+          false);
+      return obj;
+    } finally {
+      RpcContext.removeContext();
     }
   }
 
-  protected abstract Message run0(Message req, MethodDescriptor<Message, Message> methodDesc,
+  @Override
+  protected Object getFallback() {
+    Message response = this.request.getInvocationPlan().getResponseDefaultInstance();
+    Object obj = GrpcUnaryMonitor.transformMessage(this.request, response);
+    GrpcUnaryMonitor.asyncCollect(clientServerMonitor, this.request, start,
+        this.request.getRequestParam(), response, true);
+    return obj;
+  }
+
+  protected abstract Object run0(Object req, MethodDescriptor<Object, Object> methodDesc,
       Integer timeOut, GrpcUnaryClientCall clientCall);
 
   protected void cacheCurrentServer() {
-    Object obj = GrpcCallOptions.getAffinity(this.request.getRefUrl())
-        .get(GrpcCallOptions.GRPC_CURRENT_ADDR_KEY);
-    if (obj != null) {
-      InetSocketAddress currentServer = (InetSocketAddress) obj;
-      RpcContext.getContext().setAttachment(Constants.REMOTE_ADDRESS, currentServer.getHostName());
-    }
+    GrpcUnaryMonitor.cacheCurrentServer(this.request);
   }
 }
@@ -8,18 +8,17 @@ package com.quancheng.saluki.core.grpc.client.internal.unary;
 
 
 
-import java.util.Collections;
-import java.util.Map;
-import java.util.WeakHashMap;
 import java.util.concurrent.ExecutionException;
 
 import com.google.common.util.concurrent.ListenableFuture;
-import com.google.protobuf.Message;
+import com.quancheng.saluki.core.common.Constants;
 import com.quancheng.saluki.core.common.GrpcURL;
+import com.quancheng.saluki.core.grpc.client.internal.GrpcCallContext;
 import com.quancheng.saluki.core.grpc.client.internal.GrpcCallOptions;
 
 import io.grpc.CallOptions;
 import io.grpc.Channel;
+import io.grpc.Deadline;
 import io.grpc.MethodDescriptor;
 import io.grpc.Status;
 
@@ -29,62 +28,99 @@ import io.grpc.Status;
  */
 public interface GrpcUnaryClientCall {
 
-  public ListenableFuture<Message> unaryFuture(Message request,
-      MethodDescriptor<Message, Message> method);
+  public ListenableFuture<Object> unaryFuture(Object request,
+      MethodDescriptor<Object, Object> method);
 
-  public Message blockingUnaryResult(Message request, MethodDescriptor<Message, Message> method);
+  public Object blockingUnaryResult(Object request, MethodDescriptor<Object, Object> method);
 
+  /**
+   * 以deadline代替future.get(timeout)控制超时，重试共用同一个deadline
+   */
+  public ListenableFuture<Object> unaryFuture(Object request,
+      MethodDescriptor<Object, Object> method, int timeout);
+
+  public Object blockingUnaryResult(Object request, MethodDescriptor<Object, Object> method,
+      int timeout);
+
+  /**
+   * callContext记录这次调用实际访问的provider，每次调用创建一个GrpcUnaryClientCall；hedgingDelay小于0时不对冲，对冲的方法不再重试；
+   * 在发起调用的线程上创建，记下上游传下来的deadline，调用的deadline不会超过它
+   */
   public static GrpcUnaryClientCall create(final Channel channel, final Integer retryOptions,
-      final GrpcURL refUrl) {
-    final CallOptions callOptions = GrpcCallOptions.createCallOptions(refUrl);
+      final int hedgingDelay, final GrpcCallContext callContext) {
+    final GrpcURL refUrl = callContext.getRefUrl();
+    final CallOptions callOptions = GrpcCallOptions.createCallOptions(callContext);
+    final Deadline inheritedDeadline = GrpcCallOptions.inheritedDeadline();
+    final RetryBudget retryBudget =
+        retryOptions > 0 || hedgingDelay >= 0 ? RetryBudget.getRetryBudget(refUrl) : null;
+    final String hashKeyName = Constants.LOADBALANCE_CONSISTENTHASH
+        .equalsIgnoreCase(refUrl.getParameter(Constants.LOADBALANCE_KEY))
+            ? refUrl.getParameter(Constants.HASH_KEY, Constants.DEFAULT_HASH_KEY) : null;
     return new GrpcUnaryClientCall() {
 
-      private FailOverUnaryFuture<Message, Message> newFailOverUnaryFuture(
-          final MethodDescriptor<Message, Message> method) {
-        if (FAILOVER_UNARAY_FUTRURES.containsKey(method)) {
-          return FAILOVER_UNARAY_FUTRURES.get(method);
-        } else {
-          return new FailOverUnaryFuture<Message, Message>(method);
-        }
+      private CallOptions callOptions(Object request, int timeout) {
+        CallOptions options = hashKeyName == null ? callOptions
+            : GrpcCallOptions.withHashKey(callOptions, hashKeyName, request);
+        return GrpcCallOptions.withDeadline(options, timeout, inheritedDeadline);
       }
 
-
-      @Override
-      public ListenableFuture<Message> unaryFuture(Message request,
-          MethodDescriptor<Message, Message> method) {
-        FailOverUnaryFuture<Message, Message> retryCallListener = newFailOverUnaryFuture(method);
+      private ListenableFuture<Object> startCall(Object request,
+          MethodDescriptor<Object, Object> method, CallOptions options) {
+        if (hedgingDelay >= 0) {
+          HedgingUnaryFuture<Object, Object> hedgingCall =
+              new HedgingUnaryFuture<Object, Object>(method, callContext);
+          hedgingCall.setRequest(request);
+          hedgingCall.setHedgingDelay(hedgingDelay);
+          hedgingCall.setRetryBudget(retryBudget);
+          hedgingCall.setChannel(channel);
+          hedgingCall.setCallOptions(options);
+          hedgingCall.start();
+          return hedgingCall.getFuture();
+        }
+        FailOverUnaryFuture<Object, Object> retryCallListener =
+            new FailOverUnaryFuture<Object, Object>(method, callContext);
         retryCallListener.setRequest(request);
         retryCallListener.setMaxRetries(retryOptions);
+        retryCallListener.setRetryBudget(retryBudget);
         retryCallListener.setChannel(channel);
-        retryCallListener.setCallOptions(callOptions);
+        retryCallListener.setCallOptions(options);
         retryCallListener.run();
         return retryCallListener.getFuture();
       }
 
       @Override
-      public Message blockingUnaryResult(Message request,
-          MethodDescriptor<Message, Message> method) {
-        FailOverUnaryFuture<Message, Message> retryCallListener = newFailOverUnaryFuture(method);
-        retryCallListener.setRequest(request);
-        retryCallListener.setMaxRetries(retryOptions);
-        retryCallListener.setChannel(channel);
-        retryCallListener.setCallOptions(callOptions);
+      public ListenableFuture<Object> unaryFuture(Object request,
+          MethodDescriptor<Object, Object> method) {
+        return startCall(request, method, callOptions(request, 0));
+      }
+
+      @Override
+      public ListenableFuture<Object> unaryFuture(Object request,
+          MethodDescriptor<Object, Object> method, int timeout) {
+        return startCall(request, method, callOptions(request, timeout));
+      }
+
+      @Override
+      public Object blockingUnaryResult(Object request,
+          MethodDescriptor<Object, Object> method) {
+        return blockingUnaryResult(request, method, 0);
+      }
+
+      @Override
+      public Object blockingUnaryResult(Object request, MethodDescriptor<Object, Object> method,
+          int timeout) {
+        ListenableFuture<Object> future = startCall(request, method, callOptions(request, timeout));
         try {
-          retryCallListener.run();
-          return retryCallListener.getFuture().get();
+          return future.get();
         } catch (InterruptedException e) {
-          retryCallListener.cancel();
+          future.cancel(true);
           throw Status.CANCELLED.withCause(e).asRuntimeException();
         } catch (ExecutionException e) {
-          retryCallListener.cancel();
+          future.cancel(true);
           throw Status.fromThrowable(e).asRuntimeException();
         }
       }
     };
   }
 
-  static final Map<MethodDescriptor<Message, Message>, FailOverUnaryFuture<Message, Message>> FAILOVER_UNARAY_FUTRURES =
-      Collections.synchronizedMap(
-          new WeakHashMap<MethodDescriptor<Message, Message>, FailOverUnaryFuture<Message, Message>>());
-
 }
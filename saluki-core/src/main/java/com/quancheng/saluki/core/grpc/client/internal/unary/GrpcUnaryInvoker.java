@@ -0,0 +1,241 @@
+/*
+ * Copyright (c) 2016, Quancheng-ec.com All right reserved. This software is the confidential and
+ * proprietary information of Quancheng-ec.com ("Confidential Information"). You shall not disclose
+ * such Confidential Information and shall use it only in accordance with the terms of the license
+ * agreement you entered into with Quancheng-ec.com.
+ */
+package com.quancheng.saluki.core.grpc.client.internal.unary;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.protobuf.Message;
+import com.quancheng.saluki.core.common.Constants;
+import com.quancheng.saluki.core.common.RpcContext;
+import com.quancheng.saluki.core.grpc.client.GrpcInvocationPlan;
+import com.quancheng.saluki.core.grpc.client.GrpcRequest;
+import com.quancheng.saluki.core.grpc.exception.RpcErrorMsgConstant;
+import com.quancheng.saluki.core.grpc.exception.RpcServiceException;
+import com.quancheng.saluki.core.grpc.service.ClientServerMonitor;
+
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+
+/**
+ * 在调用线程上执行unary调用的信号量隔离、熔断与降级，每个引用方法一个实例，调用时不再创建HystrixCommand也不切换线程
+ *
+ * @author liushiming
+ * @version GrpcUnaryInvoker.java, v 0.0.1 2026年10月18日 下午6:21:08 liushiming
+ */
+public final class GrpcUnaryInvoker {
+
+  private static final Logger logger = LoggerFactory.getLogger(GrpcUnaryInvoker.class);
+
+  private final String serviceName;
+
+  private final String methodName;
+
+  private final boolean fallbackEnabled;
+
+  private final int maxConcurrent;
+
+  /**
+   * 这个服务引用上该方法的当前并发数，实例按调用计划缓存，与计划一一对应
+   */
+  private final AtomicInteger concurrent = new AtomicInteger();
+
+  private final AtomicInteger monitorConcurrent;
+
+  private final CircuitBreaker circuitBreaker;
+
+  private final ClientServerMonitor clientServerMonitor;
+
+  public GrpcUnaryInvoker(GrpcInvocationPlan plan, ClientServerMonitor clientServerMonitor) {
+    this.serviceName = plan.getServiceName();
+    this.methodName = plan.getMethodName();
+    this.fallbackEnabled = plan.isFallbackEnabled();
+    this.maxConcurrent = plan.getMaxConcurrent();
+    this.monitorConcurrent = GrpcUnaryMonitor.currentConcurrent(serviceName, methodName);
+    this.circuitBreaker = CircuitBreaker.getCircuitBreaker(serviceName, methodName);
+    this.clientServerMonitor = clientServerMonitor;
+  }
+
+  public Object invoke(GrpcRequest request, GrpcUnaryClientCall clientCall) {
+    long start = System.currentTimeMillis();
+    try {
+      if (acquire() > maxConcurrent) {
+        return fallback(request, start, new RpcServiceException(serviceName + ":" + methodName
+            + " concurrent requests over " + maxConcurrent, RpcErrorMsgConstant.SERVICE_REJECT));
+      }
+      if (!circuitBreaker.allowRequest()) {
+        return fallback(request, start, new RpcServiceException(serviceName + ":" + methodName
+            + " short-circuited", RpcErrorMsgConstant.SERVICE_REJECT));
+      }
+      Object response;
+      try {
+        response = call(request, clientCall);
+      } catch (RuntimeException e) {
+        markFailure(e);
+        return fallback(request, start, e);
+      }
+      circuitBreaker.markSuccess();
+      Object obj = GrpcUnaryMonitor.transformMessage(request, response);
+      GrpcUnaryMonitor.asyncCollect(clientServerMonitor, request, start,
+          request.getRequestParam(), response, false);
+      return obj;
+    } finally {
+      release();
+      RpcContext.removeContext();
+    }
+  }
+
+  /**
+   * 返回的CompletableFuture在ClientCall.Listener的回调线程上完成，熔断统计与降级也在回调中处理
+   */
+  public CompletableFuture<Object> invokeAsync(final GrpcRequest request,
+      GrpcUnaryClientCall clientCall) {
+    final long start = System.currentTimeMillis();
+    final CompletableFuture<Object> result = new CompletableFuture<Object>();
+    if (acquire() > maxConcurrent) {
+      release();
+      RpcContext.removeContext();
+      completeFallback(result, request, start, new RpcServiceException(serviceName + ":"
+          + methodName + " concurrent requests over " + maxConcurrent,
+          RpcErrorMsgConstant.SERVICE_REJECT));
+      return result;
+    }
+    if (!circuitBreaker.allowRequest()) {
+      release();
+      RpcContext.removeContext();
+      completeFallback(result, request, start, new RpcServiceException(serviceName + ":"
+          + methodName + " short-circuited", RpcErrorMsgConstant.SERVICE_REJECT));
+      return result;
+    }
+    final ListenableFuture<Object> future;
+    try {
+      future = clientCall.unaryFuture(request.getRequestParam(), request.getMethodDescriptor(),
+          request.getCallTimeout());
+    } catch (RuntimeException e) {
+      release();
+      markFailure(e);
+      completeFallback(result, request, start, toServiceException(e));
+      return result;
+    } finally {
+      RpcContext.removeContext();
+    }
+    Futures.addCallback(future, new FutureCallback<Object>() {
+
+      @Override
+      public void onSuccess(Object response) {
+        release();
+        circuitBreaker.markSuccess();
+        try {
+          Object obj = GrpcUnaryMonitor.transformMessage(request, response);
+          GrpcUnaryMonitor.asyncCollect(clientServerMonitor, request, start,
+              request.getRequestParam(), response, false);
+          result.complete(obj);
+        } catch (RuntimeException e) {
+          result.completeExceptionally(e);
+        }
+      }
+
+      @Override
+      public void onFailure(Throwable t) {
+        release();
+        markFailure(t);
+        logger.error(t.getMessage(), t);
+        completeFallback(result, request, start, toServiceException(t));
+      }
+    }, MoreExecutors.directExecutor());
+    result.whenComplete(new BiConsumer<Object, Throwable>() {
+
+      @Override
+      public void accept(Object response, Throwable t) {
+        if (result.isCancelled()) {
+          future.cancel(true);
+        }
+      }
+    });
+    return result;
+  }
+
+  /**
+   * maxConcurrent按服务引用的计数判断，同一方法的其他引用不受影响；监控上报的并发数仍按服务方法汇总
+   */
+  private int acquire() {
+    monitorConcurrent.incrementAndGet();
+    return concurrent.incrementAndGet();
+  }
+
+  private void release() {
+    concurrent.decrementAndGet();
+    monitorConcurrent.decrementAndGet();
+  }
+
+  private Object call(GrpcRequest request, GrpcUnaryClientCall clientCall) {
+    MethodDescriptor<Object, Object> methodDesc = request.getMethodDescriptor();
+    Object req = request.getRequestParam();
+    int timeout = request.getCallTimeout();
+    try {
+      if (request.getCallType() == Constants.RPCTYPE_BLOCKING) {
+        return clientCall.blockingUnaryResult(req, methodDesc, timeout);
+      }
+      return clientCall.unaryFuture(req, methodDesc, timeout).get(timeout, TimeUnit.MILLISECONDS);
+    } catch (Throwable e) {
+      logger.error(e.getMessage(), e);
+      GrpcUnaryMonitor.cacheCurrentServer(request);
+      throw toServiceException(e);
+    }
+  }
+
+  /**
+   * 被服务端限流拒绝说明provider能及时响应，按正常响应计入熔断统计，否则熔断打开后剩下能处理的流量也被拒绝
+   */
+  private void markFailure(Throwable e) {
+    if (Status.fromThrowable(e).getCode() == Status.Code.RESOURCE_EXHAUSTED) {
+      circuitBreaker.markSuccess();
+    } else {
+      circuitBreaker.markFailure();
+    }
+  }
+
+  private RpcServiceException toServiceException(Throwable e) {
+    if (e instanceof TimeoutException
+        || Status.fromThrowable(e).getCode() == Status.Code.DEADLINE_EXCEEDED) {
+      return new RpcServiceException(e, RpcErrorMsgConstant.SERVICE_TIMEOUT);
+    } else {
+      return new RpcServiceException(e, RpcErrorMsgConstant.BIZ_DEFAULT_EXCEPTION);
+    }
+  }
+
+  private Object fallback(GrpcRequest request, long start, RuntimeException e) {
+    if (!fallbackEnabled) {
+      throw e;
+    }
+    Message response = request.getInvocationPlan().getResponseDefaultInstance();
+    Object obj = GrpcUnaryMonitor.transformMessage(request, response);
+    GrpcUnaryMonitor.asyncCollect(clientServerMonitor, request, start, request.getRequestParam(),
+        response, true);
+    return obj;
+  }
+
+  private void completeFallback(CompletableFuture<Object> result, GrpcRequest request, long start,
+      RuntimeException e) {
+    try {
+      result.complete(fallback(request, start, e));
+    } catch (RuntimeException fallbackException) {
+      result.completeExceptionally(fallbackException);
+    }
+  }
+
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2016, Quancheng-ec.com All right reserved. This software is the confidential and
+ * proprietary information of Quancheng-ec.com ("Confidential Information"). You shall not disclose
+ * such Confidential Information and shall use it only in accordance with the terms of the license
+ * agreement you entered into with Quancheng-ec.com.
+ */
+package com.quancheng.saluki.core.grpc.client.internal.unary;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.Maps;
+import com.quancheng.saluki.core.common.Constants;
+import com.quancheng.saluki.core.common.GrpcURL;
+import com.quancheng.saluki.core.common.NamedThreadFactory;
+import com.quancheng.saluki.core.common.RpcContext;
+import com.quancheng.saluki.core.grpc.client.GrpcRequest;
+import com.quancheng.saluki.core.grpc.client.GrpcResponse;
+import com.quancheng.saluki.core.grpc.exception.RpcFrameworkException;
+import com.quancheng.saluki.core.grpc.service.ClientServerMonitor;
+import com.quancheng.saluki.core.grpc.service.MonitorService;
+import com.quancheng.saluki.core.grpc.util.SerializerUtil;
+import com.quancheng.saluki.serializer.exception.ProtobufException;
+
+/**
+ * Hystrix与内置熔断两条unary调用路径共用的监控并发计数、响应转换以及监控数据采集；
+ * 这里的并发数按服务方法汇总，只用于上报，maxConcurrent的判断用GrpcInvocationPlan上按服务引用的计数
+ *
+ * @author liushiming
+ * @version GrpcUnaryMonitor.java, v 0.0.1 2026年10月18日 下午6:02:17 liushiming
+ */
+final class GrpcUnaryMonitor {
+
+  private static final Logger logger = LoggerFactory.getLogger(GrpcUnaryMonitor.class);
+
+  private static final ConcurrentMap<String, AtomicInteger> concurrents = Maps.newConcurrentMap();
+
+  private static final ExecutorService collectLogExecutor =
+      Executors.newSingleThreadExecutor(new NamedThreadFactory("salukiCollectTask", true));
+
+  private GrpcUnaryMonitor() {}
+
+  static AtomicInteger currentConcurrent(String serviceName, String methodName) {
+    String key = serviceName + ":" + methodName;
+    AtomicInteger concurrent = concurrents.get(key);
+    if (concurrent == null) {
+      concurrents.putIfAbsent(key, new AtomicInteger());
+      concurrent = concurrents.get(key);
+    }
+    return concurrent;
+  }
+
+  static Object transformMessage(GrpcRequest request, Object message) {
+    Class<?> respPojoType = request.getResponseType();
+    GrpcResponse response = new GrpcResponse.Default(message, respPojoType);
+    try {
+      return response.getResponseArg();
+    } catch (ProtobufException e) {
+      RpcFrameworkException rpcFramwork = new RpcFrameworkException(e);
+      throw rpcFramwork;
+    }
+  }
+
+  static void cacheCurrentServer(GrpcRequest request) {
+    Object obj = request.getCallContext().getCurrentServer();
+    if (obj != null) {
+      InetSocketAddress currentServer = (InetSocketAddress) obj;
+      RpcContext.getContext().setAttachment(Constants.REMOTE_ADDRESS, currentServer.getHostName());
+    }
+  }
+
+  static void asyncCollect(final ClientServerMonitor clientServerMonitor,
+      final GrpcRequest request, final long start, final Object req, final Object resp,
+      final boolean error) {
+    collectLogExecutor.execute(new Runnable() {
+
+      @Override
+      public void run() {
+        collect(clientServerMonitor, request, start, req, resp, error);
+      }
+    });
+  }
+
+  private static void collect(ClientServerMonitor clientServerMonitor, GrpcRequest request,
+      long start, Object req, Object resp, boolean error) {
+    String serviceName = request.getServiceName();
+    String methodName = request.getMethodName();
+    try {
+      InetSocketAddress provider =
+          (InetSocketAddress) request.getCallContext().getCurrentServer();
+      if (req == null || resp == null || provider == null) {
+        return;
+      }
+      long elapsed = System.currentTimeMillis() - start; // 计算调用耗时
+      int concurrent = currentConcurrent(serviceName, methodName).get(); // 当前并发数
+      GrpcURL refUrl = request.getRefUrl();
+      String host = refUrl.getHost();
+      Integer port = refUrl.getPort();
+      clientServerMonitor.collect(new GrpcURL(Constants.MONITOR_PROTOCOL, host, port, //
+          serviceName + "/" + methodName, //
+          MonitorService.TIMESTAMP, String.valueOf(start), //
+          MonitorService.APPLICATION, refUrl.getParameter(Constants.APPLICATION_NAME), //
+          MonitorService.INTERFACE, serviceName, //
+          MonitorService.METHOD, methodName, //
+          MonitorService.PROVIDER, provider.getHostName(), //
+          error ? MonitorService.FAILURE : MonitorService.SUCCESS, "1", //
+          MonitorService.ELAPSED, String.valueOf(elapsed), //
+          MonitorService.CONCURRENT, String.valueOf(concurrent), //
+          MonitorService.INPUT, String.valueOf(SerializerUtil.serializedSize(req)), //
+          MonitorService.OUTPUT, String.valueOf(SerializerUtil.serializedSize(resp))));
+    } catch (Throwable t) {
+      logger.warn("Failed to monitor count service " + serviceName + ", cause: " + t.getMessage());
+    }
+  }
+}
@@ -0,0 +1,267 @@
+/*
+ * Copyright (c) 2016, Quancheng-ec.com All right reserved. This software is the confidential and
+ * proprietary information of Quancheng-ec.com ("Confidential Information"). You shall not disclose
+ * such Confidential Information and shall use it only in accordance with the terms of the license
+ * agreement you entered into with Quancheng-ec.com.
+ */
+package com.quancheng.saluki.core.grpc.client.internal.unary;
+
+import java.net.SocketAddress;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.util.concurrent.AbstractFuture;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.quancheng.saluki.core.grpc.client.internal.GrpcCallContext;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.Deadline;
+import io.grpc.Grpc;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import io.grpc.internal.GrpcUtil;
+import io.grpc.internal.SharedResourceHolder;
+
+/**
+ * 对冲请求：第一次调用发出后超过hedgingDelay还没有返回，或者第一次调用失败时，向另一个provider再发一次，先返回的结果生效，另一次调用被取消；
+ * 对冲调用与重试共用服务引用的令牌桶，最多两次调用
+ *
+ * @author liushiming
+ * @version HedgingUnaryFuture.java, v 0.0.1 2026年10月18日 下午12:40:52 liushiming
+ */
+public class HedgingUnaryFuture<Request, Response> implements Runnable {
+
+  private static final ScheduledExecutorService HEDGING_SCHEDULER =
+      SharedResourceHolder.get(GrpcUtil.TIMER_SERVICE);
+
+  private static final int MAX_ATTEMPTS = 2;
+
+  private final MethodDescriptor<Request, Response> method;
+
+  private final GrpcCallContext callContext;
+
+  private final LatencyTracker latencyTracker;
+
+  private final HedgingFuture completionFuture = new HedgingFuture();
+
+  private final List<ClientCall<Request, Response>> calls =
+      new CopyOnWriteArrayList<ClientCall<Request, Response>>();
+
+  private final AtomicInteger attempts = new AtomicInteger();
+
+  private final AtomicInteger failures = new AtomicInteger();
+
+  private volatile ScheduledFuture<?> hedgingTimer;
+
+  private Request request;
+  private long hedgingDelay;
+  private RetryBudget retryBudget;
+  private CallOptions callOptions;
+  private Channel channel;
+
+  public HedgingUnaryFuture(final MethodDescriptor<Request, Response> method,
+      final GrpcCallContext callContext) {
+    this.method = method;
+    this.callContext = callContext;
+    this.latencyTracker = LatencyTracker.getLatencyTracker(method.getFullMethodName());
+  }
+
+  public void setCallOptions(CallOptions callOptions) {
+    this.callOptions = callOptions;
+  }
+
+  public void setChannel(Channel channel) {
+    this.channel = channel;
+  }
+
+  /**
+   * 0表示按该方法观测到的p95延迟，样本不足时只在第一次调用失败时对冲
+   */
+  public void setHedgingDelay(long hedgingDelay) {
+    this.hedgingDelay = hedgingDelay;
+  }
+
+  public void setRetryBudget(RetryBudget retryBudget) {
+    this.retryBudget = retryBudget;
+  }
+
+  public void setRequest(Request request) {
+    this.request = request;
+  }
+
+  public void start() {
+    startAttempt();
+    // 按毫秒统计，超过p95即耗时大于p95
+    long delay = hedgingDelay > 0 ? hedgingDelay : latencyTracker.percentile95() + 1;
+    if (delay <= 0) {
+      return;
+    }
+    Deadline deadline = callOptions.getDeadline();
+    if ((deadline == null || deadline.timeRemaining(TimeUnit.MILLISECONDS) > delay)
+        && !completionFuture.isDone()) {
+      hedgingTimer = HEDGING_SCHEDULER.schedule(this, delay, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * 对冲定时器到期
+   */
+  @Override
+  public void run() {
+    startHedgedAttempt();
+  }
+
+  /**
+   * 第二次调用需要一个令牌；定时器与失败路径可能同时发起，没有抢到调用次数时归还令牌
+   */
+  private boolean startHedgedAttempt() {
+    if (completionFuture.isDone() || attempts.get() >= MAX_ATTEMPTS
+        || !retryBudget.tryWithdraw()) {
+      return false;
+    }
+    if (startAttempt()) {
+      return true;
+    }
+    retryBudget.refund();
+    return false;
+  }
+
+  private boolean startAttempt() {
+    int attempt = attempts.getAndIncrement();
+    if (attempt >= MAX_ATTEMPTS || completionFuture.isDone()) {
+      return false;
+    }
+    // 避开第一次调用选中的provider
+    if (attempt > 0) {
+      callContext.markPickedTried();
+    }
+    ClientCall<Request, Response> call = channel.newCall(method, callOptions);
+    calls.add(call);
+    call.start(new Attempt(call), new Metadata());
+    call.sendMessage(request);
+    call.halfClose();
+    call.request(1);
+    // 结果在调用加入列表前已经产生，取消不到这次调用
+    if (completionFuture.isDone()) {
+      call.cancel("Hedged call lost", null);
+    }
+    return true;
+  }
+
+  private void attemptSucceeded(ClientCall<Request, Response> winner, Response response,
+      long elapsed) {
+    if (completionFuture.set(response)) {
+      SocketAddress remoteServer = winner.getAttributes().get(Grpc.TRANSPORT_ATTR_REMOTE_ADDR);
+      if (remoteServer != null) {
+        callContext.setCurrentServer(remoteServer);
+      }
+      latencyTracker.record(elapsed);
+      retryBudget.deposit();
+      cancelOthers(winner);
+    }
+  }
+
+  private void attemptFailed(ClientCall<Request, Response> call, Status status,
+      Metadata trailers) {
+    int failed = failures.incrementAndGet();
+    Status.Code code = status.getCode();
+    if (code != Status.Code.DEADLINE_EXCEEDED && code != Status.Code.CANCELLED
+        && startHedgedAttempt()) {
+      return;
+    }
+    if (failed >= Math.min(attempts.get(), MAX_ATTEMPTS)) {
+      SocketAddress remoteServer = call.getAttributes().get(Grpc.TRANSPORT_ATTR_REMOTE_ADDR);
+      if (remoteServer != null) {
+        callContext.setCurrentServer(remoteServer);
+      }
+      if (completionFuture.setException(status.asRuntimeException(trailers))) {
+        cancelHedgingTimer();
+      }
+    }
+  }
+
+  private void cancelHedgingTimer() {
+    ScheduledFuture<?> timer = hedgingTimer;
+    if (timer != null) {
+      timer.cancel(false);
+    }
+  }
+
+  private void cancelOthers(ClientCall<Request, Response> winner) {
+    cancelHedgingTimer();
+    for (ClientCall<Request, Response> call : calls) {
+      if (call != winner) {
+        call.cancel("Hedged call lost", null);
+      }
+    }
+  }
+
+  public ListenableFuture<Response> getFuture() {
+    return completionFuture;
+  }
+
+  private final class Attempt extends ClientCall.Listener<Response> {
+
+    private final ClientCall<Request, Response> call;
+
+    private final long start = System.currentTimeMillis();
+
+    private Response response;
+
+    Attempt(ClientCall<Request, Response> call) {
+      this.call = call;
+    }
+
+    @Override
+    public void onMessage(Response message) {
+      if (this.response != null) {
+        throw Status.INTERNAL.withDescription("More than one value received for unary call")
+            .asRuntimeException();
+      }
+      this.response = message;
+    }
+
+    @Override
+    public void onClose(Status status, Metadata trailers) {
+      if (status.isOk() && response == null) {
+        status = Status.INTERNAL.withDescription("No value received for unary call");
+      }
+      if (status.isOk()) {
+        attemptSucceeded(call, response, System.currentTimeMillis() - start);
+      } else {
+        attemptFailed(call, status, trailers);
+      }
+    }
+  }
+
+  private final class HedgingFuture extends AbstractFuture<Response> {
+
+    /**
+     * 不论cancel时是否要求中断，都取消所有还在进行的尝试和对冲定时器
+     */
+    @Override
+    protected void afterDone() {
+      if (isCancelled()) {
+        cancelOthers(null);
+      }
+    }
+
+    @Override
+    protected boolean set(Response resp) {
+      return super.set(resp);
+    }
+
+    @Override
+    protected boolean setException(Throwable throwable) {
+      return super.setException(throwable);
+    }
+  }
+
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2016, Quancheng-ec.com All right reserved. This software is the confidential and
+ * proprietary information of Quancheng-ec.com ("Confidential Information"). You shall not disclose
+ * such Confidential Information and shall use it only in accordance with the terms of the license
+ * agreement you entered into with Quancheng-ec.com.
+ */
+package com.quancheng.saluki.core.grpc.client.internal.unary;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.google.common.collect.Maps;
+
+/**
+ * 每个方法最近1024次成功调用的耗时，p95每秒最多重算一次；样本不足100个时没有p95
+ *
+ * @author liushiming
+ * @version LatencyTracker.java, v 0.0.1 2026年10月18日 下午12:26:14 liushiming
+ */
+public final class LatencyTracker {
+
+  private static final int SAMPLES = 1024;
+
+  private static final int MIN_SAMPLES = 100;
+
+  private static final long REFRESH_MILLIS = 1000L;
+
+  private static final ConcurrentMap<String, LatencyTracker> trackers = Maps.newConcurrentMap();
+
+  private final AtomicLongArray latencies = new AtomicLongArray(SAMPLES);
+
+  private final AtomicInteger count = new AtomicInteger();
+
+  private volatile long p95 = -1;
+
+  private volatile long refreshAt;
+
+  private LatencyTracker() {}
+
+  public static LatencyTracker getLatencyTracker(String fullMethodName) {
+    LatencyTracker tracker = trackers.get(fullMethodName);
+    if (tracker == null) {
+      trackers.putIfAbsent(fullMethodName, new LatencyTracker());
+      tracker = trackers.get(fullMethodName);
+    }
+    return tracker;
+  }
+
+  public void record(long millis) {
+    int index = count.getAndIncrement() & Integer.MAX_VALUE;
+    latencies.set(index % SAMPLES, millis);
+  }
+
+  /**
+   * 样本不足时返回-1
+   */
+  public long percentile95() {
+    long now = System.currentTimeMillis();
+    if (now >= refreshAt) {
+      refreshAt = now + REFRESH_MILLIS;
+      int size = Math.min(count.get() & Integer.MAX_VALUE, SAMPLES);
+      if (size >= MIN_SAMPLES) {
+        long[] sorted = new long[size];
+        for (int i = 0; i < size; i++) {
+          sorted[i] = latencies.get(i);
+        }
+        Arrays.sort(sorted);
+        p95 = sorted[(int) (size * 0.95)];
+      }
+    }
+    return p95;
+  }
+
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2016, Quancheng-ec.com All right reserved. This software is the confidential and
+ * proprietary information of Quancheng-ec.com ("Confidential Information"). You shall not disclose
+ * such Confidential Information and shall use it only in accordance with the terms of the license
+ * agreement you entered into with Quancheng-ec.com.
+ */
+package com.quancheng.saluki.core.grpc.client.internal.unary;
+
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.collect.Maps;
+import com.quancheng.saluki.core.common.GrpcURL;
+
+/**
+ * 每个服务引用一个的重试令牌桶：每次成功的调用存入0.1个令牌，每次重试取出1个，桶满10个；
+ * 稳定时重试量不超过成功调用的10%，provider大面积故障时桶很快取空，不会因为重试把流量放大
+ *
+ * @author liushiming
+ * @version RetryBudget.java, v 0.0.1 2026年10月18日 下午11:58:40 liushiming
+ */
+public final class RetryBudget {
+
+  /**
+   * 令牌以千分之一为单位保存
+   */
+  private static final int TOKEN = 1000;
+
+  private static final int MAX_TOKENS = 10 * TOKEN;
+
+  private static final int DEPOSIT_PER_SUCCESS = TOKEN / 10;
+
+  private static final ConcurrentMap<String, RetryBudget> budgets = Maps.newConcurrentMap();
+
+  private final AtomicInteger tokens = new AtomicInteger(MAX_TOKENS);
+
+  private RetryBudget() {}
+
+  public static RetryBudget getRetryBudget(GrpcURL refUrl) {
+    String key = refUrl.getServiceKey();
+    RetryBudget budget = budgets.get(key);
+    if (budget == null) {
+      budgets.putIfAbsent(key, new RetryBudget());
+      budget = budgets.get(key);
+    }
+    return budget;
+  }
+
+  public void deposit() {
+    add(DEPOSIT_PER_SUCCESS);
+  }
+
+  /**
+   * 取出令牌后没有发起重试时归还
+   */
+  public void refund() {
+    add(TOKEN);
+  }
+
+  private void add(int amount) {
+    for (;;) {
+      int current = tokens.get();
+      if (current >= MAX_TOKENS) {
+        return;
+      }
+      if (tokens.compareAndSet(current, Math.min(current + amount, MAX_TOKENS))) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * 取出一个令牌，不足一个时返回false，本次不重试
+   */
+  public boolean tryWithdraw() {
+    for (;;) {
+      int current = tokens.get();
+      if (current < TOKEN) {
+        return false;
+      }
+      if (tokens.compareAndSet(current, current - TOKEN)) {
+        return true;
+      }
+    }
+  }
+
+}
@@ -20,9 +20,6 @@ import javax.validation.ConstraintViolation;
 import javax.validation.Validation;
 import javax.validation.Validator;
 
-import org.apache.commons.lang3.StringUtils;
-
-import com.quancheng.saluki.core.common.Constants;
 import com.quancheng.saluki.core.common.RpcContext;
 import com.quancheng.saluki.core.grpc.annotation.ArgValidator;
 import com.quancheng.saluki.core.grpc.client.GrpcRequest;
@@ -47,27 +44,20 @@ public class RequestValidator {
 
   public static RequestValidator newRequestValidator() {
     synchronized (LOCK) {
-      if (requestValidator != null) {
-        return requestValidator;
-      } else {
-        return new RequestValidator();
+      if (requestValidator == null) {
+        requestValidator = new RequestValidator();
       }
+      return requestValidator;
     }
   }
 
   @SuppressWarnings("rawtypes")
-  public void doValidate(final GrpcRequest request) throws ClassNotFoundException {
+  public void doValidate(final GrpcRequest request) {
     if (!request.getRequestParam().getClass().isAnnotationPresent(ArgValidator.class)) {
       return;
     }
     Set<Class> validatorGroups = new HashSet<>();
-    String validatorGroupStr = request.getRefUrl().getParameter(Constants.VALIDATOR_GROUPS);
-    if (StringUtils.isNotEmpty(validatorGroupStr)) {
-      String[] splitGroups = validatorGroupStr.split(";");
-      for (String splitGroup : splitGroups) {
-        validatorGroups.add(Class.forName(splitGroup));
-      }
-    }
+    validatorGroups.addAll(request.getInvocationPlan().getValidatorGroups());
     Set<Class> optional = RpcContext.getContext().getHoldenGroups();
     if (optional != null) {
       validatorGroups.addAll(optional);
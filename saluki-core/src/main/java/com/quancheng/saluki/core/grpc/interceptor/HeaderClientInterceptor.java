@@ -11,7 +11,11 @@ import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.quancheng.saluki.core.common.Constants;
+import com.quancheng.saluki.core.common.GrpcURL;
 import com.quancheng.saluki.core.common.RpcContext;
+import com.quancheng.saluki.core.grpc.client.internal.GrpcCallContext;
+import com.quancheng.saluki.core.grpc.client.internal.GrpcCallOptions;
 import com.quancheng.saluki.core.grpc.util.GrpcUtil;
 import com.quancheng.saluki.core.grpc.util.SerializerUtil;
 
@@ -43,11 +47,12 @@ public class HeaderClientInterceptor implements ClientInterceptor {
 
   @Override
   public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method,
-      CallOptions callOptions, Channel next) {
+      final CallOptions callOptions, Channel next) {
     return new SimpleForwardingClientCall<ReqT, RespT>(next.newCall(method, callOptions)) {
 
       @Override
       public void start(Listener<RespT> responseListener, Metadata headers) {
+        copyPriorityToMetadata(callOptions, headers);
         copyThreadLocalToMetadata(headers);
         super.start(new SimpleForwardingClientCallListener<RespT>(responseListener) {
 
@@ -60,6 +65,30 @@ public class HeaderClientInterceptor implements ClientInterceptor {
     };
   }
 
+  /**
+   * 服务端按优先级与租户公平调度，RpcContext中没有设置时取引用配置的priority与消费方应用名
+   */
+  private void copyPriorityToMetadata(CallOptions callOptions, Metadata headers) {
+    String priority = RpcContext.getContext().getAttachment(Constants.PRIORITY_KEY);
+    String tenant = RpcContext.getContext().getAttachment(Constants.TENANT_KEY);
+    GrpcCallContext callContext = callOptions.getOption(GrpcCallOptions.CALLOPTIONS_CALL_CONTEXT);
+    if (callContext != null && callContext.getRefUrl() != null) {
+      GrpcURL refUrl = callContext.getRefUrl();
+      if (priority == null) {
+        priority = refUrl.getParameter(Constants.PRIORITY_KEY);
+      }
+      if (tenant == null) {
+        tenant = refUrl.getParameter(Constants.APPLICATION_NAME);
+      }
+    }
+    if (priority != null) {
+      headers.put(GrpcUtil.GRPC_PRIORITY, priority);
+    }
+    if (tenant != null) {
+      headers.put(GrpcUtil.GRPC_TENANT, tenant);
+    }
+  }
+
   private void copyThreadLocalToMetadata(Metadata headers) {
     Map<String, String> attachments = RpcContext.getContext().getAttachments();
     Map<String, Object> values = RpcContext.getContext().get();
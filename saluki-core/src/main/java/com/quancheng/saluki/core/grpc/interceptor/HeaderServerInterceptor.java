@@ -18,6 +18,7 @@ import com.quancheng.saluki.core.common.RpcContext;
 import com.quancheng.saluki.core.grpc.util.GrpcUtil;
 import com.quancheng.saluki.core.grpc.util.SerializerUtil;
 
+import io.grpc.Context;
 import io.grpc.Grpc;
 import io.grpc.Metadata;
 import io.grpc.ServerCall;
@@ -108,9 +109,22 @@ public class HeaderServerInterceptor implements ServerInterceptor {
 
   private void contextCopy(ServerCall<?, ?> call, final Metadata headers) {
     copyMetadataToThreadLocal(headers);
+    copyHeaderToAttachment(headers, GrpcUtil.GRPC_PRIORITY, Constants.PRIORITY_KEY);
+    copyHeaderToAttachment(headers, GrpcUtil.GRPC_TENANT, Constants.TENANT_KEY);
     InetSocketAddress remoteAddress =
         (InetSocketAddress) call.getAttributes().get(Grpc.TRANSPORT_ATTR_REMOTE_ADDR);
     RpcContext.getContext().setAttachment(Constants.REMOTE_ADDRESS, remoteAddress.getHostString());
+    // 客户端的deadline经grpc-timeout传到服务端的Context
+    RpcContext.getContext().setDeadline(Context.current().getDeadline());
+  }
+
+  // 服务方法继续调用下游时沿用调用方的优先级与租户
+  private void copyHeaderToAttachment(Metadata headers, Metadata.Key<String> key,
+      String attachmentKey) {
+    String value = headers.get(key);
+    if (value != null && RpcContext.getContext().getAttachment(attachmentKey) == null) {
+      RpcContext.getContext().setAttachment(attachmentKey, value);
+    }
   }
 
   private void copyMetadataToThreadLocal(Metadata headers) {
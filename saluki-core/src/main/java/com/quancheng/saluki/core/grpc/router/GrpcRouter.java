@@ -40,5 +40,12 @@ public abstract class GrpcRouter {
 
     protected abstract void parseRouter();
 
-    public abstract boolean match(List<GrpcURL> providerUrl);
+    public boolean match(List<GrpcURL> providerUrl) {
+        return match(refUrl, providerUrl);
+    }
+
+    /**
+     * 不依赖setRefUrl设置的引用，同一个路由实例可以被多个调用共享
+     */
+    public abstract boolean match(GrpcURL refUrl, List<GrpcURL> providerUrls);
 }
@@ -8,9 +8,11 @@ package com.quancheng.saluki.core.grpc.router;
 
 import org.apache.commons.lang3.StringUtils;
 
+import com.google.common.base.Throwables;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.quancheng.saluki.core.common.RpcContext;
 import com.quancheng.saluki.core.grpc.router.internal.ConditionRouter;
 import com.quancheng.saluki.core.grpc.router.internal.ScriptRouter;
@@ -33,6 +35,18 @@ public final class GrpcRouterFactory {
           return null;
         }
 
+      });
+  private static final LoadingCache<String, GrpcRouter> ROUTER_CACHE = CacheBuilder.newBuilder() //
+      .concurrencyLevel(8) //
+      .initialCapacity(10) //
+      .maximumSize(100) //
+      .build(new CacheLoader<String, GrpcRouter>() {
+
+        @Override
+        public GrpcRouter load(String routerMessage) throws Exception {
+          return instance.createRouter(routerMessage);
+        }
+
       });
   private static final GrpcRouterFactory instance = new GrpcRouterFactory();
 
@@ -51,28 +65,46 @@ public final class GrpcRouterFactory {
   }
 
   public GrpcRouter getGrpcRouter(String serivceKey) {
+    String currentRouterRule = getRouterRule(serivceKey);
+    if (currentRouterRule != null) {
+      return this.createRouter(currentRouterRule);
+    } else {
+      return null;
+    }
+  }
+
+  /**
+   * 当前调用生效的路由规则，配置中心的规则覆盖线程上下文的规则；线程上下文的规则只对本次调用生效，取出后即清除
+   */
+  public String getRouterRule(String serivceKey) {
     String currentRouterRule = null;
     // 从线程上下文取路由规则
-    if (RpcContext.getContext().containAttachment("routerRule")) {
-      currentRouterRule = RpcContext.getContext().getAttachment("routerRule");
+    RpcContext context = RpcContext.getContext();
+    if (context.containAttachment("routerRule")) {
+      currentRouterRule = context.getAttachment("routerRule");
+      context.removeAttachment("routerRule");
     }
     // 从配置中心获取路由规则并覆盖线程上下文的路由规则
     String configRouterRule = ROUTE_CACHE.getIfPresent(serivceKey);
     if (configRouterRule != null) {
       currentRouterRule = configRouterRule;
     }
-    if (currentRouterRule != null) {
-      try {
-        return this.createRouter(currentRouterRule);
-      } finally {
-        RpcContext.getContext().removeAttachment("routerRule");
-      }
-    } else {
-      return null;
+    return currentRouterRule;
+  }
+
+  /**
+   * 同一条规则只解析、编译一次，返回的路由被所有调用共享，只能使用match(refUrl, providerUrls)
+   */
+  public GrpcRouter getRouter(String routerMessage) {
+    try {
+      return ROUTER_CACHE.getUnchecked(routerMessage);
+    } catch (UncheckedExecutionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw e;
     }
   }
 
-  private GrpcRouter createRouter(String routerMessage) {
+  public GrpcRouter createRouter(String routerMessage) {
     if (routerMessage.startsWith("condition://") || routerMessage.indexOf("//") == -1) {
       routerMessage = routerMessage.replaceAll("condition://", "");
       return new ConditionRouter(routerMessage);
@@ -34,9 +34,9 @@ public class ConditionRouter extends GrpcRouter {
 
   private static final Pattern ROUTE_PATTERN = Pattern.compile("([&!=,]*)\\s*([^&!=,\\s]+)");
 
-  private Map<String, MatchPair> whenCondition;
+  private Condition[] whenCondition;
 
-  private Map<String, MatchPair> thenCondition;
+  private Condition[] thenCondition;
 
   public ConditionRouter(String routerMessage) {
     super(routerMessage);
@@ -44,8 +44,8 @@ public class ConditionRouter extends GrpcRouter {
 
   @Override
   protected void parseRouter() {
-    whenCondition = Maps.newHashMap();
-    thenCondition = Maps.newHashMap();
+    Map<String, MatchPair> whenPairs = Maps.newHashMap();
+    Map<String, MatchPair> thenPairs = Maps.newHashMap();
     String rulestr = super.getRule();
     String[] rules = StringUtils.split(rulestr, "\n");
     for (String rule : rules) {
@@ -53,71 +53,114 @@ public class ConditionRouter extends GrpcRouter {
       String whenRule = i < 0 ? null : rule.substring(0, i).trim();
       String thenRule = i < 0 ? rule.trim() : rule.substring(i + 2).trim();
       try {
-        whenCondition.putAll(doParseRule(whenRule));
-        thenCondition.putAll(doParseRule(thenRule));
+        whenPairs.putAll(doParseRule(whenRule));
+        thenPairs.putAll(doParseRule(thenRule));
       } catch (ParseException e) {
         log.error(e.getMessage(), e);
       }
     }
+    whenCondition = compile(whenPairs);
+    thenCondition = compile(thenPairs);
   }
 
   @Override
-  public boolean match(List<GrpcURL> providerUrls) {
-    GrpcURL refUrl = super.getRefUrl();
-    if (matchWhen(refUrl)) {
-      boolean allMatchThen = false;
-      for (GrpcURL providerUrl : providerUrls) {
-        if (matchThen(refUrl, providerUrl)) {
-          allMatchThen = true;
-        } else {
-          allMatchThen = false;
-          break;
-        }
-      }
-      if (allMatchThen) {
-        return true;
-      } else {
+  public boolean match(GrpcURL refUrl, List<GrpcURL> providerUrls) {
+    if (!matchCondition(whenCondition, refUrl, null)) {
+      return true;
+    }
+    for (GrpcURL providerUrl : providerUrls) {
+      if (!matchCondition(thenCondition, providerUrl, refUrl)) {
         return false;
       }
-    } else {
-      return true;
     }
+    return !providerUrls.isEmpty();
   }
 
-  private boolean matchWhen(GrpcURL refUrl) {
-    return matchCondition(whenCondition, refUrl, null);
+  private boolean matchCondition(Condition[] condition, GrpcURL url, GrpcURL param) {
+    for (Condition entry : condition) {
+      String value = sampleValue(url, entry.key);
+      if (value != null && !entry.pair.isMatch(value, param)) {
+        return false;
+      }
+    }
+    return true;
   }
 
-  private boolean matchThen(GrpcURL refUrl, GrpcURL providerUrl) {
-    return thenCondition != null && matchCondition(thenCondition, providerUrl, refUrl);
+  /**
+   * 与url.toMap().get(key)取值一致，但不复制参数map
+   */
+  private static String sampleValue(GrpcURL url, String key) {
+    String value = null;
+    switch (key) {
+      case "protocol":
+        value = url.getProtocol();
+        break;
+      case "username":
+        value = url.getUsername();
+        break;
+      case "password":
+        value = url.getPassword();
+        break;
+      case "host":
+        value = url.getHost();
+        break;
+      case "port":
+        value = url.getPort() > 0 ? String.valueOf(url.getPort()) : null;
+        break;
+      case "path":
+        value = url.getPath();
+        break;
+      default:
+        break;
+    }
+    return value != null ? value : url.getParameter(key);
   }
 
-  private boolean matchCondition(Map<String, MatchPair> condition, GrpcURL url, GrpcURL param) {
-    Map<String, String> sample = url.toMap();
-    for (Map.Entry<String, String> entry : sample.entrySet()) {
-      String key = entry.getKey();
-      MatchPair pair = condition.get(key);
-      if (pair != null && !pair.isMatch(entry.getValue(), param)) {
-        return false;
-      }
+  private static Condition[] compile(Map<String, MatchPair> pairs) {
+    Condition[] condition = new Condition[pairs.size()];
+    int i = 0;
+    for (Map.Entry<String, MatchPair> entry : pairs.entrySet()) {
+      condition[i++] = new Condition(entry.getKey(), entry.getValue());
     }
-    return true;
+    return condition;
   }
 
   // help method
-  private final class MatchPair {
+  private static final class Condition {
+
+    final String key;
+    final MatchPair pair;
+
+    Condition(String key, MatchPair pair) {
+      this.key = key;
+      this.pair = pair.compile();
+    }
+  }
+
+  private static final class MatchPair {
 
     final Set<String> matches = new HashSet<String>();
     final Set<String> mismatches = new HashSet<String>();
+    GlobPattern[] matchPatterns;
+    GlobPattern[] mismatchPatterns;
+
+    MatchPair compile() {
+      // 解析时同一个pair可能挂在多个key上，只编译一次
+      if (matchPatterns == null) {
+        matchPatterns = GlobPattern.compile(matches);
+        mismatchPatterns = GlobPattern.compile(mismatches);
+      }
+      return this;
+    }
 
     public boolean isMatch(String value, GrpcURL param) {
-      for (String match : matches) {
-        if (!GrpcURLUtils.isMatchGlobPattern(match, value, param)) {
+      for (GlobPattern match : matchPatterns) {
+        if (!match.isMatch(value, param)) {
           return false;
         }
       }
-      for (String mismatch : mismatches) {
-        if (GrpcURLUtils.isMatchGlobPattern(mismatch, value, param)) {
+      for (GlobPattern mismatch : mismatchPatterns) {
+        if (mismatch.isMatch(value, param)) {
           return false;
         }
       }
@@ -125,6 +168,47 @@ public class ConditionRouter extends GrpcRouter {
     }
   }
 
+  /**
+   * 预先拆好星号前后缀的通配符，语义与GrpcURLUtils.isMatchGlobPattern一致；$开头的引用参数仍需按调用方url取值
+   */
+  private static final class GlobPattern {
+
+    final String pattern;
+    final boolean reference;
+    final String prefix;
+    final String suffix;
+
+    GlobPattern(String pattern) {
+      this.pattern = pattern;
+      this.reference = pattern.startsWith("$");
+      int i = pattern.lastIndexOf('*');
+      this.prefix = i < 0 ? null : pattern.substring(0, i);
+      this.suffix = i < 0 ? null : pattern.substring(i + 1);
+    }
+
+    static GlobPattern[] compile(Set<String> patterns) {
+      GlobPattern[] compiled = new GlobPattern[patterns.size()];
+      int i = 0;
+      for (String pattern : patterns) {
+        compiled[i++] = new GlobPattern(pattern);
+      }
+      return compiled;
+    }
+
+    boolean isMatch(String value, GrpcURL param) {
+      if (reference && param != null) {
+        return GrpcURLUtils.isMatchGlobPattern(pattern, value, param);
+      }
+      if (value.length() == 0) {
+        return "*".equals(pattern);
+      }
+      if (prefix == null) {
+        return value.equals(pattern);
+      }
+      return value.startsWith(prefix) && value.endsWith(suffix);
+    }
+  }
+
   private Map<String, MatchPair> doParseRule(String rule) throws ParseException {
     Map<String, MatchPair> condition = new HashMap<String, MatchPair>();
     if (StringUtils.isBlank(rule)) {
@@ -8,6 +8,8 @@ package com.quancheng.saluki.core.grpc.router.internal;
 
 import java.util.List;
 
+import javax.script.Compilable;
+import javax.script.CompiledScript;
 import javax.script.Invocable;
 import javax.script.ScriptEngine;
 import javax.script.ScriptEngineManager;
@@ -28,17 +30,35 @@ public class ScriptRouter extends GrpcRouter {
 
   private static final Logger log = LoggerFactory.getLogger(ScriptRouter.class);
 
-  private ScriptEngine engine;
+  private final ScriptEngine engine;
+
+  private final boolean available;
 
   public ScriptRouter(String type, String rule) {
     super(rule);
-    engine = new ScriptEngineManager().getEngineByName(type);
+    ScriptEngineManager manager = new ScriptEngineManager();
+    ScriptEngine engine = manager.getEngineByName(type);
     if (engine == null && StringUtils.equals(type, "javascript")) {
-      engine = new ScriptEngineManager().getEngineByName("js");
+      engine = manager.getEngineByName("js");
     }
     if (engine == null) {
       throw new IllegalStateException("Unsupported route rule type: " + type + ", rule: " + rule);
     }
+    this.engine = engine;
+    boolean available = false;
+    try {
+      // 规则只编译、执行一次，把route函数定义到engine中，之后每次匹配只调用函数
+      if (engine instanceof Compilable) {
+        CompiledScript function = ((Compilable) engine).compile(rule);
+        function.eval();
+      } else {
+        engine.eval(rule);
+      }
+      available = true;
+    } catch (ScriptException e) {
+      log.error("route error , rule has been ignored. rule: " + rule, e);
+    }
+    this.available = available;
   }
 
   @Override
@@ -46,21 +66,24 @@ public class ScriptRouter extends GrpcRouter {
     // do nothing
   }
 
+  /**
+   * ScriptEngine不保证线程安全，路由实例会被缓存共享，调用函数时串行化；GrpcRoutePicker只在规则变化时才会匹配
+   */
   @Override
-  public boolean match(List<GrpcURL> providerUrls) {
-    String rule = super.getRule();
+  public synchronized boolean match(GrpcURL refUrl, List<GrpcURL> providerUrls) {
+    if (!available) {
+      return true;
+    }
     try {
-      engine.eval(super.getRule());
-      Invocable invocable = (Invocable) engine;
-      GrpcURL refUrl = super.getRefUrl();
-      Object obj = invocable.invokeFunction("route", refUrl, providerUrls);
+      Object obj = ((Invocable) engine).invokeFunction("route", refUrl, providerUrls);
       if (obj instanceof Boolean) {
         return (Boolean) obj;
       } else {
         return true;
       }
     } catch (ScriptException | NoSuchMethodException e) {
-      log.error("route error , rule has been ignored. rule: " + rule + ", url: " + providerUrls, e);
+      log.error("route error , rule has been ignored. rule: " + super.getRule() + ", url: "
+          + providerUrls, e);
       return true;
     }
   }
@@ -0,0 +1,264 @@
+/*
+ * Copyright (c) 2016, Quancheng-ec.com All right reserved. This software is the confidential and
+ * proprietary information of Quancheng-ec.com ("Confidential Information"). You shall not disclose
+ * such Confidential Information and shall use it only in accordance with the terms of the license
+ * agreement you entered into with Quancheng-ec.com.
+ */
+package com.quancheng.saluki.core.grpc.server;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.Maps;
+import com.quancheng.saluki.core.common.Constants;
+import com.quancheng.saluki.core.common.GrpcURL;
+import com.quancheng.saluki.core.common.NamedThreadFactory;
+import com.quancheng.saluki.core.grpc.server.internal.FairQueue;
+import com.quancheng.saluki.core.grpc.server.internal.ServerExecutorInterceptor;
+
+import io.grpc.ServerInterceptor;
+
+/**
+ * 服务端业务线程池：Netty只负责IO，业务方法在线程池中执行，一个服务变慢不会卡住同一端口上其他服务的IO；
+ * shared：所有服务共用一个有界线程池；dedicated：服务独占一个线程池，executormethods中的方法再各自独占一个；
+ * virtual：JDK支持虚拟线程时每个调用一个虚拟线程，否则退回shared；direct：仍在IO线程上执行，只适合不阻塞的服务；
+ * 线程用满后排队的调用按调用方的优先级与租户加权公平出队，见FairQueue
+ *
+ * @author liushiming
+ * @version GrpcServerExecutors.java, v 0.0.1 2026年10月18日 下午9:48:23 liushiming
+ */
+public final class GrpcServerExecutors {
+
+  private static final Logger log = LoggerFactory.getLogger(GrpcServerExecutors.class);
+
+  public static final String SERVER_THREADS_PROPERTY = "saluki.grpc.serverThreads";
+
+  public static final String SERVER_QUEUES_PROPERTY = "saluki.grpc.serverQueues";
+
+  private static volatile int sharedThreads =
+      Integer.getInteger(SERVER_THREADS_PROPERTY, Constants.DEFAULT_EXECUTOR_THREADS);
+
+  private static volatile int sharedQueues =
+      Integer.getInteger(SERVER_QUEUES_PROPERTY, Constants.DEFAULT_EXECUTOR_QUEUES);
+
+  private static final ConcurrentMap<String, MonitoredExecutor> executors =
+      Maps.newConcurrentMap();
+
+  private GrpcServerExecutors() {}
+
+  /**
+   * 必须在第一个服务导出之前调用，之后的配置不再生效
+   *
+   * @param threads 共享线程池的线程数
+   * @param queues 共享线程池的队列长度，0表示不排队、线程用满即拒绝
+   */
+  public static void configure(int threads, int queues) {
+    synchronized (GrpcServerExecutors.class) {
+      if (executors.containsKey(Constants.EXECUTOR_SHARED)) {
+        log.warn("grpc shared server executor already created, ignore serverThreads:" + threads
+            + " serverQueues:" + queues);
+        return;
+      }
+      sharedThreads = threads;
+      sharedQueues = queues;
+    }
+  }
+
+  /**
+   * 按服务URL上的executor配置生成拦截器，direct时返回null
+   */
+  public static ServerInterceptor newInterceptor(GrpcURL providerUrl) {
+    String model = providerUrl.getParameter(Constants.EXECUTOR_KEY, Constants.EXECUTOR_SHARED);
+    if (Constants.EXECUTOR_DIRECT.equalsIgnoreCase(model)) {
+      return null;
+    }
+    String service = providerUrl.getServiceInterface();
+    int threads =
+        providerUrl.getParameter(Constants.EXECUTOR_THREADS_KEY, Constants.DEFAULT_EXECUTOR_THREADS);
+    int queues =
+        providerUrl.getParameter(Constants.EXECUTOR_QUEUES_KEY, Constants.DEFAULT_EXECUTOR_QUEUES);
+    MonitoredExecutor serviceExecutor;
+    if (Constants.EXECUTOR_DEDICATED.equalsIgnoreCase(model)) {
+      serviceExecutor = getThreadPool(service, threads, queues);
+    } else if (Constants.EXECUTOR_VIRTUAL.equalsIgnoreCase(model)) {
+      serviceExecutor = getVirtualExecutor();
+    } else {
+      serviceExecutor = getSharedExecutor();
+    }
+    Map<String, MonitoredExecutor> methodExecutors = Maps.newHashMap();
+    String[] methods = providerUrl.getParameter(Constants.EXECUTOR_METHODS_KEY, new String[0]);
+    for (String method : methods) {
+      methodExecutors.put(method, getThreadPool(service + "/" + method, threads, queues));
+    }
+    return new ServerExecutorInterceptor(serviceExecutor, methodExecutors);
+  }
+
+  /**
+   * 所有业务线程池的当前状态
+   */
+  public static Collection<MonitoredExecutor> getExecutors() {
+    List<MonitoredExecutor> snapshot = new ArrayList<MonitoredExecutor>(executors.values());
+    return Collections.unmodifiableList(snapshot);
+  }
+
+  private static MonitoredExecutor getSharedExecutor() {
+    synchronized (GrpcServerExecutors.class) {
+      return getThreadPool(Constants.EXECUTOR_SHARED, sharedThreads, sharedQueues);
+    }
+  }
+
+  private static MonitoredExecutor getThreadPool(String name, int threads, int queues) {
+    MonitoredExecutor executor = executors.get(name);
+    if (executor == null) {
+      BlockingQueue<Runnable> queue =
+          queues > 0 ? new FairQueue(queues) : new SynchronousQueue<Runnable>();
+      ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+          queue, new NamedThreadFactory("saluki-server-" + name, true));
+      pool.allowCoreThreadTimeOut(true);
+      if (executors.putIfAbsent(name, new MonitoredExecutor(name, pool, queue)) != null) {
+        pool.shutdown();
+      }
+      executor = executors.get(name);
+    }
+    return executor;
+  }
+
+  private static MonitoredExecutor getVirtualExecutor() {
+    MonitoredExecutor executor = executors.get(Constants.EXECUTOR_VIRTUAL);
+    if (executor == null) {
+      ExecutorService virtual;
+      try {
+        virtual = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor")
+            .invoke(null);
+      } catch (NoSuchMethodException e) {
+        log.warn("virtual threads are not supported by this jdk, fall back to shared executor");
+        return getSharedExecutor();
+      } catch (Exception e) {
+        log.warn("create virtual thread executor failed, fall back to shared executor", e);
+        return getSharedExecutor();
+      }
+      if (executors.putIfAbsent(Constants.EXECUTOR_VIRTUAL,
+          new MonitoredExecutor(Constants.EXECUTOR_VIRTUAL, virtual, null)) != null) {
+        virtual.shutdown();
+      }
+      executor = executors.get(Constants.EXECUTOR_VIRTUAL);
+    }
+    return executor;
+  }
+
+  /**
+   * 记录执行中的任务数、排队数、拒绝次数与各优先级的平均排队时间
+   */
+  public static final class MonitoredExecutor implements Executor {
+
+    private final String name;
+
+    private final ExecutorService delegate;
+
+    private final BlockingQueue<Runnable> queue;
+
+    private final AtomicInteger activeCount = new AtomicInteger();
+
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    private MonitoredExecutor(String name, ExecutorService delegate,
+        BlockingQueue<Runnable> queue) {
+      this.name = name;
+      this.delegate = delegate;
+      this.queue = queue;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+      execute(command, null, null);
+    }
+
+    /**
+     * 按调用方的优先级与租户排队，没有排队的线程池返回自身
+     */
+    public Executor forFlow(final String priority, final String tenant) {
+      if (!(queue instanceof FairQueue)) {
+        return this;
+      }
+      return new Executor() {
+
+        @Override
+        public void execute(Runnable command) {
+          MonitoredExecutor.this.execute(command, priority, tenant);
+        }
+      };
+    }
+
+    private void execute(final Runnable command, String priority, String tenant) {
+      Runnable task = new Runnable() {
+
+        @Override
+        public void run() {
+          activeCount.incrementAndGet();
+          try {
+            command.run();
+          } finally {
+            activeCount.decrementAndGet();
+          }
+        }
+      };
+      if (queue instanceof FairQueue) {
+        task = ((FairQueue) queue).newTask(task, priority, tenant);
+      }
+      try {
+        delegate.execute(task);
+      } catch (RejectedExecutionException e) {
+        rejectedCount.incrementAndGet();
+        throw e;
+      }
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public int getActiveCount() {
+      return activeCount.get();
+    }
+
+    public int getQueueSize() {
+      return queue == null ? 0 : queue.size();
+    }
+
+    public long getRejectedCount() {
+      return rejectedCount.get();
+    }
+
+    /**
+     * 各优先级的平均排队时间与调用数，没有排队的线程池为空串
+     */
+    public String getQueueWaits() {
+      return queue instanceof FairQueue ? ((FairQueue) queue).getQueueWaits() : "";
+    }
+
+    @Override
+    public String toString() {
+      String waits = getQueueWaits();
+      return "active=" + getActiveCount() + ", queue=" + getQueueSize() + ", rejected="
+          + getRejectedCount() + (waits.isEmpty() ? "" : ", waits=" + waits);
+    }
+  }
+
+}
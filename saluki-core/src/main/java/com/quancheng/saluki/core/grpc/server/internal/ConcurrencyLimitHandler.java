@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2016, Quancheng-ec.com All right reserved. This software is the confidential and
+ * proprietary information of Quancheng-ec.com ("Confidential Information"). You shall not disclose
+ * such Confidential Information and shall use it only in accordance with the terms of the license
+ * agreement you entered into with Quancheng-ec.com.
+ */
+package com.quancheng.saluki.core.grpc.server.internal;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import io.grpc.ForwardingServerCall.SimpleForwardingServerCall;
+import io.grpc.ForwardingServerCallListener.SimpleForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCall.Listener;
+import io.grpc.ServerCallHandler;
+import io.grpc.Status;
+
+/**
+ * 在startCall时按ConcurrencyLimiter准入，超过并发限制的调用直接以RESOURCE_EXHAUSTED关闭，不再请求消息，请求体不会被反序列化；
+ * 调用关闭时按状态把耗时反馈给limiter
+ *
+ * @author liushiming
+ * @version ConcurrencyLimitHandler.java, v 0.0.1 2026年10月18日 下午10:52:08 liushiming
+ */
+public final class ConcurrencyLimitHandler<ReqT, RespT> implements ServerCallHandler<ReqT, RespT> {
+
+  private final ConcurrencyLimiter limiter;
+
+  private final ServerCallHandler<ReqT, RespT> next;
+
+  public ConcurrencyLimitHandler(ConcurrencyLimiter limiter, ServerCallHandler<ReqT, RespT> next) {
+    this.limiter = limiter;
+    this.next = next;
+  }
+
+  @Override
+  public Listener<ReqT> startCall(ServerCall<ReqT, RespT> call, Metadata headers) {
+    if (!limiter.tryAcquire()) {
+      call.close(Status.RESOURCE_EXHAUSTED.withDescription("Concurrency limit exceeded"),
+          new Metadata());
+      return new Listener<ReqT>() {};
+    }
+    final LimitedServerCall<ReqT, RespT> limitedCall =
+        new LimitedServerCall<ReqT, RespT>(call, limiter);
+    Listener<ReqT> listener;
+    try {
+      listener = next.startCall(limitedCall, headers);
+    } catch (RuntimeException e) {
+      limitedCall.release(null);
+      throw e;
+    }
+    return new SimpleForwardingServerCallListener<ReqT>(listener) {
+
+      @Override
+      public void onCancel() {
+        limitedCall.release(Status.CANCELLED);
+        super.onCancel();
+      }
+
+      // 没有经过这里关闭的调用是被外层拦截器拒绝的，比如业务线程池已满
+      @Override
+      public void onComplete() {
+        limitedCall.release(Status.RESOURCE_EXHAUSTED);
+        super.onComplete();
+      }
+    };
+  }
+
+  private static final class LimitedServerCall<ReqT, RespT>
+      extends SimpleForwardingServerCall<ReqT, RespT> {
+
+    private final ConcurrencyLimiter limiter;
+
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    private final long start = System.nanoTime();
+
+    private final int inflightAtStart;
+
+    LimitedServerCall(ServerCall<ReqT, RespT> delegate, ConcurrencyLimiter limiter) {
+      super(delegate);
+      this.limiter = limiter;
+      this.inflightAtStart = limiter.getInflight();
+    }
+
+    @Override
+    public void close(Status status, Metadata trailers) {
+      release(status);
+      super.close(status, trailers);
+    }
+
+    /**
+     * 只释放一次；status为空表示与负载无关
+     */
+    void release(Status status) {
+      if (!released.compareAndSet(false, true)) {
+        return;
+      }
+      if (status == null) {
+        limiter.onIgnore();
+        return;
+      }
+      switch (status.getCode()) {
+        case OK:
+          limiter.onSuccess(System.nanoTime() - start, inflightAtStart);
+          break;
+        case CANCELLED:
+        case DEADLINE_EXCEEDED:
+        case RESOURCE_EXHAUSTED:
+          limiter.onDropped();
+          break;
+        default:
+          limiter.onIgnore();
+          break;
+      }
+    }
+  }
+
+}
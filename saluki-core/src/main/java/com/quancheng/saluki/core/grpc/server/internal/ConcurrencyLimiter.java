@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2016, Quancheng-ec.com All right reserved. This software is the confidential and
+ * proprietary information of Quancheng-ec.com ("Confidential Information"). You shall not disclose
+ * such Confidential Information and shall use it only in accordance with the terms of the license
+ * agreement you entered into with Quancheng-ec.com.
+ */
+package com.quancheng.saluki.core.grpc.server.internal;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.quancheng.saluki.core.common.Constants;
+import com.quancheng.saluki.core.common.GrpcURL;
+
+/**
+ * 服务方法的并发限制，按Vegas算法根据耗时自适应调整：以观测到的最小耗时作为无排队耗时，
+ * 估算排队长度limit*(1-minRtt/rtt)，排队少时放大limit，排队多或调用超时、被取消时缩小limit；
+ * 每30*limit次调用重新探测一次最小耗时；没有开启时只记录当前并发数
+ *
+ * @author liushiming
+ * @version ConcurrencyLimiter.java, v 0.0.1 2026年10月18日 下午10:41:36 liushiming
+ */
+public final class ConcurrencyLimiter {
+
+  private static final int INITIAL_LIMIT = 20;
+
+  private static final int MIN_LIMIT = 1;
+
+  private static final int PROBE_MULTIPLIER = 30;
+
+  private final boolean enabled;
+
+  private final int maxLimit;
+
+  private final AtomicInteger inflight = new AtomicInteger();
+
+  private final AtomicLong rejectedCount = new AtomicLong();
+
+  private final ReentrantLock updateLock = new ReentrantLock();
+
+  private volatile int limit;
+
+  // 以下字段由updateLock保护
+  private double estimatedLimit;
+
+  private long rttNoLoad;
+
+  private long probeCount;
+
+  public ConcurrencyLimiter(GrpcURL providerUrl) {
+    this.enabled = Constants.LIMITER_VEGAS
+        .equalsIgnoreCase(providerUrl.getParameter(Constants.LIMITER_KEY, ""));
+    this.maxLimit = Math.max(MIN_LIMIT,
+        providerUrl.getParameter(Constants.LIMITER_MAX_KEY, Constants.DEFAULT_LIMITER_MAX));
+    this.estimatedLimit = Math.min(INITIAL_LIMIT, maxLimit);
+    this.limit = (int) estimatedLimit;
+  }
+
+  /**
+   * 当前并发已达到limit时返回false，调用方应直接拒绝请求
+   */
+  public boolean tryAcquire() {
+    if (!enabled) {
+      inflight.incrementAndGet();
+      return true;
+    }
+    for (;;) {
+      int current = inflight.get();
+      if (current >= limit) {
+        rejectedCount.incrementAndGet();
+        return false;
+      }
+      if (inflight.compareAndSet(current, current + 1)) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * 调用成功，按耗时调整limit
+   *
+   * @param inflightAtStart 调用开始时的并发数，并发远低于limit时耗时不能说明limit是否合适
+   */
+  public void onSuccess(long rttNanos, int inflightAtStart) {
+    inflight.decrementAndGet();
+    if (enabled) {
+      update(rttNanos, inflightAtStart, false);
+    }
+  }
+
+  /**
+   * 调用超时、被取消或被线程池拒绝，缩小limit
+   */
+  public void onDropped() {
+    inflight.decrementAndGet();
+    if (enabled) {
+      update(0, 0, true);
+    }
+  }
+
+  /**
+   * 业务异常与负载无关，只释放并发
+   */
+  public void onIgnore() {
+    inflight.decrementAndGet();
+  }
+
+  public int getInflight() {
+    return inflight.get();
+  }
+
+  public int getLimit() {
+    return limit;
+  }
+
+  public long getRejectedCount() {
+    return rejectedCount.get();
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  // 其他线程正在调整时丢弃这个样本，调整不在调用的关键路径上竞争锁
+  private void update(long rtt, int inflightAtStart, boolean dropped) {
+    if (!updateLock.tryLock()) {
+      return;
+    }
+    try {
+      double newLimit;
+      if (dropped) {
+        newLimit = estimatedLimit - log10(estimatedLimit);
+      } else {
+        if (rtt <= 0) {
+          return;
+        }
+        if (++probeCount >= PROBE_MULTIPLIER * estimatedLimit) {
+          probeCount = 0;
+          rttNoLoad = rtt;
+          return;
+        }
+        if (rttNoLoad == 0 || rtt < rttNoLoad) {
+          rttNoLoad = rtt;
+          return;
+        }
+        if (inflightAtStart * 2 < estimatedLimit) {
+          return;
+        }
+        double threshold = log10(estimatedLimit);
+        double alpha = 3 * threshold;
+        double beta = 6 * threshold;
+        double queueSize = Math.ceil(estimatedLimit * (1 - (double) rttNoLoad / rtt));
+        if (queueSize <= threshold) {
+          newLimit = estimatedLimit + beta;
+        } else if (queueSize < alpha) {
+          newLimit = estimatedLimit + threshold;
+        } else if (queueSize > beta) {
+          newLimit = estimatedLimit - threshold;
+        } else {
+          return;
+        }
+      }
+      estimatedLimit = Math.max(MIN_LIMIT, Math.min(maxLimit, newLimit));
+      limit = (int) estimatedLimit;
+    } finally {
+      updateLock.unlock();
+    }
+  }
+
+  private static double log10(double limit) {
+    return Math.max(1, Math.log10(limit));
+  }
+
+  @Override
+  public String toString() {
+    return "limit=" + getLimit() + ", inflight=" + getInflight() + ", rejected="
+        + getRejectedCount();
+  }
+
+}
@@ -8,14 +8,10 @@ package com.quancheng.saluki.core.grpc.server.internal;
 
 import java.lang.reflect.Method;
 import java.util.List;
-import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.common.collect.Maps;
-import com.google.protobuf.Message;
 import com.quancheng.saluki.core.common.GrpcURL;
 import com.quancheng.saluki.core.grpc.annotation.GrpcMethodType;
 import com.quancheng.saluki.core.grpc.exception.RpcErrorMsgConstant;
@@ -60,31 +56,33 @@ public class DefaultProxyExporter implements GrpcProtocolExporter {
       throw new IllegalStateException(
           "protocolClass " + serviceName + " not have export method" + serivce);
     }
-    final ConcurrentMap<String, AtomicInteger> concurrents = Maps.newConcurrentMap();
     for (Method method : methods) {
-      MethodDescriptor<Message, Message> methodDescriptor =
+      MethodDescriptor<Object, Object> methodDescriptor =
           GrpcUtil.createMethodDescriptor(serivce, method);
       GrpcMethodType grpcMethodType = method.getAnnotation(GrpcMethodType.class);
+      ConcurrencyLimiter limiter = new ConcurrencyLimiter(providerUrl);
       switch (grpcMethodType.methodType()) {
+        // 流式调用的耗时与负载无关，只对unary方法限流
         case UNARY:
           serviceDefBuilder.addMethod(methodDescriptor,
-              ServerCalls.asyncUnaryCall(new ServerInvocation(serviceRef, method, grpcMethodType,
-                  providerUrl, concurrents, clientServerMonitor)));
+              new ConcurrencyLimitHandler<Object, Object>(limiter,
+                  ServerCalls.asyncUnaryCall(new ServerInvocation(serviceRef, method,
+                      grpcMethodType, providerUrl, limiter, clientServerMonitor))));
           break;
         case CLIENT_STREAMING:
           serviceDefBuilder.addMethod(methodDescriptor,
               ServerCalls.asyncClientStreamingCall(new ServerInvocation(serviceRef, method,
-                  grpcMethodType, providerUrl, concurrents, clientServerMonitor)));
+                  grpcMethodType, providerUrl, limiter, clientServerMonitor)));
           break;
         case SERVER_STREAMING:
           serviceDefBuilder.addMethod(methodDescriptor,
               ServerCalls.asyncServerStreamingCall(new ServerInvocation(serviceRef, method,
-                  grpcMethodType, providerUrl, concurrents, clientServerMonitor)));
+                  grpcMethodType, providerUrl, limiter, clientServerMonitor)));
           break;
         case BIDI_STREAMING:
           serviceDefBuilder.addMethod(methodDescriptor,
               ServerCalls.asyncBidiStreamingCall(new ServerInvocation(serviceRef, method,
-                  grpcMethodType, providerUrl, concurrents, clientServerMonitor)));
+                  grpcMethodType, providerUrl, limiter, clientServerMonitor)));
           break;
         default:
           RpcServiceException rpcFramwork =
@@ -0,0 +1,221 @@
+/*
+ * Copyright (c) 2016, Quancheng-ec.com All right reserved. This software is the confidential and
+ * proprietary information of Quancheng-ec.com ("Confidential Information"). You shall not disclose
+ * such Confidential Information and shall use it only in accordance with the terms of the license
+ * agreement you entered into with Quancheng-ec.com.
+ */
+package com.quancheng.saluki.core.grpc.server.internal;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.collect.Maps;
+import com.quancheng.saluki.core.common.Constants;
+
+/**
+ * 业务线程池的等待队列，按加权公平排队(SCFQ)出队：优先级加租户是一个流，入队时给任务打上虚拟完成时间
+ * max(V, 该流上一个任务的完成时间) + 1/权重，出队取完成时间最小的任务并把V推进到它；
+ * 一个调用方排了很多请求只会推后它自己的完成时间，不会饿死其他调用方；critical、normal、low的权重为16、4、1
+ *
+ * @author liushiming
+ * @version FairQueue.java, v 0.0.1 2026年10月18日 下午11:58:27 liushiming
+ */
+public final class FairQueue extends PriorityBlockingQueue<Runnable> {
+
+  private static final long serialVersionUID = 5147311964452361738L;
+
+  private static final int MAX_FLOWS = 1024;
+
+  private static final Comparator<Runnable> ORDER = new Comparator<Runnable>() {
+
+    @Override
+    public int compare(Runnable left, Runnable right) {
+      FairTask l = (FairTask) left;
+      FairTask r = (FairTask) right;
+      int c = Double.compare(l.finishTag, r.finishTag);
+      return c != 0 ? c : Long.compare(l.sequence, r.sequence);
+    }
+  };
+
+  private final int capacity;
+
+  private final transient Object tagLock = new Object();
+
+  // 以下字段由tagLock保护
+  private final transient Map<String, Flow> flows = Maps.newHashMap();
+
+  private double virtualTime;
+
+  private long sequence;
+
+  // 构造后不再修改
+  private final transient Map<String, WaitStats> waits = Maps.newLinkedHashMap();
+
+  public FairQueue(int capacity) {
+    super(Math.min(capacity, 64), ORDER);
+    this.capacity = capacity;
+    for (String priority : new String[] {Constants.PRIORITY_CRITICAL, Constants.PRIORITY_NORMAL,
+        Constants.PRIORITY_LOW}) {
+      waits.put(priority, new WaitStats());
+    }
+  }
+
+  /**
+   * 未知或为空的优先级按normal处理
+   */
+  public Runnable newTask(Runnable command, String priority, String tenant) {
+    String priorityClass = Constants.PRIORITY_CRITICAL.equalsIgnoreCase(priority)
+        ? Constants.PRIORITY_CRITICAL : Constants.PRIORITY_LOW.equalsIgnoreCase(priority)
+            ? Constants.PRIORITY_LOW : Constants.PRIORITY_NORMAL;
+    return new FairTask(command, priorityClass, tenant == null ? "" : tenant,
+        waits.get(priorityClass));
+  }
+
+  @Override
+  public boolean offer(Runnable task) {
+    FairTask fairTask = task instanceof FairTask ? (FairTask) task
+        : (FairTask) newTask(task, null, null);
+    synchronized (tagLock) {
+      if (size() >= capacity) {
+        return false;
+      }
+      String key = fairTask.priority + "/" + fairTask.tenant;
+      Flow flow = flows.get(key);
+      if (flow == null) {
+        if (flows.size() >= MAX_FLOWS) {
+          removeIdleFlows();
+        }
+        flow = new Flow();
+        flows.put(key, flow);
+      }
+      flow.finishTag = Math.max(virtualTime, flow.finishTag) + 1.0 / weight(fairTask.priority);
+      fairTask.finishTag = flow.finishTag;
+      fairTask.sequence = sequence++;
+      fairTask.enqueuedAt = System.nanoTime();
+      return super.offer(fairTask);
+    }
+  }
+
+  @Override
+  public Runnable poll() {
+    return advance(super.poll());
+  }
+
+  @Override
+  public Runnable poll(long timeout, TimeUnit unit) throws InterruptedException {
+    return advance(super.poll(timeout, unit));
+  }
+
+  @Override
+  public Runnable take() throws InterruptedException {
+    return advance(super.take());
+  }
+
+  @Override
+  public int remainingCapacity() {
+    return Math.max(0, capacity - size());
+  }
+
+  /**
+   * 各优先级的平均排队时间，单位毫秒
+   */
+  public String getQueueWaits() {
+    StringBuilder sb = new StringBuilder();
+    for (Map.Entry<String, WaitStats> entry : waits.entrySet()) {
+      if (sb.length() > 0) {
+        sb.append(' ');
+      }
+      sb.append(entry.getKey()).append('=').append(entry.getValue());
+    }
+    return sb.toString();
+  }
+
+  private Runnable advance(Runnable task) {
+    if (task != null) {
+      synchronized (tagLock) {
+        virtualTime = Math.max(virtualTime, ((FairTask) task).finishTag);
+      }
+    }
+    return task;
+  }
+
+  // 完成时间不晚于V的流与新建的流没有区别
+  private void removeIdleFlows() {
+    Iterator<Flow> it = flows.values().iterator();
+    while (it.hasNext()) {
+      if (it.next().finishTag <= virtualTime) {
+        it.remove();
+      }
+    }
+  }
+
+  private static int weight(String priority) {
+    if (Constants.PRIORITY_CRITICAL.equals(priority)) {
+      return 16;
+    }
+    if (Constants.PRIORITY_LOW.equals(priority)) {
+      return 1;
+    }
+    return 4;
+  }
+
+  private static final class Flow {
+
+    private double finishTag;
+  }
+
+  private static final class WaitStats {
+
+    private final AtomicLong count = new AtomicLong();
+
+    private final AtomicLong totalNanos = new AtomicLong();
+
+    void record(long nanos) {
+      count.incrementAndGet();
+      totalNanos.addAndGet(nanos);
+    }
+
+    @Override
+    public String toString() {
+      long n = count.get();
+      double avg = n == 0 ? 0 : totalNanos.get() / (double) n / 1000000;
+      return String.format("%.1fms/%d", avg, n);
+    }
+  }
+
+  private static final class FairTask implements Runnable {
+
+    private final Runnable command;
+
+    private final String priority;
+
+    private final String tenant;
+
+    private final WaitStats waitStats;
+
+    private double finishTag;
+
+    private long sequence;
+
+    // 没有经过队列、直接交给新线程的任务为0
+    private long enqueuedAt;
+
+    FairTask(Runnable command, String priority, String tenant, WaitStats waitStats) {
+      this.command = command;
+      this.priority = priority;
+      this.tenant = tenant;
+      this.waitStats = waitStats;
+    }
+
+    @Override
+    public void run() {
+      waitStats.record(enqueuedAt == 0 ? 0 : System.nanoTime() - enqueuedAt);
+      command.run();
+    }
+  }
+
+}
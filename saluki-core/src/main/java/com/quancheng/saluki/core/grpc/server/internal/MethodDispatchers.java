@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2016, Quancheng-ec.com All right reserved. This software is the confidential and
+ * proprietary information of Quancheng-ec.com ("Confidential Information"). You shall not disclose
+ * such Confidential Information and shall use it only in accordance with the terms of the license
+ * agreement you entered into with Quancheng-ec.com.
+ */
+package com.quancheng.saluki.core.grpc.server.internal;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.quancheng.saluki.core.grpc.exception.RpcFrameworkException;
+
+/**
+ * 导出服务时为每个方法生成一次调用器，代替每次调用的Method.invoke：
+ * 接口及参数类型对saluki的ClassLoader可见时用LambdaMetafactory生成直接调用接口方法的实现类，JIT可以内联；
+ * 否则退回到绑定了服务实例的MethodHandle；业务异常原样抛出，不再包装成InvocationTargetException
+ *
+ * @author liushiming
+ * @version MethodDispatchers.java, v 0.0.1 2026年10月18日 下午11:18:45 liushiming
+ */
+public final class MethodDispatchers {
+
+  private static final Logger log = LoggerFactory.getLogger(MethodDispatchers.class);
+
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+  private static final MethodType DISPATCHER_TYPE =
+      MethodType.methodType(Object.class, Object.class);
+
+  private static final MethodType BI_DISPATCHER_TYPE =
+      MethodType.methodType(void.class, Object.class, Object.class);
+
+  private MethodDispatchers() {}
+
+  /**
+   * unary、客户端流与双向流方法：一个参数，有返回值
+   */
+  public interface Dispatcher {
+
+    Object invoke(Object arg) throws Throwable;
+  }
+
+  /**
+   * 服务端流方法：请求与responseObserver两个参数
+   */
+  public interface BiDispatcher {
+
+    void invoke(Object request, Object responseObserver) throws Throwable;
+  }
+
+  public static Dispatcher newDispatcher(Object service, Method method) {
+    checkParameterCount(method, 1);
+    Class<?> returnType = method.getReturnType();
+    if (!returnType.isPrimitive() && isLambdaCapable(method)) {
+      try {
+        CallSite site = LambdaMetafactory.metafactory(LOOKUP, "invoke",
+            MethodType.methodType(Dispatcher.class, method.getDeclaringClass()), DISPATCHER_TYPE,
+            LOOKUP.unreflect(method), MethodType.methodType(returnType, method.getParameterTypes()));
+        return (Dispatcher) site.getTarget().invoke(service);
+      } catch (Throwable e) {
+        log.warn("generate dispatcher for " + method + " failed, fall back to method handle", e);
+      }
+    }
+    final MethodHandle handle = bind(service, method, DISPATCHER_TYPE);
+    return new Dispatcher() {
+
+      @Override
+      public Object invoke(Object arg) throws Throwable {
+        return handle.invokeExact(arg);
+      }
+    };
+  }
+
+  public static BiDispatcher newBiDispatcher(Object service, Method method) {
+    checkParameterCount(method, 2);
+    if (isLambdaCapable(method)) {
+      try {
+        CallSite site = LambdaMetafactory.metafactory(LOOKUP, "invoke",
+            MethodType.methodType(BiDispatcher.class, method.getDeclaringClass()),
+            BI_DISPATCHER_TYPE, LOOKUP.unreflect(method),
+            MethodType.methodType(void.class, method.getParameterTypes()));
+        return (BiDispatcher) site.getTarget().invoke(service);
+      } catch (Throwable e) {
+        log.warn("generate dispatcher for " + method + " failed, fall back to method handle", e);
+      }
+    }
+    final MethodHandle handle = bind(service, method, BI_DISPATCHER_TYPE);
+    return new BiDispatcher() {
+
+      @Override
+      public void invoke(Object request, Object responseObserver) throws Throwable {
+        handle.invokeExact(request, responseObserver);
+      }
+    };
+  }
+
+  private static void checkParameterCount(Method method, int count) {
+    if (method.getParameterTypes().length != count) {
+      throw new IllegalStateException(
+          "method " + method + " should have " + count + " parameter(s) to be exported");
+    }
+  }
+
+  /**
+   * 生成的实现类按saluki的ClassLoader解析接口、参数与返回值类型，类型不可见或接口不是public时不能生成
+   */
+  private static boolean isLambdaCapable(Method method) {
+    Class<?> declaringClass = method.getDeclaringClass();
+    if (!Modifier.isPublic(declaringClass.getModifiers())) {
+      return false;
+    }
+    if (!isVisible(declaringClass) || !isVisible(method.getReturnType())) {
+      return false;
+    }
+    for (Class<?> parameterType : method.getParameterTypes()) {
+      if (!isVisible(parameterType)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isVisible(Class<?> type) {
+    while (type.isArray()) {
+      type = type.getComponentType();
+    }
+    if (type.isPrimitive()) {
+      return true;
+    }
+    if (!Modifier.isPublic(type.getModifiers())) {
+      return false;
+    }
+    try {
+      return Class.forName(type.getName(), false,
+          MethodDispatchers.class.getClassLoader()) == type;
+    } catch (ClassNotFoundException e) {
+      return false;
+    }
+  }
+
+  private static MethodHandle bind(Object service, Method method, MethodType type) {
+    try {
+      method.setAccessible(true);
+      return LOOKUP.unreflect(method).bindTo(service).asType(type);
+    } catch (IllegalAccessException e) {
+      throw new RpcFrameworkException(e);
+    }
+  }
+
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2016, Quancheng-ec.com All right reserved. This software is the confidential and
+ * proprietary information of Quancheng-ec.com ("Confidential Information"). You shall not disclose
+ * such Confidential Information and shall use it only in accordance with the terms of the license
+ * agreement you entered into with Quancheng-ec.com.
+ */
+package com.quancheng.saluki.core.grpc.server.internal;
+
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.quancheng.saluki.core.grpc.server.GrpcServerExecutors.MonitoredExecutor;
+import com.quancheng.saluki.core.grpc.util.GrpcUtil;
+
+import io.grpc.Context;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCall.Listener;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+import io.grpc.internal.SerializingExecutor;
+
+/**
+ * 把调用的startCall与后续的listener事件切换到服务的业务线程池，同一个调用的事件按顺序执行；
+ * 客户端只发一个请求的方法在halfClose之前的事件仍在IO线程上执行，只把业务方法的调用提交一次，一个调用只占用一次线程池的准入；
+ * 按请求头中的优先级与租户排队；必须是最外层的拦截器，RpcContext等线程上下文由内层拦截器在业务线程上设置；线程池满时以RESOURCE_EXHAUSTED拒绝调用
+ *
+ * @author liushiming
+ * @version ServerExecutorInterceptor.java, v 0.0.1 2026年10月18日 下午10:02:57 liushiming
+ */
+public final class ServerExecutorInterceptor implements ServerInterceptor {
+
+  private static final Logger log = LoggerFactory.getLogger(ServerExecutorInterceptor.class);
+
+  private final MonitoredExecutor executor;
+
+  private final Map<String, MonitoredExecutor> methodExecutors;
+
+  public ServerExecutorInterceptor(MonitoredExecutor executor,
+      Map<String, MonitoredExecutor> methodExecutors) {
+    this.executor = executor;
+    this.methodExecutors = methodExecutors;
+  }
+
+  @Override
+  public <ReqT, RespT> Listener<ReqT> interceptCall(final ServerCall<ReqT, RespT> call,
+      final Metadata headers, final ServerCallHandler<ReqT, RespT> next) {
+    Executor flowExecutor = getExecutor(call).forFlow(headers.get(GrpcUtil.GRPC_PRIORITY),
+        headers.get(GrpcUtil.GRPC_TENANT));
+    final DispatchListener<ReqT> listener =
+        new DispatchListener<ReqT>(call, new SerializingExecutor(flowExecutor),
+            call.getMethodDescriptor().getType().clientSendsOneMessage());
+    listener.dispatch(new Runnable() {
+
+      @Override
+      public void run() {
+        try {
+          listener.delegate = next.startCall(call, headers);
+        } catch (RuntimeException e) {
+          log.error(e.getMessage(), e);
+          listener.close(Status.fromThrowable(e));
+        }
+      }
+    });
+    return listener;
+  }
+
+  private MonitoredExecutor getExecutor(ServerCall<?, ?> call) {
+    if (methodExecutors.isEmpty()) {
+      return executor;
+    }
+    String fullMethodName = call.getMethodDescriptor().getFullMethodName();
+    MonitoredExecutor methodExecutor =
+        methodExecutors.get(fullMethodName.substring(fullMethodName.lastIndexOf('/') + 1));
+    return methodExecutor != null ? methodExecutor : executor;
+  }
+
+  private static final class DispatchListener<ReqT> extends Listener<ReqT> {
+
+    private final ServerCall<ReqT, ?> call;
+
+    private final Executor serializingExecutor;
+
+    private final Context context = Context.current();
+
+    private volatile Listener<ReqT> delegate = new Listener<ReqT>() {};
+
+    private volatile boolean closed;
+
+    /**
+     * 为true时事件在当前的IO线程上执行，onHalfClose时置为false
+     */
+    private volatile boolean inline;
+
+    DispatchListener(ServerCall<ReqT, ?> call, Executor serializingExecutor, boolean inline) {
+      this.call = call;
+      this.serializingExecutor = serializingExecutor;
+      this.inline = inline;
+    }
+
+    /**
+     * 线程池拒绝时关闭调用，之后的请求事件直接丢弃
+     */
+    void dispatch(Runnable task) {
+      if (closed) {
+        return;
+      }
+      if (inline) {
+        task.run();
+        return;
+      }
+      try {
+        serializingExecutor.execute(context.wrap(task));
+      } catch (RejectedExecutionException e) {
+        close(Status.RESOURCE_EXHAUSTED.withDescription("Server executor is exhausted"));
+      }
+    }
+
+    /**
+     * 调用结束的通知不能丢，线程池拒绝时在当前线程执行
+     */
+    void deliver(Runnable task) {
+      if (inline) {
+        task.run();
+        return;
+      }
+      try {
+        serializingExecutor.execute(context.wrap(task));
+      } catch (RejectedExecutionException e) {
+        context.wrap(task).run();
+      }
+    }
+
+    void close(Status status) {
+      closed = true;
+      try {
+        call.close(status, new Metadata());
+      } catch (IllegalStateException e) {
+        // 调用已经关闭
+      }
+    }
+
+    @Override
+    public void onMessage(final ReqT message) {
+      dispatch(new Runnable() {
+
+        @Override
+        public void run() {
+          delegate.onMessage(message);
+        }
+      });
+    }
+
+    @Override
+    public void onHalfClose() {
+      inline = false;
+      dispatch(new Runnable() {
+
+        @Override
+        public void run() {
+          delegate.onHalfClose();
+        }
+      });
+    }
+
+    @Override
+    public void onCancel() {
+      deliver(new Runnable() {
+
+        @Override
+        public void run() {
+          delegate.onCancel();
+        }
+      });
+    }
+
+    @Override
+    public void onComplete() {
+      deliver(new Runnable() {
+
+        @Override
+        public void run() {
+          delegate.onComplete();
+        }
+      });
+    }
+
+    @Override
+    public void onReady() {
+      deliver(new Runnable() {
+
+        @Override
+        public void run() {
+          delegate.onReady();
+        }
+      });
+    }
+  }
+
+}
@@ -7,25 +7,28 @@
 package com.quancheng.saluki.core.grpc.server.internal;
 
 import java.lang.reflect.Method;
-import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.protobuf.Message;
 import com.quancheng.saluki.core.common.Constants;
 import com.quancheng.saluki.core.common.GrpcURL;
 import com.quancheng.saluki.core.common.NamedThreadFactory;
 import com.quancheng.saluki.core.common.RpcContext;
 import com.quancheng.saluki.core.grpc.annotation.GrpcMethodType;
+import com.quancheng.saluki.core.grpc.server.internal.MethodDispatchers.BiDispatcher;
+import com.quancheng.saluki.core.grpc.server.internal.MethodDispatchers.Dispatcher;
 import com.quancheng.saluki.core.grpc.service.MonitorService;
-import com.quancheng.saluki.core.grpc.stream.PoJo2ProtoStreamObserver;
-import com.quancheng.saluki.core.grpc.stream.Proto2PoJoStreamObserver;
 import com.quancheng.saluki.core.grpc.util.SerializerUtil;
 
+import io.grpc.Context;
+import io.grpc.Deadline;
+import io.grpc.MethodDescriptor.MethodType;
 import io.grpc.Status;
 import io.grpc.StatusRuntimeException;
 import io.grpc.stub.ServerCalls.BidiStreamingMethod;
@@ -39,9 +42,9 @@ import io.netty.util.internal.ThrowableUtil;
  * @version ServerInvocation.java, v 0.0.1 2016年12月14日 下午10:14:18 shimingliu
  */
 @SuppressWarnings("unchecked")
-public class ServerInvocation implements io.grpc.stub.ServerCalls.UnaryMethod<Message, Message>,
-    ServerStreamingMethod<Message, Message>, ClientStreamingMethod<Message, Message>,
-    BidiStreamingMethod<Message, Message> {
+public class ServerInvocation implements io.grpc.stub.ServerCalls.UnaryMethod<Object, Object>,
+    ServerStreamingMethod<Object, Object>, ClientStreamingMethod<Object, Object>,
+    BidiStreamingMethod<Object, Object> {
 
   private static final Logger log = LoggerFactory.getLogger(ServerInvocation.class);
 
@@ -55,7 +58,11 @@ public class ServerInvocation implements io.grpc.stub.ServerCalls.UnaryMethod<Me
 
   private final GrpcMethodType grpcMethodType;
 
-  private final ConcurrentMap<String, AtomicInteger> concurrents;
+  private final ConcurrencyLimiter limiter;
+
+  private final Dispatcher dispatcher;
+
+  private final BiDispatcher biDispatcher;
 
   private static final ExecutorService collectLogExecutor =
       Executors.newSingleThreadExecutor(new NamedThreadFactory("salukiCollectTask", true));
@@ -63,25 +70,33 @@ public class ServerInvocation implements io.grpc.stub.ServerCalls.UnaryMethod<Me
   private volatile String remote;
 
   public ServerInvocation(Object serviceToInvoke, Method method, GrpcMethodType grpcMethodType,
-      GrpcURL providerUrl, ConcurrentMap<String, AtomicInteger> concurrents,
-      MonitorService salukiMonitor) {
+      GrpcURL providerUrl, ConcurrencyLimiter limiter, MonitorService salukiMonitor) {
     this.serviceToInvoke = serviceToInvoke;
     this.method = method;
     this.grpcMethodType = grpcMethodType;
     this.salukiMonitor = salukiMonitor;
     this.providerUrl = providerUrl;
-    this.concurrents = concurrents;
+    this.limiter = limiter;
+    // 服务端流方法有请求与responseObserver两个参数，其余方法只有一个参数
+    if (grpcMethodType.methodType() == MethodType.SERVER_STREAMING) {
+      this.dispatcher = null;
+      this.biDispatcher = MethodDispatchers.newBiDispatcher(serviceToInvoke, method);
+    } else {
+      this.dispatcher = MethodDispatchers.newDispatcher(serviceToInvoke, method);
+      this.biDispatcher = null;
+    }
   }
 
   @Override
-  public StreamObserver<Message> invoke(StreamObserver<Message> responseObserver) {
+  public StreamObserver<Object> invoke(StreamObserver<Object> responseObserver) {
+    if (rejectIfCancelled(responseObserver)) {
+      // 调用已被取消，grpc随后会在onCancel中回调请求端的onError
+      return new NoopStreamObserver();
+    }
     try {
       this.remote = RpcContext.getContext().getAttachment(Constants.REMOTE_ADDRESS);
-      Class<?> requestType = grpcMethodType.requestType();
-      PoJo2ProtoStreamObserver servserResponseObserver =
-          PoJo2ProtoStreamObserver.newObserverWrap(responseObserver);
-      Object result = method.invoke(serviceToInvoke, servserResponseObserver);
-      return Proto2PoJoStreamObserver.newObserverWrap((StreamObserver<Object>) result, requestType);
+      Object result = dispatcher.invoke(responseObserver);
+      return (StreamObserver<Object>) result;
     } catch (Throwable e) {
       String stackTrace = ThrowableUtil.stackTraceToString(e);
       log.error(e.getMessage(), e);
@@ -97,8 +112,11 @@ public class ServerInvocation implements io.grpc.stub.ServerCalls.UnaryMethod<Me
 
 
   @Override
-  public void invoke(Message request, StreamObserver<Message> responseObserver) {
+  public void invoke(Object request, StreamObserver<Object> responseObserver) {
     this.remote = RpcContext.getContext().getAttachment(Constants.REMOTE_ADDRESS);
+    if (rejectIfCancelled(responseObserver)) {
+      return;
+    }
     switch (grpcMethodType.methodType()) {
       case UNARY:
         unaryCall(request, responseObserver);
@@ -112,13 +130,9 @@ public class ServerInvocation implements io.grpc.stub.ServerCalls.UnaryMethod<Me
   }
 
 
-  private void streamCall(Message request, StreamObserver<Message> responseObserver) {
+  private void streamCall(Object request, StreamObserver<Object> responseObserver) {
     try {
-      Class<?> requestType = grpcMethodType.requestType();
-      Object reqPojo = SerializerUtil.protobuf2Pojo(request, requestType);
-      Object[] requestParams =
-          new Object[] {reqPojo, PoJo2ProtoStreamObserver.newObserverWrap(responseObserver)};
-      method.invoke(serviceToInvoke, requestParams);
+      biDispatcher.invoke(request, responseObserver);
     } catch (Throwable e) {
       String stackTrace = ThrowableUtil.stackTraceToString(e);
       log.error(e.getMessage(), e);
@@ -132,37 +146,37 @@ public class ServerInvocation implements io.grpc.stub.ServerCalls.UnaryMethod<Me
   }
 
 
-  private void unaryCall(Message request, StreamObserver<Message> responseObserver) {
-    final Message reqProtoBufer = request;
-    Message respProtoBufer = null;
+  private void unaryCall(Object request, StreamObserver<Object> responseObserver) {
+    final Object reqPojo = request;
+    Object respPojo = null;
     long start = System.currentTimeMillis();
     try {
-      getConcurrent().getAndIncrement();
-      Class<?> requestType = grpcMethodType.requestType();
-      final Object reqPojo = SerializerUtil.protobuf2Pojo(reqProtoBufer, requestType);
-      final Object respPojo = method.invoke(serviceToInvoke, new Object[] {reqPojo});
-      respProtoBufer = SerializerUtil.pojo2Protobuf(respPojo);
-      final Message collectMessage = respProtoBufer;
+      respPojo = dispatcher.invoke(reqPojo);
+      if (respPojo instanceof CompletionStage) {
+        asyncUnaryCall(reqPojo, (CompletionStage<Object>) respPojo, start, responseObserver);
+        return;
+      }
+      final Object collectMessage = respPojo;
       collectLogExecutor.execute(new Runnable() {
 
 
         @Override
         public void run() {
-          collect(reqProtoBufer, collectMessage, start, false);
+          collect(reqPojo, collectMessage, start, false);
         }
       });
-      responseObserver.onNext(respProtoBufer);
+      responseObserver.onNext(respPojo);
       responseObserver.onCompleted();
     } catch (Throwable e) {
       String stackTrace = ThrowableUtil.stackTraceToString(e);
       log.error(e.getMessage(), e);
-      final Message collectMessage = respProtoBufer;
+      final Object collectMessage = respPojo;
       collectLogExecutor.execute(new Runnable() {
 
 
         @Override
         public void run() {
-          collect(reqProtoBufer, collectMessage, start, true);
+          collect(reqPojo, collectMessage, start, true);
         }
       });
       StatusRuntimeException statusException =
@@ -171,18 +185,70 @@ public class ServerInvocation implements io.grpc.stub.ServerCalls.UnaryMethod<Me
     } finally {
       log.info(String.format("Service: %s  Method: %s  RemoteAddress: %s",
           providerUrl.getServiceInterface(), method.getName(), this.remote));
-      getConcurrent().decrementAndGet();
     }
   }
 
+  // 服务实现返回CompletableFuture时，在其完成的线程上回写响应
+  private void asyncUnaryCall(final Object reqPojo, CompletionStage<Object> future,
+      final long start, final StreamObserver<Object> responseObserver) {
+    future.whenComplete(new BiConsumer<Object, Throwable>() {
+
+      @Override
+      public void accept(final Object respPojo, Throwable t) {
+        final boolean error = t != null;
+        collectLogExecutor.execute(new Runnable() {
+
+          @Override
+          public void run() {
+            collect(reqPojo, respPojo, start, error);
+          }
+        });
+        if (error) {
+          Throwable cause = t instanceof CompletionException && t.getCause() != null
+              ? t.getCause() : t;
+          log.error(cause.getMessage(), cause);
+          StatusRuntimeException statusException = Status.UNAVAILABLE
+              .withDescription(ThrowableUtil.stackTraceToString(cause)).asRuntimeException();
+          responseObserver.onError(statusException);
+        } else {
+          responseObserver.onNext(respPojo);
+          responseObserver.onCompleted();
+        }
+      }
+    });
+  }
+
+  /**
+   * 调用方已经取消或deadline已过时不再调用业务方法，比如请求在业务线程池中排队时超时
+   */
+  private boolean rejectIfCancelled(StreamObserver<Object> responseObserver) {
+    Context context = Context.current();
+    if (!context.isCancelled()) {
+      return false;
+    }
+    Deadline deadline = context.getDeadline();
+    Status status = deadline != null && deadline.isExpired() ? Status.DEADLINE_EXCEEDED
+        : Status.CANCELLED;
+    log.warn(String.format("Service: %s  Method: %s  RemoteAddress: %s skipped, caller %s",
+        providerUrl.getServiceInterface(), method.getName(), this.remote,
+        status.getCode() == Status.Code.DEADLINE_EXCEEDED ? "deadline exceeded" : "cancelled"));
+    try {
+      responseObserver.onError(status.withDescription("Call skipped, caller is gone")
+          .asRuntimeException());
+    } catch (RuntimeException e) {
+      // 调用已经关闭
+    }
+    return true;
+  }
+
   // 信息采集
-  private void collect(Message request, Message response, long start, boolean error) {
+  private void collect(Object request, Object response, long start, boolean error) {
     try {
       if (request == null || response == null) {
         return;
       }
       long elapsed = System.currentTimeMillis() - start; // 计算调用耗时
-      int concurrent = getConcurrent().get(); // 当前并发数
+      int concurrent = limiter.getInflight(); // 当前并发数
       String service = providerUrl.getServiceInterface(); // 获取服务名称
       String method = this.method.getName(); // 获取方法名
       String consumer = this.remote;// 远程服务器地址
@@ -200,8 +266,8 @@ public class ServerInvocation implements io.grpc.stub.ServerCalls.UnaryMethod<Me
           error ? MonitorService.FAILURE : MonitorService.SUCCESS, "1", //
           MonitorService.ELAPSED, String.valueOf(elapsed), //
           MonitorService.CONCURRENT, String.valueOf(concurrent), //
-          MonitorService.INPUT, String.valueOf(request.getSerializedSize()), //
-          MonitorService.OUTPUT, String.valueOf(response.getSerializedSize())));
+          MonitorService.INPUT, String.valueOf(SerializerUtil.serializedSize(request)), //
+          MonitorService.OUTPUT, String.valueOf(SerializerUtil.serializedSize(response))));
     } catch (Throwable t) {
       log.warn("Failed to monitor count service " + this.serviceToInvoke.getClass() + ", cause: "
           + t.getMessage());
@@ -217,13 +283,15 @@ public class ServerInvocation implements io.grpc.stub.ServerCalls.UnaryMethod<Me
     return this.providerUrl.getAddress();
   }
 
-  private AtomicInteger getConcurrent() {
-    String key = serviceToInvoke.getClass().getName() + "." + method.getName();
-    AtomicInteger concurrent = concurrents.get(key);
-    if (concurrent == null) {
-      concurrents.putIfAbsent(key, new AtomicInteger());
-      concurrent = concurrents.get(key);
-    }
-    return concurrent;
+  private static final class NoopStreamObserver implements StreamObserver<Object> {
+
+    @Override
+    public void onNext(Object value) {}
+
+    @Override
+    public void onError(Throwable t) {}
+
+    @Override
+    public void onCompleted() {}
   }
 }
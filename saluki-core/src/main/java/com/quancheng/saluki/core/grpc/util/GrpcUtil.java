@@ -39,6 +39,12 @@ public class GrpcUtil {
   public static final Metadata.Key<String> GRPC_CONTEXT_VALUES =
       Metadata.Key.of("grpc_header_values-bin", utf8Marshaller());
 
+  public static final Metadata.Key<String> GRPC_PRIORITY =
+      Metadata.Key.of("grpc_header_priority-bin", utf8Marshaller());
+
+  public static final Metadata.Key<String> GRPC_TENANT =
+      Metadata.Key.of("grpc_header_tenant-bin", utf8Marshaller());
+
   private static Metadata.BinaryMarshaller<String> utf8Marshaller() {
     return new Metadata.BinaryMarshaller<String>() {
 
@@ -54,32 +60,28 @@ public class GrpcUtil {
     };
   }
 
-  public static io.grpc.MethodDescriptor<Message, Message> createMethodDescriptor(Class<?> clzz,
+  public static io.grpc.MethodDescriptor<Object, Object> createMethodDescriptor(Class<?> clzz,
       Method method) {
     String clzzName = clzz.getName();
     String methodName = method.getName();
     GrpcMethodType grpcMethodType = method.getAnnotation(GrpcMethodType.class);
-    Message argsReq = createDefaultInstance(grpcMethodType.requestType());
-    Message argsRep = createDefaultInstance(grpcMethodType.responseType());
-    return io.grpc.MethodDescriptor.<Message, Message>newBuilder()
+    return io.grpc.MethodDescriptor.<Object, Object>newBuilder()
         .setType(grpcMethodType.methodType())//
         .setFullMethodName(io.grpc.MethodDescriptor.generateFullMethodName(clzzName, methodName))//
-        .setRequestMarshaller(io.grpc.protobuf.ProtoUtils.marshaller(argsReq))//
-        .setResponseMarshaller(io.grpc.protobuf.ProtoUtils.marshaller(argsRep))//
+        .setRequestMarshaller(ProtobufEntityMarshaller.create(grpcMethodType.requestType()))//
+        .setResponseMarshaller(ProtobufEntityMarshaller.create(grpcMethodType.responseType()))//
         .setSafe(false)//
         .setIdempotent(false)//
         .build();
   }
 
-  public static io.grpc.MethodDescriptor<Message, Message> createMethodDescriptor(String clzzName,
+  public static io.grpc.MethodDescriptor<Object, Object> createMethodDescriptor(String clzzName,
       String methodName, GrpcMethodType grpcMethodType) {
-    Message argsReq = createDefaultInstance(grpcMethodType.requestType());
-    Message argsRep = createDefaultInstance(grpcMethodType.responseType());
-    return io.grpc.MethodDescriptor.<Message, Message>newBuilder()
+    return io.grpc.MethodDescriptor.<Object, Object>newBuilder()
         .setType(grpcMethodType.methodType())//
         .setFullMethodName(io.grpc.MethodDescriptor.generateFullMethodName(clzzName, methodName))//
-        .setRequestMarshaller(io.grpc.protobuf.ProtoUtils.marshaller(argsReq))//
-        .setResponseMarshaller(io.grpc.protobuf.ProtoUtils.marshaller(argsRep))//
+        .setRequestMarshaller(ProtobufEntityMarshaller.create(grpcMethodType.requestType()))//
+        .setResponseMarshaller(ProtobufEntityMarshaller.create(grpcMethodType.responseType()))//
         .setSafe(false)//
         .setIdempotent(false)//
         .build();
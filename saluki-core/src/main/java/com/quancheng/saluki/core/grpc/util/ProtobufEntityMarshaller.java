@@ -0,0 +1,126 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.quancheng.saluki.core.grpc.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import com.google.common.io.ByteStreams;
+import com.google.protobuf.Message;
+import com.quancheng.saluki.serializer.IProtobufWireCodec;
+import com.quancheng.saluki.serializer.ProtobufWireSerializer;
+import com.quancheng.saluki.serializer.exception.ProtobufException;
+
+import io.grpc.Drainable;
+import io.grpc.KnownLength;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import io.grpc.protobuf.ProtoUtils;
+
+/**
+ * 直接在ProtobufEntity与gRPC的字节流之间编解码，不再经过SerializerUtil转换出的Message；Message参数以及无法直接编解码的Pojo仍然走ProtoUtils
+ *
+ * @author liushiming
+ * @version ProtobufEntityMarshaller.java, v 0.0.1 2026年10月18日 下午4:48:26 liushiming
+ * @since JDK 1.8
+ */
+public final class ProtobufEntityMarshaller implements MethodDescriptor.Marshaller<Object> {
+
+  private final Class<?> type;
+
+  private final IProtobufWireCodec codec;
+
+  private final MethodDescriptor.Marshaller<Message> protoMarshaller;
+
+  private ProtobufEntityMarshaller(Class<?> type) {
+    this.type = type;
+    this.codec =
+        Message.class.isAssignableFrom(type) ? null : ProtobufWireSerializer.getCodec(type);
+    this.protoMarshaller = ProtoUtils.marshaller(GrpcUtil.createDefaultInstance(type));
+  }
+
+  public static MethodDescriptor.Marshaller<Object> create(Class<?> type) {
+    return new ProtobufEntityMarshaller(type);
+  }
+
+  @Override
+  public InputStream stream(Object value) {
+    if (value instanceof Message) {
+      return protoMarshaller.stream((Message) value);
+    }
+    try {
+      if (codec != null && codec.getPojoClazz() == value.getClass()) {
+        return new PayloadInputStream(codec.encode(value));
+      }
+      return protoMarshaller.stream(SerializerUtil.pojo2Protobuf(value));
+    } catch (ProtobufException e) {
+      throw Status.INTERNAL.withDescription("Could not serialize " + value.getClass())
+          .withCause(e).asRuntimeException();
+    }
+  }
+
+  @Override
+  public Object parse(InputStream stream) {
+    if (codec == null) {
+      Message message = protoMarshaller.parse(stream);
+      try {
+        return SerializerUtil.protobuf2Pojo(message, type);
+      } catch (ProtobufException e) {
+        throw Status.INTERNAL.withDescription("Could not convert protobuf to " + type)
+            .withCause(e).asRuntimeException();
+      }
+    }
+    try {
+      return codec.decode(readFully(stream));
+    } catch (IOException | ProtobufException e) {
+      throw Status.INTERNAL.withDescription("Invalid protobuf byte sequence").withCause(e)
+          .asRuntimeException();
+    }
+  }
+
+  private static byte[] readFully(InputStream stream) throws IOException {
+    try {
+      if (stream instanceof KnownLength) {
+        byte[] data = new byte[stream.available()];
+        ByteStreams.readFully(stream, data);
+        return data;
+      }
+      return ByteStreams.toByteArray(stream);
+    } finally {
+      stream.close();
+    }
+  }
+
+  /**
+   * 长度已知，gRPC写出时可以直接drain到传输层的缓冲区
+   */
+  private static final class PayloadInputStream extends ByteArrayInputStream
+      implements KnownLength, Drainable {
+
+    PayloadInputStream(byte[] data) {
+      super(data);
+    }
+
+    @Override
+    public int drainTo(OutputStream target) throws IOException {
+      int length = count - pos;
+      target.write(buf, pos, length);
+      pos = count;
+      return length;
+    }
+  }
+
+}
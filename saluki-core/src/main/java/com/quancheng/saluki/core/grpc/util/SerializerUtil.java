@@ -12,7 +12,9 @@ import java.lang.reflect.Type;
 import com.google.gson.Gson;
 import com.google.protobuf.Message;
 import com.quancheng.saluki.serializer.IProtobufSerializer;
-import com.quancheng.saluki.serializer.ProtobufSerializer;
+import com.quancheng.saluki.serializer.IProtobufWireCodec;
+import com.quancheng.saluki.serializer.ProtobufConverterSerializer;
+import com.quancheng.saluki.serializer.ProtobufWireSerializer;
 import com.quancheng.saluki.serializer.exception.ProtobufException;
 
 /**
@@ -26,7 +28,7 @@ public final class SerializerUtil {
     private static final IProtobufSerializer serializer;
 
     static {
-        serializer = new ProtobufSerializer();
+        serializer = new ProtobufConverterSerializer();
         gson = new Gson();
     }
 
@@ -50,6 +52,17 @@ public final class SerializerUtil {
         }
     }
 
+    public static int serializedSize(Object arg) throws ProtobufException {
+        if (arg instanceof Message) {
+            return ((Message) arg).getSerializedSize();
+        }
+        IProtobufWireCodec codec = ProtobufWireSerializer.getCodec(arg.getClass());
+        if (codec != null) {
+            return codec.computeSize(arg);
+        }
+        return pojo2Protobuf(arg).getSerializedSize();
+    }
+
     public static String toJson(Object obj) {
         return gson.toJson(obj);
     }
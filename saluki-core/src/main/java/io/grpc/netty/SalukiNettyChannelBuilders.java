@@ -0,0 +1,30 @@
+/*
+ * Copyright (c) 2016, Quancheng-ec.com All right reserved. This software is the confidential and
+ * proprietary information of Quancheng-ec.com ("Confidential Information"). You shall not disclose
+ * such Confidential Information and shall use it only in accordance with the terms of the license
+ * agreement you entered into with Quancheng-ec.com.
+ */
+package io.grpc.netty;
+
+import io.grpc.internal.ClientTransportFactory;
+
+/**
+ * 放在io.grpc.netty包下，以包内访问的方式调用NettyChannelBuilder受保护的buildTransportFactory；
+ * grpc 1.8没有公开这个入口，依赖这个方法签名，升级grpc时需要确认它仍然存在，
+ * 新版本可以改用grpc自带的InternalNettyChannelBuilder.buildTransportFactory
+ *
+ * @author liushiming
+ * @version SalukiNettyChannelBuilders.java, v 0.0.1 2026年10月18日 下午3:12:40 liushiming
+ */
+public final class SalukiNettyChannelBuilders {
+
+  private SalukiNettyChannelBuilders() {}
+
+  /**
+   * 按builder上的tls、keepalive、event loop等配置构建transport工厂
+   */
+  public static ClientTransportFactory buildTransportFactory(NettyChannelBuilder builder) {
+    return builder.buildTransportFactory();
+  }
+
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2016, Quancheng-ec.com All right reserved. This software is the confidential and
+ * proprietary information of Quancheng-ec.com ("Confidential Information"). You shall not disclose
+ * such Confidential Information and shall use it only in accordance with the terms of the license
+ * agreement you entered into with Quancheng-ec.com.
+ */
+package com.quancheng.saluki.core.grpc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.protobuf.StringValue;
+import com.quancheng.saluki.core.grpc.client.internal.GrpcCallOptions;
+import com.quancheng.saluki.serializer.ProtobufAttribute;
+import com.quancheng.saluki.serializer.ProtobufEntity;
+
+import io.grpc.Attributes;
+import io.grpc.CallOptions;
+import io.grpc.ConnectivityState;
+import io.grpc.ConnectivityStateInfo;
+import io.grpc.EquivalentAddressGroup;
+import io.grpc.LoadBalancer;
+import io.grpc.LoadBalancer.Helper;
+import io.grpc.LoadBalancer.PickSubchannelArgs;
+import io.grpc.LoadBalancer.Subchannel;
+import io.grpc.LoadBalancer.SubchannelPicker;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.NameResolver;
+
+/**
+ * 请求POJO中@ProtobufAttribute字段的值作为hash key，同一个值总是落到同一个provider
+ *
+ * @author liushiming
+ * @version GrpcRouteConsistentHashLbFactoryTest.java, v 0.0.1 2026年10月18日 下午9:26:14 liushiming
+ */
+public class GrpcRouteConsistentHashLbFactoryTest {
+
+  private static final String HASH_KEY_NAME = "value";
+
+  private SubchannelPicker picker;
+
+  @Before
+  public void setupPicker() {
+    LoadBalancer loadBalancer =
+        GrpcRouteConsistentHashLbFactory.getInstance().newLoadBalancer(new TestHelper());
+    List<EquivalentAddressGroup> servers = new ArrayList<EquivalentAddressGroup>();
+    for (int i = 0; i < 4; i++) {
+      servers.add(new EquivalentAddressGroup(new InetSocketAddress("10.0.0." + i, 12201)));
+    }
+    loadBalancer.handleResolvedAddressGroups(servers, Attributes.EMPTY);
+    for (Subchannel subchannel : ((GrpcRouteLoadBalancer) loadBalancer).getSubchannels()) {
+      loadBalancer.handleSubchannelState(subchannel,
+          ConnectivityStateInfo.forNonError(ConnectivityState.READY));
+    }
+    assertNotNull(picker);
+  }
+
+  @Test
+  public void testSameFieldValuePicksSameProvider() {
+    Set<Subchannel> picked = new HashSet<Subchannel>();
+    for (int i = 0; i < 20; i++) {
+      HashKeyRequest request = new HashKeyRequest("user-" + i);
+      CallOptions options =
+          GrpcCallOptions.withHashKey(CallOptions.DEFAULT, HASH_KEY_NAME, request);
+      assertEquals("user-" + i, options.getOption(GrpcCallOptions.CALLOPTIONS_HASH_KEY));
+      Subchannel subchannel = pick(options);
+      for (int j = 0; j < 10; j++) {
+        CallOptions again = GrpcCallOptions.withHashKey(CallOptions.DEFAULT, HASH_KEY_NAME,
+            new HashKeyRequest("user-" + i));
+        assertSame(subchannel, pick(again));
+      }
+      picked.add(subchannel);
+    }
+    assertTrue(picked.size() > 1);
+  }
+
+  @Test
+  public void testMessageFieldFallback() {
+    CallOptions pojoOptions = GrpcCallOptions.withHashKey(CallOptions.DEFAULT, HASH_KEY_NAME,
+        new HashKeyRequest("user-1"));
+    CallOptions messageOptions = GrpcCallOptions.withHashKey(CallOptions.DEFAULT, HASH_KEY_NAME,
+        StringValue.newBuilder().setValue("user-1").build());
+    assertEquals("user-1", messageOptions.getOption(GrpcCallOptions.CALLOPTIONS_HASH_KEY));
+    assertSame(pick(pojoOptions), pick(messageOptions));
+  }
+
+  private Subchannel pick(final CallOptions options) {
+    return picker.pickSubchannel(new PickSubchannelArgs() {
+
+      @Override
+      public CallOptions getCallOptions() {
+        return options;
+      }
+
+      @Override
+      public Metadata getHeaders() {
+        return new Metadata();
+      }
+
+      @Override
+      public MethodDescriptor<?, ?> getMethodDescriptor() {
+        return null;
+      }
+    }).getSubchannel();
+  }
+
+  @ProtobufEntity(StringValue.class)
+  public static class HashKeyRequest {
+
+    @ProtobufAttribute
+    private String value;
+
+    public HashKeyRequest(String value) {
+      this.value = value;
+    }
+
+    public String getValue() {
+      return value;
+    }
+
+    public void setValue(String value) {
+      this.value = value;
+    }
+  }
+
+  private class TestHelper extends Helper {
+
+    @Override
+    public Subchannel createSubchannel(final EquivalentAddressGroup addrs,
+        final Attributes attrs) {
+      return new Subchannel() {
+
+        @Override
+        public void shutdown() {}
+
+        @Override
+        public void requestConnection() {}
+
+        @Override
+        public EquivalentAddressGroup getAddresses() {
+          return addrs;
+        }
+
+        @Override
+        public Attributes getAttributes() {
+          return attrs;
+        }
+      };
+    }
+
+    @Override
+    public ManagedChannel createOobChannel(EquivalentAddressGroup eag, String authority) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void updateBalancingState(ConnectivityState newState, SubchannelPicker newPicker) {
+      picker = newPicker;
+    }
+
+    @Override
+    public void runSerialized(Runnable task) {
+      task.run();
+    }
+
+    @Override
+    public NameResolver.Factory getNameResolverFactory() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public String getAuthority() {
+      return "test";
+    }
+  }
+
+}
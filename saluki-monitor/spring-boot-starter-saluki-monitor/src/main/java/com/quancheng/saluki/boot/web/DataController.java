@@ -19,6 +19,9 @@ import org.springframework.web.bind.annotation.RestController;
 import com.google.common.collect.Maps;
 import com.quancheng.saluki.boot.autoconfigure.GrpcProperties;
 import com.quancheng.saluki.core.common.NamedThreadFactory;
+import com.quancheng.saluki.core.grpc.GrpcEngine;
+import com.quancheng.saluki.core.grpc.server.GrpcServerExecutors;
+import com.quancheng.saluki.core.grpc.server.GrpcServerExecutors.MonitoredExecutor;
 import com.quancheng.saluki.core.utils.NetUtils;
 import com.quancheng.saluki.core.utils.Version;
 import com.quancheng.saluki.domain.GrpcInvoke;
@@ -72,6 +75,12 @@ public class DataController {
 
         rows.add(new String[] { "Time", formatter.format(new Date()) });
 
+        rows.add(new String[] { "Grpc_Connections", String.valueOf(GrpcEngine.getClientConnectionCount()) });
+
+        for (MonitoredExecutor executor : GrpcServerExecutors.getExecutors()) {
+            rows.add(new String[] { "Grpc_Executor_" + executor.getName(), executor.toString() });
+        }
+
         Map<String, Object> model = Maps.newHashMap();
         model.put("rows", rows);
         return model;
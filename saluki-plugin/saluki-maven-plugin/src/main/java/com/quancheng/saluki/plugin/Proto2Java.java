@@ -43,13 +43,20 @@ public class Proto2Java extends AbstractMojo {
     )
     private File protocDependenciesPath;
 
+    /**
+     * Generate a static {@code XxxConverter} next to each pojo, used by SerializerUtil instead of reflection.
+     */
+    @Parameter(defaultValue = "false")
+    private boolean    generateConverter;
+
     private List<File> allProtoFile = Lists.newArrayList();
 
     @Override
     public void execute() throws MojoExecutionException, MojoFailureException {
         File deirectory = new File(protoPath);
         listAllProtoFile(deirectory);
-        CommonProto2Java protp2ServicePojo = CommonProto2Java.forConfig(protoPath, buildPath, protocDependenciesPath);
+        CommonProto2Java protp2ServicePojo = CommonProto2Java.forConfig(protoPath, buildPath, protocDependenciesPath,
+                                                                      generateConverter);
         for (File file : allProtoFile) {
             if (file.exists()) {
                 String protoFilePath = file.getPath();
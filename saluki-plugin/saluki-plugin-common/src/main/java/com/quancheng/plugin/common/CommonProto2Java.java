@@ -41,18 +41,30 @@ public class CommonProto2Java {
 
   private final CommandProtoc commondProtoc;
 
+  private final boolean generateConverter;
+
   private Map<String, String> pojoTypes;
 
   private CommonProto2Java(String discoveryRoot, String generatePath,
-      final File protocDependenciesPath) {
+      final File protocDependenciesPath, boolean generateConverter) {
     this.discoveryRoot = discoveryRoot;
     this.generatePath = generatePath;
     this.commondProtoc = CommandProtoc.configProtoPath(discoveryRoot, protocDependenciesPath);
+    this.generateConverter = generateConverter;
   }
 
   public static CommonProto2Java forConfig(String discoveryRoot, String generatePath,
       final File protocDependenciesPath) {
-    return new CommonProto2Java(discoveryRoot, generatePath, protocDependenciesPath);
+    return new CommonProto2Java(discoveryRoot, generatePath, protocDependenciesPath, false);
+  }
+
+  /**
+   * generateConverter为true时，每个POJO及枚举旁边同时生成XxxConverter
+   */
+  public static CommonProto2Java forConfig(String discoveryRoot, String generatePath,
+      final File protocDependenciesPath, boolean generateConverter) {
+    return new CommonProto2Java(discoveryRoot, generatePath, protocDependenciesPath,
+        generateConverter);
   }
 
   public void generateFile(String protoPath) {
@@ -103,9 +115,17 @@ public class CommonProto2Java {
     List<DescriptorProto> messageDescList = Lists.newArrayList(fdp.getMessageTypeList());
     List<ServiceDescriptorProto> serviceDescList = Lists.newArrayList(fdp.getServiceList());
     List<EnumDescriptorProto> enumDescList = Lists.newArrayList(fdp.getEnumTypeList());
+    Map<EnumDescriptorProto, String> enumProtoTypes = Maps.newIdentityHashMap();
+    enumDescList.forEach(temp -> enumProtoTypes.put(temp,
+        javaPackage + "." + outerClassName + "." + temp.getName()));
     messageDescList.stream().filter(temp -> temp.getEnumTypeList() != null)
-        .forEach(temp -> enumDescList.addAll(temp.getEnumTypeList()));
-    printEnum(enumDescList, javaPackage, outerClassName);
+        .forEach(temp -> temp.getEnumTypeList().forEach(nested -> {
+          enumDescList.add(nested);
+          enumProtoTypes.put(nested, javaPackage + "." + outerClassName + "." + temp.getName()
+              + "." + nested.getName());
+        }));
+    printEnum(enumDescList, enumProtoTypes, javaPackage, outerClassName,
+        "proto3".equals(fdp.getSyntax()));
     printMessage(messageDescList, javaPackage, outerClassName);
     printService(serviceDescList, javaPackage);
   }
@@ -139,11 +159,15 @@ public class CommonProto2Java {
       } finally {
         messageFile.print();
       }
+      if (generateConverter) {
+        new PrintMessageConverterFile(messageFile).print();
+      }
     }
   }
 
-  private void printEnum(List<EnumDescriptorProto> enumDescList, String javaPackage,
-      String outerClassName) {
+  private void printEnum(List<EnumDescriptorProto> enumDescList,
+      Map<EnumDescriptorProto, String> enumProtoTypes, String javaPackage,
+      String outerClassName, boolean proto3) {
     for (EnumDescriptorProto enumDesc : enumDescList) {
       String enumClassType = enumDesc.getName();
       String enumPackageName = javaPackage + "." + outerClassName;
@@ -155,6 +179,11 @@ public class CommonProto2Java {
       } finally {
         enumFile.print();
       }
+      if (generateConverter) {
+        PrintEnumConverterFile enumConverterFile = new PrintEnumConverterFile(generatePath,
+            enumPackageName, enumClassType, enumProtoTypes.get(enumDesc), proto3);
+        enumConverterFile.print();
+      }
     }
   }
 
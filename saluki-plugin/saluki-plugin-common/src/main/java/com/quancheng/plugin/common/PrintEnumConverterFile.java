@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2016, Quancheng-ec.com All right reserved. This software is the confidential and
+ * proprietary information of Quancheng-ec.com ("Confidential Information"). You shall not disclose
+ * such Confidential Information and shall use it only in accordance with the terms of the license
+ * agreement you entered into with Quancheng-ec.com.
+ */
+package com.quancheng.plugin.common;
+
+import java.util.List;
+
+import com.google.common.collect.Lists;
+
+/**
+ * 与PrintEnumFile生成的枚举放在同一个包下的XxxConverter，直接通过getNumber()/forNumber()在两种枚举之间转换
+ *
+ * @author liushiming
+ * @version PrintEnumConverterFile.java, v 0.0.1 2026年10月18日 下午2:36:52 liushiming
+ */
+public final class PrintEnumConverterFile extends AbstractPrint {
+
+  private final String protoType;
+
+  private final boolean proto3;
+
+  /**
+   * proto3生成的枚举多一个UNRECOGNIZED，它的getNumber()会抛异常，转换为null
+   */
+  public PrintEnumConverterFile(String fileRootPath, String sourcePackageName, String className,
+      String protoType, boolean proto3) {
+    super(fileRootPath, sourcePackageName, className + PrintMessageConverterFile.CONVERTER_SUFFIX);
+    this.protoType = protoType;
+    this.proto3 = proto3;
+  }
+
+  @Override
+  protected List<String> collectFileData() {
+    String className = super.getClassName();
+    String enumType = className.substring(0,
+        className.length() - PrintMessageConverterFile.CONVERTER_SUFFIX.length());
+    String packageName = super.getSourcePackageName().toLowerCase();
+
+    List<String> fileData = Lists.newArrayList();
+    fileData.add("package " + packageName + ";");
+    fileData.add("");
+    fileData.add("public final class " + className + " {");
+    fileData.add("");
+    fileData.add("    private " + className + "() {");
+    fileData.add("    }");
+    fileData.add("");
+    fileData.add("    public static " + protoType + " toProtobuf(" + enumType + " pojo) {");
+    fileData.add("        if (pojo == null) {");
+    fileData.add("            return null;");
+    fileData.add("        }");
+    fileData.add("        return " + protoType + ".forNumber(pojo.getNumber());");
+    fileData.add("    }");
+    fileData.add("");
+    fileData.add("    public static " + enumType + " fromProtobuf(" + protoType + " protobuf) {");
+    fileData.add("        if (protobuf == null"
+        + (proto3 ? " || protobuf == " + protoType + ".UNRECOGNIZED" : "") + ") {");
+    fileData.add("            return null;");
+    fileData.add("        }");
+    fileData.add("        return " + enumType + ".forNumber(protobuf.getNumber());");
+    fileData.add("    }");
+    fileData.add("");
+    fileData.add("}");
+    return fileData;
+  }
+
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2016, Quancheng-ec.com All right reserved. This software is the confidential and
+ * proprietary information of Quancheng-ec.com ("Confidential Information"). You shall not disclose
+ * such Confidential Information and shall use it only in accordance with the terms of the license
+ * agreement you entered into with Quancheng-ec.com.
+ */
+package com.quancheng.plugin.common;
+
+import java.util.List;
+
+import com.google.common.collect.Lists;
+import com.google.protobuf.DescriptorProtos.FieldDescriptorProto;
+import com.google.protobuf.DescriptorProtos.FieldDescriptorProto.Label;
+import com.google.protobuf.DescriptorProtos.FieldDescriptorProto.Type;
+
+/**
+ * 与PrintMessageFile生成的POJO放在同一个包下的XxxConverter，字段逐个直接拷贝，运行时SerializerUtil优先使用
+ *
+ * @author liushiming
+ * @version PrintMessageConverterFile.java, v 0.0.1 2026年10月18日 下午2:10:26 liushiming
+ */
+public final class PrintMessageConverterFile extends AbstractPrint {
+
+  public static final String CONVERTER_SUFFIX = "Converter";
+
+  private final PrintMessageFile messageFile;
+
+  public PrintMessageConverterFile(PrintMessageFile messageFile) {
+    super(messageFile.fileRootPath, messageFile.getSourcePackageName(),
+        messageFile.getClassName() + CONVERTER_SUFFIX);
+    this.messageFile = messageFile;
+  }
+
+  @Override
+  protected List<String> collectFileData() {
+    String sourePackageName = super.getSourcePackageName();
+    String pojoType = messageFile.getClassName();
+    String protoType = sourePackageName + "." + pojoType;
+    String packageName = sourePackageName.toLowerCase();
+
+    List<String> toProtobufData = Lists.newArrayList();
+    List<String> fromProtobufData = Lists.newArrayList();
+    for (FieldDescriptorProto messageField : messageFile.getMessageFields()) {
+      printField(packageName, messageField, toProtobufData, fromProtobufData);
+    }
+
+    List<String> fileData = Lists.newArrayList();
+    fileData.add("package " + packageName + ";");
+    fileData.add("");
+    fileData.add("import com.quancheng.saluki.serializer.IProtobufConverter;");
+    fileData.add("import com.quancheng.saluki.serializer.exception.ProtobufAnnotationException;");
+    fileData.add("");
+    fileData.add("public final class " + getClassName() + " implements IProtobufConverter {");
+    fileData.add("");
+    fileData.add("    public static " + protoType + " toProtobuf(" + pojoType + " pojo) {");
+    fileData.add("        if (pojo == null) {");
+    fileData.add("            return null;");
+    fileData.add("        }");
+    fileData.add("        " + protoType + ".Builder builder = " + protoType + ".newBuilder();");
+    fileData.addAll(toProtobufData);
+    fileData.add("        return builder.build();");
+    fileData.add("    }");
+    fileData.add("");
+    fileData.add("    public static " + pojoType + " fromProtobuf(" + protoType + " protobuf) {");
+    fileData.add("        if (protobuf == null) {");
+    fileData.add("            return null;");
+    fileData.add("        }");
+    fileData.add("        " + pojoType + " pojo = new " + pojoType + "();");
+    fileData.addAll(fromProtobufData);
+    fileData.add("        return pojo;");
+    fileData.add("    }");
+    fileData.add("");
+    fileData.add("    @Override");
+    fileData.add("    public Object convertToProtobuf(Object sourceObject) throws ProtobufAnnotationException {");
+    fileData.add("        if (sourceObject != null && !(sourceObject instanceof " + pojoType + ")) {");
+    fileData.add("            throw new ProtobufAnnotationException(sourceObject.getClass() + \" is not \" + "
+        + pojoType + ".class);");
+    fileData.add("        }");
+    fileData.add("        return toProtobuf((" + pojoType + ") sourceObject);");
+    fileData.add("    }");
+    fileData.add("");
+    fileData.add("    @Override");
+    fileData.add("    public Object convertFromProtobuf(Object sourceObject) throws ProtobufAnnotationException {");
+    fileData.add("        if (sourceObject != null && !(sourceObject instanceof " + protoType + ")) {");
+    fileData.add("            throw new ProtobufAnnotationException(sourceObject.getClass() + \" is not \" + "
+        + protoType + ".class);");
+    fileData.add("        }");
+    fileData.add("        return fromProtobuf((" + protoType + ") sourceObject);");
+    fileData.add("    }");
+    fileData.add("");
+    fileData.add("}");
+    return fileData;
+  }
+
+  private void printField(String packageName, FieldDescriptorProto messageField,
+      List<String> toProtobufData, List<String> fromProtobufData) {
+    String pojoAccessor = PrintMessageFile.captureName(messageField.getName());
+    String protoAccessor = protobufAccessorName(messageField.getName());
+    String getter = "pojo.get" + pojoAccessor + "()";
+    List<FieldDescriptorProto> mapEntryFields = messageFile.findMapEntryFields(messageField);
+    if (mapEntryFields != null) {
+      String keyType = messageFile.findJavaType(packageName, messageFile.getSourceMessageDesc(),
+          mapEntryFields.get(0));
+      FieldDescriptorProto valueField = mapEntryFields.get(1);
+      String valueType = findJavaType(packageName, valueField);
+      if (keyType == null || valueType == null) {
+        return;
+      }
+      String mapName = messageField.getName() + "Map";
+      String mapType = "java.util.Map<" + keyType + "," + valueType + ">";
+      String hashMapType = "java.util.HashMap<" + keyType + "," + valueType + ">";
+      toProtobufData.add("        if (" + getter + " != null && !" + getter + ".isEmpty()) {");
+      fromProtobufData.add("        " + mapType + " " + mapName + " = new "
+          + hashMapType + "(protobuf.get" + protoAccessor + "Count());");
+      if (isConverted(valueField)) {
+        String valueConverter = valueType + CONVERTER_SUFFIX;
+        toProtobufData.add("            for (java.util.Map.Entry<" + keyType + "," + valueType
+            + "> entry : " + getter + ".entrySet()) {");
+        toProtobufData.add("                builder.put" + protoAccessor + "(entry.getKey(), "
+            + valueConverter + ".toProtobuf(entry.getValue()));");
+        toProtobufData.add("            }");
+        fromProtobufData.add("        for (" + keyType + " key : protobuf.get" + protoAccessor
+            + "Map().keySet()) {");
+        fromProtobufData.add("            " + mapName + ".put(key, " + valueConverter
+            + ".fromProtobuf(protobuf.get" + protoAccessor + "Map().get(key)));");
+        fromProtobufData.add("        }");
+      } else {
+        toProtobufData.add("            builder.putAll" + protoAccessor + "(" + getter + ");");
+        fromProtobufData.add("        " + mapName + ".putAll(protobuf.get"
+            + protoAccessor + "Map());");
+      }
+      toProtobufData.add("        }");
+      fromProtobufData.add("        pojo.set" + pojoAccessor + "(" + mapName + ");");
+      return;
+    }
+    String javaType = findJavaType(packageName, messageField);
+    if (javaType == null) {
+      return;
+    }
+    if (messageField.getLabel() == Label.LABEL_REPEATED) {
+      String listType = "java.util.ArrayList<" + javaType + ">";
+      String listName = messageField.getName() + "List";
+      toProtobufData.add("        if (" + getter + " != null && !" + getter + ".isEmpty()) {");
+      fromProtobufData.add("        if (protobuf.get" + protoAccessor + "Count() > 0) {");
+      if (isConverted(messageField)) {
+        String converter = javaType + CONVERTER_SUFFIX;
+        toProtobufData.add("            for (" + javaType + " value : " + getter + ") {");
+        toProtobufData.add("                builder.add" + protoAccessor + "(" + converter
+            + ".toProtobuf(value));");
+        toProtobufData.add("            }");
+        fromProtobufData.add("            " + listType + " " + listName + " = new "
+            + listType + "(protobuf.get" + protoAccessor + "Count());");
+        fromProtobufData.add("            for (int i = 0; i < protobuf.get" + protoAccessor
+            + "Count(); i++) {");
+        fromProtobufData.add("                " + listName + ".add(" + converter
+            + ".fromProtobuf(protobuf.get" + protoAccessor + "(i)));");
+        fromProtobufData.add("            }");
+        fromProtobufData
+            .add("            pojo.set" + pojoAccessor + "(" + listName + ");");
+      } else {
+        toProtobufData.add("            builder.addAll" + protoAccessor + "(" + getter + ");");
+        fromProtobufData.add("            pojo.set" + pojoAccessor + "(new " + listType
+            + "(protobuf.get" + protoAccessor + "List()));");
+      }
+      toProtobufData.add("        }");
+      fromProtobufData.add("        }");
+      return;
+    }
+    toProtobufData.add("        if (" + getter + " != null) {");
+    if (isConverted(messageField)) {
+      String converter = javaType + CONVERTER_SUFFIX;
+      toProtobufData.add("            builder.set" + protoAccessor + "(" + converter
+          + ".toProtobuf(" + getter + "));");
+      fromProtobufData.add("        pojo.set" + pojoAccessor + "(" + converter
+          + ".fromProtobuf(protobuf.get" + protoAccessor + "()));");
+    } else {
+      toProtobufData.add("            builder.set" + protoAccessor + "(" + getter + ");");
+      fromProtobufData
+          .add("        pojo.set" + pojoAccessor + "(protobuf.get" + protoAccessor + "());");
+    }
+    toProtobufData.add("        }");
+  }
+
+  private String findJavaType(String packageName, FieldDescriptorProto field) {
+    if (isConverted(field)) {
+      return CommonUtils.findPojoTypeFromCache(field.getTypeName(),
+          messageFile.getPojoTypeCache());
+    }
+    return messageFile.findJavaType(packageName, messageFile.getSourceMessageDesc(), field);
+  }
+
+  private static boolean isConverted(FieldDescriptorProto field) {
+    return field.getType() == Type.TYPE_MESSAGE || field.getType() == Type.TYPE_ENUM;
+  }
+
+  /**
+   * 与protoc生成java代码时的命名规则一致：下划线及数字之后的字母大写
+   */
+  private static String protobufAccessorName(String fieldName) {
+    StringBuilder accessor = new StringBuilder(fieldName.length());
+    boolean capitalizeNext = true;
+    for (char c : fieldName.toCharArray()) {
+      if (c >= 'a' && c <= 'z') {
+        accessor.append(capitalizeNext ? Character.toUpperCase(c) : c);
+        capitalizeNext = false;
+      } else if (c >= 'A' && c <= 'Z') {
+        accessor.append(c);
+        capitalizeNext = false;
+      } else if (c >= '0' && c <= '9') {
+        accessor.append(c);
+        capitalizeNext = true;
+      } else {
+        capitalizeNext = true;
+      }
+    }
+    return accessor.toString();
+  }
+
+}
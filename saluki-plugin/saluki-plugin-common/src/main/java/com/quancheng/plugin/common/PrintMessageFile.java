@@ -53,6 +53,18 @@ public final class PrintMessageFile extends AbstractPrint {
     this.sourceMessageDesc = sourceMessageDesc;
   }
 
+  List<FieldDescriptorProto> getMessageFields() {
+    return messageFields;
+  }
+
+  Map<String, String> getPojoTypeCache() {
+    return pojoTypeCache;
+  }
+
+  DescriptorProto getSourceMessageDesc() {
+    return sourceMessageDesc;
+  }
+
   @Override
   protected List<String> collectFileData() {
     String sourePackageName = super.getSourcePackageName();
@@ -119,7 +131,7 @@ public final class PrintMessageFile extends AbstractPrint {
     return packageData;
   }
 
-  private String findJavaType(String packageName, DescriptorProto sourceMessageDesc,
+  String findJavaType(String packageName, DescriptorProto sourceMessageDesc,
       FieldDescriptorProto field) {
     switch (field.getType()) {
       case TYPE_ENUM:
@@ -173,6 +185,22 @@ public final class PrintMessageFile extends AbstractPrint {
     }
   }
 
+  /**
+   * map字段对应的key/value，不是map字段时返回null
+   */
+  List<FieldDescriptorProto> findMapEntryFields(FieldDescriptorProto field) {
+    if (field.getType() != FieldDescriptorProto.Type.TYPE_MESSAGE) {
+      return null;
+    }
+    String fieldType = CommonUtils.findNotIncludePackageType(field.getTypeName());
+    Pair<DescriptorProto, List<FieldDescriptorProto>> nestedFieldPair =
+        transform(sourceMessageDesc).get(fieldType);
+    if (nestedFieldPair == null || nestedFieldPair.getRight().size() != 2) {
+      return null;
+    }
+    return nestedFieldPair.getRight();
+  }
+
   private Map<String, Pair<DescriptorProto, List<FieldDescriptorProto>>> transform(
       DescriptorProto sourceMessageDesc) {
     Map<String, Pair<DescriptorProto, List<FieldDescriptorProto>>> nestedFieldMap =
@@ -189,7 +217,7 @@ public final class PrintMessageFile extends AbstractPrint {
     return nestedFieldMap;
   }
 
-  private String captureName(String name) {
+  static String captureName(String name) {
     char[] cs = name.toCharArray();
     cs[0] -= 32;
     return String.valueOf(cs);
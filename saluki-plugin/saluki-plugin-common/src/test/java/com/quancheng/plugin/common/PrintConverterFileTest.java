@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2016, Quancheng-ec.com All right reserved. This software is the confidential and
+ * proprietary information of Quancheng-ec.com ("Confidential Information"). You shall not disclose
+ * such Confidential Information and shall use it only in accordance with the terms of the license
+ * agreement you entered into with Quancheng-ec.com.
+ */
+package com.quancheng.plugin.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.github.os72.protocjar.Protoc;
+import com.google.common.collect.Lists;
+import com.google.protobuf.Message;
+import com.google.protobuf.TextFormat;
+import com.quancheng.saluki.serializer.IProtobufConverter;
+import com.quancheng.saluki.serializer.internal.AbstractProtobufConverter;
+import com.quancheng.saluki.serializer.internal.ProtobufConverterGenerator;
+
+/**
+ * 用converter_test.proto生成Protobuf类、POJO及XxxConverter并编译，枚举、repeated、map及嵌套消息都要能来回转换；
+ * 同一组POJO也交给serializer运行时生成的Converter转换一遍
+ *
+ * @author liushiming
+ * @version PrintConverterFileTest.java, v 0.0.1 2026年10月18日 下午4:12:38 liushiming
+ */
+public class PrintConverterFileTest {
+
+  private static final String PROTO_TYPE = "com.quancheng.plugin.test.ConverterTest$Order";
+
+  private static final String POJO_PACKAGE = "com.quancheng.plugin.test.convertertest";
+
+  private static File workDir;
+
+  private static URLClassLoader classLoader;
+
+  private static Message order;
+
+  @BeforeClass
+  public static void generate() throws Exception {
+    workDir = Files.createTempDirectory("converter-test").toFile();
+    File sourceDir = new File(workDir, "src");
+    File classesDir = new File(workDir, "classes");
+    sourceDir.mkdirs();
+    classesDir.mkdirs();
+    File protoFile = new File(PrintConverterFileTest.class.getResource("/converter_test.proto")
+        .toURI());
+    String protoRoot = protoFile.getParent();
+    assertEquals(0, Protoc.runProtoc(new String[] {"-I" + protoRoot,
+        "--java_out=" + sourceDir.getAbsolutePath(), protoFile.getAbsolutePath()}));
+    CommonProto2Java.forConfig(protoRoot, sourceDir.getAbsolutePath(),
+        new File(workDir, "protoc-dependencies"), true).generateFile(protoFile.getAbsolutePath());
+
+    List<String> args = Lists.newArrayList("-nowarn", "-encoding", "UTF-8", "-d",
+        classesDir.getAbsolutePath(), "-classpath", System.getProperty("java.class.path"));
+    for (Object source : FileUtils.listFiles(sourceDir, new String[] {"java"}, true)) {
+      args.add(((File) source).getAbsolutePath());
+    }
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    assertEquals(0, compiler.run(null, null, null, args.toArray(new String[args.size()])));
+    classLoader = new URLClassLoader(new URL[] {classesDir.toURI().toURL()},
+        PrintConverterFileTest.class.getClassLoader());
+
+    Message.Builder builder =
+        (Message.Builder) classLoader.loadClass(PROTO_TYPE).getMethod("newBuilder").invoke(null);
+    TextFormat.merge("id: \"order-1\" level: HIGH levels: HIGH levels: LOW"
+        + " levelMap { key: \"a\" value: HIGH } levelMap { key: \"b\" value: LOW }"
+        + " item { name: \"first\" level: HIGH } items { name: \"second\" }"
+        + " items { name: \"third\" level: HIGH }"
+        + " itemMap { key: \"c\" value { name: \"fourth\" level: HIGH } }"
+        + " tags: \"x\" tags: \"y\"", builder);
+    order = builder.build();
+  }
+
+  @AfterClass
+  public static void cleanup() throws Exception {
+    if (classLoader != null) {
+      classLoader.close();
+    }
+    FileUtils.deleteDirectory(workDir);
+  }
+
+  @Test
+  public void testPrecompiledConverter() throws Exception {
+    IProtobufConverter converter = (IProtobufConverter) classLoader
+        .loadClass(POJO_PACKAGE + ".Order" + PrintMessageConverterFile.CONVERTER_SUFFIX)
+        .newInstance();
+    Object pojo = converter.convertFromProtobuf(order);
+    assertEnums(pojo);
+    assertEquals(order, converter.convertToProtobuf(pojo));
+  }
+
+  @Test
+  public void testGeneratedConverter() throws Exception {
+    IProtobufConverter converter =
+        ProtobufConverterGenerator.generate(classLoader.loadClass(POJO_PACKAGE + ".Order"));
+    assertTrue(converter instanceof AbstractProtobufConverter);
+    Object pojo = converter.convertFromProtobuf(order);
+    assertEnums(pojo);
+    assertEquals(order, converter.convertToProtobuf(pojo));
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static void assertEnums(Object pojo) throws Exception {
+    Class levelType = classLoader.loadClass(POJO_PACKAGE + ".Level");
+    Object high = Enum.valueOf(levelType, "HIGH");
+    Object low = Enum.valueOf(levelType, "LOW");
+    assertEquals(high, pojo.getClass().getMethod("getLevel").invoke(pojo));
+    assertEquals(Arrays.asList(high, low),
+        Lists.newArrayList((Collection) pojo.getClass().getMethod("getLevels").invoke(pojo)));
+    assertEquals(low,
+        ((Map) pojo.getClass().getMethod("getLevelMap").invoke(pojo)).get("b"));
+  }
+
+}
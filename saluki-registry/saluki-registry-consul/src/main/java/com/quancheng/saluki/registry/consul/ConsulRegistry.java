@@ -62,13 +62,19 @@ public class ConsulRegistry extends FailbackRegistry {
   }
 
   private ConsulService buildConsulHealthService(GrpcURL url) {
-    return ConsulService.newSalukiService()//
+    ConsulService.Builder builder = ConsulService.newSalukiService()//
         .withAddress(url.getHost())//
         .withPort(Integer.valueOf(url.getPort()).toString())//
         .withName(GrpcURLUtils.toServiceName(url.getGroup()))//
         .withTag(GrpcURLUtils.healthServicePath(url, ThrallRoleType.PROVIDER))//
         .withId(url.getHost() + ":" + url.getPort() + "-" + url.getPath() + "-" + url.getVersion())//
-        .withCheckInterval(Integer.valueOf(ConsulConstants.TTL).toString()).build();
+        .withCheckInterval(Integer.valueOf(ConsulConstants.TTL).toString());
+    // provider的可用区同时以单独的tag注册，便于在consul中按可用区查询
+    String zone = url.getParameter(Constants.ZONE_KEY);
+    if (StringUtils.isNotBlank(zone)) {
+      builder.withTag(Constants.ZONE_KEY + "=" + zone);
+    }
+    return builder.build();
   }
 
   private ConsulEphemralNode buildEphemralNode(GrpcURL url, ThrallRoleType roleType) {
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.quancheng.saluki.serializer;
+
+import com.quancheng.saluki.serializer.exception.ProtobufException;
+
+/**
+ * 直接在ProtobufEntity与Protobuf的字节之间编解码，不创建中间的Message
+ *
+ * @author liushiming
+ * @version IProtobufWireCodec.java, v 0.0.1 2026年10月18日 下午5:20:14 liushiming
+ * @since JDK 1.8
+ */
+public interface IProtobufWireCodec {
+
+  Class<?> getPojoClazz();
+
+  int computeSize(Object pojo) throws ProtobufException;
+
+  byte[] encode(Object pojo) throws ProtobufException;
+
+  Object decode(byte[] data) throws ProtobufException;
+}
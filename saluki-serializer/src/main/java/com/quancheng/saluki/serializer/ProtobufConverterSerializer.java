@@ -0,0 +1,49 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.quancheng.saluki.serializer;
+
+import com.google.protobuf.Message;
+import com.quancheng.saluki.serializer.exception.ProtobufException;
+import com.quancheng.saluki.serializer.internal.ProtobufConverterFactory;
+
+/**
+ * 基于生成的Converter的序列化实现，每个ProtobufEntity第一次使用时生成Converter，无法生成的退回到{@link ProtobufSerializer}
+ *
+ * @author liushiming
+ * @version ProtobufConverterSerializer.java, v 0.0.1 2026年10月18日 上午11:02:45 liushiming
+ * @since JDK 1.8
+ */
+public class ProtobufConverterSerializer implements IProtobufSerializer {
+
+  private final ProtobufConverterFactory converterFactory = ProtobufConverterFactory.getInstance();
+
+  /**
+   * @see com.quancheng.saluki.serializer.IProtobufSerializer#toProtobuf(java.lang.Object)
+   */
+  @Override
+  public Message toProtobuf(Object pojo) throws ProtobufException {
+    return (Message) converterFactory.getConverter(pojo.getClass()).convertToProtobuf(pojo);
+  }
+
+  /**
+   * @see com.quancheng.saluki.serializer.IProtobufSerializer#fromProtobuf(com.google.protobuf.Message,
+   *      java.lang.Class)
+   */
+  @Override
+  public Object fromProtobuf(Message protobuf, Class<? extends Object> pojoClazz)
+      throws ProtobufException {
+    return converterFactory.getConverter(pojoClazz).convertFromProtobuf(protobuf);
+  }
+
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.quancheng.saluki.serializer;
+
+import com.quancheng.saluki.serializer.internal.ProtobufWireCodec;
+
+/**
+ * {@link IProtobufWireCodec}的入口，每个ProtobufEntity第一次使用时生成codec，无法直接编解码的类返回null，由调用方退回到{@link ProtobufConverterSerializer}
+ *
+ * @author liushiming
+ * @version ProtobufWireSerializer.java, v 0.0.1 2026年10月18日 下午5:22:40 liushiming
+ * @since JDK 1.8
+ */
+public final class ProtobufWireSerializer {
+
+  private ProtobufWireSerializer() {
+
+  }
+
+  public static IProtobufWireCodec getCodec(Class<?> pojoClazz) {
+    return ProtobufWireCodec.getCodec(pojoClazz);
+  }
+
+}
@@ -77,6 +77,9 @@ public class Protobuf2PojoHelp {
         return null;
       }
     }
+    if (protobufValue instanceof Map) {
+      protobufValue = convertMapFromProtobufs(field, (Map<?, ?>) protobufValue);
+    }
     if (protobufValue instanceof ProtocolMessageEnum) {
       protobufValue = JReflectionUtils.runStaticMethod(field.getType(), "forNumber",
           ((ProtocolMessageEnum) protobufValue).getNumber());
@@ -137,4 +140,32 @@ public class Protobuf2PojoHelp {
     return newCollectionOfValues;
   }
 
+  /**
+   * map的value为Message或枚举时转换成pojo字段声明的类型
+   */
+  private static Object convertMapFromProtobufs(Field field, Map<?, ?> mapOfProtobufs)
+      throws JException {
+    if (mapOfProtobufs.isEmpty() || !(field.getGenericType() instanceof ParameterizedType)) {
+      return mapOfProtobufs;
+    }
+    final ParameterizedType mapType = (ParameterizedType) field.getGenericType();
+    if (!(mapType.getActualTypeArguments()[1] instanceof Class)) {
+      return mapOfProtobufs;
+    }
+    final Class<?> valueClazzType = (Class<?>) mapType.getActualTypeArguments()[1];
+    final Map<Object, Object> newMapOfValues = new HashMap<>();
+    for (Map.Entry<?, ?> entry : mapOfProtobufs.entrySet()) {
+      Object protobufValue = entry.getValue();
+      if (protobufValue instanceof Message) {
+        protobufValue = serializeFromProtobufEntity((Message) protobufValue, valueClazzType);
+      } else if (protobufValue instanceof ProtocolMessageEnum
+          && !valueClazzType.isInstance(protobufValue)) {
+        protobufValue = JReflectionUtils.runStaticMethod(valueClazzType, "forNumber",
+            ((ProtocolMessageEnum) protobufValue).getNumber());
+      }
+      newMapOfValues.put(entry.getKey(), protobufValue);
+    }
+    return newMapOfValues;
+  }
+
 }
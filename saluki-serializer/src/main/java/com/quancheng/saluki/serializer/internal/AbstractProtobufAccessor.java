@@ -0,0 +1,31 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.quancheng.saluki.serializer.internal;
+
+/**
+ * ProtobufWireCodec按字段下标读写Pojo，生成的子类直接调用getter/setter，生成失败时使用反射的实现
+ *
+ * @author liushiming
+ * @version AbstractProtobufAccessor.java, v 0.0.1 2026年10月18日 下午5:08:31 liushiming
+ * @since JDK 1.8
+ */
+public abstract class AbstractProtobufAccessor {
+
+  public abstract Object newInstance() throws Exception;
+
+  public abstract Object get(Object pojo, int index) throws Exception;
+
+  public abstract void set(Object pojo, int index, Object value) throws Exception;
+
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.quancheng.saluki.serializer.internal;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.protobuf.Message;
+import com.google.protobuf.ProtocolMessageEnum;
+import com.quancheng.saluki.serializer.IProtobufConverter;
+import com.quancheng.saluki.serializer.exception.ProtobufAnnotationException;
+import com.quancheng.saluki.serializer.exception.ProtobufException;
+
+/**
+ * 生成的Converter的基类，子类只需要实现doToProtobuf/doFromProtobuf，集合、Map及嵌套实体的转换由这里的静态方法完成
+ *
+ * @author liushiming
+ * @version AbstractProtobufConverter.java, v 0.0.1 2026年10月18日 上午10:12:36 liushiming
+ * @since JDK 1.8
+ */
+public abstract class AbstractProtobufConverter implements IProtobufConverter {
+
+  private static final Map<Class<?>, Method> ENUM_FORNUMBER_CACHE = new ConcurrentHashMap<>();
+
+  protected final Class<?> pojoClazz;
+
+  protected final Class<?> protobufClazz;
+
+  /**
+   * 生成代码中用到的字段类型（集合元素类型、Map的key/value类型、嵌套实体类型），按生成时的下标访问
+   */
+  protected final Class<?>[] types;
+
+  protected AbstractProtobufConverter(Class<?> pojoClazz, Class<?> protobufClazz,
+      Class<?>[] types) {
+    this.pojoClazz = pojoClazz;
+    this.protobufClazz = protobufClazz;
+    this.types = types;
+  }
+
+  protected abstract Object doToProtobuf(Object pojo) throws Exception;
+
+  protected abstract Object doFromProtobuf(Object protobuf) throws Exception;
+
+  @Override
+  public Object convertToProtobuf(Object sourceObject) throws ProtobufAnnotationException {
+    try {
+      return doToProtobuf(sourceObject);
+    } catch (ProtobufAnnotationException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new ProtobufAnnotationException(
+          "Could not generate Protobuf object for " + pojoClazz + ": " + e, e);
+    }
+  }
+
+  @Override
+  public Object convertFromProtobuf(Object sourceObject) throws ProtobufAnnotationException {
+    if (!protobufClazz.isInstance(sourceObject)) {
+      return ProtobufConverterFactory.getInstance().getReflectiveConverter(pojoClazz)
+          .convertFromProtobuf(sourceObject);
+    }
+    try {
+      return doFromProtobuf(sourceObject);
+    } catch (ProtobufAnnotationException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new ProtobufAnnotationException("Could not generate POJO of type " + pojoClazz
+          + " from Protobuf object " + sourceObject.getClass() + ": " + e, e);
+    }
+  }
+
+  protected static Object toProtobufEntity(Object pojo) throws ProtobufException {
+    if (!ProtobufSerializerUtils.isProtbufEntity(pojo)) {
+      return pojo;
+    }
+    return ProtobufConverterFactory.getInstance().getConverter(pojo.getClass())
+        .convertToProtobuf(pojo);
+  }
+
+  protected static Object fromProtobufEntity(Object protobuf, Class<?> pojoType)
+      throws ProtobufException {
+    if (!(protobuf instanceof Message) || !ProtobufSerializerUtils.isProtbufEntity(pojoType)) {
+      return protobuf;
+    }
+    return ProtobufConverterFactory.getInstance().getConverter(pojoType)
+        .convertFromProtobuf(protobuf);
+  }
+
+  /**
+   * 集合元素转化为Protobuf
+   */
+  protected static Collection<?> convertCollectionToProtobufs(Collection<?> pojos)
+      throws ProtobufException {
+    if (pojos.isEmpty() || !ProtobufSerializerUtils.isProtbufEntity(pojos.iterator().next())) {
+      return pojos;
+    }
+    final Collection<Object> protobufs;
+    if (pojos instanceof Set) {
+      protobufs = new HashSet<>(pojos.size());
+    } else {
+      protobufs = new ArrayList<>(pojos.size());
+    }
+    for (Object pojo : pojos) {
+      protobufs.add(toProtobufEntity(pojo));
+    }
+    return protobufs;
+  }
+
+  /**
+   * Map元素转化为Protobuf
+   */
+  protected static Map<?, ?> convertMapToProtobufs(Map<?, ?> pojos) throws ProtobufException {
+    if (pojos.isEmpty()) {
+      return pojos;
+    }
+    final Map.Entry<?, ?> first = pojos.entrySet().iterator().next();
+    if (!ProtobufSerializerUtils.isProtbufEntity(first.getKey())
+        && !ProtobufSerializerUtils.isProtbufEntity(first.getValue())) {
+      return pojos;
+    }
+    final Map<Object, Object> protobufs = new HashMap<>(pojos.size());
+    for (Map.Entry<?, ?> entry : pojos.entrySet()) {
+      protobufs.put(toProtobufEntity(entry.getKey()), toProtobufEntity(entry.getValue()));
+    }
+    return protobufs;
+  }
+
+  /**
+   * Protobuf集合元素转化为Pojo，枚举按number转化为Pojo中的枚举
+   */
+  protected static ArrayList<Object> convertCollectionFromProtobufs(Collection<?> protobufs,
+      Class<?> elementType) throws ProtobufException {
+    final ArrayList<Object> pojos = new ArrayList<>(protobufs.size());
+    for (Object protobuf : protobufs) {
+      pojos.add(fromProtobufValue(protobuf, elementType));
+    }
+    return pojos;
+  }
+
+  /**
+   * Protobuf Map元素转化为Pojo
+   */
+  protected static HashMap<Object, Object> convertMapFromProtobufs(Map<?, ?> protobufs,
+      Class<?> keyType, Class<?> valueType) throws ProtobufException {
+    final HashMap<Object, Object> pojos = new HashMap<>(protobufs.size());
+    for (Map.Entry<?, ?> entry : protobufs.entrySet()) {
+      pojos.put(fromProtobufValue(entry.getKey(), keyType),
+          fromProtobufValue(entry.getValue(), valueType));
+    }
+    return pojos;
+  }
+
+  private static Object fromProtobufValue(Object protobuf, Class<?> pojoType)
+      throws ProtobufException {
+    // 生成的代码无法从Protobuf getter的泛型确定枚举类型时才会走到这里
+    if (protobuf instanceof ProtocolMessageEnum && pojoType.isEnum()) {
+      return enumForNumber(pojoType, ((ProtocolMessageEnum) protobuf).getNumber());
+    }
+    return fromProtobufEntity(protobuf, pojoType);
+  }
+
+  private static Object enumForNumber(Class<?> enumType, int number) throws ProtobufException {
+    try {
+      Method forNumber = ENUM_FORNUMBER_CACHE.get(enumType);
+      if (forNumber == null) {
+        forNumber = ProtobufConverterGenerator.findForNumber(enumType);
+        if (forNumber == null) {
+          throw new ProtobufException("No static forNumber method found on enum " + enumType);
+        }
+        ENUM_FORNUMBER_CACHE.put(enumType, forNumber);
+      }
+      return forNumber.invoke(null, number);
+    } catch (ProtobufException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new ProtobufException(e);
+    }
+  }
+
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.quancheng.saluki.serializer.internal;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.quancheng.saluki.serializer.IProtobufConverter;
+
+/**
+ * 每个ProtobufEntity类只生成一次Converter，生成失败的类缓存反射的实现；saluki-plugin编译期生成的XxxConverter优先使用；
+ * 生成时只锁住当前的类，不同类的Converter可以并行生成
+ *
+ * @author liushiming
+ * @version ProtobufConverterFactory.java, v 0.0.1 2026年10月18日 上午10:25:03 liushiming
+ * @since JDK 1.8
+ */
+public final class ProtobufConverterFactory {
+
+  private static final Logger log = LoggerFactory.getLogger(ProtobufConverterFactory.class);
+
+  private static final String PRECOMPILED_CONVERTER_SUFFIX = "Converter";
+
+  private static final ProtobufConverterFactory INSTANCE = new ProtobufConverterFactory();
+
+  private final ConcurrentMap<Class<?>, IProtobufConverter> converters =
+      new ConcurrentHashMap<>();
+
+  private final ConcurrentMap<Class<?>, IProtobufConverter> reflectiveConverters =
+      new ConcurrentHashMap<>();
+
+  private final ConcurrentMap<Class<?>, Object> generationLocks = new ConcurrentHashMap<>();
+
+  private ProtobufConverterFactory() {}
+
+  public static ProtobufConverterFactory getInstance() {
+    return INSTANCE;
+  }
+
+  public IProtobufConverter getConverter(Class<?> pojoClazz) {
+    IProtobufConverter converter = converters.get(pojoClazz);
+    if (converter != null) {
+      return converter;
+    }
+    synchronized (generationLock(pojoClazz)) {
+      converter = converters.get(pojoClazz);
+      if (converter == null) {
+        converter = createConverter(pojoClazz);
+        converters.put(pojoClazz, converter);
+      }
+      return converter;
+    }
+  }
+
+  private Object generationLock(Class<?> pojoClazz) {
+    Object lock = generationLocks.get(pojoClazz);
+    if (lock == null) {
+      generationLocks.putIfAbsent(pojoClazz, new Object());
+      lock = generationLocks.get(pojoClazz);
+    }
+    return lock;
+  }
+
+  public IProtobufConverter getReflectiveConverter(Class<?> pojoClazz) {
+    IProtobufConverter converter = reflectiveConverters.get(pojoClazz);
+    if (converter == null) {
+      converter = new ReflectiveProtobufConverter(pojoClazz);
+      IProtobufConverter old = reflectiveConverters.putIfAbsent(pojoClazz, converter);
+      if (old != null) {
+        converter = old;
+      }
+    }
+    return converter;
+  }
+
+  private IProtobufConverter createConverter(Class<?> pojoClazz) {
+    if (ProtobufSerializerUtils.isProtbufEntity(pojoClazz)) {
+      IProtobufConverter precompiled = loadPrecompiledConverter(pojoClazz);
+      if (precompiled != null) {
+        return precompiled;
+      }
+      try {
+        IProtobufConverter converter = ProtobufConverterGenerator.generate(pojoClazz);
+        if (converter != null) {
+          return converter;
+        }
+      } catch (Throwable e) {
+        log.warn("generate protobuf converter for " + pojoClazz.getName()
+            + " failed, fall back to reflection", e);
+      }
+    }
+    return getReflectiveConverter(pojoClazz);
+  }
+
+  private IProtobufConverter loadPrecompiledConverter(Class<?> pojoClazz) {
+    try {
+      Class<?> converterClazz = Class.forName(pojoClazz.getName() + PRECOMPILED_CONVERTER_SUFFIX,
+          true, pojoClazz.getClassLoader());
+      if (IProtobufConverter.class.isAssignableFrom(converterClazz)) {
+        return (IProtobufConverter) converterClazz.newInstance();
+      }
+    } catch (ClassNotFoundException e) {
+      // 没有使用saluki-plugin生成Converter
+    } catch (Throwable e) {
+      log.warn("instantiate precompiled converter for " + pojoClazz.getName()
+          + " failed, use the generated one", e);
+    }
+    return null;
+  }
+
+}
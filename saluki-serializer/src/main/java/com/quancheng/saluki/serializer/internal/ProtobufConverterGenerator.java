@@ -0,0 +1,635 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.quancheng.saluki.serializer.internal;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.protobuf.Message;
+import com.google.protobuf.ProtocolMessageEnum;
+import com.quancheng.saluki.serializer.IProtobufConverter;
+import com.quancheng.saluki.serializer.ProtobufAttribute;
+import com.quancheng.saluki.serializer.exception.ProtobufAnnotationException;
+import com.quancheng.saluki.serializer.utils.JStringUtils;
+
+import javassist.ClassClassPath;
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtNewConstructor;
+import javassist.CtNewMethod;
+import javassist.LoaderClassPath;
+
+/**
+ * 用javassist为ProtobufEntity生成Converter，字段的getter/setter在生成时确定，转换时直接调用而不再走反射
+ *
+ * @author liushiming
+ * @version ProtobufConverterGenerator.java, v 0.0.1 2026年10月18日 上午10:31:17 liushiming
+ * @since JDK 1.8
+ */
+public final class ProtobufConverterGenerator {
+
+  private static final String CONVERTER_SUFFIX = "$$ProtobufConverter";
+
+  private static final String ACCESSOR_SUFFIX = "$$ProtobufAccessor";
+
+  private static final String BASE_CLASS = AbstractProtobufConverter.class.getName();
+
+  private static final String ANNOTATION_EXCEPTION = ProtobufAnnotationException.class.getName();
+
+  private static final String PROTOCOL_MESSAGE_ENUM = ProtocolMessageEnum.class.getName();
+
+  private static final String MAP_ENTRY = typeName(Map.Entry.class);
+
+  /**
+   * JDK 9及以上的MethodHandles.privateLookupIn与Lookup.defineClass，JDK 8上为null
+   */
+  private static final Method PRIVATE_LOOKUP_IN;
+
+  private static final Method LOOKUP_DEFINE_CLASS;
+
+  static {
+    Method privateLookupIn = null;
+    Method defineClass = null;
+    try {
+      privateLookupIn = MethodHandles.class.getMethod("privateLookupIn", Class.class,
+          MethodHandles.Lookup.class);
+      defineClass = MethodHandles.Lookup.class.getMethod("defineClass", byte[].class);
+    } catch (NoSuchMethodException e) {
+      // JDK 8
+    }
+    PRIVATE_LOOKUP_IN = privateLookupIn;
+    LOOKUP_DEFINE_CLASS = defineClass;
+  }
+
+  private ProtobufConverterGenerator() {
+
+  }
+
+  /**
+   * 生成失败时抛出异常，由调用方退回到反射的实现
+   */
+  public static IProtobufConverter generate(Class<?> pojoClazz) throws Exception {
+    final Class<?> protobufClazz = ProtobufSerializerUtils.getProtobufClassFromPojoAnno(pojoClazz);
+    final Map<Field, ProtobufAttribute> protobufFields =
+        ProtobufSerializerUtils.getAllProtbufFields(pojoClazz);
+    if (protobufClazz == null || protobufFields.isEmpty()) {
+      return null;
+    }
+    final int modifiers = pojoClazz.getModifiers();
+    if (!Modifier.isPublic(modifiers) || Modifier.isAbstract(modifiers)
+        || !Modifier.isPublic(protobufClazz.getModifiers())) {
+      return null;
+    }
+    pojoClazz.getConstructor();
+    final Class<?> builderClazz = protobufClazz.getMethod("newBuilder").getReturnType();
+    final List<Class<?>> types = new ArrayList<>();
+    final StringBuilder toProtobuf = new StringBuilder();
+    toProtobuf.append("protected Object doToProtobuf(Object source) throws Exception {\n")//
+        .append(typeName(pojoClazz)).append(" pojo = (").append(typeName(pojoClazz))
+        .append(") source;\n")//
+        .append(typeName(builderClazz)).append(" builder = ").append(typeName(protobufClazz))
+        .append(".newBuilder();\n");
+    final StringBuilder fromProtobuf = new StringBuilder();
+    fromProtobuf.append("protected Object doFromProtobuf(Object source) throws Exception {\n")//
+        .append(typeName(protobufClazz)).append(" protobuf = (").append(typeName(protobufClazz))
+        .append(") source;\n")//
+        .append(typeName(pojoClazz)).append(" pojo = new ").append(typeName(pojoClazz))
+        .append("();\n");
+    int index = 0;
+    for (Map.Entry<Field, ProtobufAttribute> entry : protobufFields.entrySet()) {
+      appendToProtobuf(toProtobuf, pojoClazz, builderClazz, entry.getKey(), entry.getValue(),
+          index);
+      appendFromProtobuf(fromProtobuf, pojoClazz, protobufClazz, entry.getKey(), entry.getValue(),
+          index, types);
+      index++;
+    }
+    toProtobuf.append("return builder.build();\n}");
+    fromProtobuf.append("return pojo;\n}");
+    final Class<?> converterClazz = compile(pojoClazz, protobufClazz, toProtobuf.toString(),
+        fromProtobuf.toString());
+    return (IProtobufConverter) converterClazz
+        .getConstructor(Class.class, Class.class, Class[].class)
+        .newInstance(pojoClazz, protobufClazz, types.toArray(new Class<?>[types.size()]));
+  }
+
+  private static void appendToProtobuf(StringBuilder code, Class<?> pojoClazz,
+      Class<?> builderClazz, Field field, ProtobufAttribute protobufAttribute, int index)
+      throws NoSuchMethodException {
+    final String upperFieldName = JStringUtils.upperCaseFirst(field.getName());
+    final String configedSetter = protobufAttribute.protobufSetter();
+    final Method getter;
+    final boolean required;
+    if (!protobufAttribute.pojoGetter().isEmpty()) {
+      getter = pojoClazz.getMethod(protobufAttribute.pojoGetter());
+      required = false;
+    } else {
+      getter = findPojoGetter(pojoClazz, field);
+      required = protobufAttribute.required();
+    }
+    final Class<?> type = getter.getReturnType();
+    final String value = "v" + index;
+    final String read = "pojo." + getter.getName() + "()";
+    if (type.isPrimitive()) {
+      final String setter = configedSetter.isEmpty() ? "set" + upperFieldName : configedSetter;
+      builderClazz.getMethod(setter, type);
+      code.append("builder.").append(setter).append("(").append(read).append(");\n");
+      return;
+    }
+    code.append(typeName(type)).append(" ").append(value).append(" = ").append(read)
+        .append(";\n");
+    if (required) {
+      code.append("if (").append(value).append(" == null) {\n throw new ")
+          .append(ANNOTATION_EXCEPTION).append("(\"Required field ").append(field.getName())
+          .append(" on class ").append(pojoClazz.getCanonicalName()).append(" is null\");\n}\n");
+    }
+    code.append("if (").append(value).append(" != null) {\n");
+    if (ProtobufSerializerUtils.isProtbufEntity(type)) {
+      final String setter = configedSetter.isEmpty() ? "set" + upperFieldName : configedSetter;
+      final Class<?> messageClazz = ProtobufSerializerUtils.getProtobufClassFromPojoAnno(type);
+      builderClazz.getMethod(setter, messageClazz);
+      code.append("builder.").append(setter).append("((").append(typeName(messageClazz))
+          .append(") ").append(BASE_CLASS).append(".toProtobufEntity(").append(value)
+          .append("));\n");
+    } else if (Collection.class.isAssignableFrom(type)) {
+      final boolean enumElement = typeArgument(field, 0).isEnum();
+      final String setter = (configedSetter.isEmpty() ? "addAll" + upperFieldName : configedSetter)
+          + (enumElement ? "Value" : "");
+      builderClazz.getMethod(setter, Iterable.class);
+      final String values = "c" + index;
+      if (enumElement) {
+        final String iterator = "i" + index;
+        code.append("java.util.ArrayList ").append(values).append(" = new java.util.ArrayList(")
+            .append(value).append(".size());\n")//
+            .append("java.util.Iterator ").append(iterator).append(" = ").append(value)
+            .append(".iterator();\n")//
+            .append("while (").append(iterator).append(".hasNext()) {\n ").append(values)
+            .append(".add(").append(enumToNumber(iterator + ".next()", typeArgument(field, 0)))
+            .append(");\n}\n");
+      } else {
+        code.append("java.util.Collection ").append(values).append(" = ").append(BASE_CLASS)
+            .append(".convertCollectionToProtobufs(").append(value).append(");\n");
+      }
+      code.append("if (!").append(values).append(".isEmpty()) {\n builder.").append(setter)
+          .append("(").append(values).append(");\n}\n");
+    } else if (Map.class.isAssignableFrom(type)) {
+      final boolean enumValue = typeArgument(field, 1).isEnum();
+      final String setter = (configedSetter.isEmpty() ? "putAll" + upperFieldName : configedSetter)
+          + (enumValue ? "Value" : "");
+      builderClazz.getMethod(setter, Map.class);
+      final String values = "m" + index;
+      if (enumValue) {
+        final String iterator = "i" + index;
+        final String entry = "e" + index;
+        code.append("java.util.HashMap ").append(values).append(" = new java.util.HashMap(")
+            .append(value).append(".size());\n")//
+            .append("java.util.Iterator ").append(iterator).append(" = ").append(value)
+            .append(".entrySet().iterator();\n")//
+            .append("while (").append(iterator).append(".hasNext()) {\n")//
+            .append(MAP_ENTRY).append(" ").append(entry).append(" = (").append(MAP_ENTRY)
+            .append(") ").append(iterator).append(".next();\n ").append(values).append(".put(")
+            .append(entry).append(".getKey(), ")
+            .append(enumToNumber(entry + ".getValue()", typeArgument(field, 1)))
+            .append(");\n}\n");
+      } else {
+        code.append("java.util.Map ").append(values).append(" = ").append(BASE_CLASS)
+            .append(".convertMapToProtobufs(").append(value).append(");\n");
+      }
+      code.append("if (!").append(values).append(".isEmpty()) {\n builder.").append(setter)
+          .append("(").append(values).append(");\n}\n");
+    } else if (type.isEnum()) {
+      final String setter =
+          (configedSetter.isEmpty() ? "set" + upperFieldName : configedSetter) + "Value";
+      builderClazz.getMethod(setter, int.class);
+      final Method getNumber = type.getMethod("getNumber");
+      code.append("builder.").append(setter).append("(")
+          .append(unbox(value + ".getNumber()", getNumber.getReturnType())).append(");\n");
+    } else {
+      final String setter = configedSetter.isEmpty() ? "set" + upperFieldName : configedSetter;
+      final Class<?> primitiveType = primitiveType(type);
+      if (primitiveType != null) {
+        builderClazz.getMethod(setter, primitiveType);
+        code.append("builder.").append(setter).append("(").append(unbox(value, type))
+            .append(");\n");
+      } else {
+        findSetter(builderClazz, setter, type);
+        code.append("builder.").append(setter).append("(").append(value).append(");\n");
+      }
+    }
+    code.append("}\n");
+  }
+
+  private static void appendFromProtobuf(StringBuilder code, Class<?> pojoClazz,
+      Class<?> protobufClazz, Field field, ProtobufAttribute protobufAttribute, int index,
+      List<Class<?>> types) throws NoSuchMethodException {
+    final String getterName = ProtobufSerializerUtils.getProtobufGetter(protobufAttribute, field);
+    final String setterName = ProtobufSerializerUtils.getPojoSetter(protobufAttribute, field);
+    final Class<?> fieldType = field.getType();
+    final Method protobufGetter = protobufClazz.getMethod(getterName);
+    final Class<?> protobufType = protobufGetter.getReturnType();
+    final String value = "p" + index;
+    final String read = "protobuf." + getterName + "()";
+    if (Collection.class.isAssignableFrom(fieldType)) {
+      checkType(Collection.class, protobufType, field);
+      findSetter(pojoClazz, setterName, ArrayList.class);
+      final String values = "l" + index;
+      code.append("java.util.Collection ").append(value).append(" = ").append(read)
+          .append(";\n")//
+          .append("if (!").append(value).append(".isEmpty()) {\n");
+      final Class<?> elementType = typeArgument(field, 0);
+      if (elementType.isEnum() && isProtobufEnum(protobufGetter, 0)) {
+        final String iterator = "i" + index;
+        code.append("java.util.ArrayList ").append(values).append(" = new java.util.ArrayList(")
+            .append(value).append(".size());\n")//
+            .append("java.util.Iterator ").append(iterator).append(" = ").append(value)
+            .append(".iterator();\n")//
+            .append("while (").append(iterator).append(".hasNext()) {\n ").append(values)
+            .append(".add(").append(enumForNumber(iterator + ".next()", elementType))
+            .append(");\n}\n");
+      } else {
+        code.append("java.util.ArrayList ").append(values).append(" = ").append(BASE_CLASS)
+            .append(".convertCollectionFromProtobufs(").append(value).append(", types[")
+            .append(addType(types, elementType)).append("]);\n");
+      }
+      code.append("if (!").append(values).append(".isEmpty()) {\n pojo.").append(setterName)
+          .append("(").append(values).append(");\n}\n}\n");
+    } else if (Map.class.isAssignableFrom(fieldType)) {
+      checkType(Map.class, protobufType, field);
+      findSetter(pojoClazz, setterName, HashMap.class);
+      final Class<?> valueType = typeArgument(field, 1);
+      if (valueType.isEnum() && isProtobufEnum(protobufGetter, 1)) {
+        final String values = "m" + index;
+        final String iterator = "i" + index;
+        final String entry = "e" + index;
+        code.append("java.util.Map ").append(value).append(" = ").append(read).append(";\n")//
+            .append("java.util.HashMap ").append(values).append(" = new java.util.HashMap(")
+            .append(value).append(".size());\n")//
+            .append("java.util.Iterator ").append(iterator).append(" = ").append(value)
+            .append(".entrySet().iterator();\n")//
+            .append("while (").append(iterator).append(".hasNext()) {\n")//
+            .append(MAP_ENTRY).append(" ").append(entry).append(" = (").append(MAP_ENTRY)
+            .append(") ").append(iterator).append(".next();\n ").append(values).append(".put(")
+            .append(entry).append(".getKey(), ")
+            .append(enumForNumber(entry + ".getValue()", valueType)).append(");\n}\n")//
+            .append("pojo.").append(setterName).append("(").append(values).append(");\n");
+      } else {
+        code.append("pojo.").append(setterName).append("(").append(BASE_CLASS)
+            .append(".convertMapFromProtobufs(").append(read).append(", types[")
+            .append(addType(types, typeArgument(field, 0))).append("], types[")
+            .append(addType(types, valueType)).append("]));\n");
+      }
+    } else if (fieldType.isEnum()) {
+      checkType(ProtocolMessageEnum.class, protobufType, field);
+      findSetter(pojoClazz, setterName, fieldType);
+      final Method forNumber = findForNumber(fieldType);
+      if (forNumber == null) {
+        throw new NoSuchMethodException(fieldType.getName() + ".forNumber");
+      }
+      final String number = forNumber.getParameterTypes()[0] == int.class
+          ? value + ".getNumber()" : "Integer.valueOf(" + value + ".getNumber())";
+      final String pojoValue = "e" + index;
+      code.append(typeName(protobufType)).append(" ").append(value).append(" = ").append(read)
+          .append(";\n")//
+          .append("if (").append(value).append(" != null) {\n")//
+          .append(typeName(fieldType)).append(" ").append(pojoValue).append(" = ")
+          .append(typeName(fieldType)).append(".forNumber(").append(number).append(");\n")//
+          .append("if (").append(pojoValue).append(" != null) {\n pojo.").append(setterName)
+          .append("(").append(pojoValue).append(");\n}\n}\n");
+    } else if (ProtobufSerializerUtils.isProtbufEntity(fieldType)) {
+      checkType(Message.class, protobufType, field);
+      findSetter(pojoClazz, setterName, fieldType);
+      code.append(typeName(protobufType)).append(" ").append(value).append(" = ").append(read)
+          .append(";\n")//
+          .append("if (").append(value).append(" != null) {\n pojo.").append(setterName)
+          .append("((").append(typeName(fieldType)).append(") ").append(BASE_CLASS)
+          .append(".fromProtobufEntity(").append(value).append(", types[")
+          .append(addType(types, fieldType)).append("]));\n}\n");
+    } else if (protobufType.isPrimitive()) {
+      final Class<?> boxedType = boxedType(protobufType);
+      try {
+        pojoClazz.getMethod(setterName, boxedType);
+        code.append("pojo.").append(setterName).append("(").append(boxedType.getName())
+            .append(".valueOf(").append(read).append("));\n");
+      } catch (NoSuchMethodException e) {
+        pojoClazz.getMethod(setterName, protobufType);
+        code.append("pojo.").append(setterName).append("(").append(read).append(");\n");
+      }
+    } else {
+      if (Collection.class.isAssignableFrom(protobufType)
+          || Map.class.isAssignableFrom(protobufType)
+          || ProtocolMessageEnum.class.isAssignableFrom(protobufType)) {
+        throw new NoSuchMethodException("Unsupported type " + fieldType.getName() + " of field "
+            + field.getName() + " for protobuf type " + protobufType.getName());
+      }
+      findSetter(pojoClazz, setterName, protobufType);
+      code.append(typeName(protobufType)).append(" ").append(value).append(" = ").append(read)
+          .append(";\n")//
+          .append("if (").append(value).append(" != null) {\n pojo.").append(setterName)
+          .append("(").append(value).append(");\n}\n");
+    }
+  }
+
+  /**
+   * 为ProtobufWireCodec生成按下标直接调用getter/setter的Accessor，下标与getters、setters中的位置一致
+   */
+  static AbstractProtobufAccessor generateAccessor(Class<?> pojoClazz, Method[] getters,
+      Method[] setters) throws Exception {
+    final String pojoType = typeName(pojoClazz);
+    final StringBuilder get = new StringBuilder();
+    get.append("public Object get(Object source, int index) throws Exception {\n")//
+        .append(pojoType).append(" pojo = (").append(pojoType).append(") source;\n")//
+        .append("switch (index) {\n");
+    final StringBuilder set = new StringBuilder();
+    set.append("public void set(Object target, int index, Object value) throws Exception {\n")//
+        .append(pojoType).append(" pojo = (").append(pojoType).append(") target;\n")//
+        .append("switch (index) {\n");
+    for (int i = 0; i < getters.length; i++) {
+      get.append("case ").append(i).append(":\n return ")
+          .append(box("pojo." + getters[i].getName() + "()", getters[i].getReturnType()))
+          .append(";\n");
+      set.append("case ").append(i).append(":\n pojo.").append(setters[i].getName()).append("(")
+          .append(cast("value", setters[i].getParameterTypes()[0])).append(");\n return;\n");
+    }
+    get.append("default:\n break;\n}\n")//
+        .append("throw new IllegalArgumentException(String.valueOf(index));\n}");
+    set.append("default:\n break;\n}\n")//
+        .append("throw new IllegalArgumentException(String.valueOf(index));\n}");
+    final String newInstance =
+        "public Object newInstance() throws Exception {\n return new " + pojoType + "();\n}";
+    final ClassPool pool = newClassPool(pojoClazz, AbstractProtobufAccessor.class);
+    final CtClass ctClass = pool.makeClass(pojoClazz.getName() + ACCESSOR_SUFFIX,
+        pool.get(AbstractProtobufAccessor.class.getName()));
+    try {
+      ctClass.addConstructor(CtNewConstructor.defaultConstructor(ctClass));
+      ctClass.addMethod(CtNewMethod.make(newInstance, ctClass));
+      ctClass.addMethod(CtNewMethod.make(get.toString(), ctClass));
+      ctClass.addMethod(CtNewMethod.make(set.toString(), ctClass));
+      return (AbstractProtobufAccessor) defineClass(ctClass, pojoClazz).getConstructor()
+          .newInstance();
+    } finally {
+      ctClass.detach();
+    }
+  }
+
+  private static ClassPool newClassPool(Class<?> pojoClazz, Class<?> baseClazz) {
+    final ClassPool pool = new ClassPool(true);
+    pool.appendClassPath(new ClassClassPath(baseClazz));
+    if (pojoClazz.getClassLoader() != null) {
+      pool.appendClassPath(new LoaderClassPath(pojoClazz.getClassLoader()));
+    }
+    return pool;
+  }
+
+  private static Class<?> compile(Class<?> pojoClazz, Class<?> protobufClazz, String toProtobuf,
+      String fromProtobuf) throws Exception {
+    final ClassPool pool = newClassPool(pojoClazz, AbstractProtobufConverter.class);
+    pool.appendClassPath(new ClassClassPath(protobufClazz));
+    final CtClass ctClass =
+        pool.makeClass(pojoClazz.getName() + CONVERTER_SUFFIX, pool.get(BASE_CLASS));
+    try {
+      final CtClass classType = pool.get(Class.class.getName());
+      final CtClass classArrayType = pool.get(Class[].class.getName());
+      ctClass.addConstructor(CtNewConstructor.make(
+          new CtClass[] {classType, classType, classArrayType}, new CtClass[0],
+          "{super($1, $2, $3);}", ctClass));
+      ctClass.addMethod(CtNewMethod.make(toProtobuf, ctClass));
+      ctClass.addMethod(CtNewMethod.make(fromProtobuf, ctClass));
+      return defineClass(ctClass, pojoClazz);
+    } finally {
+      ctClass.detach();
+    }
+  }
+
+  /**
+   * Converter与pojo在同一个包中；JDK 9及以上通过pojo类的Lookup定义，JDK 16起不能再反射调用ClassLoader.defineClass
+   */
+  private static Class<?> defineClass(CtClass ctClass, Class<?> pojoClazz) throws Exception {
+    if (PRIVATE_LOOKUP_IN == null) {
+      return ctClass.toClass(pojoClazz.getClassLoader(), pojoClazz.getProtectionDomain());
+    }
+    final Object lookup = PRIVATE_LOOKUP_IN.invoke(null, pojoClazz, MethodHandles.lookup());
+    return (Class<?>) LOOKUP_DEFINE_CLASS.invoke(lookup, (Object) ctClass.toBytecode());
+  }
+
+  /**
+   * 与JReflectionUtils.runGetter查找getter的规则保持一致
+   */
+  static Method findPojoGetter(Class<?> pojoClazz, Field field)
+      throws NoSuchMethodException {
+    final String fieldName = field.getName();
+    try {
+      return pojoClazz.getMethod(JStringUtils.GET + JStringUtils.upperCaseFirst(fieldName));
+    } catch (NoSuchMethodException e) {
+      // 继续按照get/is的规则查找
+    }
+    for (Method method : pojoClazz.getMethods()) {
+      final String methodName = method.getName();
+      if (((methodName.startsWith(JStringUtils.GET))
+          && (methodName.length() == (fieldName.length() + JStringUtils.GET.length())))
+          || ((methodName.startsWith(JStringUtils.IS))
+              && (methodName.length() == (fieldName.length() + JStringUtils.IS.length())))) {
+        if (methodName.toLowerCase().endsWith(fieldName.toLowerCase())
+            && method.getParameterTypes().length == 0) {
+          return method;
+        }
+      }
+    }
+    throw new NoSuchMethodException(
+        "No getter found for field " + fieldName + " on class " + pojoClazz.getName());
+  }
+
+  static Method findSetter(Class<?> clazz, String name, Class<?> argType)
+      throws NoSuchMethodException {
+    Method found = null;
+    for (Method method : clazz.getMethods()) {
+      if (!method.getName().equals(name) || Modifier.isStatic(method.getModifiers())
+          || method.getParameterTypes().length != 1
+          || !method.getParameterTypes()[0].isAssignableFrom(argType)) {
+        continue;
+      }
+      if (method.getParameterTypes()[0] == argType) {
+        return method;
+      }
+      if (found != null) {
+        throw new NoSuchMethodException("Ambiguous method " + name + " on class "
+            + clazz.getName() + " for type " + argType.getName());
+      }
+      found = method;
+    }
+    if (found == null) {
+      throw new NoSuchMethodException(clazz.getName() + "." + name + "(" + argType.getName() + ")");
+    }
+    return found;
+  }
+
+  static Method findForNumber(Class<?> enumType) {
+    for (Method method : enumType.getMethods()) {
+      if (method.getName().equals("forNumber") && Modifier.isStatic(method.getModifiers())
+          && method.getParameterTypes().length == 1
+          && (method.getParameterTypes()[0] == int.class
+              || method.getParameterTypes()[0] == Integer.class)
+          && enumType.isAssignableFrom(method.getReturnType())) {
+        return method;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Pojo枚举转number，结果为Integer，直接调用枚举的getNumber()
+   */
+  private static String enumToNumber(String value, Class<?> enumType)
+      throws NoSuchMethodException {
+    final Class<?> numberType = enumType.getMethod("getNumber").getReturnType();
+    final String number = "((" + typeName(enumType) + ") " + value + ").getNumber()";
+    if (numberType == int.class) {
+      return "Integer.valueOf(" + number + ")";
+    }
+    if (numberType != Integer.class) {
+      throw new NoSuchMethodException(enumType.getName() + ".getNumber returns " + numberType);
+    }
+    return number;
+  }
+
+  /**
+   * Protobuf枚举转Pojo枚举，直接调用Pojo枚举的forNumber()
+   */
+  private static String enumForNumber(String value, Class<?> enumType)
+      throws NoSuchMethodException {
+    final Method forNumber = findForNumber(enumType);
+    if (forNumber == null) {
+      throw new NoSuchMethodException(enumType.getName() + ".forNumber");
+    }
+    final String number = "((" + PROTOCOL_MESSAGE_ENUM + ") " + value + ").getNumber()";
+    return typeName(enumType) + ".forNumber("
+        + (forNumber.getParameterTypes()[0] == int.class ? number
+            : "Integer.valueOf(" + number + ")")
+        + ")";
+  }
+
+  /**
+   * Protobuf getter返回的集合元素或Map的value是否声明为Protobuf枚举
+   */
+  private static boolean isProtobufEnum(Method protobufGetter, int index) {
+    final Type genericType = protobufGetter.getGenericReturnType();
+    if (genericType instanceof ParameterizedType) {
+      final Type[] arguments = ((ParameterizedType) genericType).getActualTypeArguments();
+      return arguments.length > index && arguments[index] instanceof Class
+          && ProtocolMessageEnum.class.isAssignableFrom((Class<?>) arguments[index]);
+    }
+    return false;
+  }
+
+  private static void checkType(Class<?> expected, Class<?> protobufType, Field field)
+      throws NoSuchMethodException {
+    if (!expected.isAssignableFrom(protobufType)) {
+      throw new NoSuchMethodException("Unsupported protobuf type " + protobufType.getName()
+          + " for field " + field.getName());
+    }
+  }
+
+  static Class<?> typeArgument(Field field, int index) {
+    final Type genericType = field.getGenericType();
+    if (genericType instanceof ParameterizedType) {
+      final Type[] arguments = ((ParameterizedType) genericType).getActualTypeArguments();
+      if (arguments.length > index && arguments[index] instanceof Class) {
+        return (Class<?>) arguments[index];
+      }
+    }
+    return Object.class;
+  }
+
+  private static int addType(List<Class<?>> types, Class<?> type) {
+    types.add(type);
+    return types.size() - 1;
+  }
+
+  private static String box(String value, Class<?> type) {
+    if (!type.isPrimitive()) {
+      return value;
+    }
+    return boxedType(type).getName() + ".valueOf(" + value + ")";
+  }
+
+  private static String cast(String value, Class<?> type) {
+    if (!type.isPrimitive()) {
+      return "(" + typeName(type) + ") " + value;
+    }
+    return "((" + boxedType(type).getName() + ") " + value + ")." + type.getName() + "Value()";
+  }
+
+  private static String unbox(String value, Class<?> type) {
+    final Class<?> primitiveType = primitiveType(type);
+    if (primitiveType == null) {
+      return value;
+    }
+    return value + "." + primitiveType.getName() + "Value()";
+  }
+
+  static Class<?> primitiveType(Class<?> type) {
+    if (type == Integer.class) {
+      return int.class;
+    } else if (type == Long.class) {
+      return long.class;
+    } else if (type == Boolean.class) {
+      return boolean.class;
+    } else if (type == Double.class) {
+      return double.class;
+    } else if (type == Float.class) {
+      return float.class;
+    } else if (type == Short.class) {
+      return short.class;
+    } else if (type == Byte.class) {
+      return byte.class;
+    } else if (type == Character.class) {
+      return char.class;
+    }
+    return null;
+  }
+
+  static Class<?> boxedType(Class<?> type) {
+    if (type == int.class) {
+      return Integer.class;
+    } else if (type == long.class) {
+      return Long.class;
+    } else if (type == boolean.class) {
+      return Boolean.class;
+    } else if (type == double.class) {
+      return Double.class;
+    } else if (type == float.class) {
+      return Float.class;
+    } else if (type == short.class) {
+      return Short.class;
+    } else if (type == byte.class) {
+      return Byte.class;
+    }
+    return Character.class;
+  }
+
+  private static String typeName(Class<?> type) {
+    if (type.isArray()) {
+      return typeName(type.getComponentType()) + "[]";
+    }
+    return type.getName();
+  }
+
+}
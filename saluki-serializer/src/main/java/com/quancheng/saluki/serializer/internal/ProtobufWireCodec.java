@@ -0,0 +1,1131 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.quancheng.saluki.serializer.internal;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.Descriptors.Descriptor;
+import com.google.protobuf.Descriptors.EnumValueDescriptor;
+import com.google.protobuf.Descriptors.FieldDescriptor;
+import com.google.protobuf.Descriptors.FileDescriptor;
+import com.google.protobuf.ExtensionRegistryLite;
+import com.google.protobuf.Message;
+import com.google.protobuf.WireFormat;
+import com.quancheng.saluki.serializer.IProtobufWireCodec;
+import com.quancheng.saluki.serializer.ProtobufAttribute;
+import com.quancheng.saluki.serializer.exception.ProtobufAnnotationException;
+import com.quancheng.saluki.serializer.exception.ProtobufException;
+
+/**
+ * 按照Protobuf的Descriptor在ProtobufEntity与CodedOutputStream/CodedInputStream之间直接编解码，不再创建中间的Message；
+ * 无法处理的类getCodec返回null，由调用方退回到Converter；字段通过生成的{@link AbstractProtobufAccessor}读写，
+ * 计算长度时读出的字段值按先序缓存下来，写出时不再调用getter
+ *
+ * @author liushiming
+ * @version ProtobufWireCodec.java, v 0.0.1 2026年10月18日 下午4:05:12 liushiming
+ * @since JDK 1.8
+ */
+public final class ProtobufWireCodec implements IProtobufWireCodec {
+
+  private static final Logger log = LoggerFactory.getLogger(ProtobufWireCodec.class);
+
+  private static final ConcurrentMap<Class<?>, ProtobufWireCodec> CODECS =
+      new ConcurrentHashMap<>();
+
+  private static final Set<Class<?>> UNSUPPORTED = ConcurrentHashMap.newKeySet();
+
+  private static final ConcurrentMap<Class<?>, Object> CREATION_LOCKS = new ConcurrentHashMap<>();
+
+  private static final byte[] EMPTY_BYTES = new byte[0];
+
+  private static final int RECURSION_LIMIT = 100;
+
+  private static final int MAX_INDEXED_NUMBER = 1024;
+
+  /**
+   * 解码时标记读到了字段但是值为null（例如未知的枚举值），与没有读到的字段区分
+   */
+  private static final Object NULL_VALUE = new Object();
+
+  private final Class<?> pojoClazz;
+
+  private final AbstractProtobufAccessor accessor;
+
+  private final FieldCodec[] fields;
+
+  private final FieldCodec[] fieldsByNumber;
+
+  /**
+   * fields已按字段编号排好序，accessor中的下标与fields中的位置一致
+   */
+  private ProtobufWireCodec(Class<?> pojoClazz, AbstractProtobufAccessor accessor,
+      FieldCodec[] fields) {
+    this.pojoClazz = pojoClazz;
+    this.accessor = accessor;
+    this.fields = fields;
+    int maxNumber = 0;
+    for (FieldCodec field : fields) {
+      maxNumber = Math.max(maxNumber, field.number);
+    }
+    if (maxNumber <= MAX_INDEXED_NUMBER) {
+      this.fieldsByNumber = new FieldCodec[maxNumber + 1];
+      for (FieldCodec field : fields) {
+        this.fieldsByNumber[field.number] = field;
+      }
+    } else {
+      this.fieldsByNumber = null;
+    }
+  }
+
+  /**
+   * 生成Accessor时只锁住当前的类，同一个类不会重复定义
+   */
+  public static ProtobufWireCodec getCodec(Class<?> pojoClazz) {
+    ProtobufWireCodec codec = CODECS.get(pojoClazz);
+    if (codec != null || UNSUPPORTED.contains(pojoClazz)) {
+      return codec;
+    }
+    synchronized (creationLock(pojoClazz)) {
+      codec = CODECS.get(pojoClazz);
+      if (codec != null || UNSUPPORTED.contains(pojoClazz)) {
+        return codec;
+      }
+      try {
+        codec = create(pojoClazz);
+      } catch (Throwable e) {
+        // 字段无法与Descriptor对应的类走Converter
+        codec = null;
+      }
+      if (codec == null) {
+        UNSUPPORTED.add(pojoClazz);
+        return null;
+      }
+      CODECS.put(pojoClazz, codec);
+      return codec;
+    }
+  }
+
+  private static Object creationLock(Class<?> pojoClazz) {
+    Object lock = CREATION_LOCKS.get(pojoClazz);
+    if (lock == null) {
+      CREATION_LOCKS.putIfAbsent(pojoClazz, new Object());
+      lock = CREATION_LOCKS.get(pojoClazz);
+    }
+    return lock;
+  }
+
+  @Override
+  public Class<?> getPojoClazz() {
+    return pojoClazz;
+  }
+
+  @Override
+  public int computeSize(Object pojo) throws ProtobufException {
+    try {
+      return computeFieldsSize(pojo, new SizeCache());
+    } catch (ProtobufException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new ProtobufException("Could not compute serialized size of " + pojoClazz + ": " + e,
+          e);
+    }
+  }
+
+  @Override
+  public byte[] encode(Object pojo) throws ProtobufException {
+    try {
+      SizeCache sizes = new SizeCache();
+      byte[] data = new byte[computeFieldsSize(pojo, sizes)];
+      CodedOutputStream output = CodedOutputStream.newInstance(data);
+      writeFields(output, sizes);
+      output.checkNoSpaceLeft();
+      return data;
+    } catch (ProtobufException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new ProtobufException("Could not encode " + pojoClazz + ": " + e, e);
+    }
+  }
+
+  @Override
+  public Object decode(byte[] data) throws ProtobufException {
+    return decode(CodedInputStream.newInstance(data));
+  }
+
+  public Object decode(CodedInputStream input) throws ProtobufException {
+    try {
+      Object pojo = readFields(input, 0);
+      input.checkLastTagWas(0);
+      return pojo;
+    } catch (ProtobufException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new ProtobufException("Could not decode " + pojoClazz + ": " + e, e);
+    }
+  }
+
+  private int computeFieldsSize(Object pojo, SizeCache sizes) throws Exception {
+    int size = 0;
+    for (int i = 0; i < fields.length; i++) {
+      Object fieldValue = accessor.get(pojo, i);
+      sizes.addValue(fieldValue);
+      size += fields[i].computeSize(pojo, fieldValue, sizes);
+    }
+    return size;
+  }
+
+  /**
+   * 字段值取自computeFieldsSize时缓存的结果
+   */
+  private void writeFields(CodedOutputStream output, SizeCache sizes) throws Exception {
+    for (FieldCodec field : fields) {
+      field.writeTo(sizes.nextValue(), output, sizes);
+    }
+  }
+
+  private Object readFields(CodedInputStream input, int depth) throws Exception {
+    if (depth >= RECURSION_LIMIT) {
+      throw new ProtobufException(
+          "Protobuf message of " + pojoClazz + " had too many levels of nesting");
+    }
+    Object pojo = accessor.newInstance();
+    Object[] values = new Object[fields.length];
+    while (true) {
+      int tag = input.readTag();
+      if (tag == 0) {
+        break;
+      }
+      FieldCodec field = findField(WireFormat.getTagFieldNumber(tag));
+      if (field == null || !field.read(input, tag, values, depth)) {
+        if (!input.skipField(tag)) {
+          break;
+        }
+      }
+    }
+    for (int i = 0; i < fields.length; i++) {
+      Object fieldValue = fields[i].complete(values[i], depth);
+      if (fieldValue != null) {
+        accessor.set(pojo, i, fieldValue);
+      }
+    }
+    return pojo;
+  }
+
+  private FieldCodec findField(int number) {
+    if (fieldsByNumber != null) {
+      return number < fieldsByNumber.length ? fieldsByNumber[number] : null;
+    }
+    for (FieldCodec field : fields) {
+      if (field.number == number) {
+        return field;
+      }
+    }
+    return null;
+  }
+
+  private static ProtobufWireCodec create(Class<?> pojoClazz) throws Exception {
+    if (!ProtobufSerializerUtils.isProtbufEntity(pojoClazz)) {
+      return null;
+    }
+    int modifiers = pojoClazz.getModifiers();
+    if (!Modifier.isPublic(modifiers) || Modifier.isAbstract(modifiers)) {
+      return null;
+    }
+    Class<?> protobufClazz = ProtobufSerializerUtils.getProtobufClassFromPojoAnno(pojoClazz);
+    Map<Field, ProtobufAttribute> protobufFields =
+        ProtobufSerializerUtils.getAllProtbufFields(pojoClazz);
+    if (protobufClazz == null || protobufFields.isEmpty()) {
+      return null;
+    }
+    Descriptor descriptor = (Descriptor) protobufClazz.getMethod("getDescriptor").invoke(null);
+    List<FieldCodec> fields = new ArrayList<>(protobufFields.size());
+    for (Map.Entry<Field, ProtobufAttribute> entry : protobufFields.entrySet()) {
+      FieldCodec field = FieldCodec.create(pojoClazz, descriptor, entry.getKey(), entry.getValue());
+      if (field == null) {
+        return null;
+      }
+      fields.add(field);
+    }
+    FieldCodec[] sortedFields = fields.toArray(new FieldCodec[fields.size()]);
+    // 与protoc生成的writeTo一致，按字段编号顺序输出
+    Arrays.sort(sortedFields, new Comparator<FieldCodec>() {
+
+      @Override
+      public int compare(FieldCodec o1, FieldCodec o2) {
+        return Integer.compare(o1.number, o2.number);
+      }
+    });
+    Method[] getters = new Method[sortedFields.length];
+    Method[] setters = new Method[sortedFields.length];
+    for (int i = 0; i < sortedFields.length; i++) {
+      sortedFields[i].index = i;
+      getters[i] = sortedFields[i].getter;
+      setters[i] = sortedFields[i].setter;
+    }
+    Constructor<?> constructor = pojoClazz.getConstructor();
+    AbstractProtobufAccessor accessor;
+    try {
+      accessor = ProtobufConverterGenerator.generateAccessor(pojoClazz, getters, setters);
+    } catch (Throwable e) {
+      log.warn("generate protobuf accessor for " + pojoClazz.getName()
+          + " failed, fall back to reflection", e);
+      accessor = new ReflectiveAccessor(constructor, getters, setters);
+    }
+    return new ProtobufWireCodec(pojoClazz, accessor, sortedFields);
+  }
+
+  private static FieldDescriptor findFieldDescriptor(Descriptor descriptor, String fieldName) {
+    FieldDescriptor fieldDescriptor = descriptor.findFieldByName(fieldName);
+    if (fieldDescriptor != null) {
+      return fieldDescriptor;
+    }
+    for (FieldDescriptor candidate : descriptor.getFields()) {
+      if (candidate.getJsonName().equals(fieldName)) {
+        return candidate;
+      }
+    }
+    return null;
+  }
+
+  private static Object invoke(Method method, Object target, Object... args) throws Exception {
+    try {
+      return method.invoke(target, args);
+    } catch (InvocationTargetException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof Exception) {
+        throw (Exception) cause;
+      }
+      throw e;
+    }
+  }
+
+  private static final class ReflectiveAccessor extends AbstractProtobufAccessor {
+
+    private final Constructor<?> constructor;
+
+    private final Method[] getters;
+
+    private final Method[] setters;
+
+    ReflectiveAccessor(Constructor<?> constructor, Method[] getters, Method[] setters) {
+      this.constructor = constructor;
+      this.getters = getters;
+      this.setters = setters;
+    }
+
+    @Override
+    public Object newInstance() throws Exception {
+      return constructor.newInstance();
+    }
+
+    @Override
+    public Object get(Object pojo, int index) throws Exception {
+      return invoke(getters[index], pojo);
+    }
+
+    @Override
+    public void set(Object pojo, int index, Object value) throws Exception {
+      invoke(setters[index], pojo, value);
+    }
+  }
+
+  private static final class FieldCodec {
+
+    private final String name;
+
+    private final int number;
+
+    private final int tagSize;
+
+    private final Method getter;
+
+    private final Method setter;
+
+    private final boolean required;
+
+    private final boolean repeated;
+
+    private final boolean packed;
+
+    /**
+     * proto3中不在oneof里的标量字段，默认值不写出
+     */
+    private final boolean skipDefault;
+
+    private final ValueCodec value;
+
+    /**
+     * 只有map字段有key
+     */
+    private final ValueCodec key;
+
+    /**
+     * 在排好序的fields中的下标，对应Accessor及解码时values中的位置
+     */
+    private int index;
+
+    private FieldCodec(String name, FieldDescriptor descriptor, Method getter, Method setter,
+        boolean required, ValueCodec key, ValueCodec value) {
+      this.name = name;
+      this.number = descriptor.getNumber();
+      this.tagSize = CodedOutputStream.computeTagSize(number);
+      this.getter = getter;
+      this.setter = setter;
+      this.required = required;
+      this.repeated = descriptor.isRepeated();
+      this.packed = descriptor.isPacked();
+      this.skipDefault = descriptor.getFile().getSyntax() == FileDescriptor.Syntax.PROTO3
+          && descriptor.getContainingOneof() == null;
+      this.key = key;
+      this.value = value;
+    }
+
+    static FieldCodec create(Class<?> pojoClazz, Descriptor descriptor, Field field,
+        ProtobufAttribute protobufAttribute) throws Exception {
+      if (!protobufAttribute.protobufGetter().isEmpty()
+          || !protobufAttribute.protobufSetter().isEmpty()) {
+        return null;
+      }
+      FieldDescriptor fieldDescriptor = findFieldDescriptor(descriptor, field.getName());
+      if (fieldDescriptor == null || fieldDescriptor.getType() == FieldDescriptor.Type.GROUP) {
+        return null;
+      }
+      Method getter;
+      boolean required;
+      if (!protobufAttribute.pojoGetter().isEmpty()) {
+        getter = pojoClazz.getMethod(protobufAttribute.pojoGetter());
+        required = false;
+      } else {
+        getter = ProtobufConverterGenerator.findPojoGetter(pojoClazz, field);
+        required = protobufAttribute.required();
+      }
+      String setterName = ProtobufSerializerUtils.getPojoSetter(protobufAttribute, field);
+      Class<?> type = getter.getReturnType();
+      if (fieldDescriptor.isMapField()) {
+        if (!Map.class.isAssignableFrom(type)) {
+          return null;
+        }
+        Descriptor entryDescriptor = fieldDescriptor.getMessageType();
+        ValueCodec key = ValueCodec.create(entryDescriptor.findFieldByNumber(1),
+            ProtobufConverterGenerator.typeArgument(field, 0));
+        ValueCodec value = ValueCodec.create(entryDescriptor.findFieldByNumber(2),
+            ProtobufConverterGenerator.typeArgument(field, 1));
+        if (key == null || value == null) {
+          return null;
+        }
+        Method setter = ProtobufConverterGenerator.findSetter(pojoClazz, setterName, HashMap.class);
+        return new FieldCodec(field.getName(), fieldDescriptor, getter, setter, required, key,
+            value);
+      }
+      if (fieldDescriptor.isRepeated()) {
+        if (!Collection.class.isAssignableFrom(type)) {
+          return null;
+        }
+        ValueCodec value =
+            ValueCodec.create(fieldDescriptor, ProtobufConverterGenerator.typeArgument(field, 0));
+        if (value == null) {
+          return null;
+        }
+        Method setter =
+            ProtobufConverterGenerator.findSetter(pojoClazz, setterName, ArrayList.class);
+        return new FieldCodec(field.getName(), fieldDescriptor, getter, setter, required, null,
+            value);
+      }
+      Class<?> boxedType = type.isPrimitive() ? ProtobufConverterGenerator.boxedType(type) : type;
+      ValueCodec value = ValueCodec.create(fieldDescriptor, boxedType);
+      if (value == null) {
+        return null;
+      }
+      Method setter;
+      Class<?> primitiveType = ProtobufConverterGenerator.primitiveType(value.readType);
+      try {
+        setter = ProtobufConverterGenerator.findSetter(pojoClazz, setterName, value.readType);
+      } catch (NoSuchMethodException e) {
+        if (primitiveType == null) {
+          throw e;
+        }
+        setter = ProtobufConverterGenerator.findSetter(pojoClazz, setterName, primitiveType);
+      }
+      return new FieldCodec(field.getName(), fieldDescriptor, getter, setter, required, null,
+          value);
+    }
+
+    int computeSize(Object pojo, Object fieldValue, SizeCache sizes) throws Exception {
+      if (fieldValue == null) {
+        if (required) {
+          throw new ProtobufAnnotationException("Required field " + name + " on class "
+              + pojo.getClass().getCanonicalName() + " is null");
+        }
+        return 0;
+      }
+      if (key != null) {
+        Map<?, ?> map = (Map<?, ?>) fieldValue;
+        int size = 0;
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+          if (entry.getKey() == null || entry.getValue() == null) {
+            throw new ProtobufException("Map field " + name + " on class "
+                + pojo.getClass().getCanonicalName() + " contains a null key or value");
+          }
+          int index = sizes.reserve();
+          int entrySize = 2 + key.computeSizeNoTag(entry.getKey(), sizes)
+              + value.computeSizeNoTag(entry.getValue(), sizes);
+          sizes.set(index, entrySize);
+          size += tagSize + CodedOutputStream.computeUInt32SizeNoTag(entrySize) + entrySize;
+        }
+        return size;
+      }
+      if (repeated) {
+        Collection<?> values = (Collection<?>) fieldValue;
+        if (values.isEmpty()) {
+          return 0;
+        }
+        if (packed) {
+          int index = sizes.reserve();
+          int dataSize = 0;
+          for (Object element : values) {
+            dataSize += value.computeSizeNoTag(checkElement(pojo, element), sizes);
+          }
+          sizes.set(index, dataSize);
+          return tagSize + CodedOutputStream.computeUInt32SizeNoTag(dataSize) + dataSize;
+        }
+        int size = 0;
+        for (Object element : values) {
+          size += tagSize + value.computeSizeNoTag(checkElement(pojo, element), sizes);
+        }
+        return size;
+      }
+      if (skipDefault && value.isDefault(fieldValue)) {
+        return 0;
+      }
+      return tagSize + value.computeSizeNoTag(fieldValue, sizes);
+    }
+
+    private Object checkElement(Object pojo, Object element) throws ProtobufException {
+      if (element == null) {
+        throw new ProtobufException("Repeated field " + name + " on class "
+            + pojo.getClass().getCanonicalName() + " contains a null element");
+      }
+      return element;
+    }
+
+    void writeTo(Object fieldValue, CodedOutputStream output, SizeCache sizes) throws Exception {
+      if (fieldValue == null) {
+        return;
+      }
+      if (key != null) {
+        Map<?, ?> map = (Map<?, ?>) fieldValue;
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+          output.writeTag(number, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+          output.writeUInt32NoTag(sizes.next());
+          output.writeTag(1, key.wireType);
+          key.writeNoTag(entry.getKey(), output, sizes);
+          output.writeTag(2, value.wireType);
+          value.writeNoTag(entry.getValue(), output, sizes);
+        }
+        return;
+      }
+      if (repeated) {
+        Collection<?> values = (Collection<?>) fieldValue;
+        if (values.isEmpty()) {
+          return;
+        }
+        if (packed) {
+          output.writeTag(number, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+          output.writeUInt32NoTag(sizes.next());
+          for (Object element : values) {
+            value.writeNoTag(element, output, sizes);
+          }
+          return;
+        }
+        for (Object element : values) {
+          output.writeTag(number, value.wireType);
+          value.writeNoTag(element, output, sizes);
+        }
+        return;
+      }
+      if (skipDefault && value.isDefault(fieldValue)) {
+        return;
+      }
+      output.writeTag(number, value.wireType);
+      value.writeNoTag(fieldValue, output, sizes);
+    }
+
+    /**
+     * wire type与字段不一致时返回false，由调用方跳过
+     */
+    @SuppressWarnings("unchecked")
+    boolean read(CodedInputStream input, int tag, Object[] values, int depth) throws Exception {
+      int wireType = WireFormat.getTagWireType(tag);
+      if (key != null) {
+        if (wireType != WireFormat.WIRETYPE_LENGTH_DELIMITED) {
+          return false;
+        }
+        HashMap<Object, Object> map = (HashMap<Object, Object>) values[index];
+        if (map == null) {
+          map = new HashMap<>();
+          values[index] = map;
+        }
+        readEntry(input, map, depth);
+        return true;
+      }
+      if (repeated) {
+        ArrayList<Object> list = (ArrayList<Object>) values[index];
+        if (list == null) {
+          list = new ArrayList<>();
+          values[index] = list;
+        }
+        if (wireType == value.wireType) {
+          list.add(value.read(input, depth));
+          return true;
+        }
+        if (wireType != WireFormat.WIRETYPE_LENGTH_DELIMITED || !value.packable) {
+          return false;
+        }
+        int oldLimit = input.pushLimit(input.readRawVarint32());
+        while (input.getBytesUntilLimit() > 0) {
+          list.add(value.read(input, depth));
+        }
+        input.popLimit(oldLimit);
+        return true;
+      }
+      if (wireType != value.wireType) {
+        return false;
+      }
+      Object fieldValue = value.read(input, depth);
+      values[index] = fieldValue == null ? NULL_VALUE : fieldValue;
+      return true;
+    }
+
+    /**
+     * 返回需要设置到Pojo中的值，null表示不设置
+     */
+    Object complete(Object readValue, int depth) throws Exception {
+      if (key != null) {
+        return readValue != null ? readValue : new HashMap<Object, Object>();
+      }
+      if (repeated) {
+        return readValue;
+      }
+      Object fieldValue = readValue != null ? readValue : value.defaultValue(depth);
+      return fieldValue != NULL_VALUE ? fieldValue : null;
+    }
+
+    private void readEntry(CodedInputStream input, Map<Object, Object> map, int depth)
+        throws Exception {
+      int oldLimit = input.pushLimit(input.readRawVarint32());
+      Object entryKey = null;
+      Object entryValue = null;
+      boolean hasKey = false;
+      boolean hasValue = false;
+      while (true) {
+        int tag = input.readTag();
+        if (tag == 0) {
+          break;
+        }
+        int entryNumber = WireFormat.getTagFieldNumber(tag);
+        int wireType = WireFormat.getTagWireType(tag);
+        if (entryNumber == 1 && wireType == key.wireType) {
+          entryKey = key.read(input, depth);
+          hasKey = true;
+        } else if (entryNumber == 2 && wireType == value.wireType) {
+          entryValue = value.read(input, depth);
+          hasValue = true;
+        } else if (!input.skipField(tag)) {
+          break;
+        }
+      }
+      input.popLimit(oldLimit);
+      map.put(hasKey ? entryKey : key.defaultValue(depth),
+          hasValue ? entryValue : value.defaultValue(depth));
+    }
+
+  }
+
+  private static final class ValueCodec {
+
+    private final FieldDescriptor descriptor;
+
+    private final FieldDescriptor.Type type;
+
+    private final int wireType;
+
+    private final boolean packable;
+
+    /**
+     * 解码后交给Pojo的类型
+     */
+    private final Class<?> readType;
+
+    private final EnumTable enums;
+
+    /**
+     * 嵌套的Message：Pojo中为ProtobufEntity，或者直接使用Protobuf的Message
+     */
+    private final boolean entity;
+
+    private final Message defaultMessage;
+
+    private ValueCodec(FieldDescriptor descriptor, Class<?> readType, EnumTable enums,
+        boolean entity, Message defaultMessage) {
+      this.descriptor = descriptor;
+      this.type = descriptor.getType();
+      this.wireType = descriptor.getLiteType().getWireType();
+      this.packable = descriptor.isPackable();
+      this.readType = readType;
+      this.enums = enums;
+      this.entity = entity;
+      this.defaultMessage = defaultMessage;
+    }
+
+    static ValueCodec create(FieldDescriptor descriptor, Class<?> pojoType) throws Exception {
+      switch (descriptor.getType()) {
+        case DOUBLE:
+          return scalar(descriptor, pojoType, Double.class);
+        case FLOAT:
+          return scalar(descriptor, pojoType, Float.class);
+        case INT64:
+        case UINT64:
+        case FIXED64:
+        case SFIXED64:
+        case SINT64:
+          return scalar(descriptor, pojoType, Long.class);
+        case INT32:
+        case UINT32:
+        case FIXED32:
+        case SFIXED32:
+        case SINT32:
+          return scalar(descriptor, pojoType, Integer.class);
+        case BOOL:
+          return scalar(descriptor, pojoType, Boolean.class);
+        case STRING:
+          return scalar(descriptor, pojoType, String.class);
+        case BYTES:
+          return scalar(descriptor, pojoType, ByteString.class);
+        case ENUM:
+          if (!pojoType.isEnum()) {
+            return null;
+          }
+          Method forNumber = ProtobufConverterGenerator.findForNumber(pojoType);
+          if (forNumber == null) {
+            return null;
+          }
+          return new ValueCodec(descriptor, pojoType, new EnumTable(pojoType, forNumber), false,
+              null);
+        case MESSAGE:
+          if (ProtobufSerializerUtils.isProtbufEntity(pojoType)) {
+            Class<?> protobufClazz = ProtobufSerializerUtils.getProtobufClassFromPojoAnno(pojoType);
+            Message defaultMessage =
+                (Message) protobufClazz.getMethod("getDefaultInstance").invoke(null);
+            if (defaultMessage.getDescriptorForType() != descriptor.getMessageType()) {
+              return null;
+            }
+            return new ValueCodec(descriptor, pojoType, null, true, defaultMessage);
+          }
+          if (Message.class.isAssignableFrom(pojoType)) {
+            Message defaultMessage =
+                (Message) pojoType.getMethod("getDefaultInstance").invoke(null);
+            return new ValueCodec(descriptor, pojoType, null, false, defaultMessage);
+          }
+          return null;
+        default:
+          return null;
+      }
+    }
+
+    private static ValueCodec scalar(FieldDescriptor descriptor, Class<?> pojoType,
+        Class<?> readType) {
+      boolean compatible;
+      if (Number.class.isAssignableFrom(readType)) {
+        compatible = Number.class.isAssignableFrom(pojoType) || pojoType == Object.class;
+      } else {
+        compatible = readType == pojoType || pojoType == Object.class;
+      }
+      if (!compatible) {
+        return null;
+      }
+      return new ValueCodec(descriptor, readType, null, false, null);
+    }
+
+    boolean isDefault(Object value) throws Exception {
+      switch (type) {
+        case DOUBLE:
+          return ((Number) value).doubleValue() == 0D;
+        case FLOAT:
+          return ((Number) value).floatValue() == 0F;
+        case INT64:
+        case UINT64:
+        case FIXED64:
+        case SFIXED64:
+        case SINT64:
+          return ((Number) value).longValue() == 0L;
+        case INT32:
+        case UINT32:
+        case FIXED32:
+        case SFIXED32:
+        case SINT32:
+          return ((Number) value).intValue() == 0;
+        case BOOL:
+          return !((Boolean) value).booleanValue();
+        case STRING:
+          return ((String) value).isEmpty();
+        case BYTES:
+          return ((ByteString) value).isEmpty();
+        case ENUM:
+          return enums.number(value) == 0;
+        default:
+          return false;
+      }
+    }
+
+    int computeSizeNoTag(Object value, SizeCache sizes) throws Exception {
+      switch (type) {
+        case DOUBLE:
+          return CodedOutputStream.computeDoubleSizeNoTag(((Number) value).doubleValue());
+        case FLOAT:
+          return CodedOutputStream.computeFloatSizeNoTag(((Number) value).floatValue());
+        case INT64:
+          return CodedOutputStream.computeInt64SizeNoTag(((Number) value).longValue());
+        case UINT64:
+          return CodedOutputStream.computeUInt64SizeNoTag(((Number) value).longValue());
+        case FIXED64:
+          return CodedOutputStream.computeFixed64SizeNoTag(((Number) value).longValue());
+        case SFIXED64:
+          return CodedOutputStream.computeSFixed64SizeNoTag(((Number) value).longValue());
+        case SINT64:
+          return CodedOutputStream.computeSInt64SizeNoTag(((Number) value).longValue());
+        case INT32:
+          return CodedOutputStream.computeInt32SizeNoTag(((Number) value).intValue());
+        case UINT32:
+          return CodedOutputStream.computeUInt32SizeNoTag(((Number) value).intValue());
+        case FIXED32:
+          return CodedOutputStream.computeFixed32SizeNoTag(((Number) value).intValue());
+        case SFIXED32:
+          return CodedOutputStream.computeSFixed32SizeNoTag(((Number) value).intValue());
+        case SINT32:
+          return CodedOutputStream.computeSInt32SizeNoTag(((Number) value).intValue());
+        case BOOL:
+          return CodedOutputStream.computeBoolSizeNoTag(((Boolean) value).booleanValue());
+        case STRING:
+          return CodedOutputStream.computeStringSizeNoTag((String) value);
+        case BYTES:
+          return CodedOutputStream.computeBytesSizeNoTag((ByteString) value);
+        case ENUM:
+          return CodedOutputStream.computeEnumSizeNoTag(enums.number(value));
+        case MESSAGE:
+          // 嵌套Message的长度在计算时记录下来，写出时按同样的顺序取出
+          int index = sizes.reserve();
+          int size = computeMessageSize(value, sizes);
+          sizes.set(index, size);
+          return CodedOutputStream.computeUInt32SizeNoTag(size) + size;
+        default:
+          throw new ProtobufException("Unsupported protobuf type " + type);
+      }
+    }
+
+    void writeNoTag(Object value, CodedOutputStream output, SizeCache sizes) throws Exception {
+      switch (type) {
+        case DOUBLE:
+          output.writeDoubleNoTag(((Number) value).doubleValue());
+          break;
+        case FLOAT:
+          output.writeFloatNoTag(((Number) value).floatValue());
+          break;
+        case INT64:
+          output.writeInt64NoTag(((Number) value).longValue());
+          break;
+        case UINT64:
+          output.writeUInt64NoTag(((Number) value).longValue());
+          break;
+        case FIXED64:
+          output.writeFixed64NoTag(((Number) value).longValue());
+          break;
+        case SFIXED64:
+          output.writeSFixed64NoTag(((Number) value).longValue());
+          break;
+        case SINT64:
+          output.writeSInt64NoTag(((Number) value).longValue());
+          break;
+        case INT32:
+          output.writeInt32NoTag(((Number) value).intValue());
+          break;
+        case UINT32:
+          output.writeUInt32NoTag(((Number) value).intValue());
+          break;
+        case FIXED32:
+          output.writeFixed32NoTag(((Number) value).intValue());
+          break;
+        case SFIXED32:
+          output.writeSFixed32NoTag(((Number) value).intValue());
+          break;
+        case SINT32:
+          output.writeSInt32NoTag(((Number) value).intValue());
+          break;
+        case BOOL:
+          output.writeBoolNoTag(((Boolean) value).booleanValue());
+          break;
+        case STRING:
+          output.writeStringNoTag((String) value);
+          break;
+        case BYTES:
+          output.writeBytesNoTag((ByteString) value);
+          break;
+        case ENUM:
+          output.writeEnumNoTag(enums.number(value));
+          break;
+        case MESSAGE:
+          output.writeUInt32NoTag(sizes.next());
+          writeMessage(value, output, sizes);
+          break;
+        default:
+          throw new ProtobufException("Unsupported protobuf type " + type);
+      }
+    }
+
+    Object read(CodedInputStream input, int depth) throws Exception {
+      switch (type) {
+        case DOUBLE:
+          return input.readDouble();
+        case FLOAT:
+          return input.readFloat();
+        case INT64:
+          return input.readInt64();
+        case UINT64:
+          return input.readUInt64();
+        case FIXED64:
+          return input.readFixed64();
+        case SFIXED64:
+          return input.readSFixed64();
+        case SINT64:
+          return input.readSInt64();
+        case INT32:
+          return input.readInt32();
+        case UINT32:
+          return input.readUInt32();
+        case FIXED32:
+          return input.readFixed32();
+        case SFIXED32:
+          return input.readSFixed32();
+        case SINT32:
+          return input.readSInt32();
+        case BOOL:
+          return input.readBool();
+        case STRING:
+          return descriptor.getFile().getSyntax() == FileDescriptor.Syntax.PROTO3
+              ? input.readStringRequireUtf8() : input.readString();
+        case BYTES:
+          return input.readBytes();
+        case ENUM:
+          return enums.forNumber(input.readEnum());
+        case MESSAGE:
+          return readMessage(input, depth);
+        default:
+          throw new ProtobufException("Unsupported protobuf type " + type);
+      }
+    }
+
+    /**
+     * 没有读到字段时Pojo中的值，与Converter从Protobuf的默认值转化得到的结果一致
+     */
+    Object defaultValue(int depth) throws Exception {
+      switch (type) {
+        case ENUM:
+          return enums.forNumber(((EnumValueDescriptor) descriptor.getDefaultValue()).getNumber());
+        case MESSAGE:
+          if (!entity) {
+            return defaultMessage;
+          }
+          ProtobufWireCodec codec = ProtobufWireCodec.getCodec(readType);
+          if (codec != null) {
+            return codec.readFields(CodedInputStream.newInstance(EMPTY_BYTES), depth + 1);
+          }
+          return ProtobufConverterFactory.getInstance().getConverter(readType)
+              .convertFromProtobuf(defaultMessage);
+        default:
+          return descriptor.getDefaultValue();
+      }
+    }
+
+    private int computeMessageSize(Object value, SizeCache sizes) throws Exception {
+      if (value instanceof Message) {
+        return ((Message) value).getSerializedSize();
+      }
+      ProtobufWireCodec codec = ProtobufWireCodec.getCodec(value.getClass());
+      if (codec != null) {
+        return codec.computeFieldsSize(value, sizes);
+      }
+      Message message = (Message) ProtobufConverterFactory.getInstance()
+          .getConverter(value.getClass()).convertToProtobuf(value);
+      sizes.addMessage(message);
+      return message.getSerializedSize();
+    }
+
+    private void writeMessage(Object value, CodedOutputStream output, SizeCache sizes)
+        throws Exception {
+      if (value instanceof Message) {
+        ((Message) value).writeTo(output);
+        return;
+      }
+      ProtobufWireCodec codec = ProtobufWireCodec.getCodec(value.getClass());
+      if (codec != null) {
+        codec.writeFields(output, sizes);
+      } else {
+        sizes.nextMessage().writeTo(output);
+      }
+    }
+
+    private Object readMessage(CodedInputStream input, int depth) throws Exception {
+      ProtobufWireCodec codec = entity ? ProtobufWireCodec.getCodec(readType) : null;
+      if (codec == null) {
+        Message.Builder builder = defaultMessage.newBuilderForType();
+        input.readMessage(builder, ExtensionRegistryLite.getEmptyRegistry());
+        if (!entity) {
+          return builder.build();
+        }
+        return ProtobufConverterFactory.getInstance().getConverter(readType)
+            .convertFromProtobuf(builder.build());
+      }
+      int oldLimit = input.pushLimit(input.readRawVarint32());
+      Object pojo = codec.readFields(input, depth + 1);
+      input.checkLastTagWas(0);
+      input.popLimit(oldLimit);
+      return pojo;
+    }
+  }
+
+  /**
+   * 创建codec时算好枚举与number的对应关系，编解码时不再反射调用getNumber/forNumber
+   */
+  private static final class EnumTable {
+
+    /**
+     * 按ordinal存放number，proto3的UNRECOGNIZED没有number，为null
+     */
+    private final Integer[] numbers;
+
+    private final Map<Integer, Object> values = new HashMap<>();
+
+    EnumTable(Class<?> enumType, Method forNumber) throws Exception {
+      Method getNumber = enumType.getMethod("getNumber");
+      Object[] constants = enumType.getEnumConstants();
+      numbers = new Integer[constants.length];
+      for (Object constant : constants) {
+        Integer number;
+        try {
+          number = ((Number) invoke(getNumber, constant)).intValue();
+        } catch (IllegalArgumentException e) {
+          continue;
+        }
+        numbers[((Enum<?>) constant).ordinal()] = number;
+        if (!values.containsKey(number)) {
+          values.put(number, invoke(forNumber, null, number));
+        }
+      }
+    }
+
+    int number(Object value) throws ProtobufException {
+      Integer number = numbers[((Enum<?>) value).ordinal()];
+      if (number == null) {
+        throw new ProtobufException("Can't get the number of an unknown enum value " + value);
+      }
+      return number;
+    }
+
+    /**
+     * 未知的number与forNumber一样返回null
+     */
+    Object forNumber(int number) {
+      return values.get(number);
+    }
+  }
+
+  /**
+   * 计算长度时按先序记录字段值、嵌套Message的长度（以及走Converter得到的Message），写出时按同样的顺序取出
+   */
+  private static final class SizeCache {
+
+    private int[] sizes = new int[8];
+
+    private int count;
+
+    private int position;
+
+    private Object[] values = new Object[16];
+
+    private int valueCount;
+
+    private int valuePosition;
+
+    private List<Message> messages;
+
+    private int messagePosition;
+
+    int reserve() {
+      if (count == sizes.length) {
+        sizes = Arrays.copyOf(sizes, count * 2);
+      }
+      return count++;
+    }
+
+    void set(int index, int size) {
+      sizes[index] = size;
+    }
+
+    int next() {
+      return sizes[position++];
+    }
+
+    void addValue(Object value) {
+      if (valueCount == values.length) {
+        values = Arrays.copyOf(values, valueCount * 2);
+      }
+      values[valueCount++] = value;
+    }
+
+    Object nextValue() {
+      return values[valuePosition++];
+    }
+
+    void addMessage(Message message) {
+      if (messages == null) {
+        messages = new ArrayList<>();
+      }
+      messages.add(message);
+    }
+
+    Message nextMessage() {
+      return messages.get(messagePosition++);
+    }
+  }
+
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.quancheng.saluki.serializer.internal;
+
+import com.google.protobuf.Message;
+import com.quancheng.saluki.serializer.IProtobufConverter;
+import com.quancheng.saluki.serializer.ProtobufSerializer;
+import com.quancheng.saluki.serializer.exception.ProtobufAnnotationException;
+import com.quancheng.saluki.serializer.exception.ProtobufException;
+
+/**
+ * 无法生成Converter的类（字段类型不确定、没有public的无参构造器等）退回到反射的实现
+ *
+ * @author liushiming
+ * @version ReflectiveProtobufConverter.java, v 0.0.1 2026年10月18日 上午10:20:41 liushiming
+ * @since JDK 1.8
+ */
+public class ReflectiveProtobufConverter implements IProtobufConverter {
+
+  private static final ProtobufSerializer SERIALIZER = new ProtobufSerializer();
+
+  private final Class<?> pojoClazz;
+
+  public ReflectiveProtobufConverter(Class<?> pojoClazz) {
+    this.pojoClazz = pojoClazz;
+  }
+
+  @Override
+  public Object convertToProtobuf(Object sourceObject) throws ProtobufAnnotationException {
+    try {
+      return SERIALIZER.toProtobuf(sourceObject);
+    } catch (ProtobufAnnotationException e) {
+      throw e;
+    } catch (ProtobufException e) {
+      throw new ProtobufAnnotationException(e.getMessage(), e);
+    }
+  }
+
+  @Override
+  public Object convertFromProtobuf(Object sourceObject) throws ProtobufAnnotationException {
+    try {
+      return SERIALIZER.fromProtobuf((Message) sourceObject, pojoClazz);
+    } catch (ProtobufAnnotationException e) {
+      throw e;
+    } catch (ProtobufException e) {
+      throw new ProtobufAnnotationException(e.getMessage(), e);
+    }
+  }
+
+}
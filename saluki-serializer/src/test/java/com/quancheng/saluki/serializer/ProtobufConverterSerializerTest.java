@@ -0,0 +1,102 @@
+package com.quancheng.saluki.serializer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import com.quancheng.saluki.serializer.exception.ProtobufException;
+import com.quancheng.saluki.serializer.internal.AbstractProtobufConverter;
+import com.quancheng.saluki.serializer.internal.ProtobufConverterFactory;
+
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class ProtobufConverterSerializerTest {
+
+  private com.quancheng.saluki.serializer.proto.message.Person person;
+
+  private com.quancheng.saluki.serializer.proto.Message.Person protobufPerson;
+
+  private static final ProtobufSerializer REFLECTIVE_SERIALIZER = new ProtobufSerializer();
+
+  private static final ProtobufConverterSerializer SERIALIZER = new ProtobufConverterSerializer();
+
+  @Before
+  public void setupObjects() {
+    // Setup Pojo Address
+    com.quancheng.saluki.serializer.proto.message.Address address =
+        new com.quancheng.saluki.serializer.proto.message.Address();
+    address.setStreet("1 Main St");
+    address.setCity("Foo Ville");
+    address.setStateOrProvince("Bar");
+    address.setPostalCode("J0J 1J1");
+    address.setCountry("Canada");
+    address.setIsCanada(true);
+    Map<String, String> mapTest = new HashMap<String, String>();
+    mapTest.put("123", "123");
+    address.setMapTest(mapTest);
+    address.setPhoneType(com.quancheng.saluki.serializer.proto.message.PhoneType.WORK);
+    // Setup POJO Person
+    person = new com.quancheng.saluki.serializer.proto.message.Person();
+    person.setName("Erick");
+    person.setAge(22);
+    person.setAddress(address);
+    Map<String, com.quancheng.saluki.serializer.proto.message.Address> mapObject =
+        new HashMap<String, com.quancheng.saluki.serializer.proto.message.Address>();
+    mapObject.put("home", address);
+    person.setMapObject(mapObject);
+
+    // Setup Address Protobuf
+    com.quancheng.saluki.serializer.proto.Message.Address protobufAddress =
+        com.quancheng.saluki.serializer.proto.Message.Address.newBuilder().setStreet("1 Main St")
+            .setCity("Foo Ville").setStateOrProvince("Bar").setPostalCode("J0J 1J1")
+            .setCountry("Canada").setIsCanada(true).putMapTest("123", "123")
+            .setPhoneTypeValue(2).build();
+    // Setup Person Protobuf
+    protobufPerson = com.quancheng.saluki.serializer.proto.Message.Person.newBuilder()
+        .setName("Erick").setAge(22).setAddress(protobufAddress)
+        .putMapObject("home", protobufAddress).build();
+  }
+
+  @Test
+  public void test1Generated() {
+    assertTrue(ProtobufConverterFactory.getInstance().getConverter(
+        com.quancheng.saluki.serializer.proto.message.Person.class) instanceof AbstractProtobufConverter);
+    assertTrue(ProtobufConverterFactory.getInstance().getConverter(
+        com.quancheng.saluki.serializer.proto.message.Address.class) instanceof AbstractProtobufConverter);
+  }
+
+  @Test
+  public void test2ToProtobuf() throws ProtobufException {
+    assertEquals(REFLECTIVE_SERIALIZER.toProtobuf(person), SERIALIZER.toProtobuf(person));
+    assertEquals(protobufPerson, SERIALIZER.toProtobuf(person));
+  }
+
+  @Test
+  public void test3FromProtobuf() throws ProtobufException {
+    final com.quancheng.saluki.serializer.proto.message.Person fromProtobuf =
+        (com.quancheng.saluki.serializer.proto.message.Person) SERIALIZER.fromProtobuf(
+            protobufPerson, com.quancheng.saluki.serializer.proto.message.Person.class);
+    assertEquals("Erick", fromProtobuf.getName());
+    assertEquals(Integer.valueOf(22), fromProtobuf.getAge());
+    assertEquals(com.quancheng.saluki.serializer.proto.message.PhoneType.WORK,
+        fromProtobuf.getAddress().getPhoneType());
+    assertEquals("Foo Ville", fromProtobuf.getMapObject().get("home").getCity());
+    assertEquals(protobufPerson, SERIALIZER.toProtobuf(fromProtobuf));
+  }
+
+  @Test
+  public void test4ReflectiveFromProtobuf() throws ProtobufException {
+    final com.quancheng.saluki.serializer.proto.message.Person fromProtobuf =
+        (com.quancheng.saluki.serializer.proto.message.Person) REFLECTIVE_SERIALIZER.fromProtobuf(
+            protobufPerson, com.quancheng.saluki.serializer.proto.message.Person.class);
+    assertEquals("Foo Ville", fromProtobuf.getMapObject().get("home").getCity());
+    assertEquals(protobufPerson, REFLECTIVE_SERIALIZER.toProtobuf(fromProtobuf));
+  }
+
+}
@@ -0,0 +1,111 @@
+package com.quancheng.saluki.serializer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import com.quancheng.saluki.serializer.exception.ProtobufException;
+
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class ProtobufWireCodecTest {
+
+  private com.quancheng.saluki.serializer.proto.message.Person person;
+
+  private com.quancheng.saluki.serializer.proto.Message.Person protobufPerson;
+
+  private static final ProtobufConverterSerializer SERIALIZER = new ProtobufConverterSerializer();
+
+  @Before
+  public void setupObjects() {
+    // Setup Pojo Address
+    com.quancheng.saluki.serializer.proto.message.Address address =
+        new com.quancheng.saluki.serializer.proto.message.Address();
+    address.setStreet("1 Main St");
+    address.setCity("Foo Ville");
+    address.setStateOrProvince("Bar");
+    address.setPostalCode("J0J 1J1");
+    address.setCountry("Canada");
+    address.setIsCanada(true);
+    Map<String, String> mapTest = new HashMap<String, String>();
+    mapTest.put("123", "123");
+    address.setMapTest(mapTest);
+    address.setPhoneType(com.quancheng.saluki.serializer.proto.message.PhoneType.WORK);
+    // Setup POJO Person
+    person = new com.quancheng.saluki.serializer.proto.message.Person();
+    person.setName("Erick");
+    person.setAge(22);
+    person.setAddress(address);
+    Map<String, com.quancheng.saluki.serializer.proto.message.Address> mapObject =
+        new HashMap<String, com.quancheng.saluki.serializer.proto.message.Address>();
+    mapObject.put("home", address);
+    person.setMapObject(mapObject);
+
+    // Setup Address Protobuf
+    com.quancheng.saluki.serializer.proto.Message.Address protobufAddress =
+        com.quancheng.saluki.serializer.proto.Message.Address.newBuilder().setStreet("1 Main St")
+            .setCity("Foo Ville").setStateOrProvince("Bar").setPostalCode("J0J 1J1")
+            .setCountry("Canada").setIsCanada(true).putMapTest("123", "123")
+            .setPhoneTypeValue(2).build();
+    // Setup Person Protobuf
+    protobufPerson = com.quancheng.saluki.serializer.proto.Message.Person.newBuilder()
+        .setName("Erick").setAge(22).setAddress(protobufAddress)
+        .putMapObject("home", protobufAddress).build();
+  }
+
+  @Test
+  public void test1Encode() throws ProtobufException {
+    IProtobufWireCodec codec =
+        ProtobufWireSerializer.getCodec(com.quancheng.saluki.serializer.proto.message.Person.class);
+    assertNotNull(codec);
+    assertArrayEquals(protobufPerson.toByteArray(), codec.encode(person));
+    assertEquals(protobufPerson.getSerializedSize(), codec.computeSize(person));
+  }
+
+  @Test
+  public void test2Decode() throws ProtobufException {
+    IProtobufWireCodec codec =
+        ProtobufWireSerializer.getCodec(com.quancheng.saluki.serializer.proto.message.Person.class);
+    com.quancheng.saluki.serializer.proto.message.Person decoded =
+        (com.quancheng.saluki.serializer.proto.message.Person) codec
+            .decode(protobufPerson.toByteArray());
+    assertEquals("Erick", decoded.getName());
+    assertEquals(Integer.valueOf(22), decoded.getAge());
+    assertEquals(com.quancheng.saluki.serializer.proto.message.PhoneType.WORK,
+        decoded.getAddress().getPhoneType());
+    assertEquals("Foo Ville", decoded.getMapObject().get("home").getCity());
+    assertEquals(protobufPerson, SERIALIZER.toProtobuf(decoded));
+  }
+
+  @Test
+  public void test3DecodeDefaults() throws ProtobufException {
+    com.quancheng.saluki.serializer.proto.Message.Person empty =
+        com.quancheng.saluki.serializer.proto.Message.Person.getDefaultInstance();
+    com.quancheng.saluki.serializer.proto.message.Person decoded =
+        (com.quancheng.saluki.serializer.proto.message.Person) ProtobufWireSerializer
+            .getCodec(com.quancheng.saluki.serializer.proto.message.Person.class)
+            .decode(empty.toByteArray());
+    com.quancheng.saluki.serializer.proto.message.Person converted =
+        (com.quancheng.saluki.serializer.proto.message.Person) SERIALIZER.fromProtobuf(empty,
+            com.quancheng.saluki.serializer.proto.message.Person.class);
+    assertEquals(converted.getName(), decoded.getName());
+    assertEquals(converted.getAge(), decoded.getAge());
+    assertEquals(converted.getAddress().getPhoneType(), decoded.getAddress().getPhoneType());
+    assertEquals(converted.getMapObject(), decoded.getMapObject());
+  }
+
+  @Test(expected = ProtobufException.class)
+  public void test4EncodeNullMapValue() throws ProtobufException {
+    person.getMapObject().put("work", null);
+    ProtobufWireSerializer.getCodec(com.quancheng.saluki.serializer.proto.message.Person.class)
+        .encode(person);
+  }
+
+}
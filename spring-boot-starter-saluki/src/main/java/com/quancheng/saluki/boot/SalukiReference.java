@@ -35,6 +35,16 @@ public @interface SalukiReference {
 
   String[] retryMethods() default {};
 
+  /**
+   * 开启对冲请求的方法，方法需要是幂等的；对冲的方法不再重试
+   */
+  String[] hedgingMethods() default {};
+
+  /**
+   * 第一次调用超过该时间(毫秒)还没有返回时向另一个provider再发一次，0表示按方法观测到的p95延迟
+   */
+  int hedgingDelay() default 0;
+
   boolean async() default true;
 
   boolean fallback() default false;
@@ -46,4 +56,34 @@ public @interface SalukiReference {
 
   int timeOut() default Constants.RPC_ASYNC_DEFAULT_TIMEOUT;
 
+  /**
+   * semaphore：调用线程上的信号量隔离与熔断；hystrix：HystrixCommand线程池隔离
+   */
+  String isolation() default Constants.ISOLATION_SEMAPHORE;
+
+  /**
+   * 单个方法允许的最大并发数，0表示不限制
+   */
+  int maxConcurrent() default 0;
+
+  /**
+   * roundrobin：轮询；p2c：按在途请求数与延迟EWMA从两个随机节点中择优；consistenthash：按hashKey一致性hash
+   */
+  String loadBalance() default Constants.LOADBALANCE_ROUNDROBIN;
+
+  /**
+   * 一致性hash的key，取RpcContext中同名的attachment或请求消息中同名的字段
+   */
+  String hashKey() default Constants.DEFAULT_HASH_KEY;
+
+  /**
+   * 每个provider地址最多建立的连接数，并发升高后才会建立多条连接，同一地址的连接被所有服务引用共用
+   */
+  int connections() default Constants.DEFAULT_CONNECTIONS;
+
+  /**
+   * 调用的优先级，critical、normal、low，provider线程池排队时按优先级与消费方应用加权公平调度
+   */
+  String priority() default Constants.PRIORITY_NORMAL;
+
 }
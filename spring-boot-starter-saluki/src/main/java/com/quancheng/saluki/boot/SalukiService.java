@@ -15,6 +15,8 @@ import java.lang.annotation.Target;
 
 import org.springframework.stereotype.Service;
 
+import com.quancheng.saluki.core.common.Constants;
+
 /**
  * @author shimingliu 2016年12月16日 下午2:00:10
  * @version SalukiService.java, v 0.0.1 2016年12月16日 下午2:00:10 shimingliu
@@ -31,4 +33,24 @@ public @interface SalukiService {
   String group() default "";
 
   String version() default "";
+
+  /**
+   * 业务线程池：shared所有服务共用；dedicated服务独占；virtual每个调用一个虚拟线程(需要JDK支持)；direct在IO线程上执行
+   */
+  String executor() default Constants.EXECUTOR_SHARED;
+
+  /**
+   * dedicated线程池的线程数
+   */
+  int threads() default Constants.DEFAULT_EXECUTOR_THREADS;
+
+  /**
+   * dedicated线程池的队列长度，0表示不排队，-1表示使用默认值
+   */
+  int queues() default -1;
+
+  /**
+   * 各自独占一个线程池的方法，线程数与队列长度同threads、queues
+   */
+  String[] executorMethods() default {};
 }
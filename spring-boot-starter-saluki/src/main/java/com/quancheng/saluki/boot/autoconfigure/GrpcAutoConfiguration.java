@@ -6,6 +6,9 @@
  */
 package com.quancheng.saluki.boot.autoconfigure;
 
+import javax.annotation.PostConstruct;
+
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
@@ -18,6 +21,10 @@ import org.springframework.context.annotation.Configuration;
 import com.quancheng.saluki.boot.SalukiService;
 import com.quancheng.saluki.boot.runner.GrpcReferenceRunner;
 import com.quancheng.saluki.boot.runner.GrpcServiceRunner;
+import com.quancheng.saluki.core.common.Constants;
+import com.quancheng.saluki.core.grpc.GrpcTlsResources;
+import com.quancheng.saluki.core.grpc.GrpcTransportResources;
+import com.quancheng.saluki.core.grpc.server.GrpcServerExecutors;
 
 /**
  * @author shimingliu 2016年12月16日 下午2:12:42
@@ -32,6 +39,24 @@ public class GrpcAutoConfiguration {
   @Autowired
   private GrpcProperties grpcProperties;
 
+  @PostConstruct
+  public void configureTransport() {
+    if (grpcProperties.getWorkerThreads() != 0 || grpcProperties.isNativeTransport()) {
+      GrpcTransportResources.configure(grpcProperties.getWorkerThreads(),
+          grpcProperties.isNativeTransport());
+    }
+    if (StringUtils.isNotBlank(grpcProperties.getSslProvider())) {
+      GrpcTlsResources.configure(grpcProperties.getSslProvider());
+    }
+    if (grpcProperties.getServerThreads() > 0 || grpcProperties.getServerQueues() >= 0) {
+      GrpcServerExecutors.configure(
+          grpcProperties.getServerThreads() > 0 ? grpcProperties.getServerThreads()
+              : Constants.DEFAULT_EXECUTOR_THREADS,
+          grpcProperties.getServerQueues() >= 0 ? grpcProperties.getServerQueues()
+              : Constants.DEFAULT_EXECUTOR_QUEUES);
+    }
+  }
+
   @Bean
   @ConditionalOnBean(value = GrpcProperties.class, annotation = SalukiService.class)
   public GrpcServiceRunner thrallServiceRunner() {
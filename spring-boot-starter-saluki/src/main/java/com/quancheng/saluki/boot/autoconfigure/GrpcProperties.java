@@ -32,6 +32,13 @@ public class GrpcProperties {
 
   private int registryRpcPort;
 
+  /**
+   * 权重与预热时间(毫秒)，0表示使用默认值，预热时间为负数时不预热
+   */
+  private int weight;
+
+  private int warmup;
+
   /**
    * commom
    */
@@ -43,6 +50,39 @@ public class GrpcProperties {
 
   private String registryAddress;
 
+  /**
+   * 所在的可用区/机房，consumer优先调用同一可用区的provider，同区可用节点比例低于zoneThreshold时才跨区
+   */
+  private String zone;
+
+  private double zoneThreshold;
+
+  /**
+   * transport
+   */
+  private int workerThreads;
+
+  private boolean nativeTransport;
+
+  /**
+   * TLS实现，openssl或jdk，不配置时由grpc按classpath自动选择
+   */
+  private String sslProvider;
+
+  /**
+   * 服务端共享业务线程池的线程数与队列长度
+   */
+  private int serverThreads;
+
+  private int serverQueues = -1;
+
+  /**
+   * 服务端自适应并发限制，vegas或不配置，以及limit的上限
+   */
+  private String limiter;
+
+  private int limiterMax;
+
   public String getHost() {
     return host;
   }
@@ -115,4 +155,92 @@ public class GrpcProperties {
     this.version = version;
   }
 
+  public String getZone() {
+    return zone;
+  }
+
+  public void setZone(String zone) {
+    this.zone = zone;
+  }
+
+  public double getZoneThreshold() {
+    return zoneThreshold;
+  }
+
+  public void setZoneThreshold(double zoneThreshold) {
+    this.zoneThreshold = zoneThreshold;
+  }
+
+  public int getWeight() {
+    return weight;
+  }
+
+  public void setWeight(int weight) {
+    this.weight = weight;
+  }
+
+  public int getWarmup() {
+    return warmup;
+  }
+
+  public void setWarmup(int warmup) {
+    this.warmup = warmup;
+  }
+
+  public int getWorkerThreads() {
+    return workerThreads;
+  }
+
+  public void setWorkerThreads(int workerThreads) {
+    this.workerThreads = workerThreads;
+  }
+
+  public boolean isNativeTransport() {
+    return nativeTransport;
+  }
+
+  public void setNativeTransport(boolean nativeTransport) {
+    this.nativeTransport = nativeTransport;
+  }
+
+  public String getSslProvider() {
+    return sslProvider;
+  }
+
+  public void setSslProvider(String sslProvider) {
+    this.sslProvider = sslProvider;
+  }
+
+  public int getServerThreads() {
+    return serverThreads;
+  }
+
+  public void setServerThreads(int serverThreads) {
+    this.serverThreads = serverThreads;
+  }
+
+  public int getServerQueues() {
+    return serverQueues;
+  }
+
+  public void setServerQueues(int serverQueues) {
+    this.serverQueues = serverQueues;
+  }
+
+  public String getLimiter() {
+    return limiter;
+  }
+
+  public void setLimiter(String limiter) {
+    this.limiter = limiter;
+  }
+
+  public int getLimiterMax() {
+    return limiterMax;
+  }
+
+  public void setLimiterMax(int limiterMax) {
+    this.limiterMax = limiterMax;
+  }
+
 }
@@ -131,10 +131,14 @@ public class GrpcReferenceRunner extends InstantiationAwareBeanPostProcessorAdap
       String version = this.getVersion(reference, serviceName, referenceClass);
       rpcReferenceConfig.setVersion(version);
       this.addHaRetries(reference, rpcReferenceConfig);
+      this.addHedging(reference, rpcReferenceConfig);
       this.addFallback(reference, rpcReferenceConfig);
+      this.addIsolation(reference, rpcReferenceConfig);
+      this.addLoadBalance(reference, rpcReferenceConfig);
       this.addRegistyAddress(rpcReferenceConfig);
       this.addAsyncAndTimeOut(reference, rpcReferenceConfig);
       this.addMonitorInterval(rpcReferenceConfig);
+      this.addZone(rpcReferenceConfig);
       this.addHostAndPort(rpcReferenceConfig);
       this.addValidatorGroups(reference, rpcReferenceConfig);
       if (this.isGenericClient(referenceClass)) {
@@ -185,6 +189,13 @@ public class GrpcReferenceRunner extends InstantiationAwareBeanPostProcessorAdap
     }
   }
 
+  private void addZone(RpcReferenceConfig rpcReferenceConfig) {
+    rpcReferenceConfig.setZone(grpcProperties.getZone());
+    if (grpcProperties.getZoneThreshold() > 0) {
+      rpcReferenceConfig.setZoneThreshold(grpcProperties.getZoneThreshold());
+    }
+  }
+
   private void addAsyncAndTimeOut(SalukiReference reference,
       RpcReferenceConfig rpcReferenceConfig) {
     rpcReferenceConfig.setAsync(reference.async());
@@ -219,6 +230,14 @@ public class GrpcReferenceRunner extends InstantiationAwareBeanPostProcessorAdap
     }
   }
 
+  private void addHedging(SalukiReference reference, RpcReferenceConfig rpcReferenceConfig) {
+    if (reference.hedgingMethods().length > 0) {
+      rpcReferenceConfig
+          .setHedgingMethods(new HashSet<String>(Arrays.asList(reference.hedgingMethods())));
+      rpcReferenceConfig.setHedgingDelay(reference.hedgingDelay());
+    }
+  }
+
   private void addFallback(SalukiReference reference, RpcReferenceConfig rpcReferenceConfig) {
     Boolean isEnableFallback = reference.fallback();
     if (isEnableFallback) {
@@ -231,6 +250,20 @@ public class GrpcReferenceRunner extends InstantiationAwareBeanPostProcessorAdap
     }
   }
 
+  private void addIsolation(SalukiReference reference, RpcReferenceConfig rpcReferenceConfig) {
+    rpcReferenceConfig.setIsolation(reference.isolation());
+    if (reference.maxConcurrent() > 0) {
+      rpcReferenceConfig.setMaxConcurrent(reference.maxConcurrent());
+    }
+  }
+
+  private void addLoadBalance(SalukiReference reference, RpcReferenceConfig rpcReferenceConfig) {
+    rpcReferenceConfig.setLoadBalance(reference.loadBalance());
+    rpcReferenceConfig.setHashKey(reference.hashKey());
+    rpcReferenceConfig.setConnections(reference.connections());
+    rpcReferenceConfig.setPriority(reference.priority());
+  }
+
   private String getServiceName(SalukiReference reference, Class<?> referenceClass) {
     String serviceName = reference.service();
     if (StringUtils.isBlank(serviceName)) {
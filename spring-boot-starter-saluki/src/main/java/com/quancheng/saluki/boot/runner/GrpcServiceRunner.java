@@ -73,6 +73,9 @@ public class GrpcServiceRunner implements DisposableBean, CommandLineRunner {
     rpcSerivceConfig.setApplication(applicationName);
     this.addHostAndPort(rpcSerivceConfig);
     rpcSerivceConfig.setMonitorinterval(grpcProperties.getMonitorinterval());
+    this.addWeight(rpcSerivceConfig);
+    rpcSerivceConfig.setZone(grpcProperties.getZone());
+    this.addLimiter(rpcSerivceConfig);
     Collection<Object> instances = getTypedBeansWithAnnotation(SalukiService.class);
     if (instances.size() > 0) {
       try {
@@ -100,7 +103,9 @@ public class GrpcServiceRunner implements DisposableBean, CommandLineRunner {
           }
           for (String realServiceName : serviceNames) {
             rpcSerivceConfig.addServiceDefinition(realServiceName, getGroup(serviceAnnotation),
-                getVersion(serviceAnnotation), instance);
+                getVersion(serviceAnnotation), instance, serviceAnnotation.executor(),
+                serviceAnnotation.threads(), serviceAnnotation.queues(),
+                Sets.newHashSet(serviceAnnotation.executorMethods()));
           }
         }
       } finally {
@@ -128,6 +133,22 @@ public class GrpcServiceRunner implements DisposableBean, CommandLineRunner {
     System.out.println("****************");
   }
 
+  private void addWeight(RpcServiceConfig rpcSerivceConfig) {
+    if (grpcProperties.getWeight() > 0) {
+      rpcSerivceConfig.setWeight(grpcProperties.getWeight());
+    }
+    if (grpcProperties.getWarmup() != 0) {
+      rpcSerivceConfig.setWarmup(Math.max(grpcProperties.getWarmup(), 0));
+    }
+  }
+
+  private void addLimiter(RpcServiceConfig rpcSerivceConfig) {
+    rpcSerivceConfig.setLimiter(grpcProperties.getLimiter());
+    if (grpcProperties.getLimiterMax() > 0) {
+      rpcSerivceConfig.setLimiterMax(grpcProperties.getLimiterMax());
+    }
+  }
+
   private void addHostAndPort(RpcServiceConfig rpcSerivceConfig) {
     rpcSerivceConfig.setRealityRpcPort(getRealityRpcPort());
     rpcSerivceConfig.setRegistryRpcPort(grpcProperties.getRegistryRpcPort());